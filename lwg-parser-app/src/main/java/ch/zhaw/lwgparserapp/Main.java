@@ -1,11 +1,13 @@
 package ch.zhaw.lwgparserapp;
 
+import ch.zhaw.lwgparserapp.startup.Warmup;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 @SpringBootApplication
 public class Main {
     public static void main(String[] args) {
+        Warmup.start();
         SpringApplication.run(Main.class, args);
     }
-}
\ No newline at end of file
+}
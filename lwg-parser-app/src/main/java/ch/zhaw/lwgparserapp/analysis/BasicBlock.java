@@ -0,0 +1,16 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import java.util.List;
+
+/**
+ * A basic block of a GOTO program, a sequence of statements that is only entered at its first statement
+ * and only left after its last one.
+ *
+ * @param id           the index of the block in the control-flow graph
+ * @param start        the index of the first statement of the block
+ * @param end          the index after the last statement of the block
+ * @param successors   the ids of the blocks control can continue in
+ * @param predecessors the ids of the blocks control can come from
+ */
+public record BasicBlock(int id, int start, int end, List<Integer> successors, List<Integer> predecessors) {
+}
@@ -0,0 +1,325 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The control-flow graph of a GOTO program <br>
+ * <p>
+ * The statements are split into {@link BasicBlock basic blocks} at every jump target and after every jump.
+ * The graph knows the dominators of every reachable block and the {@link NaturalLoop natural loops} of the program,
+ * so the interpreter and the compilers can recognise loops and find unreachable statements the same way.
+ * <p>
+ * Blank lines belong to the block they are in. Jumps to unknown markers and the end of the program have no
+ * successor block, as the interpreter reports an error there.
+ */
+public final class ControlFlowGraph {
+    private final List<Statement> statements;
+    private final List<BasicBlock> blocks;
+    private final int[] blockOf;
+    private final int[] immediateDominators;
+    private final List<NaturalLoop> loops;
+
+    private ControlFlowGraph(List<Statement> statements, List<BasicBlock> blocks, int[] blockOf) {
+        this.statements = statements;
+        this.blocks = blocks;
+        this.blockOf = blockOf;
+        this.immediateDominators = computeDominators();
+        this.loops = findLoops();
+    }
+
+    /**
+     * Builds the control-flow graph of a GOTO program.
+     *
+     * @param statements    the statements, with null at blank lines
+     * @param markerLineMap the line of every marker
+     * @return the control-flow graph
+     */
+    public static ControlFlowGraph build(List<Statement> statements, Map<Integer, Integer> markerLineMap) {
+        int size = statements.size();
+        boolean[] leaders = new boolean[size + 1];
+        leaders[0] = true;
+        int[] targets = new int[size];
+        Arrays.fill(targets, -1);
+        for (int index = 0; index < size; index++) {
+            Statement statement = statements.get(index);
+            Integer marker = switch (statement) {
+                case If ifStatement -> ifStatement.gotoMarkerNumber();
+                case Goto gotoStatement -> gotoStatement.markerNumber();
+                case null, default -> null;
+            };
+            Integer line = marker == null ? null : markerLineMap.get(marker);
+            if (line != null && line >= 1 && line <= size) {
+                targets[index] = line - 1;
+                leaders[line - 1] = true;
+            }
+            if (statement instanceof If || statement instanceof Goto || statement instanceof Halt) {
+                leaders[index + 1] = true;
+            }
+        }
+
+        int[] blockOf = new int[size];
+        List<int[]> bounds = new ArrayList<>();
+        for (int index = 0; index < size; index++) {
+            if (leaders[index]) {
+                bounds.add(new int[]{index, index + 1});
+            } else {
+                bounds.getLast()[1] = index + 1;
+            }
+            blockOf[index] = bounds.size() - 1;
+        }
+
+        List<List<Integer>> successors = new ArrayList<>();
+        List<List<Integer>> predecessors = new ArrayList<>();
+        for (int block = 0; block < bounds.size(); block++) {
+            successors.add(new ArrayList<>());
+            predecessors.add(new ArrayList<>());
+        }
+        for (int block = 0; block < bounds.size(); block++) {
+            int end = bounds.get(block)[1];
+            int last = lastStatement(statements, bounds.get(block)[0], end);
+            Statement statement = last < 0 ? null : statements.get(last);
+            boolean fallsThrough = !(statement instanceof Goto) && !(statement instanceof Halt);
+            if (last >= 0 && targets[last] >= 0) {
+                addEdge(successors, predecessors, block, blockOf[targets[last]]);
+            }
+            if (fallsThrough && end < size) {
+                addEdge(successors, predecessors, block, blockOf[end]);
+            }
+        }
+
+        List<BasicBlock> blocks = new ArrayList<>(bounds.size());
+        for (int block = 0; block < bounds.size(); block++) {
+            blocks.add(new BasicBlock(block, bounds.get(block)[0], bounds.get(block)[1],
+                    List.copyOf(successors.get(block)), List.copyOf(predecessors.get(block))));
+        }
+        return new ControlFlowGraph(statements, List.copyOf(blocks), blockOf);
+    }
+
+    /**
+     * Returns the statements the graph was built from.
+     *
+     * @return the statements, with null at blank lines
+     */
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Returns the basic blocks in program order, the first block is the entry.
+     *
+     * @return the basic blocks
+     */
+    public List<BasicBlock> getBlocks() {
+        return blocks;
+    }
+
+    /**
+     * Returns the block containing a statement.
+     *
+     * @param index the index of the statement
+     * @return the block
+     */
+    public BasicBlock blockAt(int index) {
+        return blocks.get(blockOf[index]);
+    }
+
+    /**
+     * Checks if a block can be reached from the start of the program.
+     *
+     * @param block the id of the block
+     * @return true if the block is reachable
+     */
+    public boolean isReachable(int block) {
+        return immediateDominators[block] >= 0;
+    }
+
+    /**
+     * Returns the immediate dominator of a block, the last block every path from the entry passes before it.
+     *
+     * @param block the id of the block
+     * @return the id of the immediate dominator, the entry for the entry itself and -1 for unreachable blocks
+     */
+    public int getImmediateDominator(int block) {
+        return immediateDominators[block];
+    }
+
+    /**
+     * Checks if every path from the entry to a block passes another block.
+     *
+     * @param dominator the id of the dominating block
+     * @param block     the id of the dominated block
+     * @return true if the first block dominates the second one, every reachable block dominates itself
+     */
+    public boolean dominates(int dominator, int block) {
+        if (!isReachable(block)) {
+            return false;
+        }
+        while (block != dominator && block != 0) {
+            block = immediateDominators[block];
+        }
+        return block == dominator;
+    }
+
+    /**
+     * Returns the natural loops of the program, ordered by their header.
+     * Back-edges to the same header form a single loop.
+     *
+     * @return the natural loops
+     */
+    public List<NaturalLoop> getLoops() {
+        return loops;
+    }
+
+    /**
+     * Returns the lines of the statements that can never be executed.
+     *
+     * @return the lines in ascending order
+     */
+    public List<Integer> getUnreachableLines() {
+        List<Integer> lines = new ArrayList<>();
+        for (BasicBlock block : blocks) {
+            if (isReachable(block.id())) {
+                continue;
+            }
+            for (int index = block.start(); index < block.end(); index++) {
+                if (statements.get(index) != null) {
+                    lines.add(statements.get(index).line());
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Computes the dominators with the iterative algorithm of Cooper, Harvey and Kennedy
+     * over the reachable blocks in reverse postorder.
+     *
+     * @return the immediate dominator of every block, -1 for unreachable blocks
+     */
+    private int[] computeDominators() {
+        int[] dominators = new int[blocks.size()];
+        Arrays.fill(dominators, -1);
+        if (blocks.isEmpty()) {
+            return dominators;
+        }
+        List<Integer> order = reversePostorder();
+        int[] position = new int[blocks.size()];
+        for (int i = 0; i < order.size(); i++) {
+            position[order.get(i)] = i;
+        }
+        dominators[0] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int block : order.subList(1, order.size())) {
+                int dominator = -1;
+                for (int predecessor : blocks.get(block).predecessors()) {
+                    if (dominators[predecessor] < 0) {
+                        continue;
+                    }
+                    dominator = dominator < 0 ? predecessor : intersect(dominators, position, predecessor, dominator);
+                }
+                if (dominators[block] != dominator) {
+                    dominators[block] = dominator;
+                    changed = true;
+                }
+            }
+        }
+        return dominators;
+    }
+
+    private static int intersect(int[] dominators, int[] position, int first, int second) {
+        while (first != second) {
+            while (position[first] > position[second]) {
+                first = dominators[first];
+            }
+            while (position[second] > position[first]) {
+                second = dominators[second];
+            }
+        }
+        return first;
+    }
+
+    private List<Integer> reversePostorder() {
+        List<Integer> postorder = new ArrayList<>();
+        boolean[] visited = new boolean[blocks.size()];
+        Deque<int[]> stack = new ArrayDeque<>(); // block and index of the next successor to visit
+        stack.push(new int[]{0, 0});
+        visited[0] = true;
+        while (!stack.isEmpty()) {
+            int[] top = stack.peek();
+            List<Integer> successors = blocks.get(top[0]).successors();
+            if (top[1] < successors.size()) {
+                int successor = successors.get(top[1]++);
+                if (!visited[successor]) {
+                    visited[successor] = true;
+                    stack.push(new int[]{successor, 0});
+                }
+            } else {
+                postorder.add(stack.pop()[0]);
+            }
+        }
+        Collections.reverse(postorder);
+        return postorder;
+    }
+
+    private List<NaturalLoop> findLoops() {
+        Map<Integer, List<Integer>> latches = new TreeMap<>();
+        for (BasicBlock block : blocks) {
+            for (int successor : block.successors()) {
+                if (dominates(successor, block.id())) {
+                    latches.computeIfAbsent(successor, header -> new ArrayList<>()).add(block.id());
+                }
+            }
+        }
+        List<NaturalLoop> naturalLoops = new ArrayList<>();
+        latches.forEach((header, sources) -> {
+            Set<Integer> body = new TreeSet<>();
+            body.add(header);
+            Deque<Integer> work = new ArrayDeque<>();
+            for (int latch : sources) {
+                if (body.add(latch)) {
+                    work.push(latch);
+                }
+            }
+            while (!work.isEmpty()) {
+                for (int predecessor : blocks.get(work.pop()).predecessors()) {
+                    if (isReachable(predecessor) && body.add(predecessor)) {
+                        work.push(predecessor);
+                    }
+                }
+            }
+            naturalLoops.add(new NaturalLoop(header, List.copyOf(sources), Collections.unmodifiableSet(body)));
+        });
+        return List.copyOf(naturalLoops);
+    }
+
+    private static void addEdge(List<List<Integer>> successors, List<List<Integer>> predecessors, int from, int to) {
+        if (!successors.get(from).contains(to)) {
+            successors.get(from).add(to);
+            predecessors.get(to).add(from);
+        }
+    }
+
+    private static int lastStatement(List<Statement> statements, int start, int end) {
+        int index = end - 1;
+        while (index >= start && statements.get(index) == null) {
+            index--;
+        }
+        return index >= start ? index : -1;
+    }
+}
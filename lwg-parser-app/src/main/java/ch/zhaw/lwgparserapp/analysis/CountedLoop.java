@@ -0,0 +1,96 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A GOTO loop that runs a fixed number of times, like a LOOP statement <br>
+ * <p>
+ * The loop has the form
+ * <pre>
+ * Mi: If xj = 0 Then Goto Mk;
+ *     ... assignments xa = xa + c or xa = xa - c, one of them xj = xj - 1 ...
+ *     Goto Mi;
+ * </pre>
+ * and every variable is assigned once per iteration, so the loop runs xj times and every other variable
+ * changes by the same amount in every iteration.
+ *
+ * @param header  the index of the If statement
+ * @param counter the variable counting the iterations
+ * @param exit    the index of the statement the loop exits to
+ * @param body    the assignments of the loop, in program order, including the decrement of the counter
+ */
+public record CountedLoop(int header, int counter, int exit, List<Assignment> body) {
+
+    /**
+     * Recognises a counted loop.
+     *
+     * @param graph the control-flow graph of the program
+     * @param loop  a natural loop of the program
+     * @return the counted loop, or null if the loop does not have the form of a counted loop
+     */
+    public static CountedLoop of(ControlFlowGraph graph, NaturalLoop loop) {
+        if (loop.blocks().size() != 2 || loop.latches().size() != 1) {
+            return null;
+        }
+        List<Statement> statements = graph.getStatements();
+        BasicBlock header = graph.getBlocks().get(loop.header());
+        BasicBlock latch = graph.getBlocks().get(loop.latches().getFirst());
+        List<Statement> headerStatements = statements(statements, header);
+        if (headerStatements.size() != 1 || !(headerStatements.getFirst() instanceof If condition)
+                || condition.constant() != 0 || header.successors().size() != 2
+                || header.end() != latch.start() || latch.successors().size() != 1) {
+            return null;
+        }
+        int exit = header.successors().get(0) == latch.id() ? header.successors().get(1) : header.successors().get(0);
+        List<Statement> latchStatements = statements(statements, latch);
+        if (loop.contains(exit) || latchStatements.isEmpty() || !(latchStatements.getLast() instanceof Goto)) {
+            return null;
+        }
+        int counter = condition.variableNumber();
+        boolean decremented = false;
+        Set<Integer> assigned = new HashSet<>();
+        List<Assignment> body = new ArrayList<>();
+        for (Statement statement : latchStatements.subList(0, latchStatements.size() - 1)) {
+            if (!(statement instanceof Assignment assignment)
+                    || assignment.variable1Number() != assignment.variable2Number()
+                    || (assignment.operator() != Operator.ADDITION && assignment.operator() != Operator.SUBTRACTION)
+                    || !assigned.add(assignment.variable1Number())) {
+                return null;
+            }
+            if (assignment.variable1Number() == counter) {
+                if (assignment.operator() != Operator.SUBTRACTION || assignment.constant() != 1) {
+                    return null;
+                }
+                decremented = true;
+            }
+            body.add(assignment);
+        }
+        if (!decremented) {
+            return null;
+        }
+        int headerIndex = header.start();
+        while (statements.get(headerIndex) == null) {
+            headerIndex++;
+        }
+        return new CountedLoop(headerIndex, counter, graph.getBlocks().get(exit).start(), List.copyOf(body));
+    }
+
+    private static List<Statement> statements(List<Statement> statements, BasicBlock block) {
+        List<Statement> nonBlank = new ArrayList<>();
+        for (int index = block.start(); index < block.end(); index++) {
+            if (statements.get(index) != null) {
+                nonBlank.add(statements.get(index));
+            }
+        }
+        return nonBlank;
+    }
+}
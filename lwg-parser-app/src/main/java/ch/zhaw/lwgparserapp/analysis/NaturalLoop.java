@@ -0,0 +1,25 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A natural loop of a GOTO program. The header dominates every block of the loop and every latch jumps
+ * back to the header.
+ *
+ * @param header  the id of the block the loop is entered at
+ * @param latches the ids of the blocks jumping back to the header
+ * @param blocks  the ids of all blocks of the loop, including the header
+ */
+public record NaturalLoop(int header, List<Integer> latches, Set<Integer> blocks) {
+
+    /**
+     * Checks if a block belongs to the loop.
+     *
+     * @param block the id of the block
+     * @return true if the block is part of the loop
+     */
+    public boolean contains(int block) {
+        return blocks.contains(block);
+    }
+}
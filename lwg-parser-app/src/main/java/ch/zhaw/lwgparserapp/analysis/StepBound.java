@@ -0,0 +1,254 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import ch.zhaw.lwgparserapp.optimizer.HoistedLoop;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An upper bound on the steps of a LOOP program, computed from the input before the program runs <br>
+ * <p>
+ * LOOP programs always terminate, and with known input their steps are determined. The analysis runs the
+ * program abstractly: loop iterations that repeat are counted at once instead of being evaluated, so the
+ * bound of a program running for billions of steps is computed in microseconds.
+ * <ul>
+ *     <li>An iteration that leaves the variables unchanged is repeated for the remaining iterations.</li>
+ *     <li>Variables that only count up or down on their own do not influence the steps, their final value is
+ *     extrapolated from a single iteration.</li>
+ *     <li>Any other loop is evaluated iteration by iteration up to a work limit. After that, every variable the
+ *     loop assigns is assumed to be as large as possible and the bound is no longer exact.</li>
+ * </ul>
+ *
+ * @param steps the maximum number of steps, {@link Long#MAX_VALUE} if the bound overflows
+ * @param exact true if the program executes exactly this number of steps
+ */
+public record StepBound(long steps, boolean exact) {
+    private static final int WORK_LIMIT = 1_000_000;
+
+    /**
+     * Analyses a LOOP program.
+     *
+     * @param statements the statements of the program
+     * @param variables  the input variables
+     * @return the step bound, or null if the program contains statements other than assignments
+     * and (hoisted) Loop statements, like While loops, that are not guaranteed to terminate
+     */
+    public static StepBound analyze(List<Statement> statements, Map<Integer, Integer> variables) {
+        Analysis analysis = new Analysis();
+        if (!analysis.collect(statements)) {
+            return null;
+        }
+        long[] values = new long[analysis.slots.size()];
+        variables.forEach((variable, value) -> {
+            Integer slot = analysis.slots.get(variable);
+            if (slot != null) {
+                values[slot] = value;
+            }
+        });
+        long steps = analysis.block(statements, values);
+        return new StepBound(steps, analysis.exact);
+    }
+
+    /**
+     * Checks if the program may run for more steps than allowed.
+     *
+     * @param budget the number of steps allowed
+     * @return true if the bound exceeds the budget
+     */
+    public boolean exceeds(long budget) {
+        return steps > budget;
+    }
+
+    /**
+     * The state of a single analysis.
+     */
+    private static final class Analysis {
+        private final Map<Integer, Integer> slots = new HashMap<>();
+        private final Map<Loop, LoopInfo> loops = new IdentityHashMap<>();
+        private boolean exact = true;
+        private long work;
+
+        /**
+         * What a loop body reads and writes.
+         *
+         * @param written  the slots assigned anywhere in the body
+         * @param counters the slots that are only incremented, or only decremented once, on their own,
+         *                 and neither control a loop nor are assigned to other variables
+         */
+        private record LoopInfo(int[] written, Set<Integer> counters) {
+        }
+
+        private boolean collect(List<Statement> statements) {
+            for (Statement statement : statements) {
+                switch (statement) {
+                    case Assignment assignment -> {
+                        slot(assignment.variable1Number());
+                        slot(assignment.variable2Number());
+                    }
+                    case Loop loop -> {
+                        if (!loop.usesConstant()) {
+                            slot(loop.number());
+                        }
+                        if (!collect(loop.statements())) {
+                            return false;
+                        }
+                        loops.put(loop, info(loop));
+                    }
+                    case HoistedLoop hoisted -> {
+                        if (!(hoisted.loop() instanceof Loop) || !collect(hoisted.invariants())
+                                || !collect(List.of(hoisted.loop()))) {
+                            return false;
+                        }
+                    }
+                    case null, default -> {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private int slot(int variable) {
+            return slots.computeIfAbsent(variable, v -> slots.size());
+        }
+
+        private LoopInfo info(Loop loop) {
+            Set<Integer> written = new HashSet<>();
+            Set<Integer> observed = new HashSet<>();
+            Map<Integer, int[]> writes = new HashMap<>(); // additions and subtractions of a slot to itself
+            Set<Integer> otherWrites = new HashSet<>();
+            scan(loop.statements(), written, observed, writes, otherWrites);
+            Set<Integer> counters = new HashSet<>();
+            writes.forEach((slot, counts) -> {
+                if (!observed.contains(slot) && !otherWrites.contains(slot)
+                        && (counts[1] == 0 || counts[0] == 0 && counts[1] == 1)) {
+                    counters.add(slot);
+                }
+            });
+            return new LoopInfo(written.stream().mapToInt(Integer::intValue).toArray(), counters);
+        }
+
+        private void scan(List<Statement> statements, Set<Integer> written, Set<Integer> observed,
+                          Map<Integer, int[]> writes, Set<Integer> otherWrites) {
+            for (Statement statement : statements) {
+                if (statement instanceof Assignment assignment) {
+                    int target = slots.get(assignment.variable1Number());
+                    int source = slots.get(assignment.variable2Number());
+                    written.add(target);
+                    if (target == source) {
+                        writes.computeIfAbsent(target, slot -> new int[2])
+                                [assignment.operator() == Operator.ADDITION ? 0 : 1]++;
+                    } else {
+                        observed.add(source);
+                        otherWrites.add(target);
+                    }
+                } else if (statement instanceof Loop loop) {
+                    if (!loop.usesConstant()) {
+                        observed.add(slots.get(loop.number()));
+                    }
+                    scan(loop.statements(), written, observed, writes, otherWrites);
+                } else if (statement instanceof HoistedLoop hoisted) {
+                    scan(hoisted.invariants(), written, observed, writes, otherWrites);
+                    scan(List.of(hoisted.loop()), written, observed, writes, otherWrites);
+                }
+            }
+        }
+
+        private long block(List<Statement> statements, long[] values) {
+            long steps = 0;
+            for (Statement statement : statements) {
+                steps = add(steps, 1);
+                work++;
+                if (statement instanceof Assignment assignment) {
+                    int target = slots.get(assignment.variable1Number());
+                    long source = values[slots.get(assignment.variable2Number())];
+                    if (assignment.operator() == Operator.ADDITION) {
+                        values[target] = overflow(source + assignment.constant());
+                    } else {
+                        values[target] = Math.max(0, source - assignment.constant());
+                    }
+                } else {
+                    HoistedLoop hoisted = statement instanceof HoistedLoop h ? h : null;
+                    Loop loop = (Loop) (hoisted != null ? hoisted.loop() : statement);
+                    long iterations = loop.usesConstant() ? loop.number() : values[slots.get(loop.number())];
+                    if (hoisted != null && iterations > 0) {
+                        steps = add(steps, block(hoisted.invariants(), values));
+                    }
+                    steps = add(steps, loop(loop, iterations, values));
+                }
+            }
+            return steps;
+        }
+
+        private long loop(Loop loop, long iterations, long[] values) {
+            LoopInfo info = loops.get(loop);
+            long steps = 0;
+            for (long iteration = 0; iteration < iterations; iteration++) {
+                long remaining = iterations - iteration - 1;
+                if (work > WORK_LIMIT) {
+                    // assume the largest values, every remaining iteration takes at most as many steps as this one
+                    exact = false;
+                    for (int slot : info.written()) {
+                        values[slot] = Integer.MAX_VALUE;
+                    }
+                    return add(steps, multiply(remaining + 1, block(loop.statements(), values)));
+                }
+                long[] before = values.clone();
+                long iterationSteps = block(loop.statements(), values);
+                steps = add(steps, iterationSteps);
+                if (remaining > 0 && repeats(info, before, values, remaining)) {
+                    return add(steps, multiply(remaining, iterationSteps));
+                }
+            }
+            return steps;
+        }
+
+        /**
+         * Checks if the remaining iterations repeat the last one and extrapolates the counters if they do.
+         */
+        private boolean repeats(LoopInfo info, long[] before, long[] after, long remaining) {
+            for (int slot = 0; slot < after.length; slot++) {
+                if (before[slot] != after[slot] && !info.counters().contains(slot)) {
+                    return false;
+                }
+            }
+            for (int slot = 0; slot < after.length; slot++) {
+                long change = after[slot] - before[slot];
+                if (change == 0) {
+                    continue;
+                }
+                after[slot] = Math.max(0, overflow(after[slot] + remaining * change));
+            }
+            return true;
+        }
+
+        /**
+         * Caps a value that overflows. The interpreter sets the variable to 0 instead,
+         * so the value is an upper bound and the steps that depend on it are no longer exact.
+         */
+        private long overflow(long value) {
+            if (value > Integer.MAX_VALUE) {
+                exact = false;
+                return Integer.MAX_VALUE;
+            }
+            return value;
+        }
+    }
+
+    private static long add(long a, long b) {
+        long sum = a + b;
+        return sum < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    private static long multiply(long a, long b) {
+        return a != 0 && b > Long.MAX_VALUE / a ? Long.MAX_VALUE : a * b;
+    }
+}
@@ -0,0 +1,37 @@
+package ch.zhaw.lwgparserapp.api;
+
+import ch.zhaw.lwgparserapp.api.LwgController.ApiResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.ErrorResponse;
+import ch.zhaw.lwgparserapp.execution.ExecutionRejectedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.List;
+
+/**
+ * Maps exceptions thrown by the controllers to error responses.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+    private static final String RETRY_AFTER_SECONDS = "1";
+
+    /**
+     * Answers executions that were not admitted with 429 Too Many Requests, and programs that would run
+     * for too many steps with 422 Unprocessable Entity, as retrying them does not help.
+     *
+     * @param e the rejection
+     * @return the error response
+     */
+    @ExceptionHandler(ExecutionRejectedException.class)
+    public ResponseEntity<ApiResponse> executionRejected(ExecutionRejectedException e) {
+        if (e.getReason().equals("step_bound")) {
+            return ResponseEntity.unprocessableEntity().body(new ErrorResponse(List.of(e.getMessage())));
+        }
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(new ErrorResponse(List.of(e.getMessage())));
+    }
+}
@@ -0,0 +1,22 @@
+package ch.zhaw.lwgparserapp.api;
+
+import ch.zhaw.lwgparserapp.check.SyntaxChecker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configures the live syntax check from the application properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class CheckConfiguration {
+
+    @Bean
+    public SyntaxChecker syntaxChecker(
+            @Value("${lwg.check.max-documents:1000}") int maxDocuments,
+            @Value("${lwg.check.max-debounce:500ms}") Duration maxDebounce) {
+        return new SyntaxChecker(maxDocuments, maxDebounce);
+    }
+}
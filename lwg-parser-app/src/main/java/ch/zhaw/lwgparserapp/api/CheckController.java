@@ -0,0 +1,145 @@
+package ch.zhaw.lwgparserapp.api;
+
+import ch.zhaw.lwgparserapp.check.CheckResult;
+import ch.zhaw.lwgparserapp.check.SyntaxChecker;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * The check controller validates code while it is typed, without running it. <br>
+ * <p>
+ * The editor sends every revision of a document with an increasing revision number and gets the diagnostics of
+ * the scanner and parser back. Only the lines changed since the last checked revision are scanned and parsed again.
+ * A request may be debounced, it then waits for a newer revision and is answered as stale if one arrives.
+ * Documents are kept per client, so two clients never share a document id.
+ */
+@RestController
+@RequestMapping("/api/check")
+@CrossOrigin(origins = "http://localhost:8080")
+public class CheckController {
+    private static final String DEFAULT_DOCUMENT = "default";
+    private final SyntaxChecker checker;
+
+    /**
+     * Creates a new check controller.
+     *
+     * @param checker the checker keeping the documents
+     */
+    public CheckController(SyntaxChecker checker) {
+        this.checker = Objects.requireNonNull(checker, "Syntax checker must not be null");
+    }
+
+    /**
+     * Checks a revision of a document.
+     *
+     * @param request the check request containing the code and its revision
+     * @return the diagnostics of the revision, or a stale result if a newer revision arrived
+     */
+    @PostMapping
+    public ResponseEntity<CheckResult> check(@RequestBody CheckRequest request) throws InterruptedException {
+        Objects.requireNonNull(request.getCode(), "Source code must not be null");
+        CheckResult result = checker.check(documentId(request.getDocumentId()), request.getRevision(),
+                request.getCode(), Duration.ofMillis(request.getDebounce()));
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * Forgets a document, e.g. when its editor is closed.
+     *
+     * @param documentId the id of the document
+     */
+    @DeleteMapping("/{documentId}")
+    public ResponseEntity<Void> close(@PathVariable String documentId) {
+        checker.close(documentId(documentId));
+        return ResponseEntity.noContent().build();
+    }
+
+    private static String documentId(String documentId) {
+        return LwgController.clientId() + "/" + Objects.requireNonNullElse(documentId, DEFAULT_DOCUMENT);
+    }
+
+    /**
+     * The check request class used to map the incoming JSON request.
+     */
+    public static class CheckRequest {
+        private String documentId;
+        private long revision;
+        private String code;
+        private long debounce;
+
+        /**
+         * Gets the id of the document, unique per client.
+         *
+         * @return the document id, or null for the default document
+         */
+        public String getDocumentId() {
+            return documentId;
+        }
+
+        /**
+         * Sets the id of the document.
+         *
+         * @param documentId the document id to set
+         */
+        public void setDocumentId(String documentId) {
+            this.documentId = documentId;
+        }
+
+        /**
+         * Gets the revision of the code, larger for newer revisions.
+         *
+         * @return the revision
+         */
+        public long getRevision() {
+            return revision;
+        }
+
+        /**
+         * Sets the revision of the code.
+         *
+         * @param revision the revision to set
+         */
+        public void setRevision(long revision) {
+            this.revision = revision;
+        }
+
+        /**
+         * Gets the code from the request.
+         *
+         * @return the code
+         */
+        public String getCode() {
+            return code;
+        }
+
+        /**
+         * Sets the code for the request.
+         *
+         * @param code the code to set
+         */
+        public void setCode(String code) {
+            this.code = code;
+        }
+
+        /**
+         * Gets the time in milliseconds the check waits for a newer revision.
+         *
+         * @return the debounce time
+         */
+        public long getDebounce() {
+            return debounce;
+        }
+
+        /**
+         * Sets the time in milliseconds the check waits for a newer revision.
+         *
+         * @param debounce the debounce time to set
+         */
+        public void setDebounce(long debounce) {
+            this.debounce = debounce;
+        }
+    }
+}
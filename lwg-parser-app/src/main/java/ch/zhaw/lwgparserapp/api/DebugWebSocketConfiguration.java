@@ -0,0 +1,30 @@
+package ch.zhaw.lwgparserapp.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * Registers the debug WebSocket endpoint under /api/debug/ws.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableWebSocket
+public class DebugWebSocketConfiguration implements WebSocketConfigurer {
+    private final ObjectMapper objectMapper;
+    private final int maxSteps;
+
+    public DebugWebSocketConfiguration(ObjectMapper objectMapper,
+                                       @Value("${lwg.debug.max-steps:1000000}") int maxSteps) {
+        this.objectMapper = objectMapper;
+        this.maxSteps = maxSteps;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(new DebugWebSocketHandler(objectMapper, maxSteps), "/api/debug/ws")
+                .setAllowedOrigins("http://localhost:8080");
+    }
+}
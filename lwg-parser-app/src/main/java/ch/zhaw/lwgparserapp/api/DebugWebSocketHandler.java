@@ -0,0 +1,166 @@
+package ch.zhaw.lwgparserapp.api;
+
+import ch.zhaw.lwgparserapp.api.LwgController.ApiResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.ErrorResponse;
+import ch.zhaw.lwgparserapp.debugger.Breakpoint;
+import ch.zhaw.lwgparserapp.debugger.BreakpointRecorder;
+import ch.zhaw.lwgparserapp.debugger.DebugSession;
+import ch.zhaw.lwgparserapp.debugger.DebugStep;
+import ch.zhaw.lwgparserapp.debugger.DebugTrace;
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The debug WebSocket handler keeps a debug session open for the lifetime of the connection. <br>
+ * <p>
+ * The client sends JSON commands: {@code start} with the code and the variables runs the program and
+ * records its steps, {@code next} and {@code previous} move by one step, {@code seek} moves to the given
+ * step and {@code continue} runs to the end. Every move is answered with a "step" message that contains
+ * only the variables that changed, instead of all variables of the step as /api/debug/next does.
+ * <p>
+ * If start contains breakpoints, the program runs at full speed and only the breakpoint hits are
+ * recorded, so next, previous and continue move from hit to hit.
+ */
+public class DebugWebSocketHandler extends TextWebSocketHandler {
+    private static final String SESSION_ATTRIBUTE = "lwg.debugSession";
+
+    private final ObjectMapper objectMapper;
+    private final int maxSteps;
+
+    /**
+     * Creates a new handler.
+     *
+     * @param objectMapper the mapper to read the commands and write the messages with
+     * @param maxSteps     the maximum number of steps recorded per debug session
+     */
+    public DebugWebSocketHandler(ObjectMapper objectMapper, int maxSteps) {
+        this.objectMapper = objectMapper;
+        this.maxSteps = maxSteps;
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws IOException {
+        DebugCommand command;
+        try {
+            command = objectMapper.readValue(message.getPayload(), DebugCommand.class);
+        } catch (JsonProcessingException e) {
+            sendError(session, "Invalid debug command.");
+            return;
+        }
+        if (command == null || command.command() == null) {
+            sendError(session, "Invalid debug command.");
+            return;
+        }
+        if (command.command().equals("start")) {
+            start(session, command);
+            return;
+        }
+
+        DebugSession debugSession = (DebugSession) session.getAttributes().get(SESSION_ATTRIBUTE);
+        if (debugSession == null) {
+            sendError(session, "No program is being debugged.");
+            return;
+        }
+        switch (command.command()) {
+            case "next" -> send(session, StepMessage.of(debugSession.next()));
+            case "previous" -> send(session, StepMessage.of(debugSession.previous()));
+            case "seek" -> {
+                if (command.step() == null) {
+                    sendError(session, "The seek command needs a step.");
+                } else {
+                    send(session, StepMessage.of(debugSession.seek(command.step())));
+                }
+            }
+            case "continue" -> send(session, StepMessage.of(debugSession.resume()));
+            default -> sendError(session, "Unknown debug command: " + command.command());
+        }
+    }
+
+    /**
+     * Runs the program in debug mode and starts a new debug session for it.
+     */
+    private void start(WebSocketSession session, DebugCommand command) throws IOException {
+        session.getAttributes().remove(SESSION_ATTRIBUTE);
+        if (command.code() == null) {
+            sendError(session, "No code to debug.");
+            return;
+        }
+        ErrorHandler.clearErrors();
+        DebugTrace trace = new DebugTrace(maxSteps);
+        ApiResponse response;
+        if (command.breakpoints() == null || command.breakpoints().isEmpty()) {
+            Environment environment = new Environment(command.variables(), trace);
+            response = LwgController.runCode(command.code(), environment, false, clientId(session),
+                    interpreter -> {
+                    });
+        } else {
+            Environment environment = command.variables() == null ? new Environment()
+                    : new Environment(command.variables(), false);
+            BreakpointRecorder recorder = new BreakpointRecorder(trace);
+            response = LwgController.runCode(command.code(), environment, false, clientId(session),
+                    interpreter -> interpreter.setBreakpoints(command.breakpoints(), recorder));
+        }
+        if (response instanceof ErrorResponse) {
+            send(session, response);
+            return;
+        }
+        session.getAttributes().put(SESSION_ATTRIBUTE, new DebugSession(trace));
+        send(session, new StartedMessage(trace.size(), trace.isTruncated()));
+    }
+
+    private static String clientId(WebSocketSession session) {
+        String clientId = session.getHandshakeHeaders().getFirst(LwgController.CLIENT_ID_HEADER);
+        if (clientId != null && !clientId.isBlank()) return clientId;
+        InetSocketAddress address = session.getRemoteAddress();
+        return address == null ? LwgController.LOCAL_CLIENT : address.getHostString();
+    }
+
+    private void sendError(WebSocketSession session, String error) throws IOException {
+        send(session, new ErrorResponse(List.of(error)));
+    }
+
+    private void send(WebSocketSession session, Object message) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(message)));
+    }
+
+    /**
+     * A command sent by the client. Code, variables and breakpoints are only used by start, step only by seek.
+     */
+    public record DebugCommand(String command, String code, Map<String, Integer> variables,
+                               List<Breakpoint> breakpoints, Integer step) {
+    }
+
+    /**
+     * Sent once the program ran and its steps were recorded.
+     */
+    public record StartedMessage(int steps, boolean truncated) {
+        public String getType() {
+            return "started";
+        }
+    }
+
+    /**
+     * Sent for every move, containing only the variables that changed.
+     */
+    public record StepMessage(int step, int line, boolean first, boolean last, Map<Integer, Integer> changes,
+                              List<Integer> removed) {
+        static StepMessage of(DebugStep step) {
+            return new StepMessage(step.step(), step.line(), step.first(), step.last(), step.changes(),
+                    step.removed());
+        }
+
+        public String getType() {
+            return "step";
+        }
+    }
+}
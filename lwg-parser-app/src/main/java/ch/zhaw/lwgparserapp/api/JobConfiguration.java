@@ -0,0 +1,24 @@
+package ch.zhaw.lwgparserapp.api;
+
+import ch.zhaw.lwgparserapp.api.LwgController.ApiResponse;
+import ch.zhaw.lwgparserapp.execution.JobRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configures the background jobs from the application properties.
+ */
+@Configuration(proxyBeanMethods = false)
+public class JobConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public JobRegistry<ApiResponse> jobRegistry(
+            @Value("${lwg.jobs.max-jobs:1000}") int maxJobs,
+            @Value("${lwg.jobs.retention:10m}") Duration retention,
+            @Value("${lwg.jobs.timeout:300s}") Duration timeout) {
+        return new JobRegistry<>(maxJobs, retention, timeout);
+    }
+}
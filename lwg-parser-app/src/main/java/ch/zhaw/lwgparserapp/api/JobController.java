@@ -0,0 +1,166 @@
+package ch.zhaw.lwgparserapp.api;
+
+import ch.zhaw.lwgparserapp.api.LwgController.ApiResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.CodeRequest;
+import ch.zhaw.lwgparserapp.api.LwgController.ErrorResponse;
+import ch.zhaw.lwgparserapp.execution.Job;
+import ch.zhaw.lwgparserapp.execution.JobRegistry;
+import ch.zhaw.lwgparserapp.execution.JobStatus;
+import ch.zhaw.lwgparserapp.interpreter.Progress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The job controller runs programs in the background. <br>
+ * <p>
+ * A program is submitted as a job and answered right away with the id of the job.
+ * The client then polls the status of the job, optionally waiting until it finished,
+ * and may cancel it. Jobs run with a larger halt timeout than programs run through /api/process.
+ * The progress of a running job can be followed as a stream of Server-Sent Events.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@CrossOrigin(origins = "http://localhost:8080")
+public class JobController {
+    private final JobRegistry<ApiResponse> jobs;
+    private final Duration maxWait;
+    private final Duration progressInterval;
+
+    /**
+     * Creates a new job controller.
+     *
+     * @param jobs             the registry running the jobs
+     * @param maxWait          the longest time a status request waits for a job to finish
+     * @param progressInterval the time between two progress events
+     */
+    public JobController(JobRegistry<ApiResponse> jobs, @Value("${lwg.jobs.max-wait:30s}") Duration maxWait,
+                         @Value("${lwg.jobs.progress-interval:250ms}") Duration progressInterval) {
+        this.jobs = Objects.requireNonNull(jobs, "Job registry must not be null");
+        this.maxWait = Objects.requireNonNull(maxWait, "Maximum wait must not be null");
+        this.progressInterval = Objects.requireNonNull(progressInterval, "Progress interval must not be null");
+    }
+
+    /**
+     * Submits the code as a job.
+     *
+     * @param request the code request object containing the code to process
+     * @return the status of the new job
+     */
+    @PostMapping
+    public ResponseEntity<JobResponse> submit(@RequestBody CodeRequest request) {
+        Objects.requireNonNull(request.getCode(), "Source code must not be null");
+        String clientId = LwgController.clientId();
+        Job<ApiResponse> job = jobs.submit(current -> LwgController.runCode(request.getCode(),
+                request.getVariables(), false, request.isProfile(), request.isArbitraryPrecision(), clientId,
+                current::attach));
+        return ResponseEntity.accepted().body(JobResponse.of(job));
+    }
+
+    /**
+     * Returns the status of a job. If wait is given, the request waits up to that many
+     * seconds for the job to finish before it answers.
+     *
+     * @param id   the id of the job
+     * @param wait the number of seconds to wait for the job to finish
+     * @return the status of the job, 404 if the job is unknown
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<JobResponse> status(@PathVariable String id,
+                                              @RequestParam(defaultValue = "0") long wait)
+            throws InterruptedException {
+        Job<ApiResponse> job = jobs.find(id).orElse(null);
+        if (job == null) return ResponseEntity.notFound().build();
+        Duration timeout = Duration.ofSeconds(Math.max(0, wait));
+        job.await(timeout.compareTo(maxWait) > 0 ? maxWait : timeout);
+        return ResponseEntity.ok(JobResponse.of(job));
+    }
+
+    /**
+     * Streams the progress of a job as Server-Sent Events. <br>
+     * <p>
+     * While the job runs, a "progress" event with the executed steps, the current line and the variables
+     * is sent every progress interval. Once the job finished, a "result" event with the status of the job
+     * is sent and the stream is closed.
+     *
+     * @param id the id of the job
+     * @return the event stream, 404 if the job is unknown
+     */
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id) {
+        Job<ApiResponse> job = jobs.find(id).orElse(null);
+        if (job == null) return ResponseEntity.notFound().build();
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(job.getHaltTimeout()) + maxWait.toMillis());
+        AtomicBoolean open = new AtomicBoolean(true);
+        emitter.onCompletion(() -> open.set(false));
+        emitter.onTimeout(() -> open.set(false));
+        emitter.onError(e -> open.set(false));
+        Thread.ofVirtual().name("lwg-progress-" + id).start(() -> streamProgress(job, emitter, open));
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Samples the progress of the job and sends it until the job finished or the client disconnected.
+     * Runs on its own virtual thread, so a slow client never blocks the interpreter.
+     */
+    private void streamProgress(Job<ApiResponse> job, SseEmitter emitter, AtomicBoolean open) {
+        try {
+            Progress sent = null;
+            boolean finished = false;
+            while (open.get() && !finished) {
+                job.sampleProgress();
+                finished = job.await(progressInterval);
+                Progress latest = job.getProgress().orElse(null);
+                if (latest != null && latest != sent) {
+                    emitter.send(SseEmitter.event().name("progress").data(latest));
+                    sent = latest;
+                }
+            }
+            if (finished) {
+                emitter.send(SseEmitter.event().name("result").data(JobResponse.of(job)));
+            }
+            emitter.complete();
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Cancels a job by halting its interpreter.
+     *
+     * @param id the id of the job
+     * @return the status of the job, 404 if the job is unknown
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<JobResponse> cancel(@PathVariable String id) {
+        Job<ApiResponse> job = jobs.find(id).orElse(null);
+        if (job == null) return ResponseEntity.notFound().build();
+        job.cancel();
+        return ResponseEntity.ok(JobResponse.of(job));
+    }
+
+    /**
+     * The status of a job. The result is only set once the job finished.
+     */
+    public record JobResponse(String jobId, JobStatus status, long steps, ApiResponse result) {
+        static JobResponse of(Job<ApiResponse> job) {
+            JobStatus status = job.getStatus();
+            ApiResponse result = job.getResult()
+                    .or(() -> job.getFailure().map(failure -> new ErrorResponse(List.of(failure.getMessage()))))
+                    .orElse(null);
+            return new JobResponse(job.getId(), status, job.getSteps(), result);
+        }
+    }
+}
@@ -1,29 +1,42 @@
 package ch.zhaw.lwgparserapp.api;
 
+import ch.zhaw.lwgparserapp.analysis.StepBound;
 import ch.zhaw.lwgparserapp.debugger.Debugger;
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.execution.ExecutionScheduler;
 import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.ExecutionProfile;
 import ch.zhaw.lwgparserapp.interpreter.GOTOInterpreter;
 import ch.zhaw.lwgparserapp.interpreter.Interpreter;
 import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.monitoring.ParseEvent;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import ch.zhaw.lwgparserapp.monitoring.ScanEvent;
+import ch.zhaw.lwgparserapp.optimizer.LWOptimizer;
 import ch.zhaw.lwgparserapp.parser.GOTOParser;
 import ch.zhaw.lwgparserapp.parser.LWParser;
 import ch.zhaw.lwgparserapp.parser.Parser;
-import ch.zhaw.lwgparserapp.scanner.GOTOScanner;
-import ch.zhaw.lwgparserapp.scanner.LWScanner;
-import ch.zhaw.lwgparserapp.scanner.Scanner;
+import ch.zhaw.lwgparserapp.scanner.SyntaxScanner;
+import ch.zhaw.lwgparserapp.scanner.TokenStream;
 import ch.zhaw.lwgparserapp.syntax.Statement;
 import ch.zhaw.lwgparserapp.syntax.Syntax;
-import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
 import ch.zhaw.lwgparserapp.token.Token;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 /**
  * The LWG controller class is used to handle incoming requests and process the code.
@@ -36,7 +49,9 @@ public class LwgController {
     private static final String TYPE_SUCCESS_DEBUG_LAST_ELEMENT = "border_last";
     private static final String TYPE_SUCCESS_DEBUG_FIRST_ELEMENT = "border_first";
     private static final String TYPE_ERROR = "error";
-    private static Interpreter interpreter;
+    static final String CLIENT_ID_HEADER = "X-Client-Id";
+    static final String LOCAL_CLIENT = "local";
+    private static volatile Interpreter interpreter;
 
     /**
      * Processes the code and returns the variables.
@@ -49,7 +64,36 @@ public class LwgController {
         ErrorHandler.clearErrors();
         String inputCode = request.getCode();
         Map<String, Integer> inputVariables = request.getVariables();
-        ApiResponse response = runCode(inputCode, inputVariables, false);
+        ApiResponse response = runCode(inputCode, inputVariables, false, request.isProfile(),
+                request.isArbitraryPrecision(), clientId(), LwgController::setInterpreter);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Processes code uploaded as plain text and returns the variables. <br>
+     * The code is scanned and parsed while it is read from the request, so large programs, e.g. generated ones,
+     * are never held in memory as a whole. The input variables are request parameters, e.g. {@code ?x1=5&x2=3}.
+     *
+     * @param request   the request containing the code
+     * @param variables the input variables
+     * @return the response object containing the variables
+     * @throws IOException if the request cannot be read
+     */
+    @PostMapping(path = "/process", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<ApiResponse> processUpload(HttpServletRequest request,
+                                                     @RequestParam Map<String, String> variables) throws IOException {
+        ErrorHandler.clearErrors();
+        Map<String, Integer> inputVariables = new HashMap<>();
+        for (Map.Entry<String, String> variable : variables.entrySet()) {
+            try {
+                inputVariables.put(variable.getKey(), Integer.parseInt(variable.getValue()));
+            } catch (NumberFormatException e) {
+                return ResponseEntity.badRequest()
+                        .body(new ErrorResponse(List.of("Invalid value of variable " + variable.getKey())));
+            }
+        }
+        ApiResponse response = runCode(new TokenStream(request.getReader()), new Environment(inputVariables, false),
+                clientId(), LwgController::setInterpreter);
         return ResponseEntity.ok(response);
     }
 
@@ -73,7 +117,8 @@ public class LwgController {
         Debugger.reset();
         String inputCode = request.getCode();
         Map<String, Integer> inputVariables = request.getVariables();
-        ApiResponse response = runCode(inputCode, inputVariables, true);
+        ApiResponse response = runCode(inputCode, inputVariables, true, false, false, clientId(),
+                LwgController::setInterpreter);
         return ResponseEntity.ok(response);
     }
 
@@ -111,60 +156,208 @@ public class LwgController {
      * return the environment with the variables.
      * If there are any errors, return an error response.
      *
-     * @param source the source code to run
+     * @param source             the source code to run
+     * @param profileMode        true to count the executions of every line
+     * @param arbitraryPrecision true to promote values that overflow an int instead of reporting an error
+     * @param clientId           the client the execution is scheduled for
+     * @param onCreate           receives the interpreter before the code is parsed
      * @return the environment with the variables
      */
-    private static ApiResponse runCode(String source, Map<String, Integer> inputVariables, boolean debugMode) {
-        Objects.requireNonNull(source, "Source code must not be null");
-        Syntax syntax = SyntaxDetector.detectSyntax(source);
+    static ApiResponse runCode(String source, Map<String, Integer> inputVariables, boolean debugMode,
+                               boolean profileMode, boolean arbitraryPrecision, String clientId,
+                               Consumer<Interpreter> onCreate) {
         Environment environment = new Environment(debugMode);
-        List<String> errors = new ArrayList<>();
 
         if (inputVariables != null) {
             environment = new Environment(inputVariables, debugMode);
         }
+        environment.setArbitraryPrecision(arbitraryPrecision);
+        return runCode(source, environment, profileMode, clientId, onCreate);
+    }
+
+    /**
+     * Runs the code in the given environment and returns the environment.
+     *
+     * @param source      the source code to run
+     * @param environment the environment holding the input variables
+     * @param profileMode true to count the executions of every line
+     * @param clientId    the client the execution is scheduled for
+     * @param onCreate    receives the interpreter before the code is parsed
+     * @return the environment with the variables
+     */
+    static ApiResponse runCode(String source, Environment environment, boolean profileMode, String clientId,
+                               Consumer<Interpreter> onCreate) {
+        Objects.requireNonNull(source, "Source code must not be null");
+        List<String> errors = new ArrayList<>();
+
+        // the syntax is detected while the code is scanned
+        SyntaxScanner scanner = new SyntaxScanner(source);
+        ScanEvent scanEvent = new ScanEvent();
+        scanEvent.begin();
+        List<Token> tokens = scanner.scanProgram();
+        scanEvent.end();
+        Syntax syntax = scanner.getSyntax();
+        if (scanEvent.shouldCommit()) {
+            scanEvent.programHash = source.hashCode();
+            scanEvent.syntax = syntax.name();
+            scanEvent.sourceSize = source.length();
+            scanEvent.tokenCount = tokens.size();
+            scanEvent.commit();
+        }
 
         switch (syntax) {
             case LW -> {
-                interpreter = new LWInterpreter(environment);
-                return run(errors, new LWScanner(source), new LWParser(), environment);
+                Interpreter interpreter = LWInterpreter.create(environment);
+                interpreter.setProgramHash(source.hashCode());
+                onCreate.accept(interpreter);
+                return run(errors, interpreter, tokens, new LWParser(), environment, profileMode, clientId);
             }
             case GOTO -> {
-                interpreter = new GOTOInterpreter(environment);
-                return run(errors, new GOTOScanner(source), new GOTOParser(), environment);
+                Interpreter interpreter = new GOTOInterpreter(environment);
+                interpreter.setProgramHash(source.hashCode());
+                onCreate.accept(interpreter);
+                return run(errors, interpreter, tokens, new GOTOParser(), environment, profileMode, clientId);
             }
             case MIXED -> {
-                errors.add("The code contains both LW and GOTO syntax.\nPlease choose only one syntax at a time.");
-                return new ErrorResponse(errors);
+                return mixedSyntax(errors);
             }
             default -> {
                 errors.add("The code does not contain any valid syntax.");
+                PipelineMetrics.recordErrors(PipelineMetrics.Stage.DETECT, 1);
                 return new ErrorResponse(errors);
             }
         }
     }
 
-    private static ApiResponse run(List<String> errors, Scanner scanner, Parser parser, Environment environment) {
-        List<Token> tokens = scanner.scanProgram();
-        if (ErrorHandler.hadError()) return craftErrorResponse(errors,
+    /**
+     * Runs the code of a token stream in the given environment and returns the environment.
+     * The code is scanned while it is parsed, see {@link TokenStream}.
+     *
+     * @param tokens      the tokens of the code to run
+     * @param environment the environment holding the input variables
+     * @param clientId    the client the execution is scheduled for
+     * @param onCreate    receives the interpreter before the code is parsed
+     * @return the environment with the variables
+     */
+    static ApiResponse runCode(TokenStream tokens, Environment environment, String clientId,
+                               Consumer<Interpreter> onCreate) {
+        List<String> errors = new ArrayList<>();
+        Interpreter interpreter;
+        Parser parser;
+        switch (tokens.getSyntax()) {
+            case LW -> {
+                interpreter = LWInterpreter.create(environment);
+                parser = new LWParser();
+            }
+            case GOTO -> {
+                interpreter = new GOTOInterpreter(environment);
+                parser = new GOTOParser();
+            }
+            default -> {
+                return mixedSyntax(errors);
+            }
+        }
+        onCreate.accept(interpreter);
+        return run(errors, interpreter, tokens, parser, environment, false, clientId);
+    }
+
+    private static ApiResponse run(List<String> errors, Interpreter interpreter, List<Token> tokens, Parser parser,
+                                   Environment environment, boolean profileMode, String clientId) {
+        // a token stream is scanned while it is parsed, its scanning errors are checked afterwards
+        TokenStream stream = tokens instanceof TokenStream tokenStream ? tokenStream : null;
+        if (stream == null && ErrorHandler.hadError()) return craftErrorResponse(errors, PipelineMetrics.Stage.SCAN,
                 "There were scanning errors in your code.");
 
+        // a token stream is scanned while it is parsed, so its scan event covers the parse
+        ScanEvent scanEvent = stream == null ? null : new ScanEvent();
+        if (scanEvent != null) scanEvent.begin();
+        ParseEvent parseEvent = new ParseEvent();
+        parseEvent.begin();
         List<Statement> statements = parser.parse(tokens);
+        parseEvent.end();
+        if (stream != null) {
+            scanEvent.end();
+            if (scanEvent.shouldCommit()) {
+                scanEvent.programHash = stream.getSourceHash();
+                scanEvent.syntax = stream.getSyntax().name();
+                scanEvent.sourceSize = (int) Math.min(stream.getSourceSize(), Integer.MAX_VALUE);
+                scanEvent.tokenCount = (int) stream.getTokenCount();
+                scanEvent.commit();
+            }
+            if (stream.getSyntax() == Syntax.MIXED) {
+                ErrorHandler.clearErrors();
+                return mixedSyntax(errors);
+            }
+            if (stream.keepScanErrors()) return craftErrorResponse(errors, PipelineMetrics.Stage.SCAN,
+                    "There were scanning errors in your code.");
+            interpreter.setProgramHash(stream.getSourceHash());
+        }
+        if (parseEvent.shouldCommit()) {
+            parseEvent.programHash = interpreter.getProgramHash();
+            parseEvent.syntax = interpreter.getSyntax().name();
+            parseEvent.tokenCount = stream == null ? tokens.size() : (int) stream.getTokenCount();
+            parseEvent.statementCount = (int) statements.stream().filter(Objects::nonNull).count();
+            parseEvent.commit();
+        }
+        Map<Integer, Integer> markerLineMap = Map.of();
         if(parser instanceof GOTOParser gotoParser) {
-            Map<Integer, Integer> markerLineMap = gotoParser.getMarkerLineMap();
+            markerLineMap = gotoParser.getMarkerLineMap();
             ((GOTOInterpreter) interpreter).setMarkerLineMap(markerLineMap);
         }
-        if (ErrorHandler.hadError()) return craftErrorResponse(errors,
+        if (ErrorHandler.hadError()) return craftErrorResponse(errors, PipelineMetrics.Stage.PARSE,
                 "There were syntax errors in your code.");
 
-        interpreter.interpretAsync(statements).join();
-        if (ErrorHandler.hadError()) return craftErrorResponse(errors,
+        // the profile is only set on the interpreter below, so the interpreter does not observe it yet
+        if (!profileMode && LWOptimizer.appliesTo(interpreter)) {
+            statements = LWOptimizer.optimize(statements);
+        }
+
+        ExecutionProfile profile = null;
+        if (profileMode) {
+            profile = ExecutionProfile.forStatements(statements);
+            interpreter.setProfile(profile);
+        }
+
+        StepBound bound = interpreter.getSyntax() == Syntax.LW
+                ? StepBound.analyze(statements, environment.getVariables()) : null;
+        ExecutionScheduler.getDefault().submit(clientId, interpreter, statements, bound).join();
+        if (ErrorHandler.hadError()) return craftErrorResponse(errors, PipelineMetrics.Stage.INTERPRET,
                 "There were runtime errors in your code.");
 
-        return new SuccessResponse(environment.getVariables());
+        if (profile != null) {
+            return new ProfileResponse(environment.getValues(), profile.getLineCounts(),
+                    profile.getMarkerCounts(markerLineMap));
+        }
+        return new SuccessResponse(environment.getValues());
+    }
+
+    private static ErrorResponse mixedSyntax(List<String> errors) {
+        errors.add("The code contains both LW and GOTO syntax.\nPlease choose only one syntax at a time.");
+        PipelineMetrics.recordErrors(PipelineMetrics.Stage.DETECT, 1);
+        return new ErrorResponse(errors);
+    }
+
+    private static void setInterpreter(Interpreter current) {
+        interpreter = current;
     }
 
-    private static ErrorResponse craftErrorResponse(List<String> errors, String message) {
+    /**
+     * Identifies the client of the current request, used to limit the executions per client.
+     * Uses the X-Client-Id header if present and the remote address otherwise.
+     *
+     * @return the client id
+     */
+    static String clientId() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) return LOCAL_CLIENT;
+        HttpServletRequest request = servletAttributes.getRequest();
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        if (clientId != null && !clientId.isBlank()) return clientId;
+        return Objects.requireNonNullElse(request.getRemoteAddr(), LOCAL_CLIENT);
+    }
+
+    private static ErrorResponse craftErrorResponse(List<String> errors, PipelineMetrics.Stage stage, String message) {
+        PipelineMetrics.recordErrors(stage, ErrorHandler.getErrors().size());
         errors.add(message);
         errors.addAll(ErrorHandler.getErrors().stream()
                 .map(Object::toString)
@@ -178,6 +371,8 @@ public class LwgController {
     public static class CodeRequest {
         private String code;
         private Map<String, Integer> variables;
+        private boolean profile;
+        private boolean arbitraryPrecision;
 
         /**
          * Gets the code from the request.
@@ -214,18 +409,67 @@ public class LwgController {
         public void setVariables(Map<String, Integer> variables) {
             this.variables = variables;
         }
+
+        /**
+         * Checks if the execution counts of every line should be returned.
+         *
+         * @return true if the code should be profiled
+         */
+        public boolean isProfile() {
+            return profile;
+        }
+
+        /**
+         * Sets whether the execution counts of every line should be returned.
+         *
+         * @param profile true to profile the code
+         */
+        public void setProfile(boolean profile) {
+            this.profile = profile;
+        }
+
+        /**
+         * Checks if values that overflow an int are promoted to arbitrary precision instead of reporting an error.
+         * Debugging always computes with ints.
+         *
+         * @return true to compute with arbitrary precision
+         */
+        public boolean isArbitraryPrecision() {
+            return arbitraryPrecision;
+        }
+
+        /**
+         * Sets whether values that overflow an int are promoted to arbitrary precision.
+         *
+         * @param arbitraryPrecision true to compute with arbitrary precision
+         */
+        public void setArbitraryPrecision(boolean arbitraryPrecision) {
+            this.arbitraryPrecision = arbitraryPrecision;
+        }
     }
 
     /**
      * The response class used to map the outgoing JSON response.
      */
-    public sealed interface ApiResponse permits DebugResponseBorderFirst, DebugResponseBorderLast, DebugResponseStandard, ErrorResponse, SuccessResponse {
+    public sealed interface ApiResponse permits DebugResponseBorderFirst, DebugResponseBorderLast, DebugResponseStandard, ErrorResponse, ProfileResponse, SuccessResponse {
     }
 
     /**
      * The success response class used to map the outgoing JSON response.
+     * Values larger than an int, computed with arbitrary precision, are returned as big integers.
+     */
+    public record SuccessResponse(Map<Integer, Number> variables) implements ApiResponse {
+        public String getType() {
+            return TYPE_SUCCESS;
+        }
+    }
+
+    /**
+     * The success response of a profiled execution, containing the execution count
+     * of every executed line and, for GOTO programs, of every executed marker.
      */
-    public record SuccessResponse(Map<Integer, Integer> variables) implements ApiResponse {
+    public record ProfileResponse(Map<Integer, Number> variables, Map<Integer, Long> lines,
+                                  Map<Integer, Long> markers) implements ApiResponse {
         public String getType() {
             return TYPE_SUCCESS;
         }
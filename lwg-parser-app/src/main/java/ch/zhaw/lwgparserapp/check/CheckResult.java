@@ -0,0 +1,24 @@
+package ch.zhaw.lwgparserapp.check;
+
+import java.util.List;
+
+/**
+ * The result of checking a revision of a document.
+ *
+ * @param revision    the checked revision
+ * @param stale       true if the revision was not checked because a newer revision of the document arrived
+ * @param syntax      the detected syntax, null if the revision is stale
+ * @param diagnostics the problems found in the code, empty if there are none or the revision is stale
+ */
+public record CheckResult(long revision, boolean stale, String syntax, List<Diagnostic> diagnostics) {
+
+    /**
+     * Creates the result of a revision that was dropped for a newer one.
+     *
+     * @param revision the dropped revision
+     * @return the stale result
+     */
+    public static CheckResult stale(long revision) {
+        return new CheckResult(revision, true, null, List.of());
+    }
+}
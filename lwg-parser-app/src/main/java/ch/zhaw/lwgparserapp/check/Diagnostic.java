@@ -0,0 +1,11 @@
+package ch.zhaw.lwgparserapp.check;
+
+/**
+ * A problem found in the code while it was checked.
+ *
+ * @param line    the line of the problem, 0 if it concerns the whole code like a mix of LW and GOTO syntax
+ * @param stage   the stage that found the problem: detect, scan or parse
+ * @param message the message describing the problem
+ */
+public record Diagnostic(int line, String stage, String message) {
+}
@@ -0,0 +1,76 @@
+package ch.zhaw.lwgparserapp.check;
+
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+
+import java.util.Arrays;
+
+/**
+ * The numbers of GOTO and LW keywords on every line of a document. <br>
+ * <p>
+ * An edit only counts the keywords of the lines it replaces, the syntax of the document is detected from the totals
+ * like {@link SyntaxDetector#detectSyntax(String)} detects it from the whole code.
+ */
+final class KeywordCounts {
+    private int[] gotoKeywords;
+    private int[] lwKeywords;
+    private long gotoTotal;
+    private long lwTotal;
+
+    /**
+     * Counts the keywords of every line of the code.
+     *
+     * @param source the code
+     */
+    KeywordCounts(String source) {
+        gotoKeywords = new int[0];
+        lwKeywords = new int[0];
+        replace(1, 0, source, 0, (int) source.chars().filter(c -> c == '\n').count() + 1);
+    }
+
+    /**
+     * Replaces the counts of the lines of an edit with the counts of the lines that replace them.
+     *
+     * @param from      the first replaced line, starting at 1
+     * @param to        the last replaced line, from - 1 to replace no line
+     * @param source    the code after the edit
+     * @param lineStart the offset of the first new line in the code after the edit
+     * @param lineCount the number of new lines
+     */
+    void replace(int from, int to, String source, int lineStart, int lineCount) {
+        int removed = to - from + 1;
+        for (int i = from - 1; i < to; i++) {
+            gotoTotal -= gotoKeywords[i];
+            lwTotal -= lwKeywords[i];
+        }
+        if (lineCount != removed) {
+            gotoKeywords = splice(gotoKeywords, from - 1, removed, lineCount);
+            lwKeywords = splice(lwKeywords, from - 1, removed, lineCount);
+        }
+        int start = lineStart;
+        for (int i = from - 1; i < from - 1 + lineCount; i++) {
+            int end = source.indexOf('\n', start);
+            CharSequence line = source.subSequence(start, end < 0 ? source.length() : end);
+            gotoKeywords[i] = SyntaxDetector.countGotoKeywords(line);
+            lwKeywords[i] = SyntaxDetector.countLwKeywords(line);
+            gotoTotal += gotoKeywords[i];
+            lwTotal += lwKeywords[i];
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Returns the syntax of the document.
+     *
+     * @return the detected syntax
+     */
+    Syntax syntax() {
+        return SyntaxDetector.detectSyntax(gotoTotal, lwTotal);
+    }
+
+    private static int[] splice(int[] counts, int index, int removed, int inserted) {
+        int[] result = Arrays.copyOf(counts, counts.length - removed + inserted);
+        System.arraycopy(counts, index + removed, result, index + inserted, counts.length - index - removed);
+        return result;
+    }
+}
@@ -0,0 +1,244 @@
+package ch.zhaw.lwgparserapp.check;
+
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.parser.IncrementalParser;
+import ch.zhaw.lwgparserapp.parser.TextEdit;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Checks the code of an editor on every keystroke, without running it. <br>
+ * <p>
+ * Only the syntax is detected and the code scanned and parsed. Every document keeps the {@link IncrementalParser}
+ * of its last checked revision, a new revision is compared with the last checked code and only the changed lines
+ * are scanned and parsed again.
+ * <p>
+ * The client numbers the revisions of a document. A check may wait for a debounce time and is dropped as stale
+ * as soon as a newer revision of the same document arrives, so only the last revision of a burst of keystrokes
+ * is checked. The lock of a document is only held to compare the revisions, never while the code is parsed, so
+ * request threads, which may be virtual threads, neither block on a running check nor pin their carrier. The
+ * least recently checked documents are forgotten once there are more than the maximum.
+ */
+public class SyntaxChecker {
+    private static final String STAGE_DETECT = "detect";
+    private static final String STAGE_SCAN = "scan";
+    private static final String STAGE_PARSE = "parse";
+
+    private final Map<String, Document> documents;
+    private final long maxDebounceNanos;
+
+    /**
+     * The revisions of a document. The lock guards the fields, the condition is signalled when a newer revision
+     * arrives.
+     */
+    private static final class Document {
+        private final Lock lock = new ReentrantLock();
+        private final Condition newerRevision = lock.newCondition();
+        private long latestRevision = Long.MIN_VALUE;
+        // null while a check edits it
+        private CheckedCode checked = new CheckedCode();
+    }
+
+    /**
+     * The last checked code of a document, with its keywords and its parser.
+     */
+    private static final class CheckedCode {
+        private String source;
+        private KeywordCounts keywords;
+        private IncrementalParser parser;
+    }
+
+    /**
+     * Creates a new checker.
+     *
+     * @param maxDocuments the number of documents whose last revision is kept
+     * @param maxDebounce  the longest time a check waits for a newer revision
+     */
+    public SyntaxChecker(int maxDocuments, Duration maxDebounce) {
+        if (maxDocuments < 1 || maxDebounce.isNegative()) {
+            throw new IllegalArgumentException("Invalid syntax checker limits");
+        }
+        this.maxDebounceNanos = maxDebounce.toNanos();
+        this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Document> eldest) {
+                return size() > maxDocuments;
+            }
+        };
+    }
+
+    /**
+     * Checks a revision of a document. <br>
+     * <p>
+     * The check first waits up to the debounce time for a newer revision. If a newer revision arrived before or
+     * during the check, the revision is not checked and a stale result is returned.
+     *
+     * @param documentId the id of the document
+     * @param revision   the revision of the document, newer revisions have larger numbers
+     * @param source     the code of the revision
+     * @param debounce   the time to wait for a newer revision, at most the maximum debounce of the checker
+     * @return the diagnostics of the revision, or a stale result
+     * @throws InterruptedException if the thread was interrupted while waiting
+     */
+    public CheckResult check(String documentId, long revision, String source, Duration debounce)
+            throws InterruptedException {
+        Objects.requireNonNull(documentId, "Document id must not be null");
+        Objects.requireNonNull(source, "Source code must not be null");
+        Document document;
+        synchronized (documents) {
+            document = documents.computeIfAbsent(documentId, id -> new Document());
+        }
+        CheckedCode checked;
+        document.lock.lock();
+        try {
+            if (revision < document.latestRevision) return CheckResult.stale(revision);
+            document.latestRevision = revision;
+            document.newerRevision.signalAll();
+            long remaining = Math.min(Math.max(0, debounce.toNanos()), maxDebounceNanos);
+            while (document.latestRevision == revision && remaining > 0) {
+                remaining = document.newerRevision.awaitNanos(remaining);
+            }
+            if (document.latestRevision != revision) return CheckResult.stale(revision);
+            // a check that is still running for an older revision owns the checked code, start over then
+            checked = document.checked == null ? new CheckedCode() : document.checked;
+            document.checked = null;
+        } finally {
+            document.lock.unlock();
+        }
+
+        // the code is scanned and parsed without the lock, so a newer revision never waits for this check
+        CheckResult result = check(document, checked, revision, source);
+        document.lock.lock();
+        try {
+            // the checked code is complete even if it is stale, so it stays the base of the next edit
+            if (result != null && (document.latestRevision == revision || document.checked == null)) {
+                document.checked = checked;
+            }
+            return document.latestRevision == revision && result != null ? result : CheckResult.stale(revision);
+        } finally {
+            document.lock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the last revision of a document, e.g. when the editor is closed.
+     *
+     * @param documentId the id of the document
+     */
+    public void close(String documentId) {
+        synchronized (documents) {
+            documents.remove(documentId);
+        }
+    }
+
+    /**
+     * Checks a revision and updates the checked code to it.
+     *
+     * @return the diagnostics of the revision, or null if a newer revision arrived before the code was parsed,
+     * the checked code is incomplete then
+     */
+    private static CheckResult check(Document document, CheckedCode checked, long revision, String source) {
+        TextEdit edit = null;
+        if (checked.keywords == null) {
+            checked.keywords = new KeywordCounts(source);
+        } else if (!source.equals(checked.source)) {
+            int prefix = commonPrefix(checked.source, source);
+            edit = edit(checked.source, source, prefix);
+            checked.keywords.replace(edit.startLine(), edit.endLine(), source, prefix - edit.startColumn() + 1,
+                    (int) edit.text().chars().filter(c -> c == '\n').count() + 1);
+        }
+        checked.source = source;
+
+        Syntax syntax = checked.keywords.syntax();
+        if (syntax == Syntax.MIXED) {
+            checked.parser = null;
+            return new CheckResult(revision, false, syntax.name(),
+                    List.of(new Diagnostic(0, STAGE_DETECT, "The code contains both LW and GOTO syntax.")));
+        }
+        if (isStale(document, revision)) {
+            return null;
+        }
+        IncrementalParser parser = checked.parser;
+        if (parser == null || parser.getSyntax() != syntax) {
+            parser = new IncrementalParser(syntax, source);
+            checked.parser = parser;
+        } else if (edit != null) {
+            parser.edit(edit);
+        }
+
+        List<ParseError> errors = parser.getErrors();
+        String stage = parser.hasScanErrors() ? STAGE_SCAN : STAGE_PARSE;
+        List<Diagnostic> diagnostics = new ArrayList<>(errors.size());
+        for (ParseError error : errors) {
+            diagnostics.add(new Diagnostic(error.getLine(), stage, error.getMessage()));
+        }
+        return new CheckResult(revision, false, syntax.name(), diagnostics);
+    }
+
+    private static boolean isStale(Document document, long revision) {
+        document.lock.lock();
+        try {
+            return document.latestRevision != revision;
+        } finally {
+            document.lock.unlock();
+        }
+    }
+
+    /**
+     * Finds the edit that turns the previous code into the new one: everything between the common prefix
+     * and the common suffix of both is replaced.
+     *
+     * @param previous the previous code
+     * @param source   the new code
+     * @return the edit
+     */
+    static TextEdit edit(String previous, String source) {
+        return edit(previous, source, commonPrefix(previous, source));
+    }
+
+    private static int commonPrefix(String previous, String source) {
+        int length = Math.min(previous.length(), source.length());
+        int prefix = 0;
+        while (prefix < length && previous.charAt(prefix) == source.charAt(prefix)) {
+            prefix++;
+        }
+        return prefix;
+    }
+
+    private static TextEdit edit(String previous, String source, int prefix) {
+        int length = Math.min(previous.length(), source.length());
+        int suffix = 0;
+        while (suffix < length - prefix
+                && previous.charAt(previous.length() - 1 - suffix) == source.charAt(source.length() - 1 - suffix)) {
+            suffix++;
+        }
+        int end = previous.length() - suffix;
+
+        int line = 1;
+        int lineStart = 0;
+        int startLine = 1;
+        int startColumn = 1;
+        for (int i = 0; i <= end; i++) {
+            if (i == prefix) {
+                startLine = line;
+                startColumn = i - lineStart + 1;
+            }
+            if (i < end && previous.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        return new TextEdit(startLine, startColumn, line, end - lineStart + 1,
+                source.substring(prefix, source.length() - suffix));
+    }
+}
@@ -0,0 +1,194 @@
+package ch.zhaw.lwgparserapp.cli;
+
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * The headless command line runner. <br>
+ * <p>
+ * Runs LW and GOTO programs through the scanner, parser and interpreter without starting Spring,
+ * one program per core, and writes one JSON line per program in the order the programs were given.
+ * The runner only loads the classes of the interpreter pipeline, so it starts in a fraction of a second.
+ * <p>
+ * Exit codes: 0 if all programs ran without errors, 1 if a program had errors, 2 on invalid arguments.
+ */
+public final class LwgCli {
+    static final int EXIT_SUCCESS = 0;
+    static final int EXIT_PROGRAM_ERROR = 1;
+    static final int EXIT_USAGE = 2;
+    private static final String INPUT_EXTENSION = ".in";
+    private static final String USAGE = """
+            Usage: lwg-cli [options] <program|directory>...
+              -i, --input <file>     input variables for every program, e.g. x1 = 5 (one per line)
+              -o, --output <file>    write the results to a file instead of standard output
+              -j, --threads <n>      number of programs run in parallel (default: number of cores)
+              -t, --timeout <sec>    halt a program after this many seconds (default: 15)
+              --no-optimize          run LW programs as written, to count the steps of every statement
+              -h, --help             print this help
+            A program <name> uses the input file <name>.in if it exists.
+            Directories are searched recursively for programs.""";
+
+    private LwgCli() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static void main(String[] args) {
+        PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)),
+                false, StandardCharsets.UTF_8);
+        int exitCode = run(args, out, System.err);
+        out.flush();
+        System.exit(exitCode);
+    }
+
+    /**
+     * Runs the command line runner.
+     *
+     * @param args the command line arguments
+     * @param out  the stream to write the results to, unless an output file is given
+     * @param err  the stream to write usage errors to
+     * @return the exit code
+     */
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        Path input = null;
+        Path output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int timeout = 15;
+        boolean optimize = true;
+        List<Path> programs = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-h", "--help" -> {
+                        out.println(USAGE);
+                        return EXIT_SUCCESS;
+                    }
+                    case "-i", "--input" -> input = Path.of(value(args, ++i));
+                    case "-o", "--output" -> output = Path.of(value(args, ++i));
+                    case "-j", "--threads" -> threads = positive(args, ++i);
+                    case "-t", "--timeout" -> timeout = positive(args, ++i);
+                    case "--no-optimize" -> optimize = false;
+                    default -> {
+                        if (args[i].startsWith("-")) throw new IllegalArgumentException("Unknown option: " + args[i]);
+                        programs.addAll(programs(Path.of(args[i])));
+                    }
+                }
+            }
+            if (programs.isEmpty()) throw new IllegalArgumentException("No programs given");
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        Map<String, Integer> sharedInput = null;
+        if (input != null) {
+            try {
+                sharedInput = ProgramRunner.readInput(input);
+            } catch (IOException | IllegalArgumentException e) {
+                err.println("Could not read the input file " + input + ": " + e.getMessage());
+                return EXIT_USAGE;
+            }
+        }
+
+        ProgramRunner runner = new ProgramRunner(timeout, optimize);
+        if (output == null) return runAll(programs, sharedInput, threads, runner, out);
+        try (PrintStream file = new PrintStream(new BufferedOutputStream(Files.newOutputStream(output)), false,
+                StandardCharsets.UTF_8)) {
+            return runAll(programs, sharedInput, threads, runner, file);
+        } catch (IOException e) {
+            err.println("Could not write the output file " + output + ": " + e.getMessage());
+            return EXIT_USAGE;
+        }
+    }
+
+    /**
+     * Runs the programs in parallel and writes the results in the order of the programs.
+     */
+    private static int runAll(List<Path> programs, Map<String, Integer> sharedInput, int threads,
+                              ProgramRunner runner, PrintStream out) {
+        int exitCode = EXIT_SUCCESS;
+        try (ExecutorService workers = Executors.newFixedThreadPool(Math.min(threads, programs.size()),
+                Thread.ofPlatform().name("lwg-cli-", 0).daemon(true).factory())) {
+            List<Future<RunResult>> results = new ArrayList<>(programs.size());
+            for (Path program : programs) {
+                results.add(workers.submit(() -> runProgram(runner, program, sharedInput)));
+            }
+            for (Future<RunResult> future : results) {
+                RunResult result = future.get();
+                if (!result.success()) exitCode = EXIT_PROGRAM_ERROR;
+                out.println(result.toJson());
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Running a program failed unexpectedly", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EXIT_PROGRAM_ERROR;
+        } finally {
+            out.flush();
+        }
+        return exitCode;
+    }
+
+    private static RunResult runProgram(ProgramRunner runner, Path program, Map<String, Integer> sharedInput) {
+        Map<String, Integer> input = sharedInput;
+        Path inputFile = program.resolveSibling(program.getFileName() + INPUT_EXTENSION);
+        if (Files.isRegularFile(inputFile)) {
+            try {
+                input = ProgramRunner.readInput(inputFile);
+            } catch (IOException | IllegalArgumentException e) {
+                return new RunResult(program.toString(), null, false, Map.of(),
+                        List.of("Could not read the input file " + inputFile + ": " + e.getMessage()), List.of(), 0, 0);
+            }
+        }
+        return runner.run(program, input);
+    }
+
+    /**
+     * Returns the program files of a path: the file itself or all files of a directory, except input files.
+     */
+    private static List<Path> programs(Path path) {
+        if (!Files.isDirectory(path)) {
+            if (!Files.isRegularFile(path)) throw new IllegalArgumentException("No such program: " + path);
+            return List.of(path);
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().endsWith(INPUT_EXTENSION))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list the programs in " + path, e);
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) throw new IllegalArgumentException("Missing value for " + args[index - 1]);
+        return args[index];
+    }
+
+    private static int positive(String[] args, int index) {
+        String value = value(args, index);
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) return number;
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException(args[index - 1] + " needs a positive number, got: " + value);
+    }
+}
@@ -0,0 +1,229 @@
+package ch.zhaw.lwgparserapp.cli;
+
+import ch.zhaw.lwgparserapp.analysis.ControlFlowGraph;
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.GOTOInterpreter;
+import ch.zhaw.lwgparserapp.interpreter.Interpreter;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.optimizer.LWOptimizer;
+import ch.zhaw.lwgparserapp.parser.GOTOParser;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.parser.Parser;
+import ch.zhaw.lwgparserapp.scanner.CharSource;
+import ch.zhaw.lwgparserapp.scanner.SyntaxScanner;
+import ch.zhaw.lwgparserapp.scanner.TokenStream;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.token.Token;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Runs a single program through the scanner, parser and interpreter, without the web stack. <br>
+ * <p>
+ * The program is interpreted on the calling thread, so a batch can run one program per worker thread.
+ */
+public class ProgramRunner {
+    private final int haltTimeout;
+    private final boolean optimize;
+
+    /**
+     * Creates a new runner that optimises LW programs.
+     *
+     * @param haltTimeout the time in seconds after which a program is halted
+     */
+    public ProgramRunner(int haltTimeout) {
+        this(haltTimeout, true);
+    }
+
+    /**
+     * Creates a new runner.
+     *
+     * @param haltTimeout the time in seconds after which a program is halted
+     * @param optimize    true to optimise LW programs before they run, see {@link LWOptimizer}
+     */
+    public ProgramRunner(int haltTimeout, boolean optimize) {
+        this.haltTimeout = haltTimeout;
+        this.optimize = optimize;
+    }
+
+    /**
+     * Runs a program file.
+     *
+     * @param program the program file
+     * @param input   the input variables, e.g. x1 = 5, or null
+     * @return the result of the run
+     */
+    public RunResult run(Path program, Map<String, Integer> input) {
+        long start = System.nanoTime();
+        ErrorHandler.clearErrors();
+        // the program is scanned while it is parsed, so a large program is never held in memory as a whole,
+        // and a large file is mapped into memory instead of read through a decoder
+        try (FileChannel channel = FileChannel.open(program)) {
+            TokenStream tokens = new TokenStream(CharSource.of(channel));
+            return run(program.toString(), tokens.getSyntax(), tokens, 0, input, start);
+        } catch (IOException e) {
+            return error(program, null, List.of("Could not read the program: " + e.getMessage()), 0, start);
+        } catch (UncheckedIOException e) {
+            return error(program, null, List.of("Could not read the program: " + e.getCause().getMessage()), 0,
+                    start);
+        }
+    }
+
+    /**
+     * Runs the source code of a program.
+     *
+     * @param name   the name of the program, used in the result
+     * @param source the source code
+     * @param input  the input variables, e.g. x1 = 5, or null
+     * @return the result of the run
+     */
+    public RunResult run(String name, String source, Map<String, Integer> input) {
+        return run(name, source, input, System.nanoTime());
+    }
+
+    private RunResult run(String name, String source, Map<String, Integer> input, long start) {
+        ErrorHandler.clearErrors();
+        SyntaxScanner scanner = new SyntaxScanner(source);
+        List<Token> tokens = scanner.scanProgram();
+        return run(name, scanner.getSyntax(), tokens, source.hashCode(), input, start);
+    }
+
+    /**
+     * Parses and runs the tokens of a program. The tokens of a {@link TokenStream} are scanned while they are parsed,
+     * so its scanning errors, mixed syntax and hash code are only known afterwards.
+     */
+    private RunResult run(String name, Syntax syntax, List<Token> tokens, int programHash, Map<String, Integer> input,
+                          long start) {
+        Environment environment = input == null ? new Environment() : new Environment(input, false);
+
+        Interpreter interpreter;
+        Parser parser;
+        switch (syntax) {
+            case LW -> {
+                interpreter = LWInterpreter.create(environment);
+                parser = new LWParser();
+            }
+            case GOTO -> {
+                interpreter = new GOTOInterpreter(environment);
+                parser = new GOTOParser();
+            }
+            case MIXED -> {
+                return error(name, syntax, List.of("The code contains both LW and GOTO syntax."), 0, start);
+            }
+            default -> {
+                return error(name, null, List.of("The code does not contain any valid syntax."), 0, start);
+            }
+        }
+        interpreter.setProgramHash(programHash);
+        interpreter.setHaltTimeout(haltTimeout);
+
+        TokenStream stream = tokens instanceof TokenStream tokenStream ? tokenStream : null;
+        if (stream == null && ErrorHandler.hadError()) {
+            return error(name, syntax, errors("There were scanning errors in your code."), 0, start);
+        }
+        List<Statement> statements = parser.parse(tokens);
+        if (stream != null) {
+            if (stream.getSyntax() == Syntax.MIXED) {
+                ErrorHandler.clearErrors();
+                return error(name, Syntax.MIXED, List.of("The code contains both LW and GOTO syntax."), 0, start);
+            }
+            if (stream.keepScanErrors()) {
+                return error(name, syntax, errors("There were scanning errors in your code."), 0, start);
+            }
+            interpreter.setProgramHash(stream.getSourceHash());
+        }
+        List<String> warnings = List.of();
+        if (parser instanceof GOTOParser gotoParser) {
+            ((GOTOInterpreter) interpreter).setMarkerLineMap(gotoParser.getMarkerLineMap());
+            warnings = ControlFlowGraph.build(statements, gotoParser.getMarkerLineMap()).getUnreachableLines().stream()
+                    .map(line -> "[line " + line + "] Unreachable statement")
+                    .toList();
+        }
+        if (ErrorHandler.hadError()) {
+            return error(name, syntax, errors("There were syntax errors in your code."), 0, start);
+        }
+
+        if (syntax == Syntax.LW && optimize) {
+            statements = LWOptimizer.optimize(statements);
+        }
+
+        interpreter.interpretAsync(statements, Runnable::run).join();
+        if (ErrorHandler.hadError()) {
+            return error(name, syntax, errors("There were runtime errors in your code."), interpreter.getSteps(),
+                    start);
+        }
+        return new RunResult(name, syntax.name(), true, new TreeMap<>(environment.getVariables()), List.of(),
+                warnings, interpreter.getSteps(), elapsedMillis(start));
+    }
+
+    /**
+     * Reads an input file. Every assignment has the form x1 = 5, assignments are separated
+     * by line breaks or commas and everything after # is a comment.
+     *
+     * @param file the input file
+     * @return the input variables
+     * @throws IOException if the file cannot be read
+     * @throws IllegalArgumentException if an assignment is invalid
+     */
+    public static Map<String, Integer> readInput(Path file) throws IOException {
+        return parseInput(Files.readString(file));
+    }
+
+    /**
+     * Parses input variables, see {@link #readInput(Path)}.
+     *
+     * @param input the input assignments
+     * @return the input variables
+     * @throws IllegalArgumentException if an assignment is invalid
+     */
+    public static Map<String, Integer> parseInput(String input) {
+        Map<String, Integer> variables = new LinkedHashMap<>();
+        for (String line : input.split("\\R")) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            for (String assignment : line.split(",")) {
+                if (assignment.isBlank()) continue;
+                String[] parts = assignment.split("=");
+                String variable = parts[0].strip();
+                if (parts.length != 2 || !variable.matches("x\\d+") || !parts[1].strip().matches("\\d+")) {
+                    throw new IllegalArgumentException("Invalid input assignment: " + assignment.strip());
+                }
+                variables.put(variable, Integer.parseInt(parts[1].strip()));
+            }
+        }
+        return variables;
+    }
+
+    private static List<String> errors(String message) {
+        List<String> errors = new ArrayList<>();
+        errors.add(message);
+        errors.addAll(ErrorHandler.getErrors().stream()
+                .map(Object::toString)
+                .toList());
+        return errors;
+    }
+
+    private static RunResult error(Path program, Syntax syntax, List<String> errors, long steps, long start) {
+        return error(program.toString(), syntax, errors, steps, start);
+    }
+
+    private static RunResult error(String name, Syntax syntax, List<String> errors, long steps, long start) {
+        return new RunResult(name, syntax == null ? null : syntax.name(), false, Map.of(), errors, List.of(), steps,
+                elapsedMillis(start));
+    }
+
+    private static long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
@@ -0,0 +1,78 @@
+package ch.zhaw.lwgparserapp.cli;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of running a single program from the command line.
+ *
+ * @param file      the program file
+ * @param syntax    the detected syntax, null if none was detected
+ * @param success   true if the program ran without errors
+ * @param variables the variables after the run, empty on errors
+ * @param errors    the errors of the run
+ * @param warnings  the warnings about the program, like unreachable statements
+ * @param steps     the number of executed statements
+ * @param millis    the wall-clock time of the run in milliseconds
+ */
+public record RunResult(String file, String syntax, boolean success, Map<Integer, Integer> variables,
+                        List<String> errors, List<String> warnings, long steps, long millis) {
+
+    /**
+     * Writes the result as a single line of JSON.
+     *
+     * @return the JSON object
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(128);
+        json.append("{\"file\":");
+        appendString(json, file);
+        json.append(",\"syntax\":");
+        if (syntax == null) json.append("null");
+        else appendString(json, syntax);
+        json.append(",\"type\":\"").append(success ? "success" : "error").append('"');
+        json.append(",\"variables\":{");
+        boolean first = true;
+        for (Map.Entry<Integer, Integer> variable : variables.entrySet()) {
+            if (!first) json.append(',');
+            json.append("\"x").append(variable.getKey()).append("\":").append(variable.getValue());
+            first = false;
+        }
+        json.append("},\"errors\":[");
+        for (int i = 0; i < errors.size(); i++) {
+            if (i > 0) json.append(',');
+            appendString(json, errors.get(i));
+        }
+        json.append(']');
+        if (!warnings.isEmpty()) {
+            json.append(",\"warnings\":[");
+            for (int i = 0; i < warnings.size(); i++) {
+                if (i > 0) json.append(',');
+                appendString(json, warnings.get(i));
+            }
+            json.append(']');
+        }
+        json.append(",\"steps\":").append(steps);
+        json.append(",\"millis\":").append(millis).append('}');
+        return json.toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\r' -> json.append("\\r");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) json.append(String.format("\\u%04x", (int) c));
+                    else json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+}
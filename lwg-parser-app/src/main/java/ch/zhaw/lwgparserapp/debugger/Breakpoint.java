@@ -0,0 +1,57 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+/**
+ * A breakpoint set by the client. <br>
+ * <p>
+ * A breakpoint is either set on a line or, in GOTO programs, on a marker. If a variable is given,
+ * the breakpoint is conditional and only hits if the comparison of the variable with the value holds.
+ *
+ * @param line     the line of the breakpoint, or null if it is set on a marker
+ * @param marker   the marker of the breakpoint, or null if it is set on a line
+ * @param variable the variable of the condition, or null for an unconditional breakpoint
+ * @param operator the comparison of the condition: ==, !=, &lt;, &lt;=, &gt; or &gt;=
+ * @param value    the value the variable is compared with
+ */
+public record Breakpoint(Integer line, Integer marker, Integer variable, String operator, Integer value) {
+
+    /**
+     * Creates an unconditional breakpoint on a line.
+     *
+     * @param line the line of the breakpoint
+     * @return the breakpoint
+     */
+    public static Breakpoint atLine(int line) {
+        return new Breakpoint(line, null, null, null, null);
+    }
+
+    /**
+     * Creates an unconditional breakpoint on a marker.
+     *
+     * @param marker the marker of the breakpoint
+     * @return the breakpoint
+     */
+    public static Breakpoint atMarker(int marker) {
+        return new Breakpoint(null, marker, null, null, null);
+    }
+
+    /**
+     * Returns a copy of this breakpoint that only hits if the condition holds.
+     *
+     * @param variable the variable of the condition
+     * @param operator the comparison of the condition
+     * @param value    the value the variable is compared with
+     * @return the conditional breakpoint
+     */
+    public Breakpoint when(int variable, String operator, int value) {
+        return new Breakpoint(line, marker, variable, operator, value);
+    }
+
+    /**
+     * Checks if the breakpoint only hits under a condition.
+     *
+     * @return true if the breakpoint is conditional
+     */
+    public boolean isConditional() {
+        return variable != null;
+    }
+}
@@ -0,0 +1,19 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import java.util.Map;
+
+/**
+ * Receives the breakpoint hits of an interpreter.
+ */
+@FunctionalInterface
+public interface BreakpointListener {
+
+    /**
+     * Called on the interpreting thread before the statement of a hit breakpoint is executed.
+     * The variables are the live variables of the interpreter and must be copied if they are kept.
+     *
+     * @param line      the line of the breakpoint
+     * @param variables the variables at the breakpoint
+     */
+    void hit(int line, Map<Integer, Integer> variables);
+}
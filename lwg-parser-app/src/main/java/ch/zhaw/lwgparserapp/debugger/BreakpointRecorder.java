@@ -0,0 +1,34 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Records the breakpoint hits of an execution as the steps of a {@link DebugTrace}. <br>
+ * <p>
+ * The state is only materialised at a hit: the variables are compared with the previous hit
+ * and the differences are written to the trace, so a {@link DebugSession} can move between the hits.
+ */
+public final class BreakpointRecorder implements BreakpointListener {
+    private final DebugTrace trace;
+    private Map<Integer, Integer> previous = Map.of();
+
+    /**
+     * Creates a new recorder.
+     *
+     * @param trace the trace to record the hits in
+     */
+    public BreakpointRecorder(DebugTrace trace) {
+        this.trace = Objects.requireNonNull(trace, "Trace must not be null");
+    }
+
+    @Override
+    public void hit(int line, Map<Integer, Integer> variables) {
+        variables.forEach((variable, value) -> {
+            if (!value.equals(previous.get(variable))) trace.write(variable, value);
+        });
+        trace.step(line, variables);
+        previous = new HashMap<>(variables);
+    }
+}
@@ -0,0 +1,144 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * The compiled breakpoints of a program. <br>
+ * <p>
+ * The breakpoints are resolved to lines once, before the program runs, into a flag array indexed by line.
+ * The interpreters only read the flag of every statement they execute, so a program runs at full speed
+ * between breakpoints and the conditions are only evaluated on flagged lines.
+ */
+public final class Breakpoints {
+    private final boolean[] flagged;
+    private final Condition[][] conditions; // null on lines with an unconditional breakpoint
+
+    private Breakpoints(boolean[] flagged, Condition[][] conditions) {
+        this.flagged = flagged;
+        this.conditions = conditions;
+    }
+
+    /**
+     * Resolves the breakpoints to lines. Breakpoints on unknown markers, after the last line or with an unknown
+     * operator are reported as errors and ignored.
+     *
+     * @param breakpoints   the breakpoints set by the client
+     * @param lastLine      the last line of the program, the flag array is sized by it
+     * @param markerLineMap the line of every marker, empty for LW programs
+     * @return the compiled breakpoints
+     */
+    public static Breakpoints compile(List<Breakpoint> breakpoints, int lastLine,
+                                      Map<Integer, Integer> markerLineMap) {
+        List<Integer> lines = new ArrayList<>();
+        List<Condition> lineConditions = new ArrayList<>();
+        for (Breakpoint breakpoint : breakpoints) {
+            Integer line = breakpoint.line();
+            if (line == null && breakpoint.marker() != null) {
+                line = markerLineMap.get(breakpoint.marker());
+                if (line == null) {
+                    ErrorHandler.report(0, "Breakpoint at unknown marker M" + breakpoint.marker());
+                    continue;
+                }
+            }
+            if (line == null || line < 0) {
+                ErrorHandler.report(0, "Breakpoint without a valid line or marker");
+                continue;
+            }
+            if (line > lastLine) {
+                ErrorHandler.report(0, "Breakpoint at line " + line + " after the last line " + lastLine);
+                continue;
+            }
+            Condition condition = null;
+            if (breakpoint.isConditional()) {
+                condition = Condition.of(breakpoint);
+                if (condition == null) continue;
+            }
+            lines.add(line);
+            lineConditions.add(condition);
+        }
+
+        int size = Math.max(0, lastLine + 1);
+        boolean[] flagged = new boolean[size];
+        Condition[][] conditions = new Condition[size][];
+        boolean[] unconditional = new boolean[size];
+        for (int i = 0; i < lines.size(); i++) {
+            int line = lines.get(i);
+            Condition condition = lineConditions.get(i);
+            flagged[line] = true;
+            if (condition == null) {
+                unconditional[line] = true;
+            } else if (!unconditional[line]) {
+                Condition[] existing = conditions[line] == null ? new Condition[0] : conditions[line];
+                conditions[line] = Arrays.copyOf(existing, existing.length + 1);
+                conditions[line][existing.length] = condition;
+            }
+        }
+        for (int line = 0; line < size; line++) {
+            if (unconditional[line]) conditions[line] = null;
+        }
+        return new Breakpoints(flagged, conditions);
+    }
+
+    /**
+     * Checks if a breakpoint is set on a line. This is the check the interpreters run for every statement.
+     *
+     * @param line the line
+     * @return true if a breakpoint is set on the line
+     */
+    public boolean isFlagged(int line) {
+        return line < flagged.length && flagged[line];
+    }
+
+    /**
+     * Checks if a breakpoint on a flagged line hits.
+     *
+     * @param line      the flagged line
+     * @param variables the variables of the interpreter
+     * @return true if the line has an unconditional breakpoint or one of its conditions holds
+     */
+    public boolean hits(int line, Map<Integer, Integer> variables) {
+        Condition[] lineConditions = conditions[line];
+        if (lineConditions == null) return true;
+        for (Condition condition : lineConditions) {
+            if (condition.test(variables.getOrDefault(condition.variable(), 0))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * The condition of a conditional breakpoint.
+     */
+    private record Condition(int variable, IntPredicate comparison) {
+        static Condition of(Breakpoint breakpoint) {
+            if (breakpoint.value() == null || breakpoint.operator() == null) {
+                ErrorHandler.report(0, "Conditional breakpoint without operator or value");
+                return null;
+            }
+            int value = breakpoint.value();
+            IntPredicate comparison = switch (breakpoint.operator()) {
+                case "==" -> current -> current == value;
+                case "!=" -> current -> current != value;
+                case "<" -> current -> current < value;
+                case "<=" -> current -> current <= value;
+                case ">" -> current -> current > value;
+                case ">=" -> current -> current >= value;
+                default -> null;
+            };
+            if (comparison == null) {
+                ErrorHandler.report(0, "Unknown breakpoint operator: " + breakpoint.operator());
+                return null;
+            }
+            return new Condition(breakpoint.variable(), comparison);
+        }
+
+        boolean test(int current) {
+            return comparison.test(current);
+        }
+    }
+}
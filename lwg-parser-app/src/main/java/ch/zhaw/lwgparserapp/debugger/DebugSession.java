@@ -0,0 +1,102 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A DebugSession steps through the {@link DebugTrace} of one execution. <br>
+ * <p>
+ * Unlike the global {@link Debugger}, every client gets its own session, and every move
+ * reports only the variables that differ from the previous position.
+ * The session starts before the first step.
+ */
+public final class DebugSession {
+    private final DebugTrace trace;
+    private int position = -1;
+
+    /**
+     * Creates a new session positioned before the first step of the trace.
+     *
+     * @param trace the trace to step through
+     */
+    public DebugSession(DebugTrace trace) {
+        this.trace = Objects.requireNonNull(trace, "Trace must not be null");
+    }
+
+    /**
+     * Returns the trace of the session.
+     *
+     * @return the trace
+     */
+    public DebugTrace getTrace() {
+        return trace;
+    }
+
+    /**
+     * Moves to the next step. Stays at the last step if there is none.
+     *
+     * @return the move
+     */
+    public DebugStep next() {
+        return moveTo(position + 1);
+    }
+
+    /**
+     * Moves to the previous step. Stays at the first step if there is none.
+     *
+     * @return the move
+     */
+    public DebugStep previous() {
+        return moveTo(position - 1);
+    }
+
+    /**
+     * Moves to the given step. Steps out of range are clamped to the first or last step.
+     *
+     * @param step the step to move to
+     * @return the move
+     */
+    public DebugStep seek(int step) {
+        return moveTo(step);
+    }
+
+    /**
+     * Runs to the end of the trace.
+     *
+     * @return the move
+     */
+    public DebugStep resume() {
+        return moveTo(trace.size() - 1);
+    }
+
+    private DebugStep moveTo(int step) {
+        if (trace.size() == 0) {
+            return new DebugStep(-1, 0, true, true, Map.of(), List.of());
+        }
+        int target = Math.clamp(step, 0, trace.size() - 1);
+        Map<Integer, Integer> changes;
+        List<Integer> removed;
+        if (target == position + 1 && position >= 0) {
+            changes = trace.changesAt(target);
+            removed = List.of();
+        } else {
+            Map<Integer, Integer> from = position < 0 ? Map.of() : trace.variablesAt(position);
+            Map<Integer, Integer> to = trace.variablesAt(target);
+            changes = new HashMap<>();
+            to.forEach((variable, value) -> {
+                if (!value.equals(from.get(variable))) changes.put(variable, value);
+            });
+            removed = new ArrayList<>();
+            for (Integer variable : from.keySet()) {
+                if (!to.containsKey(variable)) removed.add(variable);
+            }
+            Collections.sort(removed);
+        }
+        position = target;
+        return new DebugStep(target, trace.lineAt(target), target == 0, target == trace.size() - 1, changes, removed);
+    }
+}
@@ -0,0 +1,21 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A move of a {@link DebugSession} to another step. <br>
+ * <p>
+ * Only the difference to the previous position is included: the variables whose value changed
+ * and the variables that did not exist yet at the new step.
+ *
+ * @param step    the new step, -1 if nothing was recorded
+ * @param line    the line of the new step
+ * @param first   true if the new step is the first step
+ * @param last    true if the new step is the last step
+ * @param changes the variables that changed with their new values
+ * @param removed the variables that do not exist at the new step
+ */
+public record DebugStep(int step, int line, boolean first, boolean last, Map<Integer, Integer> changes,
+                        List<Integer> removed) {
+}
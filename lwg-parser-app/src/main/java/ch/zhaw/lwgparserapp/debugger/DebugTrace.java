@@ -0,0 +1,149 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The DebugTrace records the steps of a single debugged execution. <br>
+ * <p>
+ * Instead of a copy of all variables per step, only the variables written since the previous step
+ * are stored, in flat int arrays. Every {@value #CHECKPOINT_INTERVAL} steps a full copy of the
+ * variables is kept as a checkpoint, so the variables of any step can be restored by replaying
+ * at most {@value #CHECKPOINT_INTERVAL} steps. A trace stops recording after its maximum number of steps.
+ */
+public final class DebugTrace {
+    static final int CHECKPOINT_INTERVAL = 256;
+
+    private final int maxSteps;
+    private int steps = 0;
+    private int[] lines = new int[64];
+    private int[] changeEnds = new int[64]; // end of the changes of every step in the changes array
+    private int[] changes = new int[128];   // variable and value pairs
+    private int changeCount = 0;
+    private final List<Map<Integer, Integer>> checkpoints = new ArrayList<>();
+    private boolean truncated = false;
+
+    /**
+     * Creates a new trace.
+     *
+     * @param maxSteps the maximum number of steps to record
+     */
+    public DebugTrace(int maxSteps) {
+        if (maxSteps < 1) throw new IllegalArgumentException("A trace must record at least one step");
+        this.maxSteps = maxSteps;
+    }
+
+    /**
+     * Records that a variable was written. The write belongs to the next recorded step.
+     *
+     * @param variable the variable identifier
+     * @param value    the new value
+     */
+    public void write(int variable, int value) {
+        if (truncated) return;
+        if (changeCount + 2 > changes.length) {
+            changes = Arrays.copyOf(changes, changes.length * 2);
+        }
+        changes[changeCount++] = variable;
+        changes[changeCount++] = value;
+    }
+
+    /**
+     * Records a step.
+     *
+     * @param line      the line of the step
+     * @param variables the variables after the step, only read for checkpoints
+     */
+    public void step(int line, Map<Integer, Integer> variables) {
+        if (truncated) return;
+        if (steps == maxSteps) {
+            truncated = true;
+            return;
+        }
+        if (steps == lines.length) {
+            lines = Arrays.copyOf(lines, lines.length * 2);
+            changeEnds = Arrays.copyOf(changeEnds, changeEnds.length * 2);
+        }
+        if (steps % CHECKPOINT_INTERVAL == 0) {
+            checkpoints.add(new HashMap<>(variables));
+        }
+        lines[steps] = line;
+        changeEnds[steps] = changeCount;
+        steps++;
+    }
+
+    /**
+     * Returns the number of recorded steps.
+     *
+     * @return the number of steps
+     */
+    public int size() {
+        return steps;
+    }
+
+    /**
+     * Checks if the execution had more steps than the trace recorded.
+     *
+     * @return true if steps were dropped
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Returns the line of a step.
+     *
+     * @param step the step
+     * @return the line of the step
+     */
+    public int lineAt(int step) {
+        checkStep(step);
+        return lines[step];
+    }
+
+    /**
+     * Returns the variables written since the previous step, in the order they were first written.
+     *
+     * @param step the step
+     * @return the written variables with their values
+     */
+    public Map<Integer, Integer> changesAt(int step) {
+        checkStep(step);
+        Map<Integer, Integer> written = new LinkedHashMap<>();
+        applyChanges(step, written);
+        return written;
+    }
+
+    /**
+     * Returns the variables after a step.
+     *
+     * @param step the step
+     * @return a copy of the variables
+     */
+    public Map<Integer, Integer> variablesAt(int step) {
+        checkStep(step);
+        int checkpoint = step / CHECKPOINT_INTERVAL;
+        Map<Integer, Integer> variables = new HashMap<>(checkpoints.get(checkpoint));
+        for (int replayed = checkpoint * CHECKPOINT_INTERVAL + 1; replayed <= step; replayed++) {
+            applyChanges(replayed, variables);
+        }
+        return variables;
+    }
+
+    private void applyChanges(int step, Map<Integer, Integer> variables) {
+        int start = step == 0 ? 0 : changeEnds[step - 1];
+        for (int i = start; i < changeEnds[step]; i += 2) {
+            variables.put(changes[i], changes[i + 1]);
+        }
+    }
+
+    private void checkStep(int step) {
+        if (step < 0 || step >= steps) {
+            throw new IndexOutOfBoundsException("Step " + step + " was not recorded");
+        }
+    }
+}
@@ -5,10 +5,21 @@ import java.util.List;
 
 /**
  * Handles error reporting and stores errors for future retrieval.
+ * <p>
+ * The errors are kept per thread, so concurrent executions do not see each other's errors.
+ * Work that is handed to another thread can be bound to the errors of the submitting thread
+ * with {@link #bindToCurrentErrors(Runnable)}.
  */
 public class ErrorHandler {
-    private static boolean hadError = false;  // Internal flag to track errors
-    private static final List<ParseError> errorList = new ArrayList<>();  // Internal list of errors
+    private static final ThreadLocal<Errors> currentErrors = ThreadLocal.withInitial(Errors::new);
+
+    /**
+     * The errors reported by a single execution.
+     */
+    private static final class Errors {
+        private boolean hadError = false;  // Internal flag to track errors
+        private final List<ParseError> errorList = new ArrayList<>();  // Internal list of errors
+    }
 
     private ErrorHandler() {
         // Private constructor to prevent instantiation
@@ -21,8 +32,9 @@ public class ErrorHandler {
      * @param message the error message describing the issue
      */
     public static void report(int line, String message) {
-        errorList.add(new ParseError(line, message));
-        hadError = true; // Marks that an error occurred
+        Errors errors = currentErrors.get();
+        errors.errorList.add(new ParseError(line, message));
+        errors.hadError = true; // Marks that an error occurred
     }
 
     /**
@@ -31,15 +43,16 @@ public class ErrorHandler {
      * @return an unmodifiable list of ParseError objects
      */
     public static List<ParseError> getErrors() {
-        return errorList;
+        return currentErrors.get().errorList;
     }
 
     /**
      * Clears the error state and list of errors.
      */
     public static void clearErrors() {
-        hadError = false;
-        errorList.clear();
+        Errors errors = currentErrors.get();
+        errors.hadError = false;
+        errors.errorList.clear();
     }
 
     /**
@@ -48,7 +61,26 @@ public class ErrorHandler {
      * @return true if an error has occurred, false otherwise
      */
     public static boolean hadError() {
-        return hadError;
+        return currentErrors.get().hadError;
     }
-}
 
+    /**
+     * Wraps a task so that it reports into the errors of the calling thread,
+     * regardless of the thread it is eventually run on.
+     *
+     * @param task the task to wrap
+     * @return the wrapped task
+     */
+    public static Runnable bindToCurrentErrors(Runnable task) {
+        Errors errors = currentErrors.get();
+        return () -> {
+            Errors previous = currentErrors.get();
+            currentErrors.set(errors);
+            try {
+                task.run();
+            } finally {
+                currentErrors.set(previous);
+            }
+        };
+    }
+}
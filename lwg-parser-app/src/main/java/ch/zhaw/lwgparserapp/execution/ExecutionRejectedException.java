@@ -0,0 +1,29 @@
+package ch.zhaw.lwgparserapp.execution;
+
+/**
+ * Thrown when the {@link ExecutionScheduler} does not admit an execution,
+ * either because the client reached its limit or because the server is saturated.
+ */
+public class ExecutionRejectedException extends RuntimeException {
+    private final String reason;
+
+    /**
+     * Creates a new exception.
+     *
+     * @param reason  a short machine-readable reason, used as metrics tag
+     * @param message the message shown to the client
+     */
+    public ExecutionRejectedException(String reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Returns the reason of the rejection.
+     *
+     * @return the reason
+     */
+    public String getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,267 @@
+package ch.zhaw.lwgparserapp.execution;
+
+import ch.zhaw.lwgparserapp.analysis.StepBound;
+import ch.zhaw.lwgparserapp.interpreter.Interpreter;
+import ch.zhaw.lwgparserapp.interpreter.InterpreterExecutors;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits executions and shares the processors fairly between them. <br>
+ * <p>
+ * Every execution needs one of a fixed number of processor permits to run. Admitted executions wait
+ * for a thread in a bounded queue and then for a permit in a fair queue. An execution is rejected
+ * right away when its client already has too many executions in flight or when the queue is full.
+ * <p>
+ * Executions are time-sliced: when others are waiting for a permit, an execution that held its permit
+ * for longer than the time slice is asked to yield. The interpreter gives the permit back at its next
+ * halt check and queues up behind the waiting executions, so short runs do not starve behind long ones.
+ * <p>
+ * Programs with a {@link StepBound} are checked before they are admitted: a program that runs for more steps
+ * than allowed is rejected, and a long-running program first waits for one of a few long-running permits, so long
+ * programs never occupy all processors.
+ */
+public class ExecutionScheduler {
+    private static volatile ExecutionScheduler defaultScheduler;
+
+    private final Semaphore processors;
+    private final ThreadPoolExecutor pool;
+    private final int clientLimit;
+    private final long timeSliceNanos;
+    private final Semaphore longRunning;
+    private final long longRunningSteps;
+    private final long maxSteps;
+    private final Map<String, AtomicInteger> executionsPerClient = new ConcurrentHashMap<>();
+    private final Set<Slice> runningSlices = ConcurrentHashMap.newKeySet();
+    private final ScheduledFuture<?> preemption;
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param processors    the number of executions that may run at the same time
+     * @param maxExecutions the number of admitted executions that may hold a thread, running or waiting for a processor
+     * @param queueCapacity the number of admitted executions that may wait for a thread
+     * @param clientLimit   the number of executions a single client may have in flight
+     * @param timeSlice     the time an execution may run while others are waiting
+     */
+    public ExecutionScheduler(int processors, int maxExecutions, int queueCapacity, int clientLimit,
+                              Duration timeSlice) {
+        this(processors, maxExecutions, queueCapacity, clientLimit, timeSlice, 1, Long.MAX_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Creates a new scheduler that checks the step bounds of the programs.
+     *
+     * @param processors            the number of executions that may run at the same time
+     * @param maxExecutions         the number of admitted executions that may hold a thread
+     * @param queueCapacity         the number of admitted executions that may wait for a thread
+     * @param clientLimit           the number of executions a single client may have in flight
+     * @param timeSlice             the time an execution may run while others are waiting
+     * @param longRunningExecutions the number of long-running executions that may run at the same time
+     * @param longRunningSteps      the step bound above which an execution is long-running
+     * @param maxSteps              the step bound above which an execution is rejected
+     */
+    public ExecutionScheduler(int processors, int maxExecutions, int queueCapacity, int clientLimit,
+                              Duration timeSlice, int longRunningExecutions, long longRunningSteps, long maxSteps) {
+        if (processors < 1 || maxExecutions < processors || queueCapacity < 1 || clientLimit < 1
+                || longRunningExecutions < 1 || longRunningSteps < 0 || maxSteps < longRunningSteps) {
+            throw new IllegalArgumentException("Invalid scheduler limits");
+        }
+        this.longRunning = new Semaphore(longRunningExecutions, true);
+        this.longRunningSteps = longRunningSteps;
+        this.maxSteps = maxSteps;
+        this.processors = new Semaphore(processors, true);
+        this.pool = new ThreadPoolExecutor(maxExecutions, maxExecutions, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("lwg-execution-", 0).daemon(true).factory());
+        this.pool.allowCoreThreadTimeOut(true);
+        this.clientLimit = clientLimit;
+        this.timeSliceNanos = timeSlice.toNanos();
+        this.preemption = InterpreterExecutors.timeoutScheduler().scheduleAtFixedRate(this::preemptExpiredSlices,
+                timeSlice.toMillis(), Math.max(1, timeSlice.toMillis() / 2), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Returns the scheduler used by the application.
+     * If none was configured, a scheduler with default limits is created.
+     *
+     * @return the default scheduler
+     */
+    public static ExecutionScheduler getDefault() {
+        ExecutionScheduler scheduler = defaultScheduler;
+        if (scheduler == null) {
+            synchronized (ExecutionScheduler.class) {
+                if (defaultScheduler == null) {
+                    int cores = Runtime.getRuntime().availableProcessors();
+                    defaultScheduler = new ExecutionScheduler(cores, cores * 8, 256, 4, Duration.ofMillis(100));
+                }
+                scheduler = defaultScheduler;
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Replaces the scheduler used by the application. The previous scheduler is shut down
+     * after its admitted executions finished.
+     *
+     * @param scheduler the new default scheduler
+     */
+    public static synchronized void setDefault(ExecutionScheduler scheduler) {
+        ExecutionScheduler previous = defaultScheduler;
+        defaultScheduler = Objects.requireNonNull(scheduler, "Scheduler must not be null");
+        if (previous != null && previous != scheduler) {
+            previous.shutdown();
+        }
+    }
+
+    /**
+     * Submits an execution. <br>
+     * <p>
+     * The interpreter runs on a thread of this scheduler once a processor is available.
+     *
+     * @param clientId    the client the execution belongs to
+     * @param interpreter the interpreter to run
+     * @param statements  the statements to interpret
+     * @return a CompletableFuture representing the execution
+     * @throws ExecutionRejectedException if the execution was not admitted
+     */
+    public CompletableFuture<Void> submit(String clientId, Interpreter interpreter, List<Statement> statements) {
+        return submit(clientId, interpreter, statements, null);
+    }
+
+    /**
+     * Submits an execution with a known step bound. <br>
+     * <p>
+     * An execution whose exact bound exceeds the maximum steps is rejected before it runs,
+     * an execution whose bound exceeds the long-running steps waits for a long-running permit.
+     *
+     * @param clientId    the client the execution belongs to
+     * @param interpreter the interpreter to run
+     * @param statements  the statements to interpret
+     * @param bound       the step bound of the program, or null if it is unknown
+     * @return a CompletableFuture representing the execution
+     * @throws ExecutionRejectedException if the execution was not admitted
+     */
+    public CompletableFuture<Void> submit(String clientId, Interpreter interpreter, List<Statement> statements,
+                                          StepBound bound) {
+        Objects.requireNonNull(clientId, "Client id must not be null");
+        if (bound != null && bound.exact() && bound.exceeds(maxSteps)) {
+            PipelineMetrics.recordRejection("step_bound");
+            throw new ExecutionRejectedException("step_bound", "The program would run for " + bound.steps()
+                    + " steps, but programs may run for at most " + maxSteps + " steps.");
+        }
+        boolean longRunningExecution = bound != null && bound.exceeds(longRunningSteps);
+        acquireClientSlot(clientId);
+        long submitted = System.nanoTime();
+        CompletableFuture<Void> execution;
+        try {
+            execution = interpreter.interpretAsync(statements, command -> pool.execute(
+                    () -> runTimeSliced(interpreter, command, submitted, longRunningExecution)));
+        } catch (RejectedExecutionException e) {
+            releaseClientSlot(clientId);
+            PipelineMetrics.recordRejection("queue_full");
+            throw new ExecutionRejectedException("queue_full",
+                    "The server is busy right now, please try again in a moment.");
+        }
+        return execution.whenComplete((result, failure) -> releaseClientSlot(clientId));
+    }
+
+    /**
+     * Shuts the scheduler down. Admitted executions are still run.
+     */
+    public void shutdown() {
+        preemption.cancel(false);
+        pool.shutdown();
+    }
+
+    private void acquireClientSlot(String clientId) {
+        AtomicInteger executions = executionsPerClient.computeIfAbsent(clientId, id -> new AtomicInteger());
+        if (executions.incrementAndGet() > clientLimit) {
+            releaseClientSlot(clientId);
+            PipelineMetrics.recordRejection("client_limit");
+            throw new ExecutionRejectedException("client_limit",
+                    "You already have " + clientLimit + " programs running, please wait until one of them finished.");
+        }
+    }
+
+    private void releaseClientSlot(String clientId) {
+        executionsPerClient.computeIfPresent(clientId,
+                (id, executions) -> executions.decrementAndGet() <= 0 ? null : executions);
+    }
+
+    /**
+     * Runs an interpretation while holding a processor permit, and a long-running permit if it is long-running.
+     */
+    private void runTimeSliced(Interpreter interpreter, Runnable interpretation, long submitted,
+                               boolean longRunningExecution) {
+        if (longRunningExecution) {
+            longRunning.acquireUninterruptibly();
+        }
+        processors.acquireUninterruptibly();
+        PipelineMetrics.recordQueueTime(System.nanoTime() - submitted);
+        Slice slice = new Slice(interpreter);
+        interpreter.setYieldHandler(slice::yieldProcessor);
+        runningSlices.add(slice);
+        try {
+            interpretation.run();
+        } finally {
+            runningSlices.remove(slice);
+            interpreter.setYieldHandler(null);
+            processors.release();
+            if (longRunningExecution) {
+                longRunning.release();
+            }
+        }
+    }
+
+    /**
+     * Asks every execution whose time slice expired to yield, if another execution is waiting.
+     */
+    private void preemptExpiredSlices() {
+        if (!processors.hasQueuedThreads()) return;
+        long now = System.nanoTime();
+        for (Slice slice : runningSlices) {
+            if (now - slice.start >= timeSliceNanos) {
+                slice.interpreter.requestYield();
+            }
+        }
+    }
+
+    /**
+     * The time slice of a running execution.
+     */
+    private final class Slice {
+        private final Interpreter interpreter;
+        private volatile long start = System.nanoTime();
+
+        private Slice(Interpreter interpreter) {
+            this.interpreter = interpreter;
+        }
+
+        /**
+         * Gives the processor permit to the next waiting execution and waits for a new one.
+         * Runs on the interpreting thread.
+         */
+        private void yieldProcessor() {
+            processors.release();
+            processors.acquireUninterruptibly();
+            start = System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package ch.zhaw.lwgparserapp.execution;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.time.Duration;
+
+/**
+ * Configures the {@link ExecutionScheduler} from the application properties.
+ * <p>
+ * The scheduler is created eagerly even with lazy initialization, because the controllers use the default
+ * scheduler it installs.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ExecutionSchedulerConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    @Lazy(false)
+    public ExecutionScheduler executionScheduler(
+            @Value("${lwg.scheduler.processors:0}") int processors,
+            @Value("${lwg.scheduler.max-executions:0}") int maxExecutions,
+            @Value("${lwg.scheduler.queue-capacity:256}") int queueCapacity,
+            @Value("${lwg.scheduler.client-limit:4}") int clientLimit,
+            @Value("${lwg.scheduler.time-slice:100ms}") Duration timeSlice,
+            @Value("${lwg.scheduler.long-running-executions:1}") int longRunningExecutions,
+            @Value("${lwg.scheduler.long-running-steps:100000000}") long longRunningSteps,
+            @Value("${lwg.scheduler.max-steps:5000000000}") long maxSteps) {
+        int cores = processors > 0 ? processors : Runtime.getRuntime().availableProcessors();
+        int executions = maxExecutions > 0 ? maxExecutions : cores * 8;
+        ExecutionScheduler scheduler = new ExecutionScheduler(cores, executions, queueCapacity, clientLimit, timeSlice,
+                longRunningExecutions, longRunningSteps, maxSteps);
+        ExecutionScheduler.setDefault(scheduler);
+        return scheduler;
+    }
+}
@@ -0,0 +1,186 @@
+package ch.zhaw.lwgparserapp.execution;
+
+import ch.zhaw.lwgparserapp.interpreter.Interpreter;
+import ch.zhaw.lwgparserapp.interpreter.Progress;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * An execution that runs in the background and is identified by an id. <br>
+ * <p>
+ * The work of a job attaches the interpreter it creates with {@link #attach(Interpreter)},
+ * so the job can report the progress of the interpreter and halt it when it is cancelled.
+ * The progress is sampled on request and the latest sample is kept by the job.
+ *
+ * @param <R> the type of the result
+ */
+public final class Job<R> {
+    private final String id;
+    private final int haltTimeout;
+    private final CompletableFuture<R> result = new CompletableFuture<>();
+    private volatile Interpreter interpreter;
+    private volatile boolean cancelled = false;
+    private volatile Progress progress;
+    private volatile long finishedAt;
+
+    /**
+     * Creates a new job.
+     *
+     * @param id          the id of the job
+     * @param haltTimeout the halt timeout in seconds of the interpreter of the job
+     */
+    Job(String id, int haltTimeout) {
+        this.id = id;
+        this.haltTimeout = haltTimeout;
+    }
+
+    /**
+     * Returns the id of the job.
+     *
+     * @return the id
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Attaches the interpreter that runs the job and gives it the halt timeout of the job.
+     * If the job was already cancelled, the interpreter is halted right away.
+     *
+     * @param interpreter the interpreter running the job
+     */
+    public void attach(Interpreter interpreter) {
+        interpreter.setHaltTimeout(haltTimeout);
+        interpreter.setProgressListener(sample -> progress = sample);
+        this.interpreter = interpreter;
+        if (cancelled) interpreter.halt();
+    }
+
+    /**
+     * Cancels the job by halting its interpreter. A finished job is not affected.
+     *
+     * @return true if the job was still running
+     */
+    public boolean cancel() {
+        if (result.isDone()) return false;
+        cancelled = true;
+        Interpreter current = interpreter;
+        if (current != null) current.halt();
+        return true;
+    }
+
+    /**
+     * Returns the status of the job.
+     *
+     * @return the status
+     */
+    public JobStatus getStatus() {
+        if (!result.isDone()) return JobStatus.RUNNING;
+        if (result.isCompletedExceptionally()) return JobStatus.FAILED;
+        return cancelled ? JobStatus.CANCELLED : JobStatus.COMPLETED;
+    }
+
+    /**
+     * Returns the number of steps the interpreter executed so far.
+     *
+     * @return the number of steps, 0 if the interpreter did not start yet
+     */
+    public long getSteps() {
+        Interpreter current = interpreter;
+        return current == null ? 0 : current.getSteps();
+    }
+
+    /**
+     * Requests a progress sample from the interpreter of the job. The sample is taken at the next
+     * polling site of the interpreter and is available through {@link #getProgress()} afterwards.
+     */
+    public void sampleProgress() {
+        Interpreter current = interpreter;
+        if (current != null && !result.isDone()) current.requestProgress();
+    }
+
+    /**
+     * Returns the latest progress sample of the job.
+     *
+     * @return the latest sample, empty if no sample was taken yet
+     */
+    public Optional<Progress> getProgress() {
+        return Optional.ofNullable(progress);
+    }
+
+    /**
+     * Returns the halt timeout of the job.
+     *
+     * @return the halt timeout in seconds
+     */
+    public int getHaltTimeout() {
+        return haltTimeout;
+    }
+
+    /**
+     * Returns the result of the job, if it finished.
+     *
+     * @return the result, empty if the job is running or failed
+     */
+    public Optional<R> getResult() {
+        JobStatus status = getStatus();
+        if (status == JobStatus.RUNNING || status == JobStatus.FAILED) return Optional.empty();
+        return Optional.ofNullable(result.resultNow());
+    }
+
+    /**
+     * Returns the reason a failed job could not be run.
+     *
+     * @return the cause of the failure, empty if the job did not fail
+     */
+    public Optional<Throwable> getFailure() {
+        return getStatus() == JobStatus.FAILED ? Optional.of(result.exceptionNow()) : Optional.empty();
+    }
+
+    /**
+     * Waits until the job finished or the timeout elapsed, whichever comes first.
+     *
+     * @param timeout the maximum time to wait
+     * @return true if the job finished
+     * @throws InterruptedException if the waiting thread was interrupted
+     */
+    public boolean await(Duration timeout) throws InterruptedException {
+        if (timeout.isZero() || timeout.isNegative()) return result.isDone();
+        try {
+            result.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            // a failed job finished as well
+        } catch (TimeoutException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the time the job finished.
+     *
+     * @return the System.nanoTime() at which the job finished
+     */
+    long getFinishedAt() {
+        return finishedAt;
+    }
+
+    void complete(R value) {
+        finishedAt = System.nanoTime();
+        result.complete(value);
+    }
+
+    void fail(Throwable failure) {
+        finishedAt = System.nanoTime();
+        result.completeExceptionally(failure);
+    }
+
+    boolean isFinished() {
+        return result.isDone();
+    }
+}
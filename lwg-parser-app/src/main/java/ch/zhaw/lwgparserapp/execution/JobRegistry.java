@@ -0,0 +1,117 @@
+package ch.zhaw.lwgparserapp.execution;
+
+import ch.zhaw.lwgparserapp.interpreter.InterpreterExecutors;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Runs jobs in the background and keeps their results until they are evicted. <br>
+ * <p>
+ * Every job is driven by its own virtual thread, which blocks while the job waits for
+ * the {@link ExecutionScheduler}, so a running job does not hold a request thread or a client connection.
+ * Finished jobs are retained for the retention period. When the registry is full, the oldest
+ * finished job is evicted early; if all jobs are still running, new jobs are rejected.
+ *
+ * @param <R> the type of the job results
+ */
+public class JobRegistry<R> {
+    private final Map<String, Job<R>> jobs = new ConcurrentHashMap<>();
+    private final ExecutorService drivers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("lwg-job-", 0).factory());
+    private final int maxJobs;
+    private final long retentionNanos;
+    private final int haltTimeout;
+    private final ScheduledFuture<?> eviction;
+
+    /**
+     * Creates a new registry.
+     *
+     * @param maxJobs     the number of jobs that may be retained, running or finished
+     * @param retention   how long the result of a finished job is kept
+     * @param haltTimeout how long a job may run before its interpreter is halted
+     */
+    public JobRegistry(int maxJobs, Duration retention, Duration haltTimeout) {
+        if (maxJobs < 1 || retention.isNegative() || haltTimeout.toSeconds() < 1) {
+            throw new IllegalArgumentException("Invalid job registry limits");
+        }
+        this.maxJobs = maxJobs;
+        this.retentionNanos = retention.toNanos();
+        this.haltTimeout = Math.toIntExact(haltTimeout.toSeconds());
+        long period = Math.max(1000, retention.toMillis() / 4);
+        this.eviction = InterpreterExecutors.timeoutScheduler().scheduleWithFixedDelay(this::evictExpired,
+                period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submits a job. The work is run on a new virtual thread and gets the job to attach its interpreter to.
+     *
+     * @param work the work of the job
+     * @return the submitted job
+     * @throws ExecutionRejectedException if the registry is full of running jobs
+     */
+    public Job<R> submit(Function<Job<R>, R> work) {
+        if (jobs.size() >= maxJobs) {
+            evictExpired();
+            evictOldestFinished();
+        }
+        if (jobs.size() >= maxJobs) {
+            PipelineMetrics.recordRejection("job_limit");
+            throw new ExecutionRejectedException("job_limit",
+                    "Too many programs are running right now, please try again later.");
+        }
+        Job<R> job = new Job<>(UUID.randomUUID().toString(), haltTimeout);
+        jobs.put(job.getId(), job);
+        drivers.execute(() -> {
+            try {
+                job.complete(work.apply(job));
+            } catch (RuntimeException | Error e) {
+                job.fail(e);
+            }
+        });
+        return job;
+    }
+
+    /**
+     * Finds a job by its id.
+     *
+     * @param id the id of the job
+     * @return the job, empty if it is unknown or was evicted
+     */
+    public Optional<Job<R>> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Stops evicting jobs and running new ones.
+     */
+    public void shutdown() {
+        eviction.cancel(false);
+        drivers.shutdown();
+    }
+
+    /**
+     * Removes the finished jobs whose retention period elapsed.
+     */
+    void evictExpired() {
+        long now = System.nanoTime();
+        jobs.values().removeIf(job -> job.isFinished() && now - job.getFinishedAt() >= retentionNanos);
+    }
+
+    private void evictOldestFinished() {
+        jobs.values().stream()
+                .filter(Job::isFinished)
+                .min(Comparator.comparingLong(Job::getFinishedAt))
+                .ifPresent(job -> jobs.remove(job.getId(), job));
+    }
+}
@@ -0,0 +1,23 @@
+package ch.zhaw.lwgparserapp.execution;
+
+/**
+ * The status of a {@link Job}.
+ */
+public enum JobStatus {
+    /**
+     * The job is waiting for a processor or running.
+     */
+    RUNNING,
+    /**
+     * The job finished and its result is available.
+     */
+    COMPLETED,
+    /**
+     * The job was cancelled by the client.
+     */
+    CANCELLED,
+    /**
+     * The job could not be run, for example because the scheduler rejected it.
+     */
+    FAILED
+}
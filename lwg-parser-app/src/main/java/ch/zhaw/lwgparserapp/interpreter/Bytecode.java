@@ -0,0 +1,80 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.List;
+
+/**
+ * A LW program compiled for the {@link LWBytecodeInterpreter} <br>
+ * <p>
+ * The program is a flat int array of instructions, each an opcode followed by its operands. The operands refer
+ * to registers: the first registers hold the variables of the program (register 0 is x0), the registers after
+ * them hold the counters of the Loop statements, one per nesting depth. Jump targets are absolute code indices.
+ * <pre>
+ * ADD_CONST  dst src c line   dst = src + c, reports an overflow at line
+ * SUB_SAT    dst src c        dst = max(0, src - c)
+ * LOOP_INIT  ctr src exit     ctr = src, jump to exit if it is 0
+ * LOOP_CONST ctr n exit       ctr = n, jump to exit if it is 0
+ * LOOP_NEXT  ctr head         decrement ctr, jump to head if it is not 0
+ * WHILE_INIT var c exit       jump to exit unless var &gt; c
+ * JGT        var c head       jump to head if var &gt; c
+ * POLL       line             start of an iteration, stops the program if the interpreter is halted
+ * ENTER      loop             a While loop is entered, stops the program if it never ends
+ * CYCLE      loop line        checks the state of a While loop, stops the program if it repeats forever
+ * END                         end of the program
+ * </pre>
+ * The Loop and While instructions count one step each, like the statements they were compiled from.
+ * ENTER and CYCLE are only compiled with loop detection, their operand is the index of the While loop in
+ * {@code loops}, see {@link CycleDetector}.
+ *
+ * @param code      the instructions
+ * @param variables the variable held by each of the first registers
+ * @param registers the number of registers, variables and loop counters
+ * @param loops     the While loops checked by ENTER and CYCLE
+ */
+record Bytecode(int[] code, int[] variables, int registers, List<While> loops) {
+    static final int ADD_CONST = 0;
+    static final int SUB_SAT = 1;
+    static final int LOOP_INIT = 2;
+    static final int LOOP_CONST = 3;
+    static final int LOOP_NEXT = 4;
+    static final int WHILE_INIT = 5;
+    static final int JGT = 6;
+    static final int POLL = 7;
+    static final int END = 8;
+    static final int ENTER = 9;
+    static final int CYCLE = 10;
+
+    private static final String[] NAMES = {
+            "ADD_CONST", "SUB_SAT", "LOOP_INIT", "LOOP_CONST", "LOOP_NEXT", "WHILE_INIT", "JGT", "POLL", "END",
+            "ENTER", "CYCLE"
+    };
+    private static final int[] OPERANDS = {4, 3, 3, 3, 2, 3, 3, 1, 0, 1, 2};
+
+    /**
+     * Returns the length of an instruction.
+     *
+     * @param opcode the opcode of the instruction
+     * @return the number of ints the instruction takes, including the opcode
+     */
+    static int length(int opcode) {
+        return OPERANDS[opcode] + 1;
+    }
+
+    /**
+     * Lists the instructions, one per line with its code index.
+     *
+     * @return the disassembled program
+     */
+    String disassemble() {
+        StringBuilder listing = new StringBuilder();
+        for (int pc = 0; pc < code.length; pc += length(code[pc])) {
+            listing.append(pc).append(": ").append(NAMES[code[pc]]);
+            for (int operand = 1; operand <= OPERANDS[code[pc]]; operand++) {
+                listing.append(' ').append(code[pc + operand]);
+            }
+            listing.append('\n');
+        }
+        return listing.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.optimizer.HoistedLoop;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compiles LW statements into {@link Bytecode} <br>
+ * <p>
+ * The statement records are walked once and the nested loops are flattened into jumps. A Loop statement keeps
+ * its counter in a register of its nesting depth, so nested loops never share a counter and sibling loops reuse
+ * the same one.
+ */
+final class BytecodeCompiler {
+    private final CompiledFrame.Layout layout = new CompiledFrame.Layout();
+    private final List<While> loops;
+    private int[] code = new int[64];
+    private int size;
+    private int depth;
+    private int maxDepth;
+
+    private BytecodeCompiler(boolean detectLoops) {
+        this.loops = detectLoops ? new ArrayList<>() : null;
+    }
+
+    /**
+     * Compiles a LW program.
+     *
+     * @param statements  the statements of the program
+     * @param detectLoops true to check the While loops for infinite loops, see {@link CycleDetector}
+     * @return the compiled program
+     * @throws IllegalArgumentException if the program contains a statement that is not a LW statement
+     */
+    static Bytecode compile(List<Statement> statements, boolean detectLoops) {
+        BytecodeCompiler compiler = new BytecodeCompiler(detectLoops);
+        compiler.block(statements);
+        compiler.emit(Bytecode.END);
+        int[] variables = compiler.layout.variables();
+        int[] code = Arrays.copyOf(compiler.code, compiler.size);
+        // the counters follow the variables, patch the counter operands now that the variables are known
+        for (int pc = 0; pc < code.length; pc += Bytecode.length(code[pc])) {
+            int opcode = code[pc];
+            if (opcode == Bytecode.LOOP_INIT || opcode == Bytecode.LOOP_CONST || opcode == Bytecode.LOOP_NEXT) {
+                code[pc + 1] += variables.length;
+            }
+        }
+        return new Bytecode(code, variables, variables.length + compiler.maxDepth,
+                detectLoops ? List.copyOf(compiler.loops) : List.of());
+    }
+
+    private void block(List<Statement> statements) {
+        for (Statement statement : statements) {
+            switch (statement) {
+                case Assignment assignment -> assignment(assignment);
+                case Loop loop -> loop(loop, List.of());
+                case While whileStatement -> whileLoop(whileStatement, List.of());
+                case HoistedLoop hoisted when hoisted.loop() instanceof Loop loop -> loop(loop, hoisted.invariants());
+                case HoistedLoop hoisted when hoisted.loop() instanceof While whileStatement ->
+                        whileLoop(whileStatement, hoisted.invariants());
+                case null, default -> throw new IllegalArgumentException("Cannot compile " + statement);
+            }
+        }
+    }
+
+    private void assignment(Assignment assignment) {
+        int target = layout.slot(assignment.variable1Number());
+        int source = layout.slot(assignment.variable2Number());
+        if (assignment.operator() == Operator.ADDITION) {
+            emit(Bytecode.ADD_CONST, target, source, assignment.constant(), assignment.line());
+        } else if (assignment.operator() == Operator.SUBTRACTION) {
+            emit(Bytecode.SUB_SAT, target, source, assignment.constant());
+        } else {
+            throw new IllegalArgumentException("Cannot compile the operator " + assignment.operator());
+        }
+    }
+
+    /**
+     * Compiles a Loop statement, the hoisted invariants run between the initialisation and the first iteration.
+     */
+    private void loop(Loop loop, List<Statement> invariants) {
+        int counter = depth;
+        int init = size;
+        if (loop.usesConstant()) {
+            emit(Bytecode.LOOP_CONST, counter, loop.number(), 0);
+        } else {
+            emit(Bytecode.LOOP_INIT, counter, layout.slot(loop.number()), 0);
+        }
+        block(invariants);
+        int head = size;
+        emit(Bytecode.POLL, loop.line());
+        depth++;
+        maxDepth = Math.max(maxDepth, depth);
+        block(loop.statements());
+        depth--;
+        emit(Bytecode.LOOP_NEXT, counter, head);
+        code[init + 3] = size;
+    }
+
+    /**
+     * Compiles a While statement, the hoisted invariants run between the initialisation and the first iteration.
+     */
+    private void whileLoop(While whileStatement, List<Statement> invariants) {
+        int variable = layout.slot(whileStatement.variableNumber());
+        int constant = whileStatement.constant();
+        int init = size;
+        emit(Bytecode.WHILE_INIT, variable, constant, 0);
+        int loop = -1;
+        if (loops != null) {
+            loop = loops.size();
+            loops.add(whileStatement);
+            emit(Bytecode.ENTER, loop);
+        }
+        block(invariants);
+        int head = size;
+        emit(Bytecode.POLL, whileStatement.line());
+        if (loops != null) {
+            emit(Bytecode.CYCLE, loop, whileStatement.line());
+        }
+        block(whileStatement.statements());
+        emit(Bytecode.JGT, variable, constant, head);
+        code[init + 3] = size;
+    }
+
+    private void emit(int... instruction) {
+        if (size + instruction.length > code.length) {
+            code = Arrays.copyOf(code, Math.max(code.length * 2, size + instruction.length));
+        }
+        System.arraycopy(instruction, 0, code, size, instruction.length);
+        size += instruction.length;
+    }
+}
@@ -0,0 +1,159 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The variables of a running compiled program <br>
+ * <p>
+ * Compiled code keeps the variables in an int array instead of the environment: every variable the compiled
+ * statements use has a slot, slot 0 always holds x0. The slots are loaded from the environment when the compiled
+ * code is entered and written back when it is left. The interpreters create missing variables when a statement
+ * first uses them, so every slot also remembers whether its variable exists. Only existing variables are written
+ * back and the environment ends up exactly as if the program had been interpreted.
+ */
+final class CompiledFrame {
+    /**
+     * Thrown at a back-edge of compiled LW code when the interpreter was halted. It unwinds the compiled loops
+     * and is caught where the compiled code was entered.
+     */
+    static final RuntimeException HALTED = new RuntimeException("Halted", null, false, false) {
+    };
+
+    final int[] values;
+    final boolean[] present;
+    final Interpreter interpreter;
+    private final int[] variables;
+    int line;
+
+    /**
+     * Creates a frame and loads the slots from the environment of the interpreter.
+     *
+     * @param variables   the variable of every slot, the first one is x0
+     * @param interpreter the interpreter running the compiled code
+     */
+    CompiledFrame(int[] variables, Interpreter interpreter) {
+        this(variables, variables.length, interpreter);
+    }
+
+    /**
+     * Creates a frame with additional registers after the slots of the variables.
+     *
+     * @param variables   the variable of every slot, the first one is x0
+     * @param registers   the number of slots and additional registers
+     * @param interpreter the interpreter running the compiled code
+     */
+    CompiledFrame(int[] variables, int registers, Interpreter interpreter) {
+        this.variables = variables;
+        this.interpreter = interpreter;
+        this.values = new int[registers];
+        this.present = new boolean[registers];
+        Map<Integer, Integer> environment = interpreter.environment.getVariables();
+        for (int slot = 0; slot < variables.length; slot++) {
+            Integer value = environment.get(variables[slot]);
+            if (value != null) {
+                values[slot] = value;
+                present[slot] = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the variable of every slot, the same array for every frame of the same compiled code.
+     *
+     * @return the variables, the first one is x0
+     */
+    int[] variables() {
+        return variables;
+    }
+
+    /**
+     * Writes the existing variables back to the environment.
+     */
+    void store() {
+        Map<Integer, Integer> environment = interpreter.environment.getVariables();
+        for (int slot = 0; slot < variables.length; slot++) {
+            if (present[slot]) {
+                environment.put(variables[slot], values[slot]);
+            }
+        }
+    }
+
+    /**
+     * Polls the interpreter at a back-edge. This is where compiled code is halted, preempted or sampled.
+     *
+     * @param line the line the execution continues at
+     * @return true if the interpreter is halted
+     */
+    boolean poll(int line) {
+        this.line = line;
+        present[0] = true;
+        return interpreter.shouldHalt();
+    }
+
+    /**
+     * Polls the interpreter at a back-edge of a loop and unwinds the compiled loops if it is halted.
+     *
+     * @param line the line of the loop
+     */
+    void backEdge(int line) {
+        if (poll(line)) {
+            throw HALTED;
+        }
+    }
+
+    /**
+     * Executes xi = xj + c, like {@link Interpreter#interpretAssignment}.
+     */
+    void add(int line, int target, int source, int constant) {
+        present[0] = true;
+        present[source] = true;
+        present[target] = true;
+        try {
+            int value = Math.addExact(values[source], constant);
+            if (value < 0) {
+                ErrorHandler.report(0, "Variable value cannot be negative");
+            }
+            values[target] = value;
+        } catch (ArithmeticException e) {
+            ErrorHandler.report(line, "There was an arithmetic overflow.");
+            values[target] = 0;
+        }
+    }
+
+    /**
+     * Executes xi = xj - c, like {@link Interpreter#interpretAssignment}.
+     */
+    void subtract(int target, int source, int constant) {
+        present[0] = true;
+        present[source] = true;
+        present[target] = true;
+        values[target] = Math.max(0, values[source] - constant);
+    }
+
+    /**
+     * Reads a variable that a statement initialises if it is absent.
+     */
+    int read(int slot) {
+        present[0] = true;
+        present[slot] = true;
+        return values[slot];
+    }
+
+    /**
+     * Assigns the slots of the variables while a program is compiled.
+     */
+    static final class Layout {
+        private final Map<Integer, Integer> slots = new LinkedHashMap<>(Map.of(0, 0));
+
+        int slot(int variable) {
+            return slots.computeIfAbsent(variable, absent -> slots.size());
+        }
+
+        int[] variables() {
+            return slots.keySet().stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.optimizer.HoistedLoop;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Detects loops that repeat the same state forever <br>
+ * <p>
+ * Only the control variables decide which path a loop takes: the variables of its conditions and loop counts,
+ * and every variable assigned to a control variable. If the control variables have the same values at the same
+ * position twice, every following iteration repeats the path between them and the loop never ends, no matter
+ * what the other variables do.
+ * <p>
+ * The detector compares the state at every back-edge with a single snapshot that is taken again whenever the
+ * number of back-edges reaches a power of two (Brent's algorithm). A cycle is found within about twice its
+ * length plus the iterations before it, at the cost of comparing the control variables once per back-edge.
+ * The state is read from the environment while the program is interpreted and from the slots of the
+ * {@link CompiledFrame} while it runs compiled, so a loop keeps its detector when it tiers up.
+ */
+final class CycleDetector {
+    private final int[] variables;
+    private final int[] state;
+    private final int[] snapshot;
+    private int snapshotPosition;
+    private long backEdges;
+    private long checkpoint;
+    // the slot of every variable in the frame the detector last read, -1 if the compiled code does not use it
+    private int[] frameVariables;
+    private int[] slots;
+
+    private CycleDetector(Set<Integer> variables) {
+        this.variables = variables.stream().mapToInt(Integer::intValue).toArray();
+        this.state = new int[this.variables.length];
+        this.snapshot = new int[this.variables.length];
+        reset();
+    }
+
+    /**
+     * Creates the detector of a While loop, whose state is checked at the start of every iteration.
+     *
+     * @param whileStatement the While loop
+     * @return the detector
+     */
+    static CycleDetector of(While whileStatement) {
+        Set<Integer> variables = new TreeSet<>(Set.of(whileStatement.variableNumber()));
+        collect(whileStatement.statements(), variables);
+        return new CycleDetector(variables);
+    }
+
+    /**
+     * Creates the detector of a GOTO program, whose state is checked at every backward jump.
+     *
+     * @param statements the statements, with null at blank lines
+     * @return the detector
+     */
+    static CycleDetector of(List<Statement> statements) {
+        Set<Integer> variables = new TreeSet<>();
+        collect(statements, variables);
+        return new CycleDetector(variables);
+    }
+
+    /**
+     * Checks if the condition of a While loop can change while the loop runs.
+     *
+     * @param whileStatement the While loop
+     * @return true if the body never assigns the variable of the condition
+     */
+    static boolean isInvariant(While whileStatement) {
+        return !assigns(whileStatement.statements(), whileStatement.variableNumber());
+    }
+
+    /**
+     * Starts over, for a loop that is entered again.
+     */
+    void reset() {
+        backEdges = 0;
+        checkpoint = 1;
+    }
+
+    /**
+     * Counts a back-edge and checks if the state was seen before.
+     *
+     * @param environment the variables
+     * @param position    the position the program continues at
+     * @return true if the program repeats the same state forever
+     */
+    boolean repeats(Environment environment, int position) {
+        Map<Integer, Integer> values = environment.getVariables();
+        for (int i = 0; i < variables.length; i++) {
+            state[i] = values.getOrDefault(variables[i], 0);
+        }
+        return repeats(position);
+    }
+
+    /**
+     * Counts a back-edge of compiled code and checks if the state was seen before. A variable the compiled code
+     * does not use cannot change while it runs, so its value is read from the environment.
+     *
+     * @param frame    the variables of the compiled code
+     * @param position the position the program continues at
+     * @return true if the program repeats the same state forever
+     */
+    boolean repeats(CompiledFrame frame, int position) {
+        if (frame.variables() != frameVariables) {
+            bind(frame.variables());
+        }
+        Map<Integer, Integer> environment = frame.interpreter.environment.getVariables();
+        for (int i = 0; i < variables.length; i++) {
+            state[i] = slots[i] < 0 ? environment.getOrDefault(variables[i], 0) : frame.values[slots[i]];
+        }
+        return repeats(position);
+    }
+
+    private boolean repeats(int position) {
+        if (backEdges > 0 && position == snapshotPosition && Arrays.equals(state, snapshot)) {
+            return true;
+        }
+        if (++backEdges == checkpoint) {
+            checkpoint <<= 1;
+            snapshotPosition = position;
+            System.arraycopy(state, 0, snapshot, 0, state.length);
+        }
+        return false;
+    }
+
+    private void bind(int[] frameVariables) {
+        this.frameVariables = frameVariables;
+        slots = new int[variables.length];
+        Arrays.fill(slots, -1);
+        for (int slot = 0; slot < frameVariables.length; slot++) {
+            for (int i = 0; i < variables.length; i++) {
+                if (variables[i] == frameVariables[slot]) {
+                    slots[i] = slot;
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the control variables of the statements, until no assignment adds a variable anymore.
+     */
+    private static void collect(List<Statement> statements, Set<Integer> variables) {
+        addConditions(statements, variables);
+        boolean changed = true;
+        while (changed) {
+            changed = addSources(statements, variables);
+        }
+    }
+
+    private static void addConditions(List<Statement> statements, Set<Integer> variables) {
+        for (Statement statement : statements) {
+            switch (statement) {
+                case If ifStatement -> variables.add(ifStatement.variableNumber());
+                case While whileStatement -> {
+                    variables.add(whileStatement.variableNumber());
+                    addConditions(whileStatement.statements(), variables);
+                }
+                case Loop loop -> {
+                    if (!loop.usesConstant()) {
+                        variables.add(loop.number());
+                    }
+                    addConditions(loop.statements(), variables);
+                }
+                case HoistedLoop hoisted -> addConditions(List.of(hoisted.loop()), variables);
+                case null, default -> {
+                }
+            }
+        }
+    }
+
+    private static boolean addSources(List<Statement> statements, Set<Integer> variables) {
+        boolean changed = false;
+        for (Statement statement : statements) {
+            switch (statement) {
+                case Assignment assignment -> {
+                    if (variables.contains(assignment.variable1Number())) {
+                        changed |= variables.add(assignment.variable2Number());
+                    }
+                }
+                case While whileStatement -> changed |= addSources(whileStatement.statements(), variables);
+                case Loop loop -> changed |= addSources(loop.statements(), variables);
+                case HoistedLoop hoisted -> changed |= addSources(hoisted.invariants(), variables)
+                        | addSources(List.of(hoisted.loop()), variables);
+                case null, default -> {
+                }
+            }
+        }
+        return changed;
+    }
+
+    private static boolean assigns(List<Statement> statements, int variable) {
+        for (Statement statement : statements) {
+            boolean assigned = switch (statement) {
+                case Assignment assignment -> assignment.variable1Number() == variable;
+                case While whileStatement -> assigns(whileStatement.statements(), variable);
+                case Loop loop -> assigns(loop.statements(), variable);
+                case HoistedLoop hoisted -> assigns(hoisted.invariants(), variable)
+                        || assigns(List.of(hoisted.loop()), variable);
+                case null, default -> false;
+            };
+            if (assigned) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,17 +1,26 @@
 package ch.zhaw.lwgparserapp.interpreter;
 
+import ch.zhaw.lwgparserapp.debugger.DebugTrace;
 import ch.zhaw.lwgparserapp.debugger.Debugger;
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
 
+import java.math.BigInteger;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  * The environment class is used to store variables and their values.
+ * <p>
+ * With arbitrary precision, a value that no longer fits into an int is kept as a {@link BigInteger} on the side
+ * and the variables map holds {@link Integer#MAX_VALUE} for it. Values that fit stay in the variables map,
+ * so programs that never overflow run exactly as without arbitrary precision.
  */
 public class Environment {
     private final Map<Integer, Integer> variables;
     private final boolean debugMode;
+    private final DebugTrace trace;
+    private Map<Integer, BigInteger> largeVariables; // values beyond int, null without arbitrary precision
 
     /**
      * Creates a new environment with an empty variables map
@@ -29,6 +38,7 @@ public class Environment {
      */
     public Environment(boolean debugMode) {
         this.debugMode = debugMode;
+        this.trace = null;
         variables = new HashMap<>();
         variables.put(0, 0); // Initialize x0 with a default value of 0
     }
@@ -42,10 +52,29 @@ public class Environment {
      */
     public Environment(Map<String, Integer> variables, boolean debugMode) {
         this.debugMode = debugMode;
+        this.trace = null;
         this.variables = new HashMap<>();
         setVariables(variables);
     }
 
+    /**
+     * Creates a new environment in debug mode that records its steps in the given trace
+     * instead of the global debugger.
+     *
+     * @param variables the variables map to use, or null to start with x0 only
+     * @param trace     the trace to record the steps in
+     */
+    public Environment(Map<String, Integer> variables, DebugTrace trace) {
+        this.debugMode = true;
+        this.trace = Objects.requireNonNull(trace, "Trace must not be null");
+        this.variables = new HashMap<>();
+        if (variables == null) {
+            this.variables.put(0, 0); // Initialize x0 with a default value of 0
+        } else {
+            setVariables(variables);
+        }
+    }
+
     /**
      * A helper method to initialize variables
      *
@@ -83,7 +112,11 @@ public class Environment {
         if (value < 0) {
             ErrorHandler.report(0, "Variable value cannot be negative");
         }
+        if (largeVariables != null) {
+            largeVariables.remove(variable);
+        }
         variables.put(variable, value);
+        if (trace != null) trace.write(variable, value);
         addDebugVariablesInDebugMode(line);
     }
 
@@ -101,6 +134,7 @@ public class Environment {
             ErrorHandler.report(0, "Variable value cannot be negative");
         }
         variables.put(variable, value);
+        if (trace != null) trace.write(variable, value);
     }
 
 
@@ -126,6 +160,76 @@ public class Environment {
         return variables;
     }
 
+    /**
+     * Enables or disables arbitrary precision. Without it, an assignment that overflows an int is an error.
+     *
+     * @param arbitraryPrecision true to promote values that overflow to {@link BigInteger}
+     */
+    public void setArbitraryPrecision(boolean arbitraryPrecision) {
+        largeVariables = arbitraryPrecision ? new HashMap<>() : null;
+    }
+
+    /**
+     * Checks if values that overflow an int are promoted to {@link BigInteger}.
+     *
+     * @return true with arbitrary precision
+     */
+    public boolean isArbitraryPrecision() {
+        return largeVariables != null;
+    }
+
+    /**
+     * Checks if the value of a variable is larger than an int.
+     *
+     * @param variable the variable identifier
+     * @return true if the variable holds a large value
+     */
+    public boolean isLarge(int variable) {
+        return largeVariables != null && !largeVariables.isEmpty() && largeVariables.containsKey(variable);
+    }
+
+    /**
+     * Gets the exact value of a variable.
+     *
+     * @param variable the variable identifier
+     * @return the value of the variable
+     */
+    public BigInteger getLargeVariable(int variable) {
+        BigInteger value = largeVariables == null ? null : largeVariables.get(variable);
+        return value != null ? value : BigInteger.valueOf(getVariable(variable));
+    }
+
+    /**
+     * Sets a variable to a value of any size. Values that fit into an int are stored like {@link #setVariable}.
+     *
+     * @param line     the line of the assignment
+     * @param variable the variable identifier
+     * @param value    the value to set the variable to
+     */
+    public void setLargeVariable(int line, int variable, BigInteger value) {
+        if (value.bitLength() < Integer.SIZE) {
+            setVariable(line, variable, value.intValue());
+            return;
+        }
+        largeVariables.put(variable, value);
+        variables.put(variable, Integer.MAX_VALUE);
+        if (trace != null) trace.write(variable, Integer.MAX_VALUE);
+        addDebugVariablesInDebugMode(line);
+    }
+
+    /**
+     * Gets the exact values of all variables.
+     *
+     * @return the values, {@link BigInteger} for the values larger than an int
+     */
+    public Map<Integer, Number> getValues() {
+        Map<Integer, Number> values = new HashMap<>(variables);
+        if (largeVariables != null) {
+            values.putAll(largeVariables);
+        }
+        return values;
+    }
+
     private void setVariables(Map<String, Integer> variables) {
         for (Map.Entry<String, Integer> entry : variables.entrySet()) {
             try {
@@ -137,9 +241,20 @@ public class Environment {
         }
     }
 
+    /**
+     * Checks if the environment records the steps of the execution.
+     *
+     * @return true in debug mode
+     */
+    public boolean isDebugMode() {
+        return debugMode;
+    }
+
     public void addDebugVariablesInDebugMode(int line) {
         initVariableIfAbsent(0); // Ensure x0 exists before adding to debug
-        if (debugMode) {
+        if (trace != null) {
+            trace.step(line, variables);
+        } else if (debugMode) {
             Debugger.addDebugVariable(line, new HashMap<>(variables));
         }
     }
@@ -0,0 +1,119 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.optimizer.HoistedLoop;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Counts how often each source line was executed. <br>
+ * <p>
+ * The counters live in a primitive array indexed by line number. For GOTO programs the statement list
+ * holds exactly one entry per line, so the line number is the statement index plus one and the array is
+ * effectively indexed by statement. Assignments, If, Goto and Halt statements are counted once per
+ * execution, Loop and While lines are counted once per iteration of their body.
+ */
+public class ExecutionProfile {
+    private final long[] lineCounts;
+
+    /**
+     * Creates a new profile with room for the given number of lines.
+     *
+     * @param lines the highest line number that can be counted
+     */
+    public ExecutionProfile(int lines) {
+        this.lineCounts = new long[lines + 1];
+    }
+
+    /**
+     * Creates a new profile sized for the given statements.
+     *
+     * @param statements the statements that will be profiled
+     * @return the new profile
+     */
+    public static ExecutionProfile forStatements(List<Statement> statements) {
+        Objects.requireNonNull(statements, "Statements must not be null");
+        return new ExecutionProfile(maxLine(statements));
+    }
+
+    /**
+     * Counts one execution of a line.
+     *
+     * @param line the line that was executed
+     */
+    void hit(int line) {
+        lineCounts[line]++;
+    }
+
+    /**
+     * Returns the execution count of a single line.
+     *
+     * @param line the line number
+     * @return the number of executions, 0 if the line is unknown
+     */
+    public long getCount(int line) {
+        return line >= 0 && line < lineCounts.length ? lineCounts[line] : 0;
+    }
+
+    /**
+     * Returns the execution counts of all executed lines.
+     *
+     * @return a map from line number to execution count, sorted by line
+     */
+    public Map<Integer, Long> getLineCounts() {
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (int line = 0; line < lineCounts.length; line++) {
+            if (lineCounts[line] > 0) {
+                counts.put(line, lineCounts[line]);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the execution counts of all executed markers of a GOTO program.
+     *
+     * @param markerLineMap the map from marker number to line number created by the GOTO parser
+     * @return a map from marker number to execution count, sorted by marker
+     */
+    public Map<Integer, Long> getMarkerCounts(Map<Integer, Integer> markerLineMap) {
+        Objects.requireNonNull(markerLineMap, "Marker line map must not be null");
+        Map<Integer, Long> counts = new TreeMap<>();
+        for (Map.Entry<Integer, Integer> entry : markerLineMap.entrySet()) {
+            long count = getCount(entry.getValue());
+            if (count > 0) {
+                counts.put(entry.getKey(), count);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the highest line of the statements, including the statements nested in loops.
+     *
+     * @param statements the statements
+     * @return the highest line, 0 if there are no statements
+     */
+    static int maxLine(List<Statement> statements) {
+        int max = 0;
+        for (Statement statement : statements) {
+            if (statement == null) continue;
+            max = Math.max(max, statement.line());
+            switch (statement) {
+                case Loop loop -> max = Math.max(max, maxLine(loop.statements()));
+                case While whileStatement -> max = Math.max(max, maxLine(whileStatement.statements()));
+                case HoistedLoop hoisted -> max = Math.max(max, Math.max(maxLine(hoisted.invariants()),
+                        maxLine(List.of(hoisted.loop()))));
+                default -> {
+                    // other statements have no nested statements
+                }
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,186 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles hot GOTO programs <br>
+ * <p>
+ * Every statement is compiled into a closure over the slots of a {@link CompiledFrame} that returns the index of
+ * the next statement. Blank lines are skipped and jump targets are resolved when the program is compiled, so the
+ * compiled program only polls the interpreter at backward jumps instead of at every statement.
+ * <p>
+ * Statements the compiler cannot resolve, like a jump to an unknown marker, are left to the interpreter:
+ * the compiled program returns to the {@link GOTOInterpreter} before them, which reports the same errors as if
+ * the program had been interpreted all along.
+ */
+final class GOTOCompiler {
+    /**
+     * Returned by a compiled program that executed a Halt statement.
+     */
+    static final int HALT = -1;
+
+    private final CompiledFrame.Layout layout = new CompiledFrame.Layout();
+    private final List<Statement> statements;
+    private final Map<Integer, Integer> markerLineMap;
+
+    /**
+     * A statement compiled to a closure.
+     */
+    @FunctionalInterface
+    interface CompiledInstruction {
+        /**
+         * Executes the statement.
+         *
+         * @param frame the frame holding the variables
+         * @return the index of the next statement or {@link #HALT}
+         */
+        int execute(CompiledFrame frame);
+    }
+
+    /**
+     * A compiled program.
+     *
+     * @param variables    the variable of every slot of the frame
+     * @param instructions the compiled statement at every index, null where the interpreter has to take over
+     * @param lines        the line of the statement at every index
+     */
+    record CompiledProgram(int[] variables, CompiledInstruction[] instructions, int[] lines) {
+        /**
+         * Runs the program from the given statement until it halts or reaches a statement it cannot execute.
+         *
+         * @param frame    the frame holding the variables
+         * @param index    the index of the statement to start at
+         * @param detector checks the state at every backward jump, or null without loop detection
+         * @return the index the interpreter continues at, or {@link #HALT}
+         */
+        int run(CompiledFrame frame, int index, CycleDetector detector) {
+            CompiledInstruction[] code = instructions;
+            while (index >= 0 && index < code.length) {
+                CompiledInstruction instruction = code[index];
+                if (instruction == null) {
+                    break;
+                }
+                int next = instruction.execute(frame);
+                if (next >= 0 && next <= index) {
+                    if (frame.poll(next + 1)) {
+                        return next;
+                    }
+                    if (detector != null && detector.repeats(frame, next)) {
+                        ((GOTOInterpreter) frame.interpreter).reportRepeatedState(lines[index]);
+                        return next;
+                    }
+                }
+                index = next;
+            }
+            return index;
+        }
+    }
+
+    private GOTOCompiler(List<Statement> statements, Map<Integer, Integer> markerLineMap) {
+        this.statements = statements;
+        this.markerLineMap = markerLineMap;
+    }
+
+    /**
+     * Compiles a GOTO program.
+     *
+     * @param statements    the statements, with null at blank lines
+     * @param markerLineMap the line of every marker
+     * @return the compiled program
+     */
+    static CompiledProgram compile(List<Statement> statements, Map<Integer, Integer> markerLineMap) {
+        GOTOCompiler compiler = new GOTOCompiler(statements, markerLineMap);
+        CompiledInstruction[] instructions = new CompiledInstruction[statements.size()];
+        int[] lines = new int[statements.size()];
+        for (int index = 0; index < instructions.length; index++) {
+            instructions[index] = compiler.instruction(statements.get(index), index);
+            lines[index] = statements.get(index) == null ? index + 1 : statements.get(index).line();
+        }
+        return new CompiledProgram(compiler.layout.variables(), instructions, lines);
+    }
+
+    private CompiledInstruction instruction(Statement statement, int index) {
+        return switch (statement) {
+            case null -> frame -> next(index);
+            case Assignment assignment -> assignment(assignment, next(index + 1));
+            case If ifStatement -> ifStatement(ifStatement, next(index + 1));
+            case Goto gotoStatement -> gotoStatement(gotoStatement);
+            case Halt ignored -> frame -> {
+                frame.interpreter.steps++;
+                frame.present[0] = true;
+                return HALT;
+            };
+            default -> null;
+        };
+    }
+
+    private CompiledInstruction assignment(Assignment assignment, int next) {
+        int line = assignment.line();
+        int target = layout.slot(assignment.variable1Number());
+        int source = layout.slot(assignment.variable2Number());
+        int constant = assignment.constant();
+        if (assignment.operator() == Operator.ADDITION) {
+            return frame -> {
+                frame.interpreter.steps++;
+                frame.add(line, target, source, constant);
+                return next;
+            };
+        }
+        if (assignment.operator() == Operator.SUBTRACTION) {
+            return frame -> {
+                frame.interpreter.steps++;
+                frame.subtract(target, source, constant);
+                return next;
+            };
+        }
+        return null;
+    }
+
+    private CompiledInstruction ifStatement(If ifStatement, int next) {
+        Integer markerLine = markerLineMap.get(ifStatement.gotoMarkerNumber());
+        if (markerLine == null) {
+            return null;
+        }
+        int target = next(markerLine - 1);
+        int variable = layout.slot(ifStatement.variableNumber());
+        int constant = ifStatement.constant();
+        return frame -> {
+            frame.interpreter.steps++;
+            return frame.read(variable) == constant ? target : next;
+        };
+    }
+
+    private CompiledInstruction gotoStatement(Goto gotoStatement) {
+        Integer markerLine = markerLineMap.get(gotoStatement.markerNumber());
+        if (markerLine == null) {
+            return null;
+        }
+        int target = next(markerLine - 1);
+        return frame -> {
+            frame.interpreter.steps++;
+            frame.present[0] = true;
+            return target;
+        };
+    }
+
+    /**
+     * Skips the blank lines like the interpreter does.
+     *
+     * @param index the index of a statement
+     * @return the index of the first statement at or after the given index, or the end of the program
+     */
+    private int next(int index) {
+        while (index >= 0 && index < statements.size() && statements.get(index) == null) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -1,8 +1,11 @@
 package ch.zhaw.lwgparserapp.interpreter;
 
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.analysis.CountedLoop;
 import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
 import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
 import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
 import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
 import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
@@ -10,18 +13,31 @@ import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * An interpreter for the GOTO language <br>
  * <p>
  * This class interprets a list of statements in the GOTO language. It uses a program counter to keep track of the
  * current statement being interpreted. The program counter is manipulated by the GOTO statement.
+ * <p>
+ * Execution is tiered: every backward jump counts as a back-edge and once the tier-up threshold is reached,
+ * the program is compiled by the {@link GOTOCompiler} and continues in the compiled code.
+ * <p>
+ * Before the program runs, the {@link GOTOOptimizer} fuses frequent statement sequences into superinstructions.
+ * Programs that are debugged, profiled or have breakpoints run unoptimised, so every statement is observed,
+ * and so do programs with arbitrary precision, as the superinstructions compute with ints.
+ * <p>
+ * A program that reaches the same state twice at a backward jump, interpreted or compiled, never ends
+ * and is reported at once, see {@link CycleDetector}.
  */
 public class GOTOInterpreter extends Interpreter {
     private int programCounter;
     List<Statement> statementList;
+    private List<Statement> program;
+    private boolean peephole = true;
     private Map<Integer, Integer> markerLineMap;
+    private GOTOCompiler.CompiledProgram compiledProgram;
+    private CycleDetector cycleDetector;
 
     /**
      * Creates a new GOTOInterpreter <br>
@@ -41,6 +57,25 @@ public class GOTOInterpreter extends Interpreter {
         this.markerLineMap = markerLineMap;
     }
 
+    /**
+     * Enables or disables the peephole optimisation of the program.
+     *
+     * @param peephole true to execute superinstructions, false to execute every statement on its own
+     */
+    public void setPeepholeOptimization(boolean peephole) {
+        this.peephole = peephole;
+    }
+
+    @Override
+    public Syntax getSyntax() {
+        return Syntax.GOTO;
+    }
+
+    @Override
+    protected int currentLine() {
+        return frame != null ? frame.line : programCounter + 1;
+    }
+
     /**
      * Interprets a list of statements <br>
      * <p>
@@ -57,6 +92,12 @@ public class GOTOInterpreter extends Interpreter {
             return;
         }
         this.statementList = statements;
+        compileBreakpoints(statements.size(), markerLineMap == null ? Map.of() : markerLineMap);
+        prepareTiering();
+        program = peephole && !isObserved() && !environment.isArbitraryPrecision()
+                ? GOTOOptimizer.optimize(statements, markerLineMap == null ? Map.of() : markerLineMap)
+                : statements;
+        cycleDetector = loopDetection && !environment.isArbitraryPrecision() ? CycleDetector.of(statements) : null;
 
         try {
             executeStatements();
@@ -65,24 +106,6 @@ public class GOTOInterpreter extends Interpreter {
         }
     }
 
-    /**
-     * Interprets a list of statements asynchronously <br>
-     * <p>
-     * The method interprets a list of statements asynchronously by running the interpretation in a separate thread.
-     *
-     * @param statements the list of statements to interpret
-     * @return a CompletableFuture representing the asynchronous interpretation
-     */
-    public CompletableFuture<Void> interpretAsync(List<Statement> statements) {
-        scheduleHalt();
-        return CompletableFuture.runAsync(() -> {
-            interpret(statements);
-            if (isHalted) {
-                ErrorHandler.report(0, "Execution got halted, possibly due to an infinite loop");
-            }
-        });
-    }
-
     /**
      * Executes the statements <br>
      * <p>
@@ -91,15 +114,32 @@ public class GOTOInterpreter extends Interpreter {
      */
     private void executeStatements() {
         try {
-            while (!isHalted()) {
-                Statement currentStatement = statementList.get(programCounter);
+            while (!shouldHalt()) {
+                Statement currentStatement = program.get(programCounter);
+                if (currentStatement != null && breakpoints != null && breakpoints.isFlagged(programCounter + 1)) {
+                    breakpoint(programCounter + 1);
+                }
                 if(currentStatement == null) {
                     programCounter++;
                 } else if (currentStatement instanceof Halt halt) {
+                    steps++;
+                    if (profile != null) profile.hit(halt.line());
                     environment.addDebugVariablesInDebugMode(halt.line());
                     break;
                 } else {
+                    steps++;
+                    if (profile != null) profile.hit(currentStatement.line());
+                    int statementIndex = programCounter;
                     interpretStatement(currentStatement);
+                    if (programCounter <= statementIndex) {
+                        if (cycleDetector != null && cycleDetector.repeats(environment, programCounter)) {
+                            reportRepeatedState(currentStatement.line());
+                            break;
+                        }
+                        if (isHot() && resumeCompiled()) {
+                            break;
+                        }
+                    }
                 }
             }
         } catch (Exception e) {
@@ -123,6 +163,15 @@ public class GOTOInterpreter extends Interpreter {
             }
             case If ifStatement -> interpretIf(ifStatement);
             case Goto gotoStatement -> interpretGoto(gotoStatement);
+            case GOTOOptimizer.ClosedLoop closedLoop -> interpretClosedLoop(closedLoop);
+            case GOTOOptimizer.CountDown countDown -> interpretCountDown(countDown);
+            case GOTOOptimizer.DecrementBranch decrementBranch -> interpretDecrementBranch(decrementBranch);
+            case GOTOOptimizer.ThreadedGoto threadedGoto -> {
+                steps += threadedGoto.hops();
+                environment.addDebugVariablesInDebugMode(threadedGoto.line());
+                programCounter = threadedGoto.target();
+            }
+            case GOTOOptimizer.ThreadedIf threadedIf -> interpretThreadedIf(threadedIf);
             default -> ErrorHandler.report(0, "Error in Interpreter.interpretStatement: Unknown statement type");
         }
     }
@@ -145,7 +194,7 @@ public class GOTOInterpreter extends Interpreter {
         environment.initVariablesIfAbsent(variable);
         int value = environment.getVariable(variable);
 
-        if (value == constant) {
+        if (value == constant && !environment.isLarge(variable)) {
             programCounter = findLineWithMarker(marker) ;
         } else {
             programCounter++;
@@ -164,6 +213,128 @@ public class GOTOInterpreter extends Interpreter {
         programCounter = findLineWithMarker(gotoStatement.markerNumber());
     }
 
+    /**
+     * Interprets all iterations of a counted loop at once <br>
+     * <p>
+     * Every iteration executes the If statement, the assignments and the Goto statement, the loop ends with
+     * the If statement once the counter is 0. If the counter is 0 already or an addition would overflow,
+     * the If statement is interpreted and the loop runs statement by statement.
+     *
+     * @param closedLoop the superinstruction to interpret
+     */
+    private void interpretClosedLoop(GOTOOptimizer.ClosedLoop closedLoop) {
+        CountedLoop loop = closedLoop.loop();
+        environment.initVariablesIfAbsent(loop.counter());
+        long iterations = environment.getVariable(loop.counter());
+        List<Assignment> body = loop.body();
+        int[] values = new int[body.size()];
+        for (int i = 0; i < values.length && iterations > 0; i++) {
+            Assignment assignment = body.get(i);
+            environment.initVariablesIfAbsent(assignment.variable1Number());
+            long value = environment.getVariable(assignment.variable1Number());
+            long change = iterations * assignment.constant();
+            value = assignment.operator() == Operator.ADDITION ? value + change : Math.max(0, value - change);
+            if (value > Integer.MAX_VALUE) {
+                iterations = 0;
+            }
+            values[i] = (int) value;
+        }
+        if (iterations == 0) {
+            interpretIf(closedLoop.header());
+            return;
+        }
+        for (int i = 0; i < values.length; i++) {
+            environment.setVariable(body.get(i).line(), body.get(i).variable1Number(), values[i]);
+        }
+        steps += iterations * (body.size() + 2);
+        programCounter = loop.exit();
+    }
+
+    /**
+     * Interprets a loop that counts a variable down to 0 <br>
+     * <p>
+     * The loop decrements the variable once per iteration and executes three statements per iteration,
+     * except for the last one, which leaves the loop after the If statement.
+     *
+     * @param countDown the superinstruction to interpret
+     */
+    private void interpretCountDown(GOTOOptimizer.CountDown countDown) {
+        int variable = countDown.variable();
+        environment.initVariablesIfAbsent(variable);
+        long iterations = Math.max(1, environment.getVariable(variable));
+        steps += 3 * iterations - 2;
+        environment.setVariable(countDown.line(), variable, 0);
+        programCounter = countDown.exit();
+    }
+
+    /**
+     * Interprets a decrement followed by an If statement on the decremented variable.
+     *
+     * @param decrementBranch the superinstruction to interpret
+     */
+    private void interpretDecrementBranch(GOTOOptimizer.DecrementBranch decrementBranch) {
+        int variable = decrementBranch.variable();
+        steps++;
+        environment.initVariablesIfAbsent(variable);
+        int value = Math.max(0, environment.getVariable(variable) - decrementBranch.constant());
+        environment.setVariable(decrementBranch.line(), variable, value);
+        programCounter = value == decrementBranch.comparison() ? decrementBranch.target() : decrementBranch.next();
+    }
+
+    /**
+     * Interprets an If statement whose target was threaded through Goto statements.
+     *
+     * @param threadedIf the superinstruction to interpret
+     */
+    private void interpretThreadedIf(GOTOOptimizer.ThreadedIf threadedIf) {
+        int variable = threadedIf.variable();
+        environment.initVariablesIfAbsent(variable);
+        if (environment.getVariable(variable) == threadedIf.constant()) {
+            steps += threadedIf.hops();
+            programCounter = threadedIf.target();
+        } else {
+            programCounter++;
+        }
+    }
+
+    /**
+     * Reports a program that repeats the same state and halts the interpreter.
+     *
+     * @param line the line of the backward jump
+     */
+    void reportRepeatedState(int line) {
+        reportInfiniteLoop(line, "Infinite loop detected: the program repeats the same state");
+    }
+
+    /**
+     * Continues a hot program in compiled code <br>
+     * <p>
+     * The program is compiled when it first gets hot. The compiled program continues at the program counter
+     * and runs until it halts, the interpreter is halted or it reaches a statement only the interpreter executes.
+     *
+     * @return true if the compiled program executed a Halt statement
+     */
+    private boolean resumeCompiled() {
+        if (compiledProgram == null) {
+            compiledProgram = GOTOCompiler.compile(statementList, markerLineMap == null ? Map.of() : markerLineMap);
+            compilations++;
+        }
+
+        CompiledFrame compiledFrame = new CompiledFrame(compiledProgram.variables(), this);
+        frame = compiledFrame;
+        try {
+            int next = compiledProgram.run(compiledFrame, programCounter, cycleDetector);
+            if (next == GOTOCompiler.HALT) {
+                return true;
+            }
+            programCounter = next;
+            return false;
+        } finally {
+            compiledFrame.store();
+            frame = null;
+        }
+    }
+
     private int findLineWithMarker(int marker) {
         return markerLineMap.get(marker) - 1;
     }
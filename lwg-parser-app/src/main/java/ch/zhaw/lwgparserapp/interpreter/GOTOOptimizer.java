@@ -0,0 +1,211 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.analysis.ControlFlowGraph;
+import ch.zhaw.lwgparserapp.analysis.CountedLoop;
+import ch.zhaw.lwgparserapp.analysis.NaturalLoop;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A peephole optimiser for GOTO programs <br>
+ * <p>
+ * Frequent statement sequences are fused into superinstructions the {@link GOTOInterpreter} executes in one
+ * dispatch. A superinstruction replaces the first statement of its sequence only, the other statements stay at
+ * their index, so a jump into the middle of a sequence executes the original statements. Every superinstruction
+ * counts the steps of the statements it replaces, so the optimised program computes the same variables and steps.
+ * <ul>
+ *     <li>{@link ClosedLoop}: a {@link CountedLoop counted loop} found in the {@link ControlFlowGraph} runs in
+ *     constant time</li>
+ *     <li>{@link CountDown}: {@code Mi: xj = xj - 1; If xj = 0 Then Goto Mk; Goto Mi} runs in constant time</li>
+ *     <li>{@link DecrementBranch}: {@code xj = xj - c; If xj = d Then Goto Mk}</li>
+ *     <li>{@link ThreadedGoto} and {@link ThreadedIf}: a jump to a Goto statement jumps to its target directly</li>
+ * </ul>
+ */
+final class GOTOOptimizer {
+    private final List<Statement> statements;
+    private final Map<Integer, Integer> markerLineMap;
+
+    /**
+     * Runs all iterations of a counted loop at once. The loop is interpreted if it would overflow a variable,
+     * so the overflow is reported at the same step.
+     *
+     * @param header the If statement of the loop, interpreted if the loop cannot run at once
+     * @param loop   the counted loop
+     */
+    record ClosedLoop(If header, CountedLoop loop) implements Statement {
+        @Override
+        public int line() {
+            return header.line();
+        }
+    }
+
+    /**
+     * Decrements a variable to 0 and jumps to the exit, the loop {@code Mi: xj = xj - 1; If xj = 0 Then Goto Mk;
+     * Goto Mi}. A variable that is 0 on entry takes one iteration, like the loop.
+     *
+     * @param variable the counted variable
+     * @param exit     the index of the statement after the loop
+     * @param line     the line of the loop
+     */
+    record CountDown(int variable, int exit, int line) implements Statement {
+    }
+
+    /**
+     * Subtracts a constant from a variable and jumps to the target if the result equals the comparison.
+     *
+     * @param variable   the decremented variable
+     * @param constant   the subtracted constant
+     * @param comparison the constant the result is compared with
+     * @param target     the index of the statement to jump to
+     * @param next       the index of the statement after the If statement
+     * @param line       the line of the assignment
+     */
+    record DecrementBranch(int variable, int constant, int comparison, int target, int next, int line)
+            implements Statement {
+    }
+
+    /**
+     * A Goto statement whose target is resolved through the Goto statements it jumps to.
+     *
+     * @param target the index of the first statement that is not a Goto statement
+     * @param hops   the number of Goto statements jumped over
+     * @param line   the line of the Goto statement
+     */
+    record ThreadedGoto(int target, int hops, int line) implements Statement {
+    }
+
+    /**
+     * An If statement whose target is resolved through the Goto statements it jumps to.
+     *
+     * @param variable the compared variable
+     * @param constant the constant the variable is compared with
+     * @param target   the index of the first statement that is not a Goto statement
+     * @param hops     the number of Goto statements jumped over
+     * @param line     the line of the If statement
+     */
+    record ThreadedIf(int variable, int constant, int target, int hops, int line) implements Statement {
+    }
+
+    private GOTOOptimizer(List<Statement> statements, Map<Integer, Integer> markerLineMap) {
+        this.statements = statements;
+        this.markerLineMap = markerLineMap;
+    }
+
+    /**
+     * Optimises a GOTO program.
+     *
+     * @param statements    the statements, with null at blank lines
+     * @param markerLineMap the line of every marker
+     * @return the statements with superinstructions at the start of the fused sequences
+     */
+    static List<Statement> optimize(List<Statement> statements, Map<Integer, Integer> markerLineMap) {
+        GOTOOptimizer optimizer = new GOTOOptimizer(statements, markerLineMap);
+        List<Statement> optimized = new ArrayList<>(statements);
+        for (int index = 0; index < optimized.size(); index++) {
+            Statement superinstruction = optimizer.fuse(statements.get(index), index);
+            if (superinstruction != null) {
+                optimized.set(index, superinstruction);
+            }
+        }
+        ControlFlowGraph graph = ControlFlowGraph.build(statements, markerLineMap);
+        for (NaturalLoop naturalLoop : graph.getLoops()) {
+            CountedLoop loop = CountedLoop.of(graph, naturalLoop);
+            if (loop != null) {
+                optimized.set(loop.header(), new ClosedLoop((If) statements.get(loop.header()), loop));
+            }
+        }
+        return optimized;
+    }
+
+    private Statement fuse(Statement statement, int index) {
+        return switch (statement) {
+            case Assignment assignment -> decrement(assignment, index);
+            case If ifStatement -> {
+                int[] jump = thread(ifStatement.gotoMarkerNumber());
+                yield jump == null || jump[1] == 0 ? null : new ThreadedIf(ifStatement.variableNumber(),
+                        ifStatement.constant(), jump[0], jump[1], ifStatement.line());
+            }
+            case Goto gotoStatement -> {
+                int[] jump = thread(gotoStatement.markerNumber());
+                yield jump == null || jump[1] == 0 ? null : new ThreadedGoto(jump[0], jump[1], gotoStatement.line());
+            }
+            case null, default -> null;
+        };
+    }
+
+    private Statement decrement(Assignment assignment, int index) {
+        int variable = assignment.variable1Number();
+        if (assignment.operator() != Operator.SUBTRACTION || assignment.variable2Number() != variable) {
+            return null;
+        }
+        int branch = next(index + 1);
+        if (!(statementAt(branch) instanceof If ifStatement) || ifStatement.variableNumber() != variable) {
+            return null;
+        }
+        Integer target = indexOf(ifStatement.gotoMarkerNumber());
+        if (target == null) {
+            return null;
+        }
+        if (assignment.constant() == 1 && ifStatement.constant() == 0 && jumpsTo(next(branch + 1), index)) {
+            return new CountDown(variable, target, assignment.line());
+        }
+        return new DecrementBranch(variable, assignment.constant(), ifStatement.constant(), target, branch + 1,
+                assignment.line());
+    }
+
+    /**
+     * Follows the Goto statements starting at a marker.
+     *
+     * @param marker the marker jumped to
+     * @return the index of the final target and the number of Goto statements on the way,
+     * or null if a marker is unknown or the Goto statements form a cycle
+     */
+    private int[] thread(int marker) {
+        Integer target = indexOf(marker);
+        int hops = 0;
+        while (target != null && statementAt(next(target)) instanceof Goto gotoStatement) {
+            if (++hops > statements.size()) {
+                return null;
+            }
+            target = indexOf(gotoStatement.markerNumber());
+        }
+        return target == null ? null : new int[]{target, hops};
+    }
+
+    private boolean jumpsTo(int index, int target) {
+        if (!(statementAt(index) instanceof Goto gotoStatement)) {
+            return false;
+        }
+        Integer head = indexOf(gotoStatement.markerNumber());
+        return head != null && next(head) == target;
+    }
+
+    private Integer indexOf(int marker) {
+        Integer line = markerLineMap.get(marker);
+        return line == null ? null : line - 1;
+    }
+
+    private Statement statementAt(int index) {
+        return index >= 0 && index < statements.size() ? statements.get(index) : null;
+    }
+
+    /**
+     * Skips the blank lines like the interpreter does.
+     *
+     * @param index the index of a statement
+     * @return the index of the first statement at or after the given index, or the end of the program
+     */
+    private int next(int index) {
+        while (index >= 0 && index < statements.size() && statements.get(index) == null) {
+            index++;
+        }
+        return index;
+    }
+}
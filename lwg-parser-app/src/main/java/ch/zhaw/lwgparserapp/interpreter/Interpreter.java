@@ -1,16 +1,27 @@
 package ch.zhaw.lwgparserapp.interpreter;
 
+import ch.zhaw.lwgparserapp.debugger.Breakpoint;
+import ch.zhaw.lwgparserapp.debugger.BreakpointListener;
+import ch.zhaw.lwgparserapp.debugger.Breakpoints;
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.monitoring.InterpretEvent;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
 import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
 import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
 import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import jdk.jfr.FlightRecorder;
 
+import java.math.BigInteger;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 /**
  * The Interpreter class is responsible for interpreting the statements of the LW or GOTO languages.
@@ -21,8 +32,29 @@ import java.util.concurrent.TimeUnit;
 public abstract class Interpreter {
     final Environment environment;
     protected volatile boolean isHalted = false;
-    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private volatile boolean timedOut = false;
+    private boolean infiniteLoop = false;
+    protected long steps = 0;
+    private int programHash;
+    protected ExecutionProfile profile;
+    private volatile ScheduledFuture<?> scheduledHalt;
+    private volatile boolean safepointRequested = false;
+    private volatile boolean yieldRequested = false;
+    private volatile boolean progressRequested = false;
+    private Runnable yieldHandler;
+    private volatile Consumer<Progress> progressListener;
+    private List<Breakpoint> breakpointList;
+    private BreakpointListener breakpointListener;
+    protected Breakpoints breakpoints;
     private int haltTimeout = 15; // Default timeout in seconds
+    private static volatile int defaultTierUpThreshold = 1000;
+    private int tierUpThreshold = defaultTierUpThreshold;
+    private static volatile boolean defaultLoopDetection = true;
+    protected boolean loopDetection = defaultLoopDetection;
+    protected boolean tiering;
+    protected int backEdges;
+    protected int compilations;
+    protected CompiledFrame frame;
     /**
      * Constructs an Interpreter object with the specified environment.
      *
@@ -35,20 +67,235 @@ public abstract class Interpreter {
 
     public abstract void interpret(List<Statement> statements);
 
-    public abstract CompletableFuture<Void> interpretAsync(List<Statement> statements);
+    /**
+     * Returns the syntax this interpreter executes.
+     *
+     * @return the syntax of the interpreted language
+     */
+    public abstract Syntax getSyntax();
+
+    /**
+     * Returns the line the interpreter is executing. Only called on the interpreting thread.
+     *
+     * @return the current line
+     */
+    protected abstract int currentLine();
+
+    /**
+     * Interprets a list of statements asynchronously <br>
+     * <p>
+     * The method interprets a list of statements asynchronously on the shared interpreter pool.
+     *
+     * @param statements the list of statements to interpret
+     * @return a CompletableFuture representing the asynchronous interpretation
+     */
+    public CompletableFuture<Void> interpretAsync(List<Statement> statements) {
+        return interpretAsync(statements, InterpreterExecutors.interpreterPool());
+    }
+
+    /**
+     * Interprets a list of statements asynchronously <br>
+     * <p>
+     * The method interprets a list of statements asynchronously by running the interpretation on the given executor.
+     * Errors are reported to the calling thread and the halt timeout starts when the interpretation starts.
+     *
+     * @param statements the list of statements to interpret
+     * @param executor   the executor to run the interpretation on
+     * @return a CompletableFuture representing the asynchronous interpretation
+     */
+    public CompletableFuture<Void> interpretAsync(List<Statement> statements, Executor executor) {
+        return CompletableFuture.runAsync(ErrorHandler.bindToCurrentErrors(() -> {
+            scheduleHalt();
+            // Loading the first event class initialises JFR, which costs a short-lived CLI run most of its time
+            InterpretEvent event = FlightRecorder.isInitialized() ? new InterpretEvent() : null;
+            if (event != null) event.begin();
+            long start = System.nanoTime();
+            try {
+                interpret(statements);
+            } finally {
+                cancelScheduledHalt();
+            }
+            PipelineMetrics.recordExecution(steps, System.nanoTime() - start, timedOut);
+            if (event != null) event.end();
+            if (event != null && event.shouldCommit()) {
+                event.programHash = programHash;
+                event.syntax = getSyntax().name();
+                event.steps = steps;
+                event.halted = isHalted;
+                event.timedOut = timedOut;
+                event.commit();
+            }
+            if (isHalted && !infiniteLoop) {
+                ErrorHandler.report(0, "Execution got halted, possibly due to an infinite loop");
+            }
+        }), executor);
+    }
 
     /**
      * Halts the interpreter.
      */
     public void halt() {
         isHalted = true;
-        scheduler.shutdownNow();
+        cancelScheduledHalt();
     }
 
     public void setHaltTimeout(int seconds) {
         this.haltTimeout = seconds;
     }
 
+    /**
+     * Enables profiling. Every executed line is counted in the given profile.
+     *
+     * @param profile the profile to count executions in, or null to disable profiling
+     */
+    public void setProfile(ExecutionProfile profile) {
+        this.profile = profile;
+    }
+
+    /**
+     * Sets the number of loop iterations after which the interpreter compiles the loop it is executing
+     * and continues in the compiled code. Short programs never reach the threshold and are only interpreted.
+     *
+     * @param threshold the number of back-edges, or 0 to always interpret
+     */
+    public void setTierUpThreshold(int threshold) {
+        this.tierUpThreshold = threshold;
+    }
+
+    /**
+     * Sets the tier-up threshold of all interpreters created afterwards.
+     *
+     * @param threshold the number of back-edges, or 0 to always interpret
+     * @see #setTierUpThreshold(int)
+     */
+    public static void setDefaultTierUpThreshold(int threshold) {
+        defaultTierUpThreshold = threshold;
+    }
+
+    /**
+     * Enables or disables the detection of infinite loops. Loops that are certain to never end are reported
+     * and halted at once instead of running until the halt timeout, see {@link CycleDetector}.
+     *
+     * @param loopDetection true to detect infinite loops
+     */
+    public void setLoopDetection(boolean loopDetection) {
+        this.loopDetection = loopDetection;
+    }
+
+    /**
+     * Enables or disables the detection of infinite loops of all interpreters created afterwards.
+     *
+     * @param loopDetection true to detect infinite loops
+     * @see #setLoopDetection(boolean)
+     */
+    public static void setDefaultLoopDetection(boolean loopDetection) {
+        defaultLoopDetection = loopDetection;
+    }
+
+    /**
+     * Reports a loop that never ends and halts the interpreter.
+     *
+     * @param line    the line of the loop
+     * @param message the reason the loop never ends
+     */
+    protected void reportInfiniteLoop(int line, String message) {
+        infiniteLoop = true;
+        ErrorHandler.report(line, message);
+        halt();
+    }
+
+    /**
+     * Returns the number of times the interpreter compiled a part of the program.
+     *
+     * @return the number of compilations
+     */
+    public int getCompilations() {
+        return compilations;
+    }
+
+    /**
+     * Decides whether the program may be compiled when it gets hot. Compiled code neither records debug steps
+     * nor counts profiles nor checks breakpoints nor computes with arbitrary precision,
+     * so these programs are always interpreted.
+     */
+    protected void prepareTiering() {
+        tiering = tierUpThreshold > 0 && profile == null && breakpoints == null && !environment.isDebugMode()
+                && !environment.isArbitraryPrecision();
+        backEdges = 0;
+    }
+
+    /**
+     * Counts a back-edge and checks if the program is hot enough to be compiled.
+     *
+     * @return true if the interpreter should continue in compiled code
+     */
+    protected boolean isHot() {
+        return tiering && ++backEdges >= tierUpThreshold;
+    }
+
+    /**
+     * Sets the breakpoints of the program. The breakpoints are compiled when the interpretation starts
+     * and every hit is passed to the listener.
+     *
+     * @param breakpoints the breakpoints, or null to disable breakpoints
+     * @param listener    the listener receiving the hits
+     */
+    public void setBreakpoints(List<Breakpoint> breakpoints, BreakpointListener listener) {
+        this.breakpointList = breakpoints;
+        this.breakpointListener = listener;
+        this.breakpoints = null;
+    }
+
+    /**
+     * Checks if every statement of the program is observed, by the debugger, breakpoints or a profile,
+     * so the program has to run as written and must not be optimised.
+     *
+     * @return true if the statements are observed
+     */
+    public boolean isObserved() {
+        return profile != null || breakpointList != null || environment.isDebugMode();
+    }
+
+    /**
+     * Compiles the breakpoints into the flag array checked for every statement.
+     *
+     * @param lastLine      the last line of the program
+     * @param markerLineMap the line of every marker
+     */
+    protected void compileBreakpoints(int lastLine, Map<Integer, Integer> markerLineMap) {
+        breakpoints = breakpointList == null ? null : Breakpoints.compile(breakpointList, lastLine, markerLineMap);
+    }
+
+    /**
+     * Passes a hit to the breakpoint listener if a breakpoint on the flagged line hits.
+     *
+     * @param line the flagged line
+     */
+    protected void breakpoint(int line) {
+        Map<Integer, Integer> variables = environment.getVariables();
+        if (breakpoints.hits(line, variables)) {
+            breakpointListener.hit(line, variables);
+        }
+    }
+
+    /**
+     * Sets the hash of the program source, used to correlate recorded events with a program.
+     *
+     * @param programHash the hash code of the program source
+     */
+    public void setProgramHash(int programHash) {
+        this.programHash = programHash;
+    }
+
+    /**
+     * Returns the hash of the program source, see {@link #setProgramHash(int)}.
+     *
+     * @return the hash code of the program source
+     */
+    public int getProgramHash() {
+        return programHash;
+    }
+
     /**
      * Checks if the interpreter is halted.
      *
@@ -58,11 +305,115 @@ public abstract class Interpreter {
         return isHalted;
     }
 
+    /**
+     * Checks if the interpreter should stop executing. <br>
+     * <p>
+     * This is the polling site of the interpreters. Besides reporting a halt, it serves the requests
+     * other threads made to the interpreting thread: it gives up the processor if a yield was requested,
+     * so long executions can be preempted on the same path as they are halted, and it publishes a progress
+     * sample if one was requested. Without pending requests the check costs a single volatile read.
+     *
+     * @return true if the interpreter is halted, false otherwise
+     */
+    protected boolean shouldHalt() {
+        if (safepointRequested) {
+            safepoint();
+        }
+        return isHalted;
+    }
+
+    /**
+     * Serves the pending requests on the interpreting thread.
+     */
+    private void safepoint() {
+        safepointRequested = false;
+        if (progressRequested) {
+            progressRequested = false;
+            Consumer<Progress> listener = progressListener;
+            if (listener != null) {
+                if (frame != null) {
+                    frame.store();
+                }
+                listener.accept(new Progress(steps, currentLine(), new TreeMap<>(environment.getVariables())));
+            }
+        }
+        if (yieldRequested) {
+            Runnable handler = yieldHandler;
+            if (handler != null) {
+                handler.run();
+            }
+            yieldRequested = false;
+        }
+    }
+
+    /**
+     * Requests the interpreter to yield the processor at its next polling site.
+     */
+    public void requestYield() {
+        yieldRequested = true;
+        safepointRequested = true;
+    }
+
+    /**
+     * Sets the handler that is run on the interpreting thread when a yield was requested.
+     *
+     * @param yieldHandler the handler, or null to ignore yield requests
+     */
+    public void setYieldHandler(Runnable yieldHandler) {
+        this.yieldHandler = yieldHandler;
+    }
+
+    /**
+     * Requests the interpreter to publish a progress sample at its next polling site.
+     * The sample is passed to the progress listener on the interpreting thread.
+     */
+    public void requestProgress() {
+        progressRequested = true;
+        safepointRequested = true;
+    }
+
+    /**
+     * Sets the listener that receives the requested progress samples.
+     * The listener runs on the interpreting thread and must not block.
+     *
+     * @param progressListener the listener, or null to ignore progress requests
+     */
+    public void setProgressListener(Consumer<Progress> progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Returns the number of statements executed so far.
+     *
+     * @return the number of executed statements
+     */
+    public long getSteps() {
+        return steps;
+    }
+
     /**
      * Schedules the interpreter to halt after a specified delay.
      */
     protected void scheduleHalt() {
-        scheduler.schedule(this::halt, haltTimeout, TimeUnit.SECONDS);
+        scheduledHalt = InterpreterExecutors.timeoutScheduler().schedule(this::timeout, haltTimeout, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Cancels the scheduled halt, if any.
+     */
+    private void cancelScheduledHalt() {
+        ScheduledFuture<?> halt = scheduledHalt;
+        if (halt != null) {
+            halt.cancel(false);
+        }
+    }
+
+    /**
+     * Halts the interpreter because it exceeded the halt timeout.
+     */
+    private void timeout() {
+        timedOut = true;
+        halt();
     }
 
     /**
@@ -71,6 +422,10 @@ public abstract class Interpreter {
      * This method interprets an assignment statement. The first variable number is the assignee variable and
      * the second variable number is the first operand of the operation. The operator is either addition or subtraction.
      * The second operand must be a constant.
+     * <p>
+     * An addition that overflows is an error, unless the environment computes with arbitrary precision.
+     * Then the result is promoted to a {@link BigInteger}, while values that fit into an int take the same path
+     * as without arbitrary precision.
      *
      * @param assignment the assignment statement to interpret
      */
@@ -82,6 +437,13 @@ public abstract class Interpreter {
         int constant = assignment.constant();
 
         environment.initVariablesIfAbsent(firstVariable, secondVariable);
+        if (environment.isLarge(secondVariable)) {
+            BigInteger secondValue = environment.getLargeVariable(secondVariable);
+            environment.setLargeVariable(line, firstVariable, operator == Operator.ADDITION
+                    ? secondValue.add(BigInteger.valueOf(constant))
+                    : secondValue.subtract(BigInteger.valueOf(constant)).max(BigInteger.ZERO));
+            return;
+        }
         int secondValue = environment.getVariable(secondVariable);
         try {
             switch (operator) {
@@ -91,6 +453,10 @@ public abstract class Interpreter {
                         "Error in Interpreter.interpretAssignment: Unknown operator type");
             }
         } catch (ArithmeticException e) {
+            if (environment.isArbitraryPrecision()) {
+                environment.setLargeVariable(line, firstVariable, BigInteger.valueOf((long) secondValue + constant));
+                return;
+            }
             ErrorHandler.report(line, "There was an arithmetic overflow.");
             environment.setVariable(line, firstVariable, 0);
         }
@@ -0,0 +1,26 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.optimizer.LWOptimizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import java.util.Locale;
+
+/**
+ * Configures the interpreters from the application properties.
+ */
+@Configuration(proxyBeanMethods = false)
+@Lazy(false)
+public class InterpreterConfiguration {
+
+    public InterpreterConfiguration(@Value("${lwg.interpreter.tier-up-threshold:1000}") int tierUpThreshold,
+                                    @Value("${lwg.interpreter.lw-engine:tiered}") String lwEngine,
+                                    @Value("${lwg.interpreter.loop-detection:true}") boolean loopDetection,
+                                    @Value("${lwg.interpreter.optimize:true}") boolean optimize) {
+        Interpreter.setDefaultTierUpThreshold(tierUpThreshold);
+        Interpreter.setDefaultLoopDetection(loopDetection);
+        LWOptimizer.setEnabled(optimize);
+        LWInterpreter.setDefaultEngine(LWInterpreter.Engine.valueOf(lwEngine.toUpperCase(Locale.ROOT)));
+    }
+}
@@ -0,0 +1,52 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * Holds the threads shared by all interpreters.
+ * <p>
+ * Interpretation is CPU bound, so it runs on a fixed pool of platform threads sized to the number
+ * of available processors instead of the common pool or the threads handling requests. The callers
+ * waiting for a result are cheap virtual threads. Halt timeouts of all interpreters are served by a
+ * single scheduler thread.
+ */
+public final class InterpreterExecutors {
+    private static final ExecutorService interpreterPool = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(),
+            Thread.ofPlatform().name("lwg-interpreter-", 0).daemon(true).factory());
+
+    private static final ScheduledExecutorService timeoutScheduler = createTimeoutScheduler();
+
+    private InterpreterExecutors() {
+        throw new UnsupportedOperationException("InterpreterExecutors is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Returns the pool that runs the interpretations.
+     *
+     * @return the interpreter pool
+     */
+    public static ExecutorService interpreterPool() {
+        return interpreterPool;
+    }
+
+    /**
+     * Returns the scheduler that halts interpreters after their timeout.
+     *
+     * @return the timeout scheduler
+     */
+    public static ScheduledExecutorService timeoutScheduler() {
+        return timeoutScheduler;
+    }
+
+    private static ScheduledExecutorService createTimeoutScheduler() {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+                Thread.ofPlatform().name("lwg-timeout").daemon(true).factory());
+        // most executions finish long before their timeout, don't keep the cancelled timeouts around
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+}
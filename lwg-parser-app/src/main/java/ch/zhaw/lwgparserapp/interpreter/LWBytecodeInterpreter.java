@@ -0,0 +1,131 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A register-based virtual machine for LW programs <br>
+ * <p>
+ * The program is compiled into {@link Bytecode} before it runs, and a single dispatch loop executes it over an int
+ * register file. Nested loops become jumps, so the execution needs neither recursion nor list iterators, and the
+ * dispatch loop does not allocate. The results, steps and errors are the same as with the {@link LWInterpreter},
+ * including the infinite loops it reports.
+ * <p>
+ * Programs that are debugged, profiled, have breakpoints or compute with arbitrary precision are run by the
+ * {@link LWInterpreter}, as are programs that cannot be compiled, so these report the same errors.
+ */
+public class LWBytecodeInterpreter extends LWInterpreter {
+    private Bytecode bytecode;
+
+    public LWBytecodeInterpreter(Environment environment) {
+        super(environment);
+    }
+
+    @Override
+    public void interpret(List<Statement> statements) {
+        compileBreakpoints(statements == null ? 0 : ExecutionProfile.maxLine(statements), Map.of());
+        if (statements == null || profile != null || breakpoints != null || environment.isDebugMode()
+                || environment.isArbitraryPrecision()) {
+            super.interpret(statements);
+            return;
+        }
+        try {
+            bytecode = BytecodeCompiler.compile(statements, loopDetection);
+        } catch (IllegalArgumentException e) {
+            super.interpret(statements);
+            return;
+        }
+        compilations++;
+
+        CompiledFrame registers = new CompiledFrame(bytecode.variables(), bytecode.registers(), this);
+        frame = registers;
+        try {
+            execute(bytecode.code(), registers);
+        } catch (Exception e) {
+            ErrorHandler.report(0, "Unexpected runtime exception:" + e.getMessage());
+        } finally {
+            registers.store();
+            frame = null;
+        }
+    }
+
+    /**
+     * Returns the bytecode of the program, once it was compiled.
+     *
+     * @return the bytecode, or null if the program was interpreted
+     */
+    Bytecode getBytecode() {
+        return bytecode;
+    }
+
+    /**
+     * The dispatch loop.
+     *
+     * @param code  the instructions
+     * @param frame the register file
+     */
+    private void execute(int[] code, CompiledFrame frame) {
+        int[] r = frame.values;
+        CycleDetector[] detectors = new CycleDetector[bytecode.loops().size()];
+        int pc = 0;
+        while (true) {
+            switch (code[pc]) {
+                case Bytecode.ADD_CONST -> {
+                    steps++;
+                    frame.add(code[pc + 4], code[pc + 1], code[pc + 2], code[pc + 3]);
+                    pc += 5;
+                }
+                case Bytecode.SUB_SAT -> {
+                    steps++;
+                    frame.subtract(code[pc + 1], code[pc + 2], code[pc + 3]);
+                    pc += 4;
+                }
+                case Bytecode.LOOP_INIT -> {
+                    steps++;
+                    int iterations = frame.read(code[pc + 2]);
+                    r[code[pc + 1]] = iterations;
+                    pc = iterations > 0 ? pc + 4 : code[pc + 3];
+                }
+                case Bytecode.LOOP_CONST -> {
+                    steps++;
+                    int iterations = code[pc + 2];
+                    r[code[pc + 1]] = iterations;
+                    pc = iterations > 0 ? pc + 4 : code[pc + 3];
+                }
+                case Bytecode.LOOP_NEXT -> pc = --r[code[pc + 1]] != 0 ? code[pc + 2] : pc + 3;
+                case Bytecode.WHILE_INIT -> {
+                    steps++;
+                    pc = frame.read(code[pc + 1]) > code[pc + 2] ? pc + 4 : code[pc + 3];
+                }
+                case Bytecode.JGT -> pc = r[code[pc + 1]] > code[pc + 2] ? code[pc + 3] : pc + 4;
+                case Bytecode.POLL -> {
+                    if (frame.poll(code[pc + 1])) {
+                        return;
+                    }
+                    pc += 2;
+                }
+                case Bytecode.ENTER -> {
+                    detectors[code[pc + 1]] = enterWhile(bytecode.loops().get(code[pc + 1]));
+                    if (detectors[code[pc + 1]] == null) {
+                        return;
+                    }
+                    pc += 2;
+                }
+                case Bytecode.CYCLE -> {
+                    if (detectors[code[pc + 1]].repeats(frame, code[pc + 2])) {
+                        reportRepeatedState(code[pc + 2]);
+                        return;
+                    }
+                    pc += 3;
+                }
+                case Bytecode.END -> {
+                    return;
+                }
+                default -> throw new IllegalStateException("Unknown opcode " + code[pc] + " at " + pc);
+            }
+        }
+    }
+}
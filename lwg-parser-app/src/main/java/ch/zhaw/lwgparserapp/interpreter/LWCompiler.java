@@ -0,0 +1,238 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.optimizer.HoistedLoop;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.List;
+
+/**
+ * Compiles hot LW loops <br>
+ * <p>
+ * A loop is compiled into a tree of closures over the slots of a {@link CompiledFrame}. The closures do what
+ * the {@link LWInterpreter} does for the same statements, including the step counting, the initialisation of
+ * absent variables, the polling at every iteration and the loop detection of While loops, but without the map
+ * lookups, the boxing and the type switch on every statement.
+ */
+final class LWCompiler {
+    private final CompiledFrame.Layout layout = new CompiledFrame.Layout();
+    private final boolean detectLoops;
+
+    /**
+     * A statement compiled to a closure.
+     */
+    @FunctionalInterface
+    interface CompiledStatement {
+        void execute(CompiledFrame frame);
+    }
+
+    /**
+     * The remaining iterations of a loop, compiled to a closure.
+     */
+    @FunctionalInterface
+    interface LoopEntry {
+        void resume(CompiledFrame frame, int iterations);
+    }
+
+    /**
+     * A compiled loop, entered in the middle of its execution.
+     *
+     * @param variables the variable of every slot of the frame
+     * @param entry     runs the remaining iterations of the loop
+     */
+    record CompiledLoop(int[] variables, LoopEntry entry) {
+    }
+
+    private LWCompiler(boolean detectLoops) {
+        this.detectLoops = detectLoops;
+    }
+
+    /**
+     * Compiles a Loop or While statement.
+     *
+     * @param loop        the loop to compile
+     * @param detectLoops true to check the While loops for infinite loops, see {@link CycleDetector}
+     * @return the compiled loop, or null if the loop contains a statement that cannot be compiled
+     */
+    static CompiledLoop compile(Statement loop, boolean detectLoops) {
+        LWCompiler compiler = new LWCompiler(detectLoops);
+        try {
+            LoopEntry entry = switch (loop) {
+                case Loop counted -> compiler.remainingIterations(counted);
+                case While whileStatement -> compiler.remainingIterations(whileStatement);
+                default -> null;
+            };
+            return entry == null ? null : new CompiledLoop(compiler.layout.variables(), entry);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private LoopEntry remainingIterations(Loop loop) {
+        int line = loop.line();
+        CompiledStatement body = block(loop.statements());
+        return (frame, iterations) -> {
+            for (int i = 0; i < iterations; i++) {
+                frame.backEdge(line);
+                body.execute(frame);
+            }
+        };
+    }
+
+    private LoopEntry remainingIterations(While whileStatement) {
+        int line = whileStatement.line();
+        int variable = layout.slot(whileStatement.variableNumber());
+        int constant = whileStatement.constant();
+        CompiledStatement body = block(whileStatement.statements());
+        if (detectLoops) {
+            return (frame, iterations) -> {
+                CycleDetector detector = ((LWInterpreter) frame.interpreter).getCycleDetector(whileStatement);
+                // the interpreter already checked the state of the iteration it was about to start
+                if (frame.values[variable] > constant) {
+                    frame.backEdge(line);
+                    body.execute(frame);
+                }
+                while (frame.values[variable] > constant) {
+                    frame.backEdge(line);
+                    checkCycle(frame, detector, line);
+                    body.execute(frame);
+                }
+            };
+        }
+        return (frame, iterations) -> {
+            while (frame.values[variable] > constant) {
+                frame.backEdge(line);
+                body.execute(frame);
+            }
+        };
+    }
+
+    private CompiledStatement block(List<Statement> statements) {
+        CompiledStatement[] compiled = new CompiledStatement[statements.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = statement(statements.get(i));
+        }
+        if (compiled.length == 1) {
+            return compiled[0];
+        }
+        return frame -> {
+            for (CompiledStatement statement : compiled) {
+                statement.execute(frame);
+            }
+        };
+    }
+
+    private CompiledStatement statement(Statement statement) {
+        return switch (statement) {
+            case Assignment assignment -> assignment(assignment);
+            case Loop loop -> loop(loop, null);
+            case While whileStatement -> whileLoop(whileStatement, null);
+            case HoistedLoop hoisted -> {
+                CompiledStatement invariants = block(hoisted.invariants());
+                yield switch (hoisted.loop()) {
+                    case Loop loop -> loop(loop, invariants);
+                    case While whileStatement -> whileLoop(whileStatement, invariants);
+                    default -> throw new IllegalArgumentException("Cannot compile " + statement);
+                };
+            }
+            case null, default -> throw new IllegalArgumentException("Cannot compile " + statement);
+        };
+    }
+
+    private CompiledStatement assignment(Assignment assignment) {
+        int line = assignment.line();
+        int target = layout.slot(assignment.variable1Number());
+        int source = layout.slot(assignment.variable2Number());
+        int constant = assignment.constant();
+        if (assignment.operator() == Operator.ADDITION) {
+            return frame -> {
+                frame.interpreter.steps++;
+                frame.add(line, target, source, constant);
+            };
+        }
+        if (assignment.operator() == Operator.SUBTRACTION) {
+            return frame -> {
+                frame.interpreter.steps++;
+                frame.subtract(target, source, constant);
+            };
+        }
+        throw new IllegalArgumentException("Cannot compile the operator " + assignment.operator());
+    }
+
+    /**
+     * Compiles a Loop statement, with the hoisted invariants or null.
+     */
+    private CompiledStatement loop(Loop loop, CompiledStatement invariants) {
+        int line = loop.line();
+        boolean usesConstant = loop.usesConstant();
+        int number = usesConstant ? loop.number() : layout.slot(loop.number());
+        CompiledStatement body = block(loop.statements());
+        return frame -> {
+            frame.interpreter.steps++;
+            int iterations = usesConstant ? number : frame.read(number);
+            if (invariants != null && iterations > 0) {
+                invariants.execute(frame);
+            }
+            for (int i = 0; i < iterations; i++) {
+                frame.backEdge(line);
+                body.execute(frame);
+            }
+        };
+    }
+
+    /**
+     * Compiles a While statement, with the hoisted invariants or null.
+     */
+    private CompiledStatement whileLoop(While whileStatement, CompiledStatement invariants) {
+        int line = whileStatement.line();
+        int variable = layout.slot(whileStatement.variableNumber());
+        int constant = whileStatement.constant();
+        CompiledStatement body = block(whileStatement.statements());
+        if (detectLoops) {
+            return frame -> {
+                frame.interpreter.steps++;
+                frame.read(variable);
+                CycleDetector detector = null;
+                if (frame.values[variable] > constant) {
+                    detector = ((LWInterpreter) frame.interpreter).enterWhile(whileStatement);
+                    if (detector == null) {
+                        throw CompiledFrame.HALTED;
+                    }
+                    if (invariants != null) {
+                        invariants.execute(frame);
+                    }
+                }
+                while (frame.values[variable] > constant) {
+                    frame.backEdge(line);
+                    checkCycle(frame, detector, line);
+                    body.execute(frame);
+                }
+            };
+        }
+        return frame -> {
+            frame.interpreter.steps++;
+            frame.read(variable);
+            if (invariants != null && frame.values[variable] > constant) {
+                invariants.execute(frame);
+            }
+            while (frame.values[variable] > constant) {
+                frame.backEdge(line);
+                body.execute(frame);
+            }
+        };
+    }
+
+    /**
+     * Checks the state at a back-edge of a While loop and unwinds the compiled loops if the loop repeats the same
+     * state forever.
+     */
+    private static void checkCycle(CompiledFrame frame, CycleDetector detector, int line) {
+        if (detector != null && detector.repeats(frame, line)) {
+            ((LWInterpreter) frame.interpreter).reportRepeatedState(line);
+            throw CompiledFrame.HALTED;
+        }
+    }
+}
@@ -1,26 +1,88 @@
 package ch.zhaw.lwgparserapp.interpreter;
 
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.optimizer.HoistedLoop;
 import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
 import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
 import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
 import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
 
+import java.math.BigInteger;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.CompletableFuture;
 
 /**
  * The LWInterpreter class is responsible for interpreting the statements of the LW language.
  * <p>
  * The LWInterpreter class extends the Interpreter class and implements the interpret method.
  * The interpret method is responsible for interpreting a list of statements.
+ * <p>
+ * Execution is tiered: every loop iteration counts as a back-edge and once the tier-up threshold is reached,
+ * the loop being executed is compiled by the {@link LWCompiler} and its remaining iterations run compiled.
+ * <p>
+ * While loops that never end are reported at once: a loop whose body never assigns the variable of its condition
+ * when it is entered, and a loop that repeats the same state while it runs, interpreted or compiled,
+ * see {@link CycleDetector}.
  */
 public class LWInterpreter extends Interpreter {
+    private static final BigInteger LONG_MAX = BigInteger.valueOf(Long.MAX_VALUE);
+    private static volatile Engine defaultEngine = Engine.TIERED;
+    private int currentLine;
+    private final Map<Statement, LWCompiler.CompiledLoop> compiledLoops = new IdentityHashMap<>();
+    private final Map<While, CycleDetector> cycleDetectors = new IdentityHashMap<>();
+
+    /**
+     * The engines that can run LW programs.
+     */
+    public enum Engine {
+        /**
+         * Interprets the statements and compiles hot loops, see {@link LWInterpreter}.
+         */
+        TIERED,
+        /**
+         * Compiles the program to bytecode and runs it on a virtual machine, see {@link LWBytecodeInterpreter}.
+         */
+        BYTECODE
+    }
+
     public LWInterpreter(Environment environment) {
         super(environment);
     }
 
+    /**
+     * Creates an interpreter of the default engine.
+     *
+     * @param environment the environment to use
+     * @return the new interpreter
+     */
+    public static LWInterpreter create(Environment environment) {
+        return defaultEngine == Engine.BYTECODE
+                ? new LWBytecodeInterpreter(environment)
+                : new LWInterpreter(environment);
+    }
+
+    /**
+     * Sets the engine of the interpreters created by {@link #create(Environment)}.
+     *
+     * @param engine the engine to use
+     */
+    public static void setDefaultEngine(Engine engine) {
+        defaultEngine = Objects.requireNonNull(engine, "Engine must not be null");
+    }
+
+    @Override
+    public Syntax getSyntax() {
+        return Syntax.LW;
+    }
+
+    @Override
+    protected int currentLine() {
+        return frame != null ? frame.line : currentLine;
+    }
+
     /**
      * Interprets a list of statements <br>
      * <p>
@@ -36,10 +98,20 @@ public class LWInterpreter extends Interpreter {
             ErrorHandler.report(0, "Error in Interpreter.interpret: statements must not be null");
             return;
         }
+        compileBreakpoints(ExecutionProfile.maxLine(statements), Map.of());
+        prepareTiering();
+        interpretStatements(statements);
+    }
 
+    /**
+     * Interprets a block of statements, the program or the body of a loop.
+     *
+     * @param statements the list of statement to interpret
+     */
+    private void interpretStatements(List<Statement> statements) {
         try {
             for (Statement statement : statements) {
-                if (isHalted()) {
+                if (shouldHalt()) {
                     break;
                 }
                 interpretStatement(statement);
@@ -49,24 +121,6 @@ public class LWInterpreter extends Interpreter {
         }
     }
 
-    /**
-     * Interprets a list of statements asynchronously <br>
-     * <p>
-     * The method interprets a list of statements asynchronously by running the interpretation in a separate thread.
-     *
-     * @param statements the list of statements to interpret
-     * @return a CompletableFuture representing the asynchronous interpretation
-     */
-    public CompletableFuture<Void> interpretAsync(List<Statement> statements) {
-        scheduleHalt();
-        return CompletableFuture.runAsync(() -> {
-            interpret(statements);
-            if (isHalted) {
-                ErrorHandler.report(0, "Execution got halted, possibly due to an infinite loop");
-            }
-        });
-    }
-
     /**
      * Interprets a statement <br>
      * <p>
@@ -76,10 +130,23 @@ public class LWInterpreter extends Interpreter {
      * @param statement the current statement to interpret
      */
     private void interpretStatement(Statement statement) {
+        steps++;
+        currentLine = statement.line();
         switch (statement) {
-            case Assignment assignment -> interpretAssignment(assignment);
-            case Loop loop -> interpretLoop(loop);
-            case While whileStatement -> interpretWhile(whileStatement);
+            case Assignment assignment -> {
+                if (breakpoints != null && breakpoints.isFlagged(assignment.line())) breakpoint(assignment.line());
+                if (profile != null) profile.hit(assignment.line());
+                interpretAssignment(assignment);
+            }
+            case Loop loop -> interpretLoop(loop, List.of());
+            case While whileStatement -> interpretWhile(whileStatement, List.of());
+            case HoistedLoop hoisted -> {
+                if (hoisted.loop() instanceof Loop loop) {
+                    interpretLoop(loop, hoisted.invariants());
+                } else {
+                    interpretWhile((While) hoisted.loop(), hoisted.invariants());
+                }
+            }
             default -> ErrorHandler.report(0, "Error in Interpreter.interpretStatement: Unknown statement type");
         }
     }
@@ -89,25 +156,38 @@ public class LWInterpreter extends Interpreter {
      * <p>
      * This method interprets a loop statement. The loop number must be a variable or a constant.
      *
-     * @param loop the loop statement to interpret
+     * @param loop       the loop statement to interpret
+     * @param invariants the assignments hoisted out of the loop, run once if the loop runs
      */
-    private void interpretLoop(Loop loop) {
+    private void interpretLoop(Loop loop, List<Statement> invariants) {
         int line = loop.line();
         List<Statement> statements = loop.statements();
         boolean usesConstant = loop.usesConstant();
-        int number = loop.number();
+        long number = loop.number();
 
         if (!usesConstant) {
-            environment.initVariablesIfAbsent(number);
-            number = environment.getVariable(number);
+            environment.initVariablesIfAbsent(loop.number());
+            number = environment.isLarge(loop.number())
+                    ? environment.getLargeVariable(loop.number()).min(LONG_MAX).longValue()
+                    : environment.getVariable(loop.number());
         }
 
-        for (int i = 0; i < number; i++) {
+        if (number > 0 && !invariants.isEmpty()) {
+            interpretStatements(invariants);
+        }
+        for (long i = 0; i < number; i++) {
             environment.addDebugVariablesInDebugMode(line);
-            if (isHalted()) {
+            currentLine = line;
+            if (shouldHalt()) {
                 break;
             }
-            interpret(statements);
+            if (breakpoints != null && breakpoints.isFlagged(line)) breakpoint(line);
+            if (profile != null) profile.hit(line);
+            // only ints are compiled, large counts run with arbitrary precision, which is never tiered
+            if (isHot() && resumeCompiled(loop, (int) (number - i))) {
+                break;
+            }
+            interpretStatements(statements);
         }
     }
 
@@ -119,21 +199,132 @@ public class LWInterpreter extends Interpreter {
      * leads to an infinite loop.
      *
      * @param whileStatement the while statement to interpret
+     * @param invariants     the assignments hoisted out of the loop, run once if the loop runs
      */
-    private void interpretWhile(While whileStatement) {
+    private void interpretWhile(While whileStatement, List<Statement> invariants) {
         int line = whileStatement.line();
         List<Statement> statements = whileStatement.statements();
         int variable = whileStatement.variableNumber();
         int constant = whileStatement.constant();
 
         environment.initVariablesIfAbsent(variable);
+        CycleDetector detector = null;
+        if (loopDetection && isTrue(variable, constant)) {
+            detector = enterWhile(whileStatement);
+            if (detector == null) {
+                return;
+            }
+        }
+        if (environment.isArbitraryPrecision()) {
+            detector = null; // the detector compares ints, all large values look the same
+        }
+        if (!invariants.isEmpty() && isTrue(variable, constant)) {
+            interpretStatements(invariants);
+        }
 
-        while (environment.getVariable(variable) > constant) {
+        while (isTrue(variable, constant)) {
             environment.addDebugVariablesInDebugMode(line);
-            if (isHalted()) {
+            currentLine = line;
+            if (shouldHalt()) {
+                break;
+            }
+            if (breakpoints != null && breakpoints.isFlagged(line)) breakpoint(line);
+            if (profile != null) profile.hit(line);
+            if (detector != null && detector.repeats(environment, line)) {
+                reportRepeatedState(line);
                 break;
             }
-            interpret(statements);
+            if (isHot() && resumeCompiled(whileStatement, 0)) {
+                break;
+            }
+            interpretStatements(statements);
+        }
+    }
+
+    /**
+     * Starts the loop detection of a While loop that is entered with a true condition. A loop whose body never
+     * assigns the variable of its condition never ends and is reported at once.
+     *
+     * @param whileStatement the While loop
+     * @return the reset detector of the loop, or null if the loop was reported
+     */
+    CycleDetector enterWhile(While whileStatement) {
+        CycleDetector detector = cycleDetectors.get(whileStatement);
+        if (detector == null) {
+            if (CycleDetector.isInvariant(whileStatement)) {
+                reportInfiniteLoop(whileStatement.line(), "Infinite loop detected: x"
+                        + whileStatement.variableNumber() + " never changes in the loop");
+                return null;
+            }
+            detector = CycleDetector.of(whileStatement);
+            cycleDetectors.put(whileStatement, detector);
+        }
+        detector.reset();
+        return detector;
+    }
+
+    /**
+     * Returns the detector of a While loop that was entered, see {@link #enterWhile(While)}.
+     *
+     * @param whileStatement the While loop
+     * @return the detector, or null if the loop was never entered with loop detection
+     */
+    CycleDetector getCycleDetector(While whileStatement) {
+        return cycleDetectors.get(whileStatement);
+    }
+
+    /**
+     * Reports a While loop that repeats the same state and halts the interpreter.
+     *
+     * @param line the line of the loop
+     */
+    void reportRepeatedState(int line) {
+        reportInfiniteLoop(line, "Infinite loop detected: the loop repeats the same state");
+    }
+
+    /**
+     * Evaluates the condition of a While loop, a large value is greater than every constant.
+     */
+    private boolean isTrue(int variable, int constant) {
+        return environment.getVariable(variable) > constant || environment.isLarge(variable);
+    }
+
+    /**
+     * Continues a hot loop in compiled code <br>
+     * <p>
+     * The loop is compiled when it first gets hot and the compiled code is reused whenever the loop is entered
+     * again. The compiled loop continues with the iteration the interpreter is about to start and runs the loop
+     * to its end, or until the interpreter is halted.
+     *
+     * @param loop       the Loop or While statement being executed
+     * @param iterations the remaining iterations of a Loop statement
+     * @return true if the loop ran compiled, false if it cannot be compiled
+     */
+    private boolean resumeCompiled(Statement loop, int iterations) {
+        LWCompiler.CompiledLoop compiled = compiledLoops.get(loop);
+        if (compiled == null) {
+            if (compiledLoops.containsKey(loop)) {
+                return false;
+            }
+            compiled = LWCompiler.compile(loop, loopDetection);
+            compiledLoops.put(loop, compiled);
+            if (compiled == null) {
+                return false;
+            }
+            compilations++;
+        }
+
+        CompiledFrame compiledFrame = new CompiledFrame(compiled.variables(), this);
+        frame = compiledFrame;
+        try {
+            compiled.entry().resume(compiledFrame, iterations);
+        } catch (RuntimeException e) {
+            if (e != CompiledFrame.HALTED) throw e;
+            // halted at a back-edge, the enclosing statements see the halt when they poll
+        } finally {
+            compiledFrame.store();
+            frame = null;
         }
+        return true;
     }
 }
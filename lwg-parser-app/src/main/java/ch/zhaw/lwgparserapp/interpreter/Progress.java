@@ -0,0 +1,13 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import java.util.Map;
+
+/**
+ * A sample of the progress of a running interpreter.
+ *
+ * @param steps     the number of statements executed so far
+ * @param line      the line the interpreter was executing
+ * @param variables a snapshot of the variables
+ */
+public record Progress(long steps, int line, Map<Integer, Integer> variables) {
+}
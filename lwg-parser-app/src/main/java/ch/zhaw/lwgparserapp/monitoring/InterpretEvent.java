@@ -0,0 +1,37 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for the interpret phase of an execution.
+ */
+@Name("ch.zhaw.lwgparserapp.Interpret")
+@Label("Interpret")
+@Description("Interpretation of a parsed program")
+@Category({"LWG Parser", "Pipeline"})
+@StackTrace(false)
+public class InterpretEvent extends Event {
+    @Label("Program Hash")
+    @Description("Hash code of the program source")
+    public int programHash;
+
+    @Label("Syntax")
+    public String syntax;
+
+    @Label("Steps")
+    @Description("Number of statements executed")
+    public long steps;
+
+    @Label("Halted")
+    @Description("Whether the execution was halted before it finished")
+    public boolean halted;
+
+    @Label("Timed Out")
+    @Description("Whether the execution was halted by the timeout")
+    public boolean timedOut;
+}
@@ -0,0 +1,35 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import ch.zhaw.lwgparserapp.startup.Warmup;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Binds the pipeline metrics to the Micrometer registry provided by Spring Boot Actuator.
+ * <p>
+ * Metrics can be switched off with {@code lwg.metrics.enabled=false}, in which case the
+ * pipeline keeps reporting to the no-op recorder.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "lwg.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsConfiguration {
+
+    @Bean
+    @Lazy(false)
+    public MicrometerMetricsRecorder pipelineMetricsRecorder(MeterRegistry registry) {
+        MicrometerMetricsRecorder recorder = new MicrometerMetricsRecorder(registry);
+        // the warm-up runs while the context starts and must not show up in the pipeline metrics
+        Warmup.await();
+        PipelineMetrics.bind(recorder);
+        return recorder;
+    }
+
+    @PreDestroy
+    public void unbind() {
+        PipelineMetrics.unbind();
+    }
+}
@@ -0,0 +1,93 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+/**
+ * Receives the measurements taken by the pipeline stages.
+ * <p>
+ * All methods default to doing nothing, so the {@link #NOOP} recorder costs no more than a virtual call.
+ * The interface deliberately does not reference any metrics library, which keeps the scanners, parsers
+ * and interpreters usable without one on the classpath.
+ */
+public interface MetricsRecorder {
+    /**
+     * A recorder that discards every measurement. Used while metrics are disabled.
+     */
+    MetricsRecorder NOOP = new MetricsRecorder() {
+    };
+
+    /**
+     * Records the duration of a single pipeline stage.
+     *
+     * @param stage the stage that completed
+     * @param nanos the duration of the stage in nanoseconds
+     */
+    default void recordStage(PipelineMetrics.Stage stage, long nanos) {
+    }
+
+    /**
+     * Records the size of a scanned source.
+     *
+     * @param characters the number of characters in the source
+     */
+    default void recordSourceSize(int characters) {
+    }
+
+    /**
+     * Records the number of tokens produced by a scanner.
+     *
+     * @param count the number of tokens
+     */
+    default void recordTokens(int count) {
+    }
+
+    /**
+     * Records the number of statements produced by a parser.
+     *
+     * @param count the number of statements
+     */
+    default void recordStatements(int count) {
+    }
+
+    /**
+     * Records a finished interpretation.
+     *
+     * @param steps    the number of statements executed
+     * @param nanos    the duration of the interpretation in nanoseconds
+     * @param timedOut true if the execution was halted by the timeout
+     */
+    default void recordExecution(long steps, long nanos, boolean timedOut) {
+    }
+
+    /**
+     * Records errors reported by a pipeline stage.
+     *
+     * @param stage the stage that reported the errors
+     * @param count the number of errors
+     */
+    default void recordErrors(PipelineMetrics.Stage stage, int count) {
+    }
+
+    /**
+     * Records the time an execution waited before it started running.
+     *
+     * @param nanos the waiting time in nanoseconds
+     */
+    default void recordQueueTime(long nanos) {
+    }
+
+    /**
+     * Records an execution that was not admitted.
+     *
+     * @param reason the reason of the rejection
+     */
+    default void recordRejection(String reason) {
+    }
+
+    /**
+     * Records the duration of a startup phase of the application.
+     *
+     * @param phase the startup phase, e.g. ready or first_request
+     * @param nanos the duration of the phase in nanoseconds
+     */
+    default void recordStartup(String phase, long nanos) {
+    }
+}
@@ -0,0 +1,142 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link MetricsRecorder} that publishes the pipeline measurements to a Micrometer {@link MeterRegistry}.
+ * <p>
+ * All meters are registered up front, so recording a measurement never has to look up a meter by name.
+ */
+public class MicrometerMetricsRecorder implements MetricsRecorder {
+    private final Map<PipelineMetrics.Stage, Timer> stageTimers = new EnumMap<>(PipelineMetrics.Stage.class);
+    private final Map<PipelineMetrics.Stage, Counter> stageErrors = new EnumMap<>(PipelineMetrics.Stage.class);
+    private final DistributionSummary sourceSize;
+    private final DistributionSummary tokens;
+    private final DistributionSummary statements;
+    private final DistributionSummary steps;
+    private final DistributionSummary stepsPerSecond;
+    private final Counter timeouts;
+    private final Timer queueTime;
+    private final Map<String, AtomicLong> startupTimes = new ConcurrentHashMap<>();
+    private final MeterRegistry registry;
+
+    /**
+     * Creates a new recorder and registers all meters in the given registry.
+     *
+     * @param registry the registry to publish the meters to
+     */
+    public MicrometerMetricsRecorder(MeterRegistry registry) {
+        this.registry = registry;
+        for (PipelineMetrics.Stage stage : PipelineMetrics.Stage.values()) {
+            String tag = stage.name().toLowerCase(Locale.ROOT);
+            stageTimers.put(stage, Timer.builder("lwg.pipeline.stage")
+                    .description("Duration of a pipeline stage")
+                    .tag("stage", tag)
+                    .register(registry));
+            stageErrors.put(stage, Counter.builder("lwg.pipeline.errors")
+                    .description("Errors reported by a pipeline stage")
+                    .tag("stage", tag)
+                    .register(registry));
+        }
+        sourceSize = DistributionSummary.builder("lwg.source.size")
+                .description("Size of the scanned source code")
+                .baseUnit("characters")
+                .register(registry);
+        tokens = DistributionSummary.builder("lwg.scan.tokens")
+                .description("Number of tokens produced by the scanner")
+                .baseUnit("tokens")
+                .register(registry);
+        statements = DistributionSummary.builder("lwg.parse.statements")
+                .description("Number of statements produced by the parser")
+                .baseUnit("statements")
+                .register(registry);
+        steps = DistributionSummary.builder("lwg.interpret.steps")
+                .description("Number of statements executed by the interpreter")
+                .baseUnit("steps")
+                .register(registry);
+        stepsPerSecond = DistributionSummary.builder("lwg.interpret.steps.rate")
+                .description("Interpreter throughput of a single execution")
+                .baseUnit("steps/s")
+                .register(registry);
+        timeouts = Counter.builder("lwg.interpret.timeouts")
+                .description("Executions halted because they exceeded the timeout")
+                .register(registry);
+        queueTime = Timer.builder("lwg.scheduler.queue.time")
+                .description("Time an execution waited before it started running")
+                .register(registry);
+    }
+
+    @Override
+    public void recordStage(PipelineMetrics.Stage stage, long nanos) {
+        stageTimers.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSourceSize(int characters) {
+        sourceSize.record(characters);
+    }
+
+    @Override
+    public void recordTokens(int count) {
+        tokens.record(count);
+    }
+
+    @Override
+    public void recordStatements(int count) {
+        statements.record(count);
+    }
+
+    @Override
+    public void recordExecution(long executedSteps, long nanos, boolean timedOut) {
+        stageTimers.get(PipelineMetrics.Stage.INTERPRET).record(nanos, TimeUnit.NANOSECONDS);
+        steps.record(executedSteps);
+        if (nanos > 0) {
+            stepsPerSecond.record(executedSteps * 1e9 / nanos);
+        }
+        if (timedOut) {
+            timeouts.increment();
+        }
+    }
+
+    @Override
+    public void recordErrors(PipelineMetrics.Stage stage, int count) {
+        stageErrors.get(stage).increment(count);
+    }
+
+    @Override
+    public void recordQueueTime(long nanos) {
+        queueTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordRejection(String reason) {
+        // rejections are rare, the registry returns the existing counter for a known reason
+        Counter.builder("lwg.scheduler.rejections")
+                .description("Executions rejected by the scheduler")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    @Override
+    public void recordStartup(String phase, long nanos) {
+        // every phase is recorded once, gauges only hold a weak reference so the map keeps the value alive
+        AtomicLong duration = new AtomicLong(nanos);
+        startupTimes.put(phase, duration);
+        TimeGauge.builder("lwg.startup.time", duration, TimeUnit.NANOSECONDS, AtomicLong::get)
+                .description("Duration of a startup phase of this instance")
+                .tag("phase", phase)
+                .register(registry);
+    }
+}
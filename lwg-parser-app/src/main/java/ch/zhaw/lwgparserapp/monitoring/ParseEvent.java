@@ -0,0 +1,32 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for the parse phase of an execution.
+ */
+@Name("ch.zhaw.lwgparserapp.Parse")
+@Label("Parse")
+@Description("Parsing of a token list into statements")
+@Category({"LWG Parser", "Pipeline"})
+@StackTrace(false)
+public class ParseEvent extends Event {
+    @Label("Program Hash")
+    @Description("Hash code of the program source")
+    public int programHash;
+
+    @Label("Syntax")
+    public String syntax;
+
+    @Label("Token Count")
+    public int tokenCount;
+
+    @Label("Statement Count")
+    @Description("Number of top level statements")
+    public int statementCount;
+}
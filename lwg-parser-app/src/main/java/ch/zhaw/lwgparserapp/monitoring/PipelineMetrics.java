@@ -0,0 +1,106 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import java.util.Objects;
+
+/**
+ * Static entry point used by the pipeline stages to report measurements.
+ * <p>
+ * Until a {@link MetricsRecorder} is bound, all measurements go to {@link MetricsRecorder#NOOP} and
+ * {@link #start()} does not even read the clock, so instrumentation is close to free when disabled.
+ */
+public final class PipelineMetrics {
+    private static volatile MetricsRecorder recorder = MetricsRecorder.NOOP;
+
+    /**
+     * The stages of the processing pipeline.
+     */
+    public enum Stage {
+        DETECT,
+        SCAN,
+        PARSE,
+        INTERPRET
+    }
+
+    private PipelineMetrics() {
+        throw new UnsupportedOperationException("PipelineMetrics is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Binds the recorder that receives all further measurements.
+     *
+     * @param metricsRecorder the recorder to bind
+     */
+    public static void bind(MetricsRecorder metricsRecorder) {
+        recorder = Objects.requireNonNull(metricsRecorder, "Recorder must not be null");
+    }
+
+    /**
+     * Unbinds the current recorder and disables metrics.
+     */
+    public static void unbind() {
+        recorder = MetricsRecorder.NOOP;
+    }
+
+    /**
+     * Checks if a recorder is bound.
+     *
+     * @return true if measurements are recorded, false otherwise
+     */
+    public static boolean isEnabled() {
+        return recorder != MetricsRecorder.NOOP;
+    }
+
+    /**
+     * Returns the start timestamp for a stage measurement.
+     *
+     * @return the current value of {@link System#nanoTime()}, or 0 if metrics are disabled
+     */
+    public static long start() {
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Records the completion of a stage that was started with {@link #start()}.
+     *
+     * @param stage       the stage that completed
+     * @param startNanos  the value returned by {@link #start()}
+     */
+    public static void stageCompleted(Stage stage, long startNanos) {
+        MetricsRecorder current = recorder;
+        if (current != MetricsRecorder.NOOP) {
+            current.recordStage(stage, System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void recordSourceSize(int characters) {
+        recorder.recordSourceSize(characters);
+    }
+
+    public static void recordTokens(int count) {
+        recorder.recordTokens(count);
+    }
+
+    public static void recordStatements(int count) {
+        recorder.recordStatements(count);
+    }
+
+    public static void recordExecution(long steps, long nanos, boolean timedOut) {
+        recorder.recordExecution(steps, nanos, timedOut);
+    }
+
+    public static void recordErrors(Stage stage, int count) {
+        recorder.recordErrors(stage, count);
+    }
+
+    public static void recordQueueTime(long nanos) {
+        recorder.recordQueueTime(nanos);
+    }
+
+    public static void recordRejection(String reason) {
+        recorder.recordRejection(reason);
+    }
+
+    public static void recordStartup(String phase, long nanos) {
+        recorder.recordStartup(phase, nanos);
+    }
+}
@@ -0,0 +1,32 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event emitted for the scan phase of an execution.
+ */
+@Name("ch.zhaw.lwgparserapp.Scan")
+@Label("Scan")
+@Description("Scanning of a program into tokens")
+@Category({"LWG Parser", "Pipeline"})
+@StackTrace(false)
+public class ScanEvent extends Event {
+    @Label("Program Hash")
+    @Description("Hash code of the program source")
+    public int programHash;
+
+    @Label("Syntax")
+    public String syntax;
+
+    @Label("Source Size")
+    @Description("Number of characters of the program source")
+    public int sourceSize;
+
+    @Label("Token Count")
+    public int tokenCount;
+}
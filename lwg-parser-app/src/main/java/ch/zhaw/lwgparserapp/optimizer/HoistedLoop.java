@@ -0,0 +1,22 @@
+package ch.zhaw.lwgparserapp.optimizer;
+
+import ch.zhaw.lwgparserapp.syntax.Statement;
+
+import java.util.List;
+
+/**
+ * A Loop or While statement whose invariant assignments were hoisted out of its body <br>
+ * <p>
+ * The invariants run once, after the Loop statement has read a count greater than 0 or the condition of the While
+ * loop was found true on entry, and before the first iteration. A loop that does not run does not execute them,
+ * like the original loop. Every engine runs hoisted loops, so the invariants are not repeated in any iteration.
+ *
+ * @param invariants the hoisted assignments, in the order of the body
+ * @param loop       the Loop or While statement without the hoisted assignments
+ */
+public record HoistedLoop(List<Statement> invariants, Statement loop) implements Statement {
+    @Override
+    public int line() {
+        return loop.line();
+    }
+}
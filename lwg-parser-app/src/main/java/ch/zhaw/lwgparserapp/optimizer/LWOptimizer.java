@@ -0,0 +1,326 @@
+package ch.zhaw.lwgparserapp.optimizer;
+
+import ch.zhaw.lwgparserapp.interpreter.Interpreter;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An optimiser for LW programs <br>
+ * <p>
+ * The optimiser runs between the parser and the interpreter and removes the statements that do not change
+ * the result of the program:
+ * <ul>
+ *     <li>Constant folding: {@code xi = xj + c; xi = xi + d} becomes {@code xi = xj + e} with e = c + d,
+ *     the same for subtractions.</li>
+ *     <li>Assignments that do nothing, {@code xi = xi + 0} and {@code xi = xi - 0}, are removed.</li>
+ *     <li>Dead stores: an assignment that is overwritten before its variable is read is removed,
+ *     unless it may overflow and report an error.</li>
+ *     <li>Loop statements that run zero times or whose body is empty are removed,
+ *     a Loop statement that runs once is replaced by its body.</li>
+ *     <li>Copy propagation: after a copy {@code xi = xj + 0}, the following statements read xj instead of xi
+ *     until either variable is assigned, which leaves the copy dead more often.</li>
+ *     <li>Invariant assignments are hoisted out of loop bodies and run once per loop instead of once per
+ *     iteration, see {@link LoopInvariants}.</li>
+ * </ul>
+ * Every statement that remains keeps its line, so errors are reported at the lines of the source.
+ * The optimised program executes fewer steps and returns the same variables: a variable that only occurs in
+ * removed statements is still initialised, by a no-op assignment that is kept or moved to the start of its block.
+ * Debugged and profiled programs and programs with breakpoints are not optimised, as they observe every
+ * statement.
+ */
+public final class LWOptimizer {
+    private static final int MAX_PASSES = 8;
+    private static volatile boolean enabled = true;
+
+    private LWOptimizer() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Checks if the programs are optimised before they run.
+     *
+     * @return true if the optimiser is enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the optimisation of the programs, e.g. to count the steps of the program as written.
+     *
+     * @param enabled true to optimise the programs
+     */
+    public static void setEnabled(boolean enabled) {
+        LWOptimizer.enabled = enabled;
+    }
+
+    /**
+     * Checks if the program of an interpreter is optimised before it runs: the optimiser has to be enabled and
+     * the program has to be a LW program whose statements are not observed by the debugger, breakpoints or
+     * a profile, see {@link Interpreter#isObserved()}.
+     *
+     * @param interpreter the interpreter that will run the program
+     * @return true if the program should be optimised
+     */
+    public static boolean appliesTo(Interpreter interpreter) {
+        return enabled && interpreter.getSyntax() == Syntax.LW && !interpreter.isObserved();
+    }
+
+    /**
+     * Optimises a LW program. Removing a statement may enable further optimisations,
+     * so the passes are repeated until the program no longer changes. The invariant assignments are hoisted last.
+     *
+     * @param statements the statements of the program
+     * @return the optimised statements
+     */
+    public static List<Statement> optimize(List<Statement> statements) {
+        List<Statement> optimized = statements;
+        for (int pass = 0; pass < MAX_PASSES; pass++) {
+            List<Statement> next = block(optimized);
+            if (next.equals(optimized)) {
+                break;
+            }
+            optimized = next;
+        }
+        return LoopInvariants.hoist(optimized);
+    }
+
+    private static List<Statement> block(List<Statement> statements) {
+        List<Statement> result = new ArrayList<>(statements.size());
+        for (Statement statement : statements) {
+            switch (statement) {
+                case Assignment assignment -> {
+                    if (isNoOp(assignment)) {
+                        continue;
+                    }
+                    Assignment folded = result.isEmpty() || !(result.getLast() instanceof Assignment previous)
+                            ? null : fold(previous, assignment);
+                    if (folded != null) {
+                        result.set(result.size() - 1, folded);
+                    } else {
+                        result.add(assignment);
+                    }
+                }
+                case Loop loop -> {
+                    List<Statement> body = block(loop.statements());
+                    if (body.isEmpty() || loop.usesConstant() && loop.number() == 0) {
+                        continue;
+                    }
+                    if (loop.usesConstant() && loop.number() == 1) {
+                        result.addAll(body);
+                    } else {
+                        result.add(new Loop(loop.usesConstant(), loop.number(), body, loop.line()));
+                    }
+                }
+                case While whileStatement -> result.add(new While(whileStatement.variableNumber(),
+                        whileStatement.constant(), block(whileStatement.statements()), whileStatement.line()));
+                case null, default -> result.add(statement);
+            }
+        }
+        propagateCopies(result);
+        removeDeadStores(result);
+        keepInitialisations(statements, result);
+        return result;
+    }
+
+    /**
+     * Initialises the variables the removed statements of a block would have initialised. <br>
+     * <p>
+     * A variable that is read or assigned for the first time is initialised with 0 and returned with the result,
+     * so a variable that only occurs in removed statements has to be initialised by another statement.
+     * A no-op assignment of the variable at the start of the block initialises it whenever the block runs,
+     * a block that is the body of a loop only if the loop runs, see {@link LoopInvariants}.
+     */
+    private static void keepInitialisations(List<Statement> statements, List<Statement> result) {
+        Map<Integer, Integer> lost = initialised(statements);
+        lost.keySet().removeAll(initialised(result).keySet());
+        lost.remove(0); // x0 is always initialised
+        List<Statement> initialisations = new ArrayList<>(lost.size());
+        lost.forEach((variable, line) ->
+                initialisations.add(new Assignment(variable, variable, Operator.ADDITION, 0, line)));
+        result.addAll(0, initialisations);
+    }
+
+    /**
+     * Collects the variables a block initialises whenever it runs, with the line of the first statement that
+     * initialises them. The variables of loop bodies are only collected if the loop runs a constant number of
+     * times greater than 0, any other body may not run.
+     */
+    private static Map<Integer, Integer> initialised(List<Statement> statements) {
+        Map<Integer, Integer> variables = new LinkedHashMap<>();
+        for (Statement statement : statements) {
+            switch (statement) {
+                case Assignment assignment -> {
+                    variables.putIfAbsent(assignment.variable1Number(), assignment.line());
+                    variables.putIfAbsent(assignment.variable2Number(), assignment.line());
+                }
+                case Loop loop when loop.usesConstant() -> {
+                    if (loop.number() > 0) {
+                        initialised(loop.statements()).forEach(variables::putIfAbsent);
+                    }
+                }
+                case Loop loop -> variables.putIfAbsent(loop.number(), loop.line());
+                case While whileStatement -> variables.putIfAbsent(whileStatement.variableNumber(),
+                        whileStatement.line());
+                case null, default -> {
+                }
+            }
+        }
+        return variables;
+    }
+
+    private static boolean isNoOp(Assignment assignment) {
+        return assignment.variable1Number() == assignment.variable2Number() && assignment.constant() == 0;
+    }
+
+    /**
+     * Folds an assignment into the previous one if it only adds to or subtracts from its result.
+     * An addition that overflows reports an error either way.
+     *
+     * @return the folded assignment, or null if the assignments cannot be folded
+     */
+    private static Assignment fold(Assignment previous, Assignment assignment) {
+        int variable = assignment.variable1Number();
+        if (previous.variable1Number() != variable || assignment.variable2Number() != variable
+                || previous.operator() != assignment.operator()) {
+            return null;
+        }
+        long constant = (long) previous.constant() + assignment.constant();
+        if (constant > Integer.MAX_VALUE) {
+            return null;
+        }
+        return new Assignment(variable, previous.variable2Number(), previous.operator(), (int) constant,
+                previous.line());
+    }
+
+    private static boolean isCopy(Assignment assignment) {
+        return assignment.variable1Number() != assignment.variable2Number() && assignment.constant() == 0;
+    }
+
+    /**
+     * Replaces the reads of copied variables with the reads of their sources, as long as neither is assigned.
+     * A loop that assigns either variable ends the propagation, only its count is read before the body.
+     */
+    private static void propagateCopies(List<Statement> statements) {
+        for (int i = 0; i < statements.size(); i++) {
+            if (!(statements.get(i) instanceof Assignment copy) || !isCopy(copy)) {
+                continue;
+            }
+            int target = copy.variable1Number();
+            int source = copy.variable2Number();
+            for (int j = i + 1; j < statements.size(); j++) {
+                Statement statement = statements.get(j);
+                boolean assigned = writes(statement, target) || writes(statement, source);
+                if (!assigned || statement instanceof Assignment) {
+                    statements.set(j, rename(statement, target, source));
+                } else if (statement instanceof Loop loop && !loop.usesConstant() && loop.number() == target) {
+                    statements.set(j, new Loop(false, source, loop.statements(), loop.line()));
+                }
+                if (assigned) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaces the reads of a variable in a statement and the bodies of its loops.
+     */
+    private static Statement rename(Statement statement, int variable, int replacement) {
+        return switch (statement) {
+            case Assignment assignment -> assignment.variable2Number() != variable ? assignment
+                    : new Assignment(assignment.variable1Number(), replacement, assignment.operator(),
+                    assignment.constant(), assignment.line());
+            case Loop loop -> new Loop(loop.usesConstant(),
+                    !loop.usesConstant() && loop.number() == variable ? replacement : loop.number(),
+                    loop.statements().stream().map(inner -> rename(inner, variable, replacement)).toList(),
+                    loop.line());
+            case While whileStatement -> new While(
+                    whileStatement.variableNumber() == variable ? replacement : whileStatement.variableNumber(),
+                    whileStatement.constant(),
+                    whileStatement.statements().stream().map(inner -> rename(inner, variable, replacement)).toList(),
+                    whileStatement.line());
+            case null, default -> statement;
+        };
+    }
+
+    /**
+     * Removes the assignments whose variable is assigned again before it is read.
+     * Only assignments that cannot overflow are removed, as an overflow reports an error.
+     */
+    private static void removeDeadStores(List<Statement> statements) {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            if (statements.get(i) instanceof Assignment assignment
+                    && (assignment.operator() == Operator.SUBTRACTION || assignment.constant() == 0)
+                    && isOverwritten(statements, i + 1, assignment.variable1Number())) {
+                statements.remove(i);
+            }
+        }
+    }
+
+    private static boolean isOverwritten(List<Statement> statements, int start, int variable) {
+        for (int i = start; i < statements.size(); i++) {
+            Statement statement = statements.get(i);
+            if (statement instanceof Assignment assignment) {
+                if (assignment.variable2Number() == variable) {
+                    return false;
+                }
+                if (assignment.variable1Number() == variable) {
+                    return true;
+                }
+            } else if (!(statement instanceof Loop || statement instanceof While) || reads(statement, variable)) {
+                return false;
+            }
+            // a loop that does not read the variable is passed, it may not run and cannot overwrite the variable
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a statement may read a variable.
+     *
+     * @param statement the statement
+     * @param variable  the variable
+     * @return true if the statement or any statement in its body reads the variable
+     */
+    static boolean reads(Statement statement, int variable) {
+        return switch (statement) {
+            case Assignment assignment -> assignment.variable2Number() == variable;
+            case Loop loop -> !loop.usesConstant() && loop.number() == variable
+                    || loop.statements().stream().anyMatch(inner -> reads(inner, variable));
+            case While whileStatement -> whileStatement.variableNumber() == variable
+                    || whileStatement.statements().stream().anyMatch(inner -> reads(inner, variable));
+            case HoistedLoop hoisted -> reads(hoisted.loop(), variable)
+                    || hoisted.invariants().stream().anyMatch(inner -> reads(inner, variable));
+            case null, default -> true;
+        };
+    }
+
+    /**
+     * Checks if a statement may assign a variable.
+     *
+     * @param statement the statement
+     * @param variable  the variable
+     * @return true if the statement or any statement in its body assigns the variable
+     */
+    static boolean writes(Statement statement, int variable) {
+        return switch (statement) {
+            case Assignment assignment -> assignment.variable1Number() == variable;
+            case Loop loop -> loop.statements().stream().anyMatch(inner -> writes(inner, variable));
+            case While whileStatement -> whileStatement.statements().stream()
+                    .anyMatch(inner -> writes(inner, variable));
+            case HoistedLoop hoisted -> writes(hoisted.loop(), variable)
+                    || hoisted.invariants().stream().anyMatch(inner -> writes(inner, variable));
+            case null, default -> true;
+        };
+    }
+}
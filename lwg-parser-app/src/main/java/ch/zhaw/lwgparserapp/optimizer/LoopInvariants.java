@@ -0,0 +1,117 @@
+package ch.zhaw.lwgparserapp.optimizer;
+
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hoists invariant assignments out of loop bodies <br>
+ * <p>
+ * An assignment {@code xi = xj + c} in the body of a loop computes the same value in every iteration if the body
+ * never assigns xj. If it is also the only assignment of xi in the body and nothing in the body reads xi before it,
+ * every iteration after the first one assigns the value xi already has, so the assignment runs once in a
+ * {@link HoistedLoop} instead. An assignment may be anywhere in the body, as every statement directly in the body
+ * runs in every iteration, but not in a loop nested in it. Only subtractions and copies are hoisted, as they cannot
+ * overflow and an overflow reports an error in every iteration, and no assignment of the variable of a While
+ * condition.
+ * A no-op {@code xi = xi + 0} that the {@link LWOptimizer} kept to initialise xi is always hoisted, a body
+ * that is left empty then no longer executes a step per iteration.
+ * <p>
+ * The bodies are processed from the innermost loop outwards, an assignment hoisted out of an inner loop is
+ * executed once per iteration of the outer loop instead of once per iteration of the inner loop.
+ */
+final class LoopInvariants {
+
+    private LoopInvariants() {
+        // Private constructor to prevent instantiation
+    }
+
+    /**
+     * Hoists the invariant assignments out of every loop of a block.
+     *
+     * @param statements the statements of the block
+     * @return the statements with hoisted loops in place of the loops that have invariant assignments
+     */
+    static List<Statement> hoist(List<Statement> statements) {
+        List<Statement> result = new ArrayList<>(statements.size());
+        for (Statement statement : statements) {
+            result.add(switch (statement) {
+                case Loop loop -> hoist(loop, hoist(loop.statements()));
+                case While whileStatement -> hoist(whileStatement, hoist(whileStatement.statements()));
+                case null, default -> statement;
+            });
+        }
+        return result;
+    }
+
+    private static Statement hoist(Statement loop, List<Statement> body) {
+        int condition = loop instanceof While whileStatement ? whileStatement.variableNumber() : -1;
+        Map<Integer, Integer> writes = new HashMap<>();
+        countWrites(body, writes);
+        List<Statement> invariants = new ArrayList<>();
+        List<Statement> remaining = new ArrayList<>(body.size());
+        for (int i = 0; i < body.size(); i++) {
+            if (body.get(i) instanceof Assignment assignment && isInvariant(assignment, body, i, writes, condition)) {
+                invariants.add(assignment);
+            } else {
+                remaining.add(body.get(i));
+            }
+        }
+        Statement rebuilt = switch (loop) {
+            case Loop counted -> new Loop(counted.usesConstant(), counted.number(), remaining, counted.line());
+            case While whileStatement -> new While(whileStatement.variableNumber(), whileStatement.constant(),
+                    remaining, whileStatement.line());
+            default -> loop;
+        };
+        return invariants.isEmpty() ? rebuilt : new HoistedLoop(invariants, rebuilt);
+    }
+
+    /**
+     * Checks if an assignment of a loop body can run once before the first iteration.
+     * The variable of a While condition is never hoisted, the condition is checked again after the invariants.
+     */
+    private static boolean isInvariant(Assignment assignment, List<Statement> body, int index,
+                                       Map<Integer, Integer> writes, int condition) {
+        int target = assignment.variable1Number();
+        int source = assignment.variable2Number();
+        if (target == source && assignment.constant() == 0) {
+            return true; // a no-op only initialises its variable, which once is enough
+        }
+        if (target == source || target == condition || writes.containsKey(source) || writes.get(target) != 1
+                || assignment.operator() != Operator.SUBTRACTION && assignment.constant() != 0) {
+            return false;
+        }
+        for (int i = 0; i < index; i++) {
+            if (LWOptimizer.reads(body.get(i), target)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts the assignments of every variable in a block, including the bodies of its loops.
+     */
+    private static void countWrites(List<Statement> statements, Map<Integer, Integer> writes) {
+        for (Statement statement : statements) {
+            switch (statement) {
+                case Assignment assignment -> writes.merge(assignment.variable1Number(), 1, Integer::sum);
+                case Loop loop -> countWrites(loop.statements(), writes);
+                case While whileStatement -> countWrites(whileStatement.statements(), writes);
+                case HoistedLoop hoisted -> {
+                    countWrites(hoisted.invariants(), writes);
+                    countWrites(List.of(hoisted.loop()), writes);
+                }
+                case null, default -> {
+                }
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package ch.zhaw.lwgparserapp.parser;
 
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import ch.zhaw.lwgparserapp.scanner.TokenStream;
 import ch.zhaw.lwgparserapp.syntax.Statement;
 import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
 import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
@@ -14,8 +16,8 @@ import java.util.*;
  * GOTO parser
  */
 public class GOTOParser extends Parser {
-    // list of marker numbers, for checking duplicates
-    List<Integer> markerNumberList;
+    // set of marker numbers, for checking duplicates
+    Set<Integer> markerNumbers;
     // maps goto numbers to the line number of the goto statement, for later checking
     Map<Integer, Integer> gotoValuesMap;
     Map<Integer, Integer> markerLineMap;
@@ -31,12 +33,19 @@ public class GOTOParser extends Parser {
     }
 
     public List<Statement> parse(List<Token> tokens) {
-        markerNumberList = new ArrayList<>();
+        markerNumbers = new HashSet<>();
         gotoValuesMap = new HashMap<>();
         markerLineMap = new HashMap<>();
         containsHalt = false;
-        super.setTokens(tokens);
-        return parseGOTO(tokens);
+        long start = PipelineMetrics.start();
+        // the tokens are consumed from the front, which takes constant time in a linked list and a token stream
+        List<Token> remaining = tokens instanceof TokenStream ? tokens : new LinkedList<>(tokens);
+        super.setTokens(remaining);
+        List<Statement> statements = parseGOTO(remaining);
+        PipelineMetrics.stageCompleted(PipelineMetrics.Stage.PARSE, start);
+        // every marker starts exactly one statement, the remaining entries are empty lines
+        PipelineMetrics.recordStatements(markerNumbers.size());
+        return statements;
     }
 
     public Map<Integer, Integer> getMarkerLineMap () {
@@ -50,6 +59,41 @@ public class GOTOParser extends Parser {
      * @return the block of expressions
      */
     private List<Statement> parseGOTO(List<Token> tokens) {
+        List<Statement> statements = parseLines(tokens);
+        if (!ErrorHandler.hadError()) {
+            checkGotoValues();
+            if (!containsHalt) {
+                ErrorHandler.report(0, "No HALT statement found");
+            }
+        }
+        return statements;
+    }
+
+    /**
+     * Parses the statements of a part of a program, e.g. the lines that were edited, without the checks that need
+     * the whole program: the targets of the jumps, the HALT statement and markers used in other parts.
+     *
+     * @param tokens  the tokens of the part
+     * @param markers the markers of the program before the part, which the part must not repeat
+     * @return the statements of the part, without the empty lines
+     */
+    List<Statement> parseStatements(List<Token> tokens, Set<Integer> markers) {
+        markerNumbers = new HashSet<>(markers);
+        gotoValuesMap = new HashMap<>();
+        markerLineMap = new HashMap<>();
+        containsHalt = false;
+        List<Token> remaining = new LinkedList<>(tokens);
+        super.setTokens(remaining);
+        return parseLines(remaining).stream().filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Parses the statements, with null at the empty lines
+     *
+     * @param tokens the list of tokens to parse
+     * @return the statements
+     */
+    private List<Statement> parseLines(List<Token> tokens) {
         List<Statement> statements = new LinkedList<>();
 
         while (!tokens.isEmpty()) {
@@ -62,10 +106,10 @@ public class GOTOParser extends Parser {
                 Token marker = super.consume(true, EXPECTED_MARKER, TokenType.MARKER);
                 int markerLine = marker.value; // for GOTO, the marker value is treated as the line number
                 int line = marker.line;
-                if (markerNumberList.contains(markerLine)) {
+                if (markerNumbers.contains(markerLine)) {
                     throw new ParseException("Duplicate line marker found", marker.line);
                 }
-                markerNumberList.add(marker.value);
+                markerNumbers.add(marker.value);
                 markerLineMap.put(markerLine, line);
                 super.consume(EXPECTED_COLON, TokenType.COLON);
 
@@ -88,12 +132,6 @@ public class GOTOParser extends Parser {
                 super.skipToNextLine();
             }
         }
-        if (!ErrorHandler.hadError()) {
-            checkGotoValues();
-            if (!containsHalt) {
-                ErrorHandler.report(0, "No HALT statement found");
-            }
-        }
         return statements;
     }
 
@@ -142,7 +180,7 @@ public class GOTOParser extends Parser {
      */
     private void checkGotoValues() {
         for (Map.Entry<Integer, Integer> entry : gotoValuesMap.entrySet()) {
-            if (!markerNumberList.contains(entry.getKey())) {
+            if (!markerNumbers.contains(entry.getKey())) {
                 ErrorHandler.report(
                         entry.getValue(),
                         "No line with goto marker value " + entry.getKey() + " found"
@@ -0,0 +1,649 @@
+package ch.zhaw.lwgparserapp.parser;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.scanner.GOTOScanner;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.scanner.Scanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+import ch.zhaw.lwgparserapp.token.Token;
+import ch.zhaw.lwgparserapp.token.TokenType;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Scans and parses a program while it is edited, e.g. on every keystroke in the editor <br>
+ * <p>
+ * The tokens and the scanning errors are kept per line. An edit rescans the lines it replaces, the tokens of the
+ * following lines are moved by the number of lines it inserts or removes.
+ * <p>
+ * The statements are kept as units: a top-level statement, or a statement in the body of a LW loop, with the lines
+ * of its tokens. An edit marks its lines as changed and the next parse only parses the tokens between the units
+ * before and after the changed lines. The units before keep their statements, the units after are moved to their new
+ * lines. A change inside the body of a Loop or While statement that leaves its header and End alone only parses the
+ * affected statements of the body.
+ * <p>
+ * The result is the same as scanning and parsing the whole source. If the parsed part does not fit between the units
+ * around it, or has errors, the whole program is parsed again, so the errors are the same as well. The units of the
+ * last program without errors are kept together with the lines changed since, so the edit that fixes the errors only
+ * parses the changed lines again.
+ * Instances are not thread-safe.
+ */
+public final class IncrementalParser {
+    private final Syntax syntax;
+    private final Scanner scanner;
+    private final List<ScannedLine> lines = new ArrayList<>();
+    private Block program; // the units of the last program without errors, null if there was none yet
+    private int changedFrom; // the lines changed since the last parse, 0 if there are none
+    private int changedTo;
+    private List<Statement> statements = List.of();
+    private Map<Integer, Integer> markerLineMap = Map.of();
+    private List<ParseError> errors = List.of();
+    private boolean scanErrors;
+    private int rescannedLines;
+    private int reparsedLines;
+
+    /**
+     * The tokens of a line.
+     *
+     * @param text   the text of the line
+     * @param tokens the tokens of the line
+     * @param errors the scanning errors of the line
+     */
+    private record ScannedLine(String text, List<Token> tokens, List<ParseError> errors) {
+        ScannedLine shift(int delta) {
+            return new ScannedLine(text,
+                    tokens.stream().map(token -> new Token(token.type, token.line + delta, token.value)).toList(),
+                    errors.stream().map(error -> new ParseError(error.getLine() + delta, error.getMessage())).toList());
+        }
+    }
+
+    /**
+     * A statement with the lines of its tokens.
+     *
+     * @param firstLine the line of the first token
+     * @param lastLine  the line of the last token, including the semicolon after the statement
+     * @param statement the statement
+     * @param marker    the marker of a GOTO statement
+     * @param jumpLine  the line of the target marker of an If or Goto statement, 0 for other statements
+     * @param body      the body of a Loop or While statement, or null if it shares a line with the header or the End
+     */
+    private record Unit(int firstLine, int lastLine, Statement statement, int marker, int jumpLine, Block body) {
+    }
+
+    /**
+     * The units of a program or of the body of a loop, with the lines they are on.
+     */
+    private static final class Block {
+        private int from;
+        private int to;
+        private final List<Unit> units;
+
+        private Block(int from, int to, List<Unit> units) {
+            this.from = from;
+            this.to = to;
+            this.units = units;
+        }
+    }
+
+    /**
+     * Scans and parses a program.
+     *
+     * @param syntax the syntax of the program, LW or GOTO
+     * @param source the source of the program
+     * @throws IllegalArgumentException if the syntax is neither LW nor GOTO
+     */
+    public IncrementalParser(Syntax syntax, String source) {
+        Objects.requireNonNull(source, "Source code must not be null");
+        this.syntax = syntax;
+        this.scanner = switch (syntax) {
+            case LW -> new LWScanner("");
+            case GOTO -> new GOTOScanner("");
+            case null, default -> throw new IllegalArgumentException("Only LW and GOTO programs can be parsed");
+        };
+        ErrorHandler.clearErrors();
+        String[] split = source.split("\n", -1);
+        for (int i = 0; i < split.length; i++) {
+            lines.add(scan(i + 1, split[i]));
+        }
+        rescannedLines = split.length;
+        update();
+    }
+
+    /**
+     * Applies an edit to the source and parses the program again.
+     * The errors of the program are reported to the {@link ErrorHandler}, whose previous errors are cleared.
+     *
+     * @param edit the edit
+     * @return the statements of the edited program, empty if it has scanning errors
+     * @throws IllegalArgumentException if the range of the edit is outside the source
+     */
+    public List<Statement> edit(TextEdit edit) {
+        int first = edit.startLine();
+        int last = edit.endLine();
+        if (last > lines.size() || edit.startColumn() > lines.get(first - 1).text().length() + 1
+                || edit.endColumn() > lines.get(last - 1).text().length() + 1) {
+            throw new IllegalArgumentException("The edit is outside the source");
+        }
+        String text = lines.get(first - 1).text().substring(0, edit.startColumn() - 1) + edit.text()
+                + lines.get(last - 1).text().substring(edit.endColumn() - 1);
+        String[] replaced = text.split("\n", -1);
+        int newLast = first + replaced.length - 1;
+        int delta = newLast - last;
+
+        ErrorHandler.clearErrors();
+        List<ScannedLine> scanned = new ArrayList<>(replaced.length);
+        for (int i = 0; i < replaced.length; i++) {
+            scanned.add(scan(first + i, replaced[i]));
+        }
+        lines.subList(first - 1, last).clear();
+        lines.addAll(first - 1, scanned);
+        if (delta != 0) {
+            for (int i = newLast; i < lines.size(); i++) {
+                lines.set(i, lines.get(i).shift(delta));
+            }
+        }
+        rescannedLines = replaced.length;
+
+        if (program != null) {
+            move(program, first, last, newLast);
+        }
+        if (changedFrom == 0) {
+            changedFrom = first;
+            changedTo = newLast;
+        } else {
+            changedFrom = Math.min(moveStart(changedFrom, first, last, newLast), first);
+            changedTo = Math.max(moveEnd(changedTo, first, last, newLast), newLast);
+        }
+        update();
+        return statements;
+    }
+
+    /**
+     * Returns the syntax of the program.
+     *
+     * @return LW or GOTO
+     */
+    public Syntax getSyntax() {
+        return syntax;
+    }
+
+    /**
+     * Returns the source of the program with all edits applied.
+     *
+     * @return the source code
+     */
+    public String getSource() {
+        return String.join("\n", lines.stream().map(ScannedLine::text).toList());
+    }
+
+    /**
+     * Returns the statements like the parser returns them, with null at the empty lines of GOTO programs.
+     *
+     * @return the statements, empty if the program has errors
+     */
+    public List<Statement> getStatements() {
+        return statements;
+    }
+
+    /**
+     * Returns the line of every marker of a GOTO program.
+     *
+     * @return the marker line map, empty for LW programs
+     */
+    public Map<Integer, Integer> getMarkerLineMap() {
+        return markerLineMap;
+    }
+
+    /**
+     * Returns the scanning or parsing errors of the program.
+     *
+     * @return the errors, empty if the program is valid
+     */
+    public List<ParseError> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Checks if the errors are scanning errors, in which case the program was not parsed.
+     *
+     * @return true if the program has scanning errors
+     */
+    public boolean hasScanErrors() {
+        return scanErrors;
+    }
+
+    /**
+     * Returns the number of lines scanned by the last edit.
+     *
+     * @return the number of rescanned lines
+     */
+    public int getRescannedLines() {
+        return rescannedLines;
+    }
+
+    /**
+     * Returns the number of lines whose tokens were parsed by the last edit, all lines if the whole program was
+     * parsed again.
+     *
+     * @return the number of reparsed lines
+     */
+    public int getReparsedLines() {
+        return reparsedLines;
+    }
+
+    private ScannedLine scan(int number, String text) {
+        int before = ErrorHandler.getErrors().size();
+        List<Token> tokens = scanner.scanLine(number, text);
+        List<ParseError> lineErrors = List.copyOf(ErrorHandler.getErrors().subList(before,
+                ErrorHandler.getErrors().size()));
+        return new ScannedLine(text, List.copyOf(tokens), lineErrors);
+    }
+
+    /**
+     * Parses the changed lines, or the whole program if that is not possible.
+     */
+    private void update() {
+        ErrorHandler.clearErrors();
+        reparsedLines = 0;
+        scanErrors = false;
+        for (ScannedLine line : lines) {
+            for (ParseError error : line.errors()) {
+                ErrorHandler.report(error.getLine(), error.getMessage());
+                scanErrors = true;
+            }
+        }
+        // like the scanner, a program with scanning errors is not parsed
+        if (!scanErrors) {
+            if (program == null || changedFrom != 0 && !reparse(program, changedFrom, changedTo, true)) {
+                parseAll();
+            } else if (changedFrom != 0 && syntax == Syntax.GOTO && !ErrorHandler.hadError()) {
+                checkMarkers();
+            }
+        }
+        if (ErrorHandler.hadError()) {
+            // the changed lines are parsed again once the errors are fixed
+            statements = List.of();
+            markerLineMap = Map.of();
+        } else {
+            statements = statements(program);
+            changedFrom = 0;
+        }
+        errors = List.copyOf(ErrorHandler.getErrors());
+    }
+
+    private void parseAll() {
+        List<Token> tokens = new ArrayList<>();
+        for (ScannedLine line : lines) {
+            tokens.addAll(line.tokens());
+        }
+        reparsedLines += lines.size();
+        ErrorHandler.clearErrors();
+        Parser parser = syntax == Syntax.LW ? new LWParser() : new GOTOParser();
+        List<Statement> parsed = parser.parse(tokens);
+        markerLineMap = parser instanceof GOTOParser gotoParser ? gotoParser.getMarkerLineMap() : Map.of();
+        List<Unit> units = ErrorHandler.hadError() ? null
+                : units(tokens, parsed.stream().filter(Objects::nonNull).toList());
+        if (units != null) {
+            program = new Block(1, lines.size(), units);
+        }
+    }
+
+    /**
+     * Parses the changed lines of a block, together with the units they touch.
+     *
+     * @param block    the block
+     * @param from     the first changed line
+     * @param to       the last changed line
+     * @param topLevel true for the program, false for the body of a loop
+     * @return true if the block was updated, false if the changed lines must be parsed with the enclosing block
+     */
+    private boolean reparse(Block block, int from, int to, boolean topLevel) {
+        List<Unit> units = block.units;
+        int start = 0;
+        while (start < units.size() && units.get(start).lastLine() < from) {
+            start++;
+        }
+        int end = start;
+        while (end < units.size() && units.get(end).firstLine() <= to) {
+            end++;
+        }
+        if (end - start == 1) {
+            Unit unit = units.get(start);
+            Block body = unit.body();
+            if (body != null && from >= body.from && to <= body.to && reparse(body, from, to, false)) {
+                units.set(start, withBody(unit));
+                return true;
+            }
+        }
+
+        // units that share a line with the changed lines are parsed with them
+        int regionFrom = start < end ? Math.min(from, units.get(start).firstLine()) : from;
+        int regionTo = start < end ? Math.max(to, units.get(end - 1).lastLine()) : to;
+        while (start > 0 && units.get(start - 1).lastLine() >= regionFrom) {
+            start--;
+            regionFrom = Math.min(regionFrom, units.get(start).firstLine());
+        }
+        while (end < units.size() && units.get(end).firstLine() <= regionTo) {
+            regionTo = Math.max(regionTo, units.get(end).lastLine());
+            end++;
+        }
+        boolean hasPrevious = start > 0;
+        boolean hasNext = end < units.size();
+        int lineFrom = hasPrevious ? units.get(start - 1).lastLine() + 1 : block.from;
+        int lineTo = hasNext ? units.get(end).firstLine() - 1 : block.to;
+        List<Token> tokens = new ArrayList<>();
+        for (int line = lineFrom; line <= lineTo; line++) {
+            tokens.addAll(lines.get(line - 1).tokens());
+        }
+        reparsedLines += Math.max(0, lineTo - lineFrom + 1);
+
+        // a statement before another one ends with a semicolon, the last one in a body does not, and the parser
+        // checks the semicolon before the part together with an End at the start of the part
+        TokenType lastType = tokens.isEmpty() ? null : tokens.getLast().type;
+        if (hasNext && lastType != null && lastType != TokenType.SEMICOLON
+                || !topLevel && !hasNext && (lastType == null ? hasPrevious : lastType == TokenType.SEMICOLON)
+                || hasPrevious && lastType != null && tokens.getFirst().type == TokenType.END) {
+            return false;
+        }
+        int previousLine = hasPrevious ? units.get(start - 1).lastLine() : 1;
+        List<Statement> parsed = syntax == Syntax.LW
+                ? parseLW(tokens, previousLine, topLevel)
+                : parseGOTO(tokens, previousLine, units, start, end);
+        if (parsed == null) {
+            ErrorHandler.clearErrors();
+            return false;
+        }
+        if (ErrorHandler.hadError()) {
+            // the errors are those of the whole program, the units are updated once they are fixed
+            return true;
+        }
+        List<Unit> parsedUnits = units(tokens, parsed);
+        if (parsedUnits == null) {
+            return false;
+        }
+        units.subList(start, end).clear();
+        units.addAll(start, parsedUnits);
+        return true;
+    }
+
+    /**
+     * Parses the tokens of a part of a LW program. <br>
+     * <p>
+     * The parser recovers from an error at the next line and stops at an End without a loop at the top level.
+     * If it had errors in a top-level part and stopped, or left no loop open, the rest of the program is parsed like
+     * before, so the errors of the part are the errors of the whole program.
+     *
+     * @return the statements of the part, or null if the part has errors the whole program must be parsed for
+     */
+    private static List<Statement> parseLW(List<Token> tokens, int previousLine, boolean topLevel) {
+        LWParser parser = new LWParser();
+        parser.lastLine = previousLine;
+        List<Statement> parsed = parser.parseStatements(tokens);
+        if (ErrorHandler.hadError()
+                ? !(topLevel && (parser.isBalanced() || !parser.getTokens().isEmpty()))
+                : !parser.isBalanced()) {
+            return null;
+        }
+        return parsed;
+    }
+
+    /**
+     * Parses the tokens of a part of a GOTO program. <br>
+     * <p>
+     * The parser recovers from an error at the next line, and the statements of a GOTO program only depend on each
+     * other through their markers. The markers before the part are known to the parser, and the markers after it
+     * that the part repeats are reported like the parser reports them, so the errors of the part and the duplicate
+     * markers are the errors of the whole program.
+     *
+     * @return the statements of the part
+     */
+    private static List<Statement> parseGOTO(List<Token> tokens, int previousLine, List<Unit> units, int start,
+                                             int end) {
+        Set<Integer> markers = new HashSet<>();
+        for (int i = 0; i < start; i++) {
+            markers.add(units.get(i).marker());
+        }
+        GOTOParser parser = new GOTOParser();
+        parser.lastLine = previousLine;
+        List<Statement> parsed = parser.parseStatements(tokens, markers);
+        if (parser.markerNumbers.size() > markers.size()) {
+            for (int i = end; i < units.size(); i++) {
+                if (parser.markerNumbers.contains(units.get(i).marker())) {
+                    ErrorHandler.report(units.get(i).firstLine(), "Duplicate line marker found");
+                }
+            }
+        }
+        return parsed;
+    }
+
+    /**
+     * Checks the jumps of a GOTO program that was parsed in parts: every jump has a target and there is a HALT
+     * statement. The errors are reported like the parser reports them.
+     */
+    private void checkMarkers() {
+        Map<Integer, Integer> markers = new HashMap<>();
+        Map<Integer, Integer> jumps = new HashMap<>();
+        boolean halt = false;
+        for (Unit unit : program.units) {
+            markers.put(unit.marker(), unit.firstLine());
+            switch (unit.statement()) {
+                case If ifStatement -> jumps.put(ifStatement.gotoMarkerNumber(), unit.jumpLine());
+                case Goto gotoStatement -> jumps.put(gotoStatement.markerNumber(), unit.jumpLine());
+                case Halt ignored -> halt = true;
+                default -> {
+                    // assignments do not jump
+                }
+            }
+        }
+        for (Map.Entry<Integer, Integer> jump : jumps.entrySet()) {
+            if (!markers.containsKey(jump.getKey())) {
+                ErrorHandler.report(jump.getValue(), "No line with goto marker value " + jump.getKey() + " found");
+            }
+        }
+        if (!halt) {
+            ErrorHandler.report(0, "No HALT statement found");
+        }
+        markerLineMap = markers;
+    }
+
+    /**
+     * Splits the tokens of a block into units, one for every statement.
+     *
+     * @param tokens     the tokens of the block
+     * @param statements the statements parsed from the tokens, without the empty lines
+     * @return the units, or null if the tokens do not match the statements
+     */
+    private List<Unit> units(List<Token> tokens, List<Statement> statements) {
+        List<Unit> units = new ArrayList<>(statements.size());
+        int start = 0;
+        int depth = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            TokenType type = tokens.get(i).type;
+            if (type == TokenType.LOOP || type == TokenType.WHILE) {
+                depth++;
+            } else if (type == TokenType.END) {
+                depth--;
+            }
+            if (depth == 0 && type == TokenType.SEMICOLON || i == tokens.size() - 1) {
+                if (units.size() == statements.size()) {
+                    return null;
+                }
+                Statement statement = statements.get(units.size());
+                int jumpLine = statement instanceof If || statement instanceof Goto ? jumpLine(tokens, i) : 0;
+                units.add(new Unit(tokens.get(start).line, tokens.get(i).line, statement, tokens.get(start).value,
+                        jumpLine, body(tokens.subList(start, i + 1), statement)));
+                start = i + 1;
+            }
+        }
+        return units.size() == statements.size() ? units : null;
+    }
+
+    /**
+     * Finds the line of the target marker of a jump, the last marker of the statement.
+     */
+    private static int jumpLine(List<Token> tokens, int last) {
+        int i = last;
+        while (tokens.get(i).type != TokenType.MARKER) {
+            i--;
+        }
+        return tokens.get(i).line;
+    }
+
+    /**
+     * Finds the body of a Loop or While statement.
+     *
+     * @return the body, or null if the statement is not a loop or its body shares a line with the header or the End
+     */
+    private Block body(List<Token> tokens, Statement statement) {
+        List<Statement> statements = switch (statement) {
+            case Loop loop -> loop.statements();
+            case While whileStatement -> whileStatement.statements();
+            default -> null;
+        };
+        if (statements == null) {
+            return null;
+        }
+        int doIndex = 0;
+        while (tokens.get(doIndex).type != TokenType.DO) {
+            doIndex++;
+        }
+        int endIndex = doIndex + 1;
+        for (int depth = 1; ; endIndex++) {
+            TokenType type = tokens.get(endIndex).type;
+            if (type == TokenType.LOOP || type == TokenType.WHILE) {
+                depth++;
+            } else if (type == TokenType.END && --depth == 0) {
+                break;
+            }
+        }
+        List<Token> bodyTokens = tokens.subList(doIndex + 1, endIndex);
+        int from = tokens.get(doIndex).line + 1;
+        int to = tokens.get(endIndex).line - 1;
+        if (from > to
+                || !bodyTokens.isEmpty() && (bodyTokens.getFirst().line < from || bodyTokens.getLast().line > to)) {
+            return null;
+        }
+        List<Unit> units = units(bodyTokens, statements);
+        return units == null ? null : new Block(from, to, units);
+    }
+
+    private static Unit withBody(Unit unit) {
+        List<Statement> body = unit.body().units.stream().map(Unit::statement).toList();
+        Statement statement = switch (unit.statement()) {
+            case Loop loop -> new Loop(loop.usesConstant(), loop.number(), body, loop.line());
+            case While whileStatement -> new While(whileStatement.variableNumber(), whileStatement.constant(), body,
+                    whileStatement.line());
+            default -> unit.statement();
+        };
+        return new Unit(unit.firstLine(), unit.lastLine(), statement, unit.marker(), unit.jumpLine(), unit.body());
+    }
+
+    private List<Statement> statements(Block block) {
+        List<Statement> result = new ArrayList<>(block.units.size());
+        int previous = 1; // the line of the last token, like the parser starts
+        for (Unit unit : block.units) {
+            if (syntax == Syntax.GOTO) {
+                for (int line = previous + 1; line < unit.firstLine(); line++) {
+                    result.add(null);
+                }
+            }
+            result.add(unit.statement());
+            previous = unit.lastLine();
+        }
+        return result;
+    }
+
+    /**
+     * Moves the units of a block to the lines after an edit. The units after the edit are moved by the number
+     * of inserted lines, the units the edit touches are stretched over the replaced lines and parsed again.
+     *
+     * @param block   the block
+     * @param first   the first replaced line
+     * @param last    the last replaced line, before the edit
+     * @param newLast the last replaced line, after the edit
+     */
+    private static void move(Block block, int first, int last, int newLast) {
+        int delta = newLast - last;
+        block.from = moveStart(block.from, first, last, newLast);
+        block.to = moveEnd(block.to, first, last, newLast);
+        for (int i = 0; i < block.units.size(); i++) {
+            Unit unit = block.units.get(i);
+            if (unit.lastLine() < first) {
+                continue;
+            }
+            if (unit.firstLine() > last) {
+                if (delta != 0) {
+                    block.units.set(i, shift(unit, delta));
+                }
+                continue;
+            }
+            Block body = unit.body();
+            if (body != null && (first < body.from || last > body.to)) {
+                // the edit touches the header or the End, the statement is parsed as a whole
+                body = null;
+            } else if (body != null) {
+                move(body, first, last, newLast);
+            }
+            block.units.set(i, new Unit(moveStart(unit.firstLine(), first, last, newLast),
+                    moveEnd(unit.lastLine(), first, last, newLast), unit.statement(), unit.marker(), unit.jumpLine(),
+                    body));
+        }
+    }
+
+    /**
+     * Moves the first line of a range, a line that was replaced moves to the first replaced line.
+     */
+    private static int moveStart(int line, int first, int last, int newLast) {
+        return line < first ? line : line > last ? line + newLast - last : first;
+    }
+
+    /**
+     * Moves the last line of a range, a line that was replaced moves to the last replaced line.
+     */
+    private static int moveEnd(int line, int first, int last, int newLast) {
+        return line < first ? line : line > last ? line + newLast - last : newLast;
+    }
+
+    private static Unit shift(Unit unit, int delta) {
+        Block body = unit.body();
+        if (body != null) {
+            body.from += delta;
+            body.to += delta;
+            body.units.replaceAll(inner -> shift(inner, delta));
+        }
+        return new Unit(unit.firstLine() + delta, unit.lastLine() + delta, shift(unit.statement(), delta),
+                unit.marker(), unit.jumpLine() == 0 ? 0 : unit.jumpLine() + delta, body);
+    }
+
+    private static Statement shift(Statement statement, int delta) {
+        return switch (statement) {
+            case Assignment assignment -> new Assignment(assignment.variable1Number(), assignment.variable2Number(),
+                    assignment.operator(), assignment.constant(), assignment.line() + delta);
+            case Loop loop -> new Loop(loop.usesConstant(), loop.number(),
+                    loop.statements().stream().map(inner -> shift(inner, delta)).toList(), loop.line() + delta);
+            case While whileStatement -> new While(whileStatement.variableNumber(), whileStatement.constant(),
+                    whileStatement.statements().stream().map(inner -> shift(inner, delta)).toList(),
+                    whileStatement.line() + delta);
+            case If ifStatement -> new If(ifStatement.variableNumber(), ifStatement.constant(),
+                    ifStatement.gotoMarkerNumber(), ifStatement.markerLine(), ifStatement.line() + delta);
+            case Goto gotoStatement -> new Goto(gotoStatement.markerNumber(), gotoStatement.markerLine(),
+                    gotoStatement.line() + delta);
+            case Halt halt -> new Halt(halt.markerLine(), halt.line() + delta);
+            default -> statement;
+        };
+    }
+}
@@ -1,6 +1,8 @@
 package ch.zhaw.lwgparserapp.parser;
 
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import ch.zhaw.lwgparserapp.scanner.TokenStream;
 import ch.zhaw.lwgparserapp.syntax.Statement;
 import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
 import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
@@ -12,6 +14,7 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Arrays;
+import java.util.LinkedList;
 
 /**
  * LOOP WHILE parser
@@ -26,15 +29,56 @@ public class LWParser extends Parser {
     }
 
     public List<Statement> parse(List<Token> tokens) {
-        super.setTokens(tokens);
+        long start = PipelineMetrics.start();
+        // the tokens are consumed from the front, which takes constant time in a linked list and a token stream
+        List<Token> remaining = tokens instanceof TokenStream ? tokens : new LinkedList<>(tokens);
+        super.setTokens(remaining);
         encounteredEnd = false;
-        List<Statement> statements = parseLW(tokens);
+        List<Statement> statements = parseLW(remaining);
         if (!ErrorHandler.hadError()) {
             validateClosingSequence(lastLine);
         }
+        PipelineMetrics.stageCompleted(PipelineMetrics.Stage.PARSE, start);
+        if (PipelineMetrics.isEnabled()) {
+            PipelineMetrics.recordStatements(countStatements(statements));
+        }
         return statements;
     }
 
+    /**
+     * Parses the statements of a part of a program, e.g. the lines that were edited, without checking that the
+     * loops are closed, see {@link #isBalanced()}.
+     *
+     * @param tokens the tokens of the part
+     * @return the statements of the part
+     */
+    List<Statement> parseStatements(List<Token> tokens) {
+        List<Token> remaining = new LinkedList<>(tokens);
+        super.setTokens(remaining);
+        encounteredEnd = false;
+        return parseLW(remaining);
+    }
+
+    /**
+     * Counts the statements of a block including all nested blocks
+     *
+     * @param statements the block to count
+     * @return the number of statements
+     */
+    private static int countStatements(List<Statement> statements) {
+        int count = statements.size();
+        for (Statement statement : statements) {
+            switch (statement) {
+                case Loop loop -> count += countStatements(loop.statements());
+                case While whileStatement -> count += countStatements(whileStatement.statements());
+                default -> {
+                    // assignments have no nested statements
+                }
+            }
+        }
+        return count;
+    }
+
     /**
      * Parses a list of tokens into a block of expressions
      *
@@ -134,6 +178,15 @@ public class LWParser extends Parser {
         encounteredEnd = true;
     }
 
+    /**
+     * Checks if every loop or while statement started so far was closed, e.g. after parsing a part of a program.
+     *
+     * @return true if no loop or while statement is open
+     */
+    boolean isBalanced() {
+        return balancedDeque.isEmpty();
+    }
+
     /**
      * Validates the closing sequence of a block of expressions
      * by checking if the expected type is the same as the last token in the deque
@@ -8,6 +8,7 @@ import ch.zhaw.lwgparserapp.token.TokenType;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 public abstract class Parser {
@@ -150,8 +151,10 @@ public abstract class Parser {
      * @throws ParseException if the closing sequence is not balanced
      */
     void validateSemicolon(List<Token> tokens) throws ParseException {
-        // Semicolon before END is not allowed
-        if(tokens.size() >= 2 && tokens.get(0).type == TokenType.SEMICOLON && tokens.get(1).type == TokenType.END) {
+        // Semicolon before END is not allowed, the iterator only reads the two tokens of a TokenStream
+        Iterator<Token> next = tokens.iterator();
+        if (next.hasNext() && next.next().type == TokenType.SEMICOLON && next.hasNext()
+                && next.next().type == TokenType.END) {
             throw new ParseException("Semicolon before END is not allowed", tokens.getFirst().line);
         }
 
@@ -0,0 +1,24 @@
+package ch.zhaw.lwgparserapp.parser;
+
+import java.util.Objects;
+
+/**
+ * An edit of a source, the replacement of a range of text like an editor reports it on a keystroke.
+ * Lines and columns start at 1, the end of the range is exclusive, so an insertion has an empty range.
+ *
+ * @param startLine   the line the range starts on
+ * @param startColumn the column the range starts at
+ * @param endLine     the line the range ends on
+ * @param endColumn   the column after the range
+ * @param text        the text replacing the range, may contain line breaks
+ */
+public record TextEdit(int startLine, int startColumn, int endLine, int endColumn, String text) {
+    public TextEdit {
+        Objects.requireNonNull(text, "Text must not be null");
+        if (startLine < 1 || startColumn < 1 || endColumn < 1 || endLine < startLine
+                || endLine == startLine && endColumn < startColumn) {
+            throw new IllegalArgumentException("Invalid range " + startLine + ":" + startColumn + "-" + endLine + ":"
+                    + endColumn);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * CharSource is a source of the characters of a program, which the scanners read line by line. <br>
+ * <p>
+ * The lines are the same as splitting the code at "\n": code that ends with a line break has an empty last line and
+ * empty code has one empty line. Only the line that is read is held as a String, so a source that is not a String
+ * itself never holds the code in memory as a whole.
+ */
+public interface CharSource {
+    /**
+     * Files smaller than this are read instead of mapped, because mapping them costs more than reading them.
+     */
+    long MAP_THRESHOLD = 64 * 1024;
+
+    /**
+     * Returns whether there is another line.
+     *
+     * @return true if {@link #nextLine()} returns another line
+     */
+    boolean hasNextLine();
+
+    /**
+     * Reads the next line.
+     *
+     * @return the line without the line break
+     * @throws NoSuchElementException if there is no line left
+     * @throws UncheckedIOException   if the code cannot be read
+     */
+    String nextLine();
+
+    /**
+     * Returns a source of the lines of the code.
+     *
+     * @param source the code
+     * @return the character source
+     */
+    static CharSource of(String source) {
+        return new StringCharSource(source, 0, source.length());
+    }
+
+    /**
+     * Returns a source of the lines read from the reader through a buffer of fixed size.
+     * The reader is not closed by the source.
+     *
+     * @param reader the reader of the code
+     * @return the character source
+     */
+    static CharSource of(Reader reader) {
+        return new ReaderCharSource(reader);
+    }
+
+    /**
+     * Returns a source of the lines of a UTF-8 file, which is mapped into memory unless it is smaller than
+     * {@link #MAP_THRESHOLD} or too large to be mapped at once. The channel is not closed by the source.
+     *
+     * @param channel the channel of the file
+     * @return the character source
+     * @throws IOException if the file cannot be mapped
+     */
+    static CharSource of(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size >= MAP_THRESHOLD && size <= Integer.MAX_VALUE) {
+            return map(channel);
+        }
+        return of(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), ReaderCharSource.BUFFER_SIZE));
+    }
+
+    /**
+     * Returns a source of the lines of a UTF-8 file mapped into memory, see {@link MappedCharSource}.
+     * The mapping stays valid after the channel is closed.
+     *
+     * @param channel the channel of the file, at most 2 GB
+     * @return the character source
+     * @throws IOException if the file cannot be mapped
+     */
+    static CharSource map(FileChannel channel) throws IOException {
+        return new MappedCharSource(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+    }
+}
@@ -0,0 +1,103 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * MappedCharSource reads the lines of UTF-8 code from a buffer, usually a file mapped into memory. <br>
+ * <p>
+ * The bytes are copied from the buffer in chunks of fixed size and the lines are found in the bytes, without a
+ * {@link java.nio.charset.CharsetDecoder} and without reading the file through a channel. A line of ASCII characters,
+ * which is every line of a valid program, becomes a String by copying its bytes; only a line with other characters
+ * is decoded as UTF-8. A line break byte is never part of another UTF-8 character, so the lines can be decoded
+ * one by one. Like the decoder of {@link CharSource#of(java.nio.channels.FileChannel)} for small files, malformed
+ * bytes are reported instead of replaced.
+ */
+final class MappedCharSource implements CharSource {
+    private static final int CHUNK_SIZE = 8192;
+
+    private final ByteBuffer buffer;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private final byte[] chunk = new byte[CHUNK_SIZE];
+    private int position;
+    private int limit;
+    // the start of a line that continues in the next chunk
+    private byte[] line = new byte[CHUNK_SIZE];
+    private boolean hasNextLine = true;
+
+    /**
+     * Creates a new source of the lines between the position and the limit of the buffer.
+     *
+     * @param buffer the buffer of the code, which is not modified
+     */
+    MappedCharSource(ByteBuffer buffer) {
+        this.buffer = buffer.duplicate();
+    }
+
+    @Override
+    public boolean hasNextLine() {
+        return hasNextLine;
+    }
+
+    @Override
+    public String nextLine() {
+        if (!hasNextLine) throw new NoSuchElementException("There is no line left");
+        int lineLength = 0;
+        // the bytes of a non-ASCII character are negative, so the line is ASCII while this is not
+        int bits = 0;
+        while (true) {
+            if (position == limit && !readChunk()) {
+                hasNextLine = false;
+                return string(line, 0, lineLength, bits);
+            }
+            int lineEnd = position;
+            while (lineEnd < limit && chunk[lineEnd] != '\n') {
+                bits |= chunk[lineEnd];
+                lineEnd++;
+            }
+            if (lineEnd < limit && lineLength == 0) {
+                String text = string(chunk, position, lineEnd - position, bits);
+                position = lineEnd + 1;
+                return text;
+            }
+            if (lineLength + lineEnd - position > line.length) {
+                line = Arrays.copyOf(line, Math.max(line.length * 2, lineLength + lineEnd - position));
+            }
+            System.arraycopy(chunk, position, line, lineLength, lineEnd - position);
+            lineLength += lineEnd - position;
+            if (lineEnd < limit) {
+                position = lineEnd + 1;
+                return string(line, 0, lineLength, bits);
+            }
+            position = limit;
+        }
+    }
+
+    private boolean readChunk() {
+        int count = Math.min(CHUNK_SIZE, buffer.remaining());
+        if (count == 0) return false;
+        buffer.get(chunk, 0, count);
+        position = 0;
+        limit = count;
+        return true;
+    }
+
+    /**
+     * Creates the String of a line.
+     *
+     * @throws UncheckedIOException with a {@link java.nio.charset.MalformedInputException} if the line is not UTF-8
+     */
+    private String string(byte[] bytes, int offset, int length, int bits) {
+        if (bits >= 0) return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        try {
+            return decoder.decode(ByteBuffer.wrap(bytes, offset, length)).toString();
+        } catch (CharacterCodingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
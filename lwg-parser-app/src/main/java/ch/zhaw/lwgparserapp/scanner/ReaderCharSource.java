@@ -0,0 +1,61 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * ReaderCharSource reads the lines of a {@link Reader} through a buffer of fixed size.
+ */
+final class ReaderCharSource implements CharSource {
+    static final int BUFFER_SIZE = 8192;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private final StringBuilder line = new StringBuilder();
+    private boolean hasNextLine = true;
+
+    ReaderCharSource(Reader reader) {
+        this.reader = Objects.requireNonNull(reader, "Reader must not be null");
+    }
+
+    @Override
+    public boolean hasNextLine() {
+        return hasNextLine;
+    }
+
+    @Override
+    public String nextLine() {
+        if (!hasNextLine) throw new NoSuchElementException("There is no line left");
+        line.setLength(0);
+        while (true) {
+            if (position == limit) {
+                try {
+                    limit = reader.read(buffer);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    hasNextLine = false;
+                    return line.toString();
+                }
+            }
+            int lineEnd = position;
+            while (lineEnd < limit && buffer[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            line.append(buffer, position, lineEnd - position);
+            if (lineEnd < limit) {
+                position = lineEnd + 1;
+                return line.toString();
+            }
+            position = limit;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package ch.zhaw.lwgparserapp.scanner;
 import ch.zhaw.lwgparserapp.token.Token;
 import ch.zhaw.lwgparserapp.token.TokenType;
 import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -30,20 +31,78 @@ public abstract class Scanner {
         this.tokens = new ArrayList<>();
         this.currentLine = 1;
     }
+    /**
+     * Returns the source code scanned by this scanner.
+     *
+     * @return the source code
+     */
+    public String getSource() {
+        return source;
+    }
+
     /**
      * Scans the entire program and returns the list of tokens.
      *
      * @return the list of tokens, or an empty list if an error occurred
      */
     public List<Token> scanProgram() {
-        String[] lines = source.split("\n");
-        for (String line : lines) {
-            scanLine(line);
+        long start = PipelineMetrics.start();
+        scanLines(0, source.length(), 1);
+        PipelineMetrics.stageCompleted(PipelineMetrics.Stage.SCAN, start);
+        PipelineMetrics.recordSourceSize(source.length());
+        PipelineMetrics.recordTokens(tokens.size());
+
+        return ErrorHandler.hadError() ? Collections.emptyList() : tokens;
+    }
+    /**
+     * Scans the lines of the source between two offsets and adds their tokens to the tokens scanned so far.
+     *
+     * @param start     the offset of the first line
+     * @param end       the offset after the last line, at a line break or the end of the source
+     * @param firstLine the number of the first line, starting at 1
+     */
+    void scanLines(int start, int end, int firstLine) {
+        scanLines(new StringCharSource(source, start, end), firstLine);
+    }
+
+    /**
+     * Scans the lines read from a source and adds their tokens to the tokens scanned so far.
+     *
+     * @param lines     the source of the lines
+     * @param firstLine the number of the first line, starting at 1
+     */
+    void scanLines(CharSource lines, int firstLine) {
+        currentLine = firstLine;
+        while (lines.hasNextLine()) {
+            scanLine(lines.nextLine());
             currentLine++;
         }
+    }
 
-        return ErrorHandler.hadError() ? Collections.emptyList() : tokens;
+    /**
+     * Returns the tokens scanned so far.
+     *
+     * @return the tokens
+     */
+    List<Token> getTokens() {
+        return tokens;
     }
+
+    /**
+     * Scans a single line of a program, e.g. a line that was edited, without the other lines.
+     * The errors of the line are reported to the {@link ErrorHandler} like in {@link #scanProgram()}.
+     *
+     * @param lineNumber the number of the line, starting at 1
+     * @param line       the text of the line
+     * @return the tokens of the line
+     */
+    public List<Token> scanLine(int lineNumber, String line) {
+        tokens.clear();
+        currentLine = lineNumber;
+        scanLine(line);
+        return new ArrayList<>(tokens);
+    }
+
     /**
      * Scans a single line and tokenizes its content.
      *
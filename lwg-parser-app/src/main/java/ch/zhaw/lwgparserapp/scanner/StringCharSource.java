@@ -0,0 +1,44 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import java.util.NoSuchElementException;
+
+/**
+ * StringCharSource reads the lines of a String, or of the part of a String between two offsets.
+ */
+final class StringCharSource implements CharSource {
+    private final String source;
+    private final int end;
+    private int position;
+    private boolean hasNextLine = true;
+
+    /**
+     * Creates a new source of the lines between two offsets.
+     *
+     * @param source the code
+     * @param start  the offset of the first line
+     * @param end    the offset after the last line, at a line break or the end of the code
+     */
+    StringCharSource(String source, int start, int end) {
+        this.source = source;
+        this.position = start;
+        this.end = end;
+    }
+
+    @Override
+    public boolean hasNextLine() {
+        return hasNextLine;
+    }
+
+    @Override
+    public String nextLine() {
+        if (!hasNextLine) throw new NoSuchElementException("There is no line left");
+        int lineEnd = source.indexOf('\n', position);
+        if (lineEnd < 0 || lineEnd >= end) {
+            lineEnd = end;
+            hasNextLine = false;
+        }
+        String line = source.substring(position, lineEnd);
+        position = lineEnd + 1;
+        return line;
+    }
+}
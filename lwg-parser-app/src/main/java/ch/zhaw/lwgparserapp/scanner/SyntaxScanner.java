@@ -0,0 +1,103 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+import ch.zhaw.lwgparserapp.token.Token;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SyntaxScanner detects the syntax of a program while it scans it, in a single pass over the lines. <br>
+ * <p>
+ * The keywords of every line are classified once with {@link SyntaxDetector#keywordSyntax(CharSequence, int, int)}.
+ * The first keyword decides between the {@link LWScanner} and the {@link GOTOScanner}, which then scans the lines
+ * up to it and every following line right after its keywords were classified. Lines before the first keyword are
+ * only scanned once the syntax is known, because "Then" and "&gt;" are tokens in only one of the syntaxes.
+ * A keyword of the other syntax makes the code MIXED and stops the scan, code without keywords is LW like in
+ * {@link SyntaxDetector#detectSyntax(String)}.
+ */
+public final class SyntaxScanner {
+    private final String source;
+    private Syntax syntax;
+    private Scanner scanner;
+
+    /**
+     * Creates a new scanner for the source code.
+     *
+     * @param source the source code
+     */
+    public SyntaxScanner(String source) {
+        this.source = source;
+    }
+
+    /**
+     * Returns the source code scanned by this scanner.
+     *
+     * @return the source code
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Returns the syntax detected by {@link #scanProgram()}.
+     *
+     * @return the syntax of the source code, or null if it was not scanned yet
+     */
+    public Syntax getSyntax() {
+        return syntax;
+    }
+
+    /**
+     * Detects the syntax and scans the entire program.
+     * Mixed code is not scanned to the end and reports no scanning errors.
+     *
+     * @return the list of tokens, or an empty list if an error occurred or the syntax is MIXED
+     */
+    public List<Token> scanProgram() {
+        long start = PipelineMetrics.start();
+        int pendingStart = 0;
+        int pendingLine = 1;
+        int lineStart = 0;
+        int line = 1;
+        while (lineStart <= source.length()) {
+            int lineEnd = source.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = source.length();
+            Syntax keywords = SyntaxDetector.keywordSyntax(source, lineStart, lineEnd);
+            if (keywords == Syntax.MIXED || keywords != null && syntax != null && keywords != syntax) {
+                syntax = Syntax.MIXED;
+                break;
+            }
+            if (keywords != null && syntax == null) {
+                syntax = keywords;
+                scanner = syntax == Syntax.GOTO ? new GOTOScanner(source) : new LWScanner(source);
+            }
+            if (scanner != null) {
+                scanner.scanLines(pendingStart, lineEnd, pendingLine);
+                pendingStart = lineEnd + 1;
+                pendingLine = line + 1;
+            }
+            lineStart = lineEnd + 1;
+            line++;
+        }
+        if (syntax == null) {
+            syntax = Syntax.LW;
+            scanner = new LWScanner(source);
+            scanner.scanLines(0, source.length(), 1);
+        }
+        PipelineMetrics.stageCompleted(PipelineMetrics.Stage.SCAN, start);
+        PipelineMetrics.recordSourceSize(source.length());
+
+        if (syntax == Syntax.MIXED) {
+            // the errors of the lines scanned before the other syntax showed up do not apply to mixed code
+            ErrorHandler.clearErrors();
+            return Collections.emptyList();
+        }
+        List<Token> tokens = scanner.getTokens();
+        PipelineMetrics.recordTokens(tokens.size());
+        return ErrorHandler.hadError() ? Collections.emptyList() : tokens;
+    }
+}
@@ -0,0 +1,277 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+import ch.zhaw.lwgparserapp.token.Token;
+
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+
+/**
+ * TokenStream scans a program while a parser consumes its tokens, reading the code line by line from a
+ * {@link CharSource}, e.g. a {@link Reader} through a buffer of fixed size or a file mapped into memory. <br>
+ * <p>
+ * A line is only read and scanned when the parser asks for a token that is not scanned yet, and the tokens are
+ * dropped once the parser consumed them, so neither the code nor all of its tokens are held in memory at once.
+ * The parsers take the tokens from the front of the list and look at most two tokens ahead: {@link #isEmpty()},
+ * {@link #get(int)}, {@link #remove(int)} at index 0 and {@link #iterator()} read no further than they need,
+ * {@link #size()} reads the whole program.
+ * <p>
+ * The syntax is detected like in {@link SyntaxScanner}: the lines up to the first keyword are kept and scanned once
+ * it decides the syntax, so code without any keyword is held in memory until it ends. A keyword of the other syntax
+ * makes the code MIXED and ends the stream. The scanning errors are reported while the parser reads the tokens,
+ * see {@link #keepScanErrors()}.
+ */
+public final class TokenStream extends AbstractList<Token> {
+    // consumed tokens are removed from the front of the buffer in batches
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    private final CharSource source;
+    private boolean endOfInput;
+
+    private final List<Token> tokens = new ArrayList<>();
+    private int head;
+    private final Queue<String> pendingLines = new ArrayDeque<>();
+    private final List<ParseError> scanErrors = new ArrayList<>();
+    private Syntax syntax;
+    private Scanner scanner;
+    private int lineNumber;
+    private int hash;
+    private long size;
+    private long tokenCount;
+
+    /**
+     * Creates a new stream of the tokens of the code read from the source.
+     *
+     * @param source the source of the code
+     */
+    public TokenStream(CharSource source) {
+        this.source = Objects.requireNonNull(source, "Source must not be null");
+    }
+
+    /**
+     * Creates a new stream of the tokens of the code read from the reader.
+     * The reader is not closed by the stream.
+     *
+     * @param reader the reader of the code
+     */
+    public TokenStream(Reader reader) {
+        this(CharSource.of(reader));
+    }
+
+    /**
+     * Creates a new stream of the tokens of the UTF-8 code read from the channel.
+     * The channel is not closed by the stream.
+     *
+     * @param channel the channel of the code
+     * @return the token stream
+     */
+    public static TokenStream of(ReadableByteChannel channel) {
+        return new TokenStream(Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(),
+                ReaderCharSource.BUFFER_SIZE));
+    }
+
+    /**
+     * Returns the syntax of the code, reading it up to the first keyword. <br>
+     * The syntax becomes MIXED once a keyword of the other syntax is read.
+     *
+     * @return the syntax of the code read so far, LW if it has no keyword
+     * @throws UncheckedIOException if the code cannot be read
+     */
+    public Syntax getSyntax() {
+        while (syntax == null) {
+            readLine();
+        }
+        return syntax;
+    }
+
+    /**
+     * Returns the hash code of the code read so far, which is the hash code of the whole code as a String
+     * once the stream was read to the end.
+     *
+     * @return the hash code of the code
+     */
+    public int getSourceHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the number of characters read so far.
+     *
+     * @return the number of characters
+     */
+    public long getSourceSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of tokens scanned so far.
+     *
+     * @return the number of tokens
+     */
+    public long getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Replaces the errors of the current thread with the scanning errors of the stream, if there were any. <br>
+     * The errors of a parser that read tokens of lines with scanning errors only follow from them, so they are
+     * dropped like a parser would not have run after the scanning errors of a whole program.
+     *
+     * @return true if there were scanning errors
+     */
+    public boolean keepScanErrors() {
+        if (scanErrors.isEmpty()) return false;
+        ErrorHandler.clearErrors();
+        for (ParseError error : scanErrors) {
+            ErrorHandler.report(error.getLine(), error.getMessage());
+        }
+        return true;
+    }
+
+    @Override
+    public Token get(int index) {
+        if (!fill(index + 1)) throw new IndexOutOfBoundsException("Index " + index + " is after the last token");
+        return tokens.get(head + index);
+    }
+
+    @Override
+    public Token remove(int index) {
+        if (index != 0) throw new UnsupportedOperationException("Tokens can only be removed from the front");
+        if (!fill(1)) throw new IndexOutOfBoundsException("There is no token left");
+        Token token = tokens.get(head++);
+        if (head >= COMPACT_THRESHOLD && head * 2 >= tokens.size()) {
+            tokens.subList(0, head).clear();
+            head = 0;
+        }
+        return token;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !fill(1);
+    }
+
+    /**
+     * Returns the number of tokens left, which reads the code to the end.
+     *
+     * @return the number of tokens left
+     */
+    @Override
+    public int size() {
+        fill(Integer.MAX_VALUE);
+        return tokens.size() - head;
+    }
+
+    @Override
+    public Iterator<Token> iterator() {
+        return new Iterator<>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return fill(index + 1);
+            }
+
+            @Override
+            public Token next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
+    }
+
+    /**
+     * Reads lines until the given number of tokens is scanned or the code ends.
+     *
+     * @param count the number of tokens that are needed
+     * @return true if there are at least that many tokens
+     */
+    private boolean fill(int count) {
+        while (tokens.size() - head < count && !endOfInput && syntax != Syntax.MIXED) {
+            readLine();
+        }
+        return tokens.size() - head >= count;
+    }
+
+    /**
+     * Reads the next line, detects the syntax from its keywords and scans it once the syntax is known.
+     */
+    private void readLine() {
+        String text = nextLine();
+        Syntax keywords = SyntaxDetector.keywordSyntax(text, 0, text.length());
+        if (keywords == Syntax.MIXED || keywords != null && syntax != null && keywords != syntax) {
+            syntax = Syntax.MIXED;
+            tokens.clear();
+            head = 0;
+            pendingLines.clear();
+            return;
+        }
+        pendingLines.add(text);
+        if (keywords != null && syntax == null) {
+            decide(keywords);
+        } else if (syntax != null) {
+            scan(pendingLines.remove());
+        }
+        if (endOfInput) {
+            if (syntax == null) decide(Syntax.LW);
+            PipelineMetrics.recordSourceSize((int) Math.min(size, Integer.MAX_VALUE));
+            PipelineMetrics.recordTokens((int) Math.min(tokenCount, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Chooses the scanner of the syntax and scans the lines kept until the syntax was known.
+     */
+    private void decide(Syntax detected) {
+        syntax = detected;
+        scanner = syntax == Syntax.GOTO ? new GOTOScanner("") : new LWScanner("");
+        while (!pendingLines.isEmpty()) {
+            scan(pendingLines.remove());
+        }
+    }
+
+    private void scan(String text) {
+        lineNumber++;
+        List<ParseError> errors = ErrorHandler.getErrors();
+        int reported = errors.size();
+        List<Token> lineTokens = scanner.scanLine(lineNumber, text);
+        tokens.addAll(lineTokens);
+        tokenCount += lineTokens.size();
+        scanErrors.addAll(errors.subList(reported, errors.size()));
+    }
+
+    /**
+     * Reads the next line and adds it and the line break after it to the size and the hash code of the code.
+     *
+     * @return the line without the line break, the last line once the code ended
+     * @throws UncheckedIOException if the code cannot be read
+     */
+    private String nextLine() {
+        String text = source.nextLine();
+        endOfInput = !source.hasNextLine();
+        for (int i = 0; i < text.length(); i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+        size += text.length();
+        if (!endOfInput) {
+            hash = 31 * hash + '\n';
+            size++;
+        }
+        return text;
+    }
+}
@@ -0,0 +1,53 @@
+package ch.zhaw.lwgparserapp.startup;
+
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Measures how long a new instance takes until it can serve requests. <br>
+ * <p>
+ * When the application is ready, the time since the JVM started, the startup of the Spring context and the
+ * warm-up are reported. The first request that completes reports the time to the first request.
+ * All times are logged and published as the {@code lwg.startup.time} gauge, tagged with the phase.
+ */
+@Component
+public class StartupTimer implements ApplicationListener<ApplicationReadyEvent>, Filter {
+    private static final Logger log = LoggerFactory.getLogger(StartupTimer.class);
+    private final AtomicBoolean firstRequest = new AtomicBoolean(true);
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        Duration ready = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+        Duration warmup = Warmup.await();
+        PipelineMetrics.recordStartup("ready", ready.toNanos());
+        PipelineMetrics.recordStartup("context", event.getTimeTaken().toNanos());
+        PipelineMetrics.recordStartup("warmup", warmup.toNanos());
+        log.info("Ready {} ms after the JVM started (Spring context {} ms, warm-up {} ms)",
+                ready.toMillis(), event.getTimeTaken().toMillis(), warmup.toMillis());
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        chain.doFilter(request, response);
+        if (firstRequest.get() && firstRequest.compareAndSet(true, false)) {
+            long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+            PipelineMetrics.recordStartup("first_request", Duration.ofMillis(uptime).toNanos());
+            log.info("First request served {} ms after the JVM started", uptime);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package ch.zhaw.lwgparserapp.startup;
+
+import ch.zhaw.lwgparserapp.cli.ProgramRunner;
+import ch.zhaw.lwgparserapp.cli.RunResult;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Pre-warms the interpreter hot paths while the application starts. <br>
+ * <p>
+ * A fresh JVM interprets the scanners, parsers and interpreters until the JIT compiler has seen them often
+ * enough, so the first requests of a new instance are several times slower than the following ones.
+ * The warm-up runs a small built-in LW and GOTO workload on its own thread, in parallel to the startup
+ * of Spring, until the loops of the interpreters are compiled.
+ * <p>
+ * The warm-up can be switched off with {@code -Dlwg.warmup.enabled=false}.
+ */
+public final class Warmup {
+    public static final String ENABLED_PROPERTY = "lwg.warmup.enabled";
+    static final int ROUNDS = 30;
+    static final String LW_PROGRAM = """
+            Loop x1 Do
+              Loop x2 Do
+                x0 = x0 + 1
+              End;
+              x3 = x3 + 2
+            End;
+            While x3 > 0 Do
+              x3 = x3 - 1
+            End
+            """;
+    static final Map<String, Integer> LW_INPUT = Map.of("x1", 50, "x2", 100);
+    static final String GOTO_PROGRAM = """
+            M1: If x1 = 0 Then Goto M5;
+            M2: x0 = x0 + 2;
+            M3: x1 = x1 - 1;
+            M4: Goto M1;
+            M5: Halt;
+            """;
+    static final Map<String, Integer> GOTO_INPUT = Map.of("x1", 2000);
+
+    private static volatile Thread thread;
+    private static volatile Duration duration = Duration.ZERO;
+
+    private Warmup() {
+        throw new UnsupportedOperationException("Warmup is a utility class and cannot be instantiated");
+    }
+
+    /**
+     * Starts the warm-up in the background, unless it is disabled or already started.
+     */
+    public static synchronized void start() {
+        if (thread != null || !Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true"))) {
+            return;
+        }
+        thread = Thread.ofPlatform().name("lwg-warmup").daemon(true).start(() -> {
+            long start = System.nanoTime();
+            run(ROUNDS);
+            duration = Duration.ofNanos(System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Waits until the warm-up finished. Returns immediately if the warm-up was not started.
+     *
+     * @return the time the warm-up took, or zero if it did not run
+     */
+    public static Duration await() {
+        Thread warmup = thread;
+        if (warmup != null) {
+            try {
+                warmup.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return duration;
+    }
+
+    /**
+     * Runs the workload on the calling thread.
+     *
+     * @param rounds the number of times both programs are run
+     * @return the number of executed steps
+     * @throws IllegalStateException if a program of the workload fails
+     */
+    static long run(int rounds) {
+        ProgramRunner runner = new ProgramRunner(10);
+        long steps = 0;
+        for (int round = 0; round < rounds; round++) {
+            steps += check(runner.run("warmup.lw", LW_PROGRAM, LW_INPUT));
+            steps += check(runner.run("warmup.goto", GOTO_PROGRAM, GOTO_INPUT));
+        }
+        return steps;
+    }
+
+    private static long check(RunResult result) {
+        if (!result.success()) {
+            throw new IllegalStateException("Warm-up program " + result.file() + " failed: " + result.errors());
+        }
+        return result.steps();
+    }
+}
@@ -4,4 +4,10 @@ package ch.zhaw.lwgparserapp.syntax;
  * Base interface for all statements.
  */
 public interface Statement {
+    /**
+     * Returns the source line the statement starts on.
+     *
+     * @return the line number of the statement
+     */
+    int line();
 }
@@ -1,34 +1,21 @@
 package ch.zhaw.lwgparserapp.syntax;
 
+import ch.zhaw.lwgparserapp.monitoring.PipelineMetrics;
+
 import java.util.Objects;
-import java.util.regex.Pattern;
 
 /**
  * Detects the syntax of a given code.
  * The syntax is determined by counting the occurrences of certain keywords in the code.
+ * <p>
+ * The keywords are whole words, ignoring case:
+ * - GOTO: goto, if, halt and m followed by digits, e.g. M1
+ * - LW: loop, while, do, end
+ * <br>
+ * A word is a run of ASCII letters, digits and underscores, like {@code \w} in a regular expression, so the code is
+ * classified in a single pass over its characters.
  */
 public final class SyntaxDetector {
-    /**
-     * The pattern to match GOTO statements.
-     * The pattern matches the following keywords:
-     * - goto
-     * - m followed by a digit
-     * - if
-     * - halt
-     */
-    private static final Pattern GOTO_PATTERN = Pattern.compile("\\bgoto\\b|\\bm\\d+\\b|\\bif\\b|\\bhalt\\b",
-            Pattern.CASE_INSENSITIVE);
-
-    /**
-     * The pattern to match LW statements.
-     * The pattern matches the following keywords:
-     * - loop
-     * - while
-     * - do
-     * - end
-     */
-    private static final Pattern WHILE_PATTERN = Pattern.compile("\\bloop\\b|\\bwhile\\b|\\bdo\\b|\\bend\\b",
-            Pattern.CASE_INSENSITIVE);
 
     private SyntaxDetector() {
         throw new UnsupportedOperationException("SyntaxDetector is a utility class and cannot be instantiated");
@@ -47,24 +34,150 @@ public final class SyntaxDetector {
      */
     public static Syntax detectSyntax(String code) {
         Objects.requireNonNull(code, "Code must not be null");
-        long gotoCount = countMatches(code, GOTO_PATTERN);
-        long lwCount = countMatches(code, WHILE_PATTERN);
+        long start = PipelineMetrics.start();
+        Syntax syntax = keywordSyntax(code, 0, code.length());
+        PipelineMetrics.stageCompleted(PipelineMetrics.Stage.DETECT, start);
+        return syntax == null ? Syntax.LW : syntax;
+    }
 
+    /**
+     * Detects the syntax from the numbers of GOTO and LW keywords of the code, see {@link #detectSyntax(String)}.
+     * Keywords never span lines, so the code can be counted line by line, e.g. only the lines of an edit.
+     *
+     * @param gotoCount the number of GOTO keywords
+     * @param lwCount   the number of LW keywords
+     * @return the detected syntax
+     */
+    public static Syntax detectSyntax(long gotoCount, long lwCount) {
         if (gotoCount == 0) return Syntax.LW;
         if (lwCount == 0) return Syntax.GOTO;
-
         return Syntax.MIXED;
     }
 
     /**
-     * Counts the number of matches of the given pattern in the code.
-     * The pattern is case-insensitive.
+     * Finds the syntax of the keywords between two offsets of the code, e.g. of a single line.
+     * Words are never split at the offsets, so the offsets should be at line breaks or at the ends of the code.
+     *
+     * @param code  the code to search the keywords in
+     * @param start the offset of the first character
+     * @param end   the offset after the last character
+     * @return GOTO or LW if only keywords of that syntax occur, MIXED if both occur, null if there is no keyword
+     */
+    public static Syntax keywordSyntax(CharSequence code, int start, int end) {
+        Syntax syntax = null;
+        int i = start;
+        while (i < end) {
+            if (!isWordChar(code.charAt(i))) {
+                i++;
+                continue;
+            }
+            int wordEnd = wordEnd(code, i, end);
+            Syntax keyword = keyword(code, i, wordEnd);
+            if (keyword != null && keyword != syntax) {
+                if (syntax != null) return Syntax.MIXED;
+                syntax = keyword;
+            }
+            i = wordEnd;
+        }
+        return syntax;
+    }
+
+    /**
+     * Counts the GOTO keywords of the code.
+     *
+     * @param code the code to count the keywords in
+     * @return the number of GOTO keywords
+     */
+    public static int countGotoKeywords(CharSequence code) {
+        return countKeywords(code, Syntax.GOTO);
+    }
+
+    /**
+     * Counts the LW keywords of the code.
+     *
+     * @param code the code to count the keywords in
+     * @return the number of LW keywords
+     */
+    public static int countLwKeywords(CharSequence code) {
+        return countKeywords(code, Syntax.LW);
+    }
+
+    /**
+     * Counts the keywords of a syntax in the code.
+     *
+     * @param code   the code to count the keywords in
+     * @param syntax the syntax of the keywords
+     * @return the number of keywords
+     */
+    private static int countKeywords(CharSequence code, Syntax syntax) {
+        int count = 0;
+        int i = 0;
+        while (i < code.length()) {
+            if (!isWordChar(code.charAt(i))) {
+                i++;
+                continue;
+            }
+            int wordEnd = wordEnd(code, i, code.length());
+            if (keyword(code, i, wordEnd) == syntax) count++;
+            i = wordEnd;
+        }
+        return count;
+    }
+
+    /**
+     * Classifies a word of the code.
      *
-     * @param code    the code to count the matches in
-     * @param pattern the pattern to match
-     * @return the number of matches
+     * @param code  the code containing the word
+     * @param start the offset of the first character of the word
+     * @param end   the offset after the last character of the word
+     * @return the syntax the word is a keyword of, or null if it is no keyword
+     */
+    private static Syntax keyword(CharSequence code, int start, int end) {
+        switch (end - start) {
+            case 2:
+                if (matches(code, start, "do")) return Syntax.LW;
+                if (matches(code, start, "if")) return Syntax.GOTO;
+                break;
+            case 3:
+                if (matches(code, start, "end")) return Syntax.LW;
+                break;
+            case 4:
+                if (matches(code, start, "loop")) return Syntax.LW;
+                if (matches(code, start, "goto") || matches(code, start, "halt")) return Syntax.GOTO;
+                break;
+            case 5:
+                if (matches(code, start, "while")) return Syntax.LW;
+                break;
+            default:
+                break;
+        }
+        if (end - start < 2 || (code.charAt(start) | 0x20) != 'm') return null;
+        for (int i = start + 1; i < end; i++) {
+            if (code.charAt(i) < '0' || code.charAt(i) > '9') return null;
+        }
+        return Syntax.GOTO;
+    }
+
+    /**
+     * Checks if the code contains a lowercase keyword at an offset, ignoring the case of the code.
+     * Setting bit 0x20 turns an ASCII uppercase letter into its lowercase letter and no other character into one.
      */
-    private static long countMatches(String code, Pattern pattern) {
-        return pattern.matcher(code).results().count();
+    private static boolean matches(CharSequence code, int start, String keyword) {
+        for (int i = 0; i < keyword.length(); i++) {
+            if ((code.charAt(start + i) | 0x20) != keyword.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int wordEnd(CharSequence code, int start, int end) {
+        int i = start;
+        while (i < end && isWordChar(code.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean isWordChar(char c) {
+        return c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' || c >= '0' && c <= '9' || c == '_';
     }
-}
\ No newline at end of file
+}
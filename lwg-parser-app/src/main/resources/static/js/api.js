@@ -1,7 +1,9 @@
 import {saveCurrentVariableValues} from "./variables.js";
 import {allProjects, codeEditor} from "./app.js";
 import {activeTab} from "./tabs.js";
-import {getDebugVariables, stopDebuggingProcess, initDebuggingProcess, getDebugLine} from "./debugger.js";
+import {
+    stopDebuggingProcess, initDebuggingProcess, openDebugSession, sendDebugCommand, applyDebugStep
+} from "./debugger.js";
 
 /**
  * Submit a code execution request to the api endpoint `/api/process`.
@@ -37,10 +39,9 @@ async function submitCodeExecutionRequest() {
 }
 
 /**
- * Submit a debugging request to the api endpoint `/api/debug`.
- * The request will send the code input and the current variable values
- * to the server for debugging. The server will execute the code in debug mode, update the variables
- * and initialize the debugging process.
+ * Open a debug session over the WebSocket `/api/debug/ws`.
+ * The code input and the current variable values are sent to the server, which executes the code
+ * in debug mode and records every step. The debugging process is then initialized.
  * If Code segment is empty, an error message will be displayed.
  *
  * @returns {Promise<void>}
@@ -48,18 +49,25 @@ async function submitCodeExecutionRequest() {
 async function submitDebugRequest() {
     const runButton = document.getElementById('run-button');
     const debugButton = document.getElementById('debug-button');
+    const outputField = document.querySelector('.output-section');
     runButton.disabled = true;
     debugButton.disabled = true;
     codeEditor.setEditable(false);
 
     try {
         if (codeEditor.getText().length === 0) {
-            document.querySelector('.output-section').innerHTML = '<h2>Code Output</h2><p class="error">No code to execute.</p>';
+            outputField.innerHTML = '<h2>Code Output</h2><p class="error">No code to execute.</p>';
             return;
         }
-        const response = await submitPostRequest('/api/debug');
+        showLoadingIndicator();
+        let response;
+        try {
+            response = await openDebugSession(codeEditor.getText(), collectVariables());
+        } finally {
+            hideLoadingIndicator();
+        }
         switch (response.type) {
-            case 'success': {
+            case 'started': {
                 await initDebuggingProcess();
                 await getNextDebugStep();
                 break;
@@ -80,46 +88,50 @@ async function submitDebugRequest() {
 }
 
 /**
- * Retrieve the next variables for the current debug step from the server.
- * The server will return the variables for the next debug step.
- * The variables will be updated in the UI.
+ * Move to the next debug step.
+ * The server only sends the variables that changed, which are applied to the variables of the session.
  *
  * @returns {Promise<void>}
  */
 async function getNextDebugStep() {
     try {
-        const startingMessage = 'Debugging:';
-        const response = await submitGetRequest('/api/debug/next');
-        const debugVariables = await getDebugVariables(response.variables);
-        await handleResponse(response.type, debugVariables, response.errors, startingMessage);
-        // debug: line-numbers
-        const debugLine = await getDebugLine(response.variables);
-        codeEditor.setSelectedLine(debugLine);
+        await handleDebugStep(await sendDebugCommand({command: 'next'}));
     } catch (error) {
         console.error('Error getting next debug step:', error);
     }
 }
 
 /**
- * Retrieve the previous variables for the current debug step from the server.
- * The server will return the variables for the previous debug step.
- * The variables will be updated in the UI.
+ * Move to the previous debug step.
+ * The server only sends the variables that changed, which are applied to the variables of the session.
  *
  * @returns {Promise<void>}
  */
 async function getPreviousDebugStep() {
     try {
-        const startingMessage = 'Debugging:';
-        const response = await submitGetRequest('/api/debug/previous');
-        const debugVariables = await getDebugVariables(response.variables);
-        await handleResponse(response.type, debugVariables, response.errors, startingMessage);
-        const debugLine = await getDebugLine(response.variables);
-        codeEditor.setSelectedLine(debugLine);
+        await handleDebugStep(await sendDebugCommand({command: 'previous'}));
     } catch (error) {
         console.error('Error getting previous debug step:', error);
     }
 }
 
+/**
+ * Show a step message of the debug session: update the variables in the UI,
+ * select the line of the step and enable or disable the next and previous buttons.
+ *
+ * @param step the step message of the server
+ * @returns {Promise<void>}
+ */
+async function handleDebugStep(step) {
+    if (step.type !== 'step') {
+        await handleResponse(step.type, undefined, step.errors, '');
+        return;
+    }
+    const type = step.last ? 'border_last' : step.first ? 'border_first' : 'success';
+    await handleResponse(type, applyDebugStep(step), undefined, 'Debugging:');
+    codeEditor.setSelectedLine(step.line);
+}
+
 /**
  * Send a request to the backend to stop the currently running project
  */
@@ -192,21 +204,6 @@ async function handleResponse(type, variables, errors, startingMessage) {
     }
 }
 
-/**
- * Submit a GET request to the specified api endpoint.
- * The response will be returned as a JSON object.
- * If the response is not successful, an error will be thrown.
- *
- * @param apiEndpoint the api endpoint to send the GET request to
- * @returns {Promise<any>} the response as a JSON object
- */
-async function submitGetRequest(apiEndpoint) {
-    const response = await fetch(apiEndpoint);
-
-    if (!response.ok) throw new Error(`HTTP error! status: ${response.status}`);
-    return await response.json();
-}
-
 /**
  * Show the loading indicator.
  */
@@ -232,13 +229,8 @@ function hideLoadingIndicator() {
  * @returns {Promise<any>} the response as a JSON object
  */
 async function submitPostRequest(apiEndpoint) {
-    saveCurrentVariableValues();
     const codeInput = codeEditor.getText();
-
-    const variables = {};
-    allProjects[activeTab].variables.forEach(variable => {
-        variables[variable.key] = Number(variable.value) || 0;
-    });
+    const variables = collectVariables();
 
     showLoadingIndicator(); // Show loading indicator
 
@@ -256,6 +248,20 @@ async function submitPostRequest(apiEndpoint) {
     }
 }
 
+/**
+ * Collect the current variable values of the active tab.
+ *
+ * @returns {{}} the variables, keyed by their name
+ */
+function collectVariables() {
+    saveCurrentVariableValues();
+    const variables = {};
+    allProjects[activeTab].variables.forEach(variable => {
+        variables[variable.key] = Number(variable.value) || 0;
+    });
+    return variables;
+}
+
 /**
  * Handle the output for a successful code execution.
  * The variables will be formatted and displayed in the output field.
@@ -3,36 +3,83 @@ import {
     setCodeExecutionEventListeners, removeDebugEventListeners
 } from "./events.js";
 
+let debugSocket = null;
+let pendingReplies = [];
+let debugVariables = {};
+
+/**
+ * Open a debug session over the WebSocket `/api/debug/ws` and start debugging the code.
+ * The session stays open until the debugging process is stopped, every step is then
+ * requested over the same connection.
+ *
+ * @param code the code to debug
+ * @param variables the input variables
+ * @returns {Promise<any>} the `started` or `error` message of the server
+ */
+async function openDebugSession(code, variables) {
+    closeDebugSession();
+    const protocol = window.location.protocol === 'https:' ? 'wss:' : 'ws:';
+    const socket = new WebSocket(`${protocol}//${window.location.host}/api/debug/ws`);
+    debugSocket = socket;
+    debugVariables = {};
+
+    socket.onmessage = event => {
+        const reply = pendingReplies.shift();
+        if (reply) reply.resolve(JSON.parse(event.data));
+    };
+    socket.onclose = () => {
+        pendingReplies.forEach(reply => reply.reject(new Error('Debug session closed')));
+        pendingReplies = [];
+        if (debugSocket === socket) debugSocket = null;
+    };
+
+    await new Promise((resolve, reject) => {
+        socket.onopen = resolve;
+        socket.onerror = reject;
+    });
+    return sendDebugCommand({command: 'start', code: code, variables: variables});
+}
+
 /**
- * Get the variables for the current debug step
- * The variables are stored in an object where the key is the line number
- * and the value is an object containing the variables for that line.
+ * Send a command to the open debug session and wait for the answer of the server.
+ * The server answers the commands in the order they were sent.
  *
- * @param variables
- * @returns {Promise<{}>}
+ * @param command the command, e.g. `{command: 'next'}`
+ * @returns {Promise<any>} the message of the server
  */
-async function getDebugVariables(variables) {
-    let debugVariables = {};
-    let line = 0;
-
-    for (const lineNumber in variables) {
-        const varData = variables[lineNumber];
-        line = Number(lineNumber);
-        debugVariables = {...debugVariables, ...varData};
+function sendDebugCommand(command) {
+    if (!debugSocket || debugSocket.readyState !== WebSocket.OPEN) {
+        return Promise.reject(new Error('No debug session is open'));
     }
+    return new Promise((resolve, reject) => {
+        pendingReplies.push({resolve, reject});
+        debugSocket.send(JSON.stringify(command));
+    });
+}
 
-    return debugVariables;
+/**
+ * Close the open debug session, if any.
+ *
+ * @returns {void}
+ */
+function closeDebugSession() {
+    if (debugSocket) debugSocket.close();
+    debugSocket = null;
 }
 
 /**
- * Get the line number of the current debug step.
- * The line number is the key of the object containing the variables for that line.
+ * Apply a step message of the server to the variables of the debug session.
+ * The server only sends the variables that changed since the previous step.
  *
- * @param variables
- * @returns {Promise<string>}
+ * @param step the step message
+ * @returns {{}} the variables at the step
  */
-async function getDebugLine(variables) {
-    return Object.keys(variables)[0];
+function applyDebugStep(step) {
+    debugVariables = {...debugVariables, ...step.changes};
+    for (const variable of step.removed) {
+        delete debugVariables[variable];
+    }
+    return {...debugVariables};
 }
 
 /**
@@ -54,6 +101,7 @@ async function initDebuggingProcess() {
  * @returns {void}
  */
 function stopDebuggingProcess() {
+    closeDebugSession();
     removeDebugEventListeners().then(() => {
         swapToCodeExecutionButtons();
         setCodeExecutionEventListeners();
@@ -204,6 +252,6 @@ function swapToCodeExecutionButtons() {
 }
 
 export {
-    getDebugVariables, getDebugLine, initDebuggingProcess, swapToCodeExecutionButtons,
-    stopDebuggingProcess
+    initDebuggingProcess, swapToCodeExecutionButtons,
+    stopDebuggingProcess, openDebugSession, sendDebugCommand, applyDebugStep
 };
\ No newline at end of file
@@ -0,0 +1,132 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.parser.GOTOParser;
+import ch.zhaw.lwgparserapp.scanner.GOTOScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the ControlFlowGraph class
+ */
+class ControlFlowGraphTest {
+	private static final String MULTIPLY = """
+			M1: If x1 = 0 Then Goto M9;
+			M2: x3 = x2 + 0;
+			M3: If x3 = 0 Then Goto M7;
+			M4: x0 = x0 + 1;
+			M5: x3 = x3 - 1;
+			M6: Goto M3;
+			M7: x1 = x1 - 1;
+
+			M8: Goto M1;
+			M9: Goto M11;
+			M10: x0 = x0 + 1;
+			M11: Halt;
+			""";
+
+	@BeforeEach
+	public void setUp() {
+		ErrorHandler.clearErrors();
+	}
+
+	/**
+	 * Blocks start at the first statement, at every jump target and after every jump.
+	 */
+	@Test
+	void testBasicBlocks() {
+		ControlFlowGraph graph = build(MULTIPLY);
+		List<BasicBlock> blocks = graph.getBlocks();
+
+		assertEquals(List.of(0, 1, 2, 3, 6, 9, 10, 11), blocks.stream().map(BasicBlock::start).toList());
+		assertEquals(new BasicBlock(0, 0, 1, List.of(5, 1), List.of(4)), blocks.get(0));
+		assertEquals(new BasicBlock(2, 2, 3, List.of(4, 3), List.of(1, 3)), blocks.get(2));
+		assertEquals(new BasicBlock(4, 6, 9, List.of(0), List.of(2)), blocks.get(4));
+		assertEquals(List.of(), blocks.get(7).successors());
+		assertEquals(blocks.get(4), graph.blockAt(7));
+	}
+
+	/**
+	 * The dominators of every block, unreachable blocks have none.
+	 */
+	@Test
+	void testDominators() {
+		ControlFlowGraph graph = build(MULTIPLY);
+
+		assertEquals(0, graph.getImmediateDominator(0));
+		assertEquals(0, graph.getImmediateDominator(1));
+		assertEquals(1, graph.getImmediateDominator(2));
+		assertEquals(2, graph.getImmediateDominator(4));
+		assertEquals(5, graph.getImmediateDominator(7));
+		assertEquals(-1, graph.getImmediateDominator(6));
+		assertTrue(graph.dominates(1, 3));
+		assertTrue(graph.dominates(0, 4));
+		assertFalse(graph.dominates(3, 4));
+		assertFalse(graph.dominates(0, 6));
+		assertFalse(graph.isReachable(6));
+	}
+
+	/**
+	 * Back-edges to a dominating block form natural loops, nested loops are found separately.
+	 */
+	@Test
+	void testNaturalLoops() {
+		List<NaturalLoop> loops = build(MULTIPLY).getLoops();
+
+		assertEquals(List.of(new NaturalLoop(0, List.of(4), Set.of(0, 1, 2, 3, 4)),
+				new NaturalLoop(2, List.of(3), Set.of(2, 3))), loops);
+		assertTrue(loops.get(0).contains(2));
+		assertFalse(loops.get(1).contains(1));
+	}
+
+	/**
+	 * The statements that can never be executed are reported.
+	 */
+	@Test
+	void testUnreachableLines() {
+		assertEquals(List.of(11), build(MULTIPLY).getUnreachableLines());
+		assertEquals(List.of(2, 3, 4), build("""
+				M1: Goto M5;
+				M2: x1 = x1 + 1;
+				M3: x2 = x2 + 1;
+				M4: Goto M2;
+				M5: Halt;
+				""").getUnreachableLines());
+	}
+
+	/**
+	 * A loop that counts a variable down to 0 is recognised as a counted loop.
+	 */
+	@Test
+	void testCountedLoop() {
+		ControlFlowGraph graph = build(MULTIPLY);
+
+		assertNull(CountedLoop.of(graph, graph.getLoops().get(0)));
+		assertEquals(new CountedLoop(2, 3, 6, List.of(new Assignment(0, 0, Operator.ADDITION, 1, 4),
+				new Assignment(3, 3, Operator.SUBTRACTION, 1, 5))), CountedLoop.of(graph, graph.getLoops().get(1)));
+
+		ControlFlowGraph twice = build("""
+				M1: If x1 = 0 Then Goto M5;
+				M2: x1 = x1 - 1;
+				M3: x1 = x1 - 1;
+				M4: Goto M1;
+				M5: Halt;
+				""");
+		assertNull(CountedLoop.of(twice, twice.getLoops().getFirst()));
+	}
+
+	private static ControlFlowGraph build(String source) {
+		GOTOParser parser = new GOTOParser();
+		List<Statement> statements = parser.parse(new GOTOScanner(source).scanProgram());
+		assertFalse(ErrorHandler.hadError(), source);
+		return ControlFlowGraph.build(statements, parser.getMarkerLineMap());
+	}
+}
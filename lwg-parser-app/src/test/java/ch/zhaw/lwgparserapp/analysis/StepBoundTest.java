@@ -0,0 +1,100 @@
+package ch.zhaw.lwgparserapp.analysis;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the StepBound class
+ */
+class StepBoundTest {
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * The bound of a program without overflows is the exact number of steps the interpreter executes.
+     */
+    @Test
+    void testExactSteps() {
+        assertExact("x0 = x1 + 5; x2 = x0 - 1", Map.of("x1", 3));
+        assertExact("Loop x1 Do x0 = x0 + 1 End", Map.of("x1", 500));
+        assertExact("Loop x1 Do Loop x2 Do x0 = x0 + 1 End; x3 = x3 + 2 End", Map.of("x1", 40, "x2", 30));
+        assertExact("Loop x1 Do x2 = x2 + 1; Loop x2 Do x0 = x0 + 1 End End", Map.of("x1", 60));
+        assertExact("Loop x1 Do x2 = x2 - 3; Loop x2 Do x0 = x0 + 1 End End", Map.of("x1", 50, "x2", 40));
+        assertExact("Loop x1 Do x1 = x1 + 1; x3 = x3 - 1 End; Loop x1 Do x0 = x0 + 1 End; Loop x3 Do x4 = x4 + 1 End",
+                Map.of("x1", 300, "x3", 100));
+        assertExact("Loop 0 Do x0 = x0 + 1 End; Loop x5 Do x0 = x0 + 1 End", Map.of());
+    }
+
+    /**
+     * Loops running for billions of steps are bounded without evaluating every iteration.
+     */
+    @Test
+    void testLongLoops() {
+        StepBound bound = analyze("Loop x1 Do Loop x2 Do x0 = x0 + 1 End; x3 = x3 + 1 End; Loop x3 Do x4 = x4 + 1 End",
+                Map.of("x1", 40000, "x2", 50000));
+
+        assertEquals(new StepBound(1 + 40000L * (1 + 50000 + 1) + 1 + 40000, true), bound);
+        assertTrue(bound.exceeds(2_000_000_000L));
+        assertFalse(analyze("Loop x1 Do Loop x1 Do x0 = x0 + 1 End End", Map.of("x1", 100000)).exact());
+    }
+
+    /**
+     * Loops that cannot be counted at once are assumed to reach the largest values, so the bound is not exact.
+     */
+    @Test
+    void testEstimatedSteps() {
+        long iterations = 300000;
+        StepBound bound = analyze("Loop x1 Do x2 = x3 + 0; x3 = x2 + 1; Loop x2 Do x5 = x5 + 1 End End",
+                Map.of("x1", (int) iterations));
+
+        assertFalse(bound.exact());
+        assertTrue(bound.steps() >= 1 + 3 * iterations + iterations * (iterations - 1) / 2);
+        assertFalse(analyze("x1 = x1 + 2147483647; x1 = x1 + 1", Map.of()).exact());
+    }
+
+    /**
+     * While loops may not terminate, so there is no bound.
+     */
+    @Test
+    void testWhileHasNoBound() {
+        assertNull(analyze("Loop x1 Do While x2 > 0 Do x2 = x2 - 1 End End", Map.of()));
+    }
+
+    private static void assertExact(String source, Map<String, Integer> input) {
+        StepBound bound = analyze(source, input);
+
+        assertEquals(new StepBound(steps(source, input), true), bound, source);
+    }
+
+    private static long steps(String source, Map<String, Integer> input) {
+        LWInterpreter interpreter = new LWInterpreter(new Environment(input, false));
+        interpreter.interpret(parse(source));
+        assertFalse(ErrorHandler.hadError(), source);
+        return interpreter.getSteps();
+    }
+
+    private static StepBound analyze(String source, Map<String, Integer> input) {
+        Map<Integer, Integer> variables = new HashMap<>();
+        input.forEach((variable, value) -> variables.put(Integer.parseInt(variable.substring(1)), value));
+        return StepBound.analyze(parse(source), variables);
+    }
+
+    private static List<Statement> parse(String source) {
+        return new LWParser().parse(new LWScanner(source).scanProgram());
+    }
+}
@@ -0,0 +1,107 @@
+package ch.zhaw.lwgparserapp.benchmark;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.scanner.CharSource;
+import ch.zhaw.lwgparserapp.scanner.TokenStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Compares the inputs of the scanner on a LW program of 100 MB. <br>
+ * <p>
+ * Reads the program file as a String, through a buffered UTF-8 reader of its channel and mapped into memory,
+ * and reports the median time and the memory allocated to read all lines, and to scan all tokens with a
+ * {@link TokenStream}. The String has to be held in memory as a whole, the other inputs only hold a line.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=CharSourceBenchmark}, which needs a heap of about 512 MB
+ * for the String input and takes a few minutes.
+ */
+public class CharSourceBenchmark {
+    private static final long PROGRAM_SIZE = 100L * 1024 * 1024;
+    private static final int ROUNDS = 5;
+
+    private interface Input {
+        CharSource open(Path file, FileChannel channel) throws IOException;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Files.createTempFile("lwg-benchmark", ".lw");
+        try {
+            writeProgram(file);
+            System.out.printf("program of %d MB%n", Files.size(file) / (1024 * 1024));
+            for (boolean scan : new boolean[]{false, true}) {
+                run(scan, "string", file, (path, channel) -> CharSource.of(Files.readString(path)));
+                run(scan, "buffered", file, (path, channel) -> CharSource.of(
+                        Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), 8192)));
+                run(scan, "mapped", file, (path, channel) -> CharSource.map(channel));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Reads the file in every round, the first round warms up the JIT and is not measured.
+     */
+    private static void run(boolean scan, String name, Path file, Input input) throws IOException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] nanos = new long[ROUNDS - 1];
+        long allocated = 0;
+        long count = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            ErrorHandler.clearErrors();
+            long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            try (FileChannel channel = FileChannel.open(file)) {
+                CharSource source = input.open(file, channel);
+                count = scan ? scan(source) : read(source);
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round > 0) {
+                nanos[round - 1] = elapsed;
+                allocated = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+            }
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-5s %-9s median %8.1f ms  allocated %6d MB  %d %s%n", scan ? "scan" : "read", name,
+                nanos[nanos.length / 2] / 1e6, allocated / (1024 * 1024), count, scan ? "tokens" : "lines");
+    }
+
+    private static long read(CharSource source) {
+        long lines = 0;
+        while (source.hasNextLine()) {
+            source.nextLine();
+            lines++;
+        }
+        return lines;
+    }
+
+    private static long scan(CharSource source) {
+        TokenStream tokens = new TokenStream(source);
+        while (!tokens.isEmpty()) {
+            tokens.removeFirst();
+        }
+        return tokens.getTokenCount();
+    }
+
+    private static void writeProgram(Path file) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            long size = 0;
+            for (int i = 0; size < PROGRAM_SIZE; i++) {
+                String block = "x1 = x1 + " + i + ";\nLoop x2 Do\n  x3 = x3 + 1;\n  x4 = x3 - 1\nEnd;\n";
+                writer.write(block);
+                size += block.length();
+            }
+            writer.write("x5 = x5 + 1");
+        }
+    }
+}
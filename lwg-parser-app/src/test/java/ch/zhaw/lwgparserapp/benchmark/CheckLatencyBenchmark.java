@@ -0,0 +1,112 @@
+package ch.zhaw.lwgparserapp.benchmark;
+
+import ch.zhaw.lwgparserapp.check.SyntaxChecker;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Measures the latency of the live syntax check on large programs. <br>
+ * <p>
+ * Types a statement into a LW and a GOTO program of 1000 and 10000 lines one keystroke at a time, then deletes it
+ * again, and checks every revision like the editor does. Reports the median, p99 and maximum latency of a check,
+ * both for the {@link SyntaxChecker}, which only scans and parses the changed lines, and for checking every
+ * revision as a new document, which scans and parses the whole program.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=CheckLatencyBenchmark}.
+ */
+public class CheckLatencyBenchmark {
+    private static final int ROUNDS = 20;
+    private static final String TYPED_LW = "x7 = x3 + 12;\n";
+    private static final String TYPED_GOTO = "M0: x7 = x3 + 12;\n";
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int lines : List.of(1000, 10000)) {
+            run("LW " + lines + " lines", lwProgram(lines), TYPED_LW);
+            run("GOTO " + lines + " lines", gotoProgram(lines), TYPED_GOTO);
+        }
+    }
+
+    private static void run(String name, String program, String typed) throws InterruptedException {
+        List<String> revisions = revisions(program, typed);
+        report(name + " incremental", measure(revisions, false));
+        report(name + " full", measure(revisions, true));
+    }
+
+    /**
+     * Checks every revision in every round, as the next revision of one document or as a new document.
+     * The first round warms up the JIT and is not measured.
+     */
+    private static long[] measure(List<String> revisions, boolean full) throws InterruptedException {
+        SyntaxChecker checker = new SyntaxChecker(1000, Duration.ZERO);
+        long[] nanos = new long[(ROUNDS - 1) * revisions.size()];
+        long revision = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < revisions.size(); i++) {
+                revision++;
+                String document = full ? "full-" + revision : "incremental";
+                long start = System.nanoTime();
+                checker.check(document, revision, revisions.get(i), Duration.ZERO);
+                long elapsed = System.nanoTime() - start;
+                if (full) {
+                    checker.close(document);
+                }
+                if (round > 0) {
+                    nanos[(round - 1) * revisions.size() + i] = elapsed;
+                }
+            }
+        }
+        return nanos;
+    }
+
+    /**
+     * Types the text into the middle of the program one character at a time and deletes it again.
+     */
+    private static List<String> revisions(String program, String typed) {
+        int middle = program.indexOf('\n', program.length() / 2) + 1;
+        String before = program.substring(0, middle);
+        String after = program.substring(middle);
+        List<String> revisions = new ArrayList<>();
+        for (int i = 1; i <= typed.length(); i++) {
+            revisions.add(before + typed.substring(0, i) + after);
+        }
+        for (int i = typed.length() - 1; i >= 0; i--) {
+            revisions.add(before + typed.substring(0, i) + after);
+        }
+        return revisions;
+    }
+
+    private static String lwProgram(int lines) {
+        StringBuilder program = new StringBuilder();
+        for (int i = 0; program.chars().filter(c -> c == '\n').count() < lines - 5; i++) {
+            program.append("x1 = x1 + ").append(i).append(";\n")
+                    .append("Loop x2 Do\n")
+                    .append("  x3 = x3 + 1;\n")
+                    .append("  x4 = x3 - 1\n")
+                    .append("End;\n");
+        }
+        return program.append("x5 = x5 + 1").toString();
+    }
+
+    private static String gotoProgram(int lines) {
+        StringBuilder program = new StringBuilder();
+        for (int i = 1; i < lines; i++) {
+            program.append('M').append(i).append(": ");
+            if (i % 3 == 0) {
+                program.append("If x1 = 0 Then Goto M").append(i + 1).append(";\n");
+            } else {
+                program.append("x").append(i % 5).append(" = x").append(i % 5).append(" + ").append(i).append(";\n");
+            }
+        }
+        return program.append('M').append(lines).append(": Halt;").toString();
+    }
+
+    private static void report(String name, long[] nanos) {
+        Arrays.sort(nanos);
+        System.out.printf("%-28s median %8.3f ms  p99 %8.3f ms  max %8.3f ms%n", name,
+                nanos[nanos.length / 2] / 1e6, nanos[(int) (nanos.length * 0.99)] / 1e6,
+                nanos[nanos.length - 1] / 1e6);
+    }
+}
@@ -0,0 +1,99 @@
+package ch.zhaw.lwgparserapp.benchmark;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.InterpreterExecutors;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Compares the request execution models under load. <br>
+ * <p>
+ * The legacy model handles every request on one of 200 platform threads (the Tomcat default) and interprets
+ * on the common pool. The current model handles every request on its own virtual thread and interprets on
+ * the bounded interpreter pool. Each model runs the same burst of mostly short and some long programs and
+ * reports latency percentiles, throughput and the peak number of live threads.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=ExecutionLoadBenchmark}.
+ */
+public class ExecutionLoadBenchmark {
+    private static final int REQUESTS = 4000;
+    private static final int LONG_REQUEST_EVERY = 20;
+    private static final String SHORT_PROGRAM = """
+            x1 = x1 + 200;
+            Loop x1 Do
+              x0 = x0 + 1
+            End
+            """;
+    private static final String LONG_PROGRAM = """
+            x1 = x1 + 400;
+            Loop x1 Do
+              Loop x1 Do
+                x0 = x0 + 1
+              End
+            End
+            """;
+
+    public static void main(String[] args) throws Exception {
+        // warm up both models before measuring
+        run("warm-up", Executors.newFixedThreadPool(200), ForkJoinPool.commonPool());
+        run("warm-up", Executors.newVirtualThreadPerTaskExecutor(), InterpreterExecutors.interpreterPool());
+
+        run("platform request threads + common pool", Executors.newFixedThreadPool(200), ForkJoinPool.commonPool());
+        run("virtual request threads + interpreter pool", Executors.newVirtualThreadPerTaskExecutor(),
+                InterpreterExecutors.interpreterPool());
+    }
+
+    private static void run(String name, ExecutorService requestThreads, Executor interpreterThreads)
+            throws Exception {
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            int request = i;
+            long submitted = System.nanoTime();
+            String program = i % LONG_REQUEST_EVERY == 0 ? LONG_PROGRAM : SHORT_PROGRAM;
+            futures.add(requestThreads.submit(() -> {
+                handle(program, interpreterThreads);
+                latencies[request] = System.nanoTime() - submitted;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+        requestThreads.shutdown();
+
+        if (name.equals("warm-up")) return;
+        Arrays.sort(latencies);
+        System.out.printf("%-45s p50 %7.2f ms  p99 %7.2f ms  max %7.2f ms  %8.0f req/s  peak threads %d%n",
+                name,
+                latencies[REQUESTS / 2] / 1e6,
+                latencies[REQUESTS * 99 / 100] / 1e6,
+                latencies[REQUESTS - 1] / 1e6,
+                REQUESTS / (elapsed / 1e9),
+                ManagementFactory.getThreadMXBean().getPeakThreadCount());
+    }
+
+    private static void handle(String program, Executor interpreterThreads) {
+        ErrorHandler.clearErrors();
+        List<Statement> statements = new LWParser().parse(new LWScanner(program).scanProgram());
+        new LWInterpreter(new Environment()).interpretAsync(statements, interpreterThreads).join();
+        if (ErrorHandler.hadError()) {
+            throw new IllegalStateException(ErrorHandler.getErrors().toString());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ch.zhaw.lwgparserapp.benchmark;
+
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.LWBytecodeInterpreter;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compares the engines that run LW programs. <br>
+ * <p>
+ * Runs a short and a long program with the tree-walking interpreter alone, the tiered interpreter that compiles
+ * hot loops and the bytecode virtual machine, and reports the median time of a run and the executed steps per second.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=InterpreterEngineBenchmark}.
+ */
+public class InterpreterEngineBenchmark {
+    private static final int RUNS = 15;
+    private static final String PROGRAM = """
+            Loop x1 Do
+              Loop x2 Do
+                x0 = x0 + 1;
+                x3 = x0 - 2
+              End;
+              While x3 > 0 Do
+                x3 = x3 - 1000
+              End
+            End
+            """;
+
+    public static void main(String[] args) {
+        List<Statement> statements = new LWParser().parse(new LWScanner(PROGRAM).scanProgram());
+        Map<String, Function<Environment, LWInterpreter>> engines = Map.of(
+                "interpreter", environment -> {
+                    LWInterpreter interpreter = new LWInterpreter(environment);
+                    interpreter.setTierUpThreshold(0);
+                    return interpreter;
+                },
+                "tiered", LWInterpreter::new,
+                "bytecode", LWBytecodeInterpreter::new);
+
+        for (String engine : List.of("interpreter", "tiered", "bytecode")) {
+            run(engine, engines.get(engine), statements, Map.of("x1", 10, "x2", 10));
+            run(engine, engines.get(engine), statements, Map.of("x1", 1000, "x2", 2000));
+        }
+    }
+
+    private static void run(String engine, Function<Environment, LWInterpreter> factory, List<Statement> statements,
+                            Map<String, Integer> input) {
+        long[] nanos = new long[RUNS];
+        long steps = 0;
+        for (int run = 0; run < RUNS; run++) {
+            LWInterpreter interpreter = factory.apply(new Environment(input, false));
+            long start = System.nanoTime();
+            interpreter.interpret(statements);
+            nanos[run] = System.nanoTime() - start;
+            steps = interpreter.getSteps();
+        }
+        Arrays.sort(nanos);
+        long median = nanos[RUNS / 2];
+        System.out.printf("%-12s %10d steps  median %10.3f ms  %8.1f M steps/s%n", engine, steps, median / 1e6,
+                steps * 1e3 / median);
+    }
+}
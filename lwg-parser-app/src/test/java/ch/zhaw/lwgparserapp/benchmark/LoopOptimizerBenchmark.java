@@ -0,0 +1,74 @@
+package ch.zhaw.lwgparserapp.benchmark;
+
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.optimizer.LWOptimizer;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures the effect of the loop optimisations on nested loops. <br>
+ * <p>
+ * Runs multiplication patterns whose inner loops re-read variables the loops never change, as written and as
+ * optimised by the {@link LWOptimizer}, and reports the executed steps and the median time of a run of both.
+ * <p>
+ * Run with {@code ./gradlew benchmark -Pbenchmark=LoopOptimizerBenchmark}.
+ */
+public class LoopOptimizerBenchmark {
+    private static final int RUNS = 15;
+    private static final Map<String, String> PROGRAMS = Map.of(
+            "multiply", """
+                    Loop x1 Do
+                      x3 = x2 + 0;
+                      Loop x3 Do
+                        x4 = x1 - 0;
+                        x0 = x0 + 1
+                      End
+                    End
+                    """,
+            "power", """
+                    x0 = x0 + 1;
+                    Loop x2 Do
+                      x3 = x0 + 0;
+                      x0 = x0 - 2147483647;
+                      Loop x1 Do
+                        x5 = x1 - 1;
+                        Loop x3 Do
+                          x6 = x5 - 0;
+                          x0 = x0 + 1
+                        End
+                      End
+                    End
+                    """);
+
+    public static void main(String[] args) {
+        for (String name : List.of("multiply", "power")) {
+            List<Statement> statements = new LWParser().parse(new LWScanner(PROGRAMS.get(name)).scanProgram());
+            List<Statement> optimized = LWOptimizer.optimize(statements);
+            Map<String, Integer> input = name.equals("power")
+                    ? Map.of("x1", 7, "x2", 6)
+                    : Map.of("x1", 2000, "x2", 3000);
+            run(name + " as written", statements, input);
+            run(name + " optimised", optimized, input);
+        }
+    }
+
+    private static void run(String name, List<Statement> statements, Map<String, Integer> input) {
+        long[] nanos = new long[RUNS];
+        long steps = 0;
+        for (int run = 0; run < RUNS; run++) {
+            LWInterpreter interpreter = new LWInterpreter(new Environment(input, false));
+            long start = System.nanoTime();
+            interpreter.interpret(statements);
+            nanos[run] = System.nanoTime() - start;
+            steps = interpreter.getSteps();
+        }
+        Arrays.sort(nanos);
+        System.out.printf("%-20s %12d steps  median %10.3f ms%n", name, steps, nanos[RUNS / 2] / 1e6);
+    }
+}
@@ -0,0 +1,176 @@
+package ch.zhaw.lwgparserapp.check;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.parser.IncrementalParser;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the SyntaxChecker class
+ */
+class SyntaxCheckerTest {
+    private SyntaxChecker checker;
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+        checker = new SyntaxChecker(10, Duration.ofSeconds(5));
+    }
+
+    /**
+     * The diagnostics follow the revisions of a document.
+     */
+    @Test
+    void testDiagnostics() throws InterruptedException {
+        CheckResult valid = checker.check("a", 1, "x1 = x1 + 1;\nx2 = x2 + 1", Duration.ZERO);
+        assertFalse(valid.stale());
+        assertEquals("LW", valid.syntax());
+        assertTrue(valid.diagnostics().isEmpty());
+
+        CheckResult parseError = checker.check("a", 2, "x1 = x1 + 1;\nx2 = x2 +", Duration.ZERO);
+        assertEquals(1, parseError.diagnostics().size());
+        assertEquals(2, parseError.diagnostics().getFirst().line());
+        assertEquals("parse", parseError.diagnostics().getFirst().stage());
+
+        CheckResult scanError = checker.check("a", 3, "x1 = x1 + 1;\nx2 = x2 + ?", Duration.ZERO);
+        assertEquals("scan", scanError.diagnostics().getFirst().stage());
+
+        assertTrue(checker.check("a", 4, "x1 = x1 + 1;\nx2 = x2 + 2", Duration.ZERO).diagnostics().isEmpty());
+    }
+
+    /**
+     * Code mixing LW and GOTO syntax is reported for the whole code.
+     */
+    @Test
+    void testMixedSyntax() throws InterruptedException {
+        CheckResult result = checker.check("a", 1, "M1: x1 = x1 + 1;\nLoop x1 Do x2 = x2 + 1 End", Duration.ZERO);
+
+        assertEquals("MIXED", result.syntax());
+        assertEquals(List.of(new Diagnostic(0, "detect", "The code contains both LW and GOTO syntax.")),
+                result.diagnostics());
+        assertTrue(checker.check("a", 2, "M1: x1 = x1 + 1;\nM2: Halt;", Duration.ZERO).diagnostics().isEmpty());
+    }
+
+    /**
+     * Older revisions are not checked once a newer one arrived.
+     */
+    @Test
+    void testStaleRevision() throws InterruptedException {
+        checker.check("a", 2, "x1 = x1 + 1", Duration.ZERO);
+
+        assertTrue(checker.check("a", 1, "x1 = x1 +", Duration.ZERO).stale());
+        assertFalse(checker.check("b", 1, "x1 = x1 +", Duration.ZERO).stale());
+    }
+
+    /**
+     * A debounced check is dropped when a newer revision arrives while it waits.
+     */
+    @Test
+    void testDebounce() throws Exception {
+        CompletableFuture<CheckResult> debounced = CompletableFuture.supplyAsync(() -> {
+            try {
+                return checker.check("a", 1, "x1 = x1 +", Duration.ofSeconds(5));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        long start = System.nanoTime();
+        CheckResult latest = checker.check("a", 2, "x1 = x1 + 1", Duration.ZERO);
+
+        assertTrue(debounced.get().stale());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(4).toNanos());
+        assertFalse(latest.stale());
+    }
+
+    /**
+     * A newer revision is checked while an older one is still being parsed, without waiting for it.
+     */
+    @Test
+    void testNewerRevisionDuringCheck() throws Exception {
+        String large = "x1 = x1 + 1;\n".repeat(400_000) + "x1 = x1 +";
+        CompletableFuture<CheckResult> running = CompletableFuture.supplyAsync(() -> {
+            try {
+                return checker.check("a", 1, large, Duration.ZERO);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Thread.sleep(50);
+        CheckResult latest = checker.check("a", 2, "x1 = x1 + 1", Duration.ZERO);
+
+        assertFalse(running.isDone());
+        assertFalse(latest.stale());
+        assertTrue(latest.diagnostics().isEmpty());
+        assertTrue(running.get().stale());
+        assertFalse(checker.check("a", 3, "x1 = x1 +", Duration.ZERO).diagnostics().isEmpty());
+    }
+
+    /**
+     * The least recently checked document is forgotten once there are too many.
+     */
+    @Test
+    void testEvictDocuments() throws InterruptedException {
+        SyntaxChecker small = new SyntaxChecker(1, Duration.ZERO);
+        small.check("a", 5, "x1 = x1 + 1", Duration.ZERO);
+        small.check("b", 1, "x1 = x1 + 1", Duration.ZERO);
+
+        assertFalse(small.check("a", 1, "x1 = x1 + 1", Duration.ZERO).stale());
+    }
+
+    /**
+     * The edit between two revisions turns the previous code into the new one.
+     */
+    @Test
+    void testEdit() {
+        Random random = new Random(47);
+        String alphabet = "x1 =+\n;";
+        for (int i = 0; i < 500; i++) {
+            String previous = randomCode(random, alphabet);
+            String source = randomCode(random, alphabet);
+            IncrementalParser parser = new IncrementalParser(Syntax.LW, previous);
+
+            parser.edit(SyntaxChecker.edit(previous, source));
+
+            assertEquals(source, parser.getSource());
+        }
+    }
+
+    /**
+     * The syntax of a revision is detected from the keywords of the changed lines like from the whole code.
+     */
+    @Test
+    void testDetectSyntax() throws InterruptedException {
+        Random random = new Random(48);
+        List<String> snippets = List.of("Loop ", "Goto ", "M1", "\n", "x1 = x1 + 1;", "End", " ", "If", "Halt");
+        String source = "";
+        for (int revision = 1; revision <= 500; revision++) {
+            int start = random.nextInt(source.length() + 1);
+            int end = Math.min(source.length(), start + random.nextInt(6));
+            source = source.substring(0, start) + snippets.get(random.nextInt(snippets.size()))
+                    + source.substring(end);
+
+            CheckResult result = checker.check("a", revision, source, Duration.ZERO);
+
+            assertEquals(SyntaxDetector.detectSyntax(source).name(), result.syntax(), source);
+        }
+    }
+
+    private static String randomCode(Random random, String alphabet) {
+        StringBuilder code = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            code.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return code.toString();
+    }
+}
@@ -0,0 +1,173 @@
+package ch.zhaw.lwgparserapp.cli;
+
+import ch.zhaw.lwgparserapp.scanner.CharSource;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the command line runner
+ */
+class LwgCliTest {
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    /**
+     * A program runs with the variables of its input file.
+     */
+    @Test
+    void testRunProgramWithInputFile() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Path program = Files.writeString(directory.resolve("copy.lw"), "Loop x2 Do x1 = x1 + 1 End");
+        Files.writeString(directory.resolve("copy.lw.in"), "# copies x2 to x1\nx2 = 7");
+
+        int exitCode = run(program.toString());
+
+        assertEquals(LwgCli.EXIT_SUCCESS, exitCode);
+        assertEquals("{\"file\":\"" + program + "\",\"syntax\":\"LW\",\"type\":\"success\","
+                + "\"variables\":{\"x0\":0,\"x1\":7,\"x2\":7},\"errors\":[],\"steps\":8,", output()[0].replaceAll("\"millis\":\\d+}", ""));
+    }
+
+    /**
+     * All programs of a directory run and the results are written in the order of the files.
+     */
+    @Test
+    void testRunDirectoryInOrder() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Files.writeString(directory.resolve("a.lw"), "x0 = x0 + 1;");
+        Files.writeString(directory.resolve("b.goto"), "M1: x0 = x0 + 1;\nM2: If x0 = 5 Then Goto M4;\nM3: Goto M1;\nM4: Halt;");
+        Files.writeString(directory.resolve("c.lw"), "Loop x1 Do");
+
+        int exitCode = run("-j", "3", directory.toString());
+
+        String[] lines = output();
+        assertEquals(LwgCli.EXIT_PROGRAM_ERROR, exitCode);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("a.lw\",\"syntax\":\"LW\",\"type\":\"success\",\"variables\":{\"x0\":1}"));
+        assertTrue(lines[1].contains("b.goto\",\"syntax\":\"GOTO\",\"type\":\"success\",\"variables\":{\"x0\":5}"));
+        assertTrue(lines[2].contains("c.lw\",\"syntax\":\"LW\",\"type\":\"error\""));
+        assertTrue(lines[2].contains("There were syntax errors in your code."));
+    }
+
+    /**
+     * Program files are parsed while they are read, which reports scanning errors and mixed syntax
+     * like a program that was read as a whole.
+     */
+    @Test
+    void testStreamedProgramErrors() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Files.writeString(directory.resolve("a.lw"), "Loop x1 Do\nx2 = x2 + ?\nEnd");
+        Files.writeString(directory.resolve("b.lw"), "Loop x1 Do\nx2 = x2 + 1\nEnd;\nM1: Halt;");
+
+        int exitCode = run(directory.toString());
+
+        String[] lines = output();
+        assertEquals(LwgCli.EXIT_PROGRAM_ERROR, exitCode);
+        assertTrue(lines[0].contains("\"errors\":[\"There were scanning errors in your code.\","
+                + "\"[line 2] Unexpected token '?'\"]"));
+        assertTrue(lines[1].contains("\"syntax\":\"MIXED\",\"type\":\"error\","));
+        assertTrue(lines[1].contains("\"errors\":[\"The code contains both LW and GOTO syntax.\"]"));
+    }
+
+    /**
+     * A large program file is mapped into memory and runs like a small one that is read.
+     */
+    @Test
+    void testRunMappedProgram() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Path program = Files.writeString(directory.resolve("a.lw"), "x1 = x1 + 1;\n".repeat(10_000) + "x2 = x1 + 0");
+
+        int exitCode = run("--no-optimize", program.toString());
+
+        assertTrue(Files.size(program) >= CharSource.MAP_THRESHOLD);
+        assertEquals(LwgCli.EXIT_SUCCESS, exitCode);
+        assertTrue(output()[0].contains("\"variables\":{\"x0\":0,\"x1\":10000,\"x2\":10000},\"errors\":[],"
+                + "\"steps\":10001,"));
+    }
+
+    /**
+     * LW programs are optimised unless the optimiser is switched off, which counts every statement.
+     */
+    @Test
+    void testNoOptimize() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Path program = Files.writeString(directory.resolve("a.lw"), "x1 = x1 + 1; x1 = x1 + 2; x2 = x2 + 0");
+
+        assertEquals(LwgCli.EXIT_SUCCESS, run(program.toString()));
+        assertEquals(LwgCli.EXIT_SUCCESS, run("--no-optimize", program.toString()));
+
+        String[] lines = output();
+        assertTrue(lines[0].contains("\"variables\":{\"x0\":0,\"x1\":3,\"x2\":0},\"errors\":[],\"steps\":2,"));
+        assertTrue(lines[1].contains("\"variables\":{\"x0\":0,\"x1\":3,\"x2\":0},\"errors\":[],\"steps\":3,"));
+    }
+
+    /**
+     * Statements of a GOTO program that can never be executed are reported as warnings.
+     */
+    @Test
+    void testWarnUnreachableStatements() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Path program = Files.writeString(directory.resolve("a.goto"), "M1: Goto M3;\nM2: x0 = x0 + 1;\nM3: Halt;");
+
+        int exitCode = run(program.toString());
+
+        assertEquals(LwgCli.EXIT_SUCCESS, exitCode);
+        assertTrue(output()[0].contains("\"errors\":[],\"warnings\":[\"[line 2] Unreachable statement\"],\"steps\":2"));
+    }
+
+    /**
+     * The results are written to the output file if one is given.
+     */
+    @Test
+    void testWriteOutputFile() throws IOException {
+        Path directory = Files.createTempDirectory("lwg-cli");
+        Path program = Files.writeString(directory.resolve("a.lw"), "x0 = x1 + 2;");
+        Path input = Files.writeString(directory.resolve("shared.txt"), "x1 = 3");
+        Path output = directory.resolve("results.jsonl");
+
+        int exitCode = run("--input", input.toString(), "--output", output.toString(), program.toString());
+
+        assertEquals(LwgCli.EXIT_SUCCESS, exitCode);
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+        assertTrue(Files.readString(output).contains("\"variables\":{\"x0\":5,\"x1\":3}"));
+    }
+
+    /**
+     * Invalid arguments print the usage and exit with the usage exit code.
+     */
+    @Test
+    void testInvalidArguments() {
+        assertEquals(LwgCli.EXIT_USAGE, run());
+        assertEquals(LwgCli.EXIT_USAGE, run("--threads", "0", "a.lw"));
+        assertEquals(LwgCli.EXIT_USAGE, run("--unknown"));
+        assertEquals(LwgCli.EXIT_USAGE, run("does-not-exist.lw"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Usage: lwg-cli"));
+    }
+
+    /**
+     * Input variables are given one per line or separated by commas.
+     */
+    @Test
+    void testParseInput() {
+        assertEquals(Map.of("x1", 5, "x2", 3), ProgramRunner.parseInput("x1 = 5, x2=3"));
+        assertEquals(Map.of("x1", 5), ProgramRunner.parseInput("# input\n\nx1 = 5\n"));
+        assertThrows(IllegalArgumentException.class, () -> ProgramRunner.parseInput("y1 = 5"));
+    }
+
+    private int run(String... args) {
+        return LwgCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+
+    private String[] output() {
+        return out.toString(StandardCharsets.UTF_8).split("\n");
+    }
+}
@@ -0,0 +1,109 @@
+package ch.zhaw.lwgparserapp.controller;
+
+import ch.zhaw.lwgparserapp.api.JobController;
+import ch.zhaw.lwgparserapp.api.JobController.JobResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.ApiResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.CodeRequest;
+import ch.zhaw.lwgparserapp.api.LwgController.ErrorResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.SuccessResponse;
+import ch.zhaw.lwgparserapp.execution.JobRegistry;
+import ch.zhaw.lwgparserapp.execution.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobControllerTest {
+
+    private JobRegistry<ApiResponse> registry;
+    private JobController controller;
+
+    @BeforeEach
+    void setUp() {
+        registry = new JobRegistry<>(10, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        controller = new JobController(registry, Duration.ofSeconds(10), Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.shutdown();
+    }
+
+    /**
+     * Tests that a submitted job can be polled until its result is available.
+     * Program:
+     * Loop x2 Do
+     *   x1 = x1 + 1
+     * End
+     * Variables: x2 = 5
+     * Expected Result: x1 is incremented to 5.
+     */
+    @Test
+    void testSubmitAndPoll() throws InterruptedException {
+        CodeRequest request = new CodeRequest();
+        request.setCode(
+        """
+        Loop x2 Do
+          x1 = x1 + 1
+        End
+        """);
+        request.setVariables(Map.of("x2", 5));
+
+        ResponseEntity<JobResponse> submitted = controller.submit(request);
+        assertEquals(HttpStatus.ACCEPTED, submitted.getStatusCode());
+        String jobId = submitted.getBody().jobId();
+
+        JobResponse job = controller.status(jobId, 10).getBody();
+
+        assertEquals(JobStatus.COMPLETED, job.status());
+        assertInstanceOf(SuccessResponse.class, job.result(), "Result should be a SuccessResponse");
+        assertEquals(5, ((SuccessResponse) job.result()).variables().get(1), "x1 should be incremented to 5");
+    }
+
+    /**
+     * Tests that a running job is halted when it is cancelled.
+     * The loop only repeats its state once x0 overflows, so it runs until it is cancelled.
+     * Program:
+     * x1 = x1 + 1;
+     * While x1 > 0 Do
+     *   x0 = x0 + 1;
+     *   x1 = x0 + 1
+     * End
+     */
+    @Test
+    void testCancel() throws InterruptedException {
+        CodeRequest request = new CodeRequest();
+        request.setCode(
+        """
+        x1 = x1 + 1;
+        While x1 > 0 Do
+          x0 = x0 + 1;
+          x1 = x0 + 1
+        End
+        """);
+
+        String jobId = controller.submit(request).getBody().jobId();
+        assertEquals(JobStatus.RUNNING, controller.status(jobId, 0).getBody().status());
+
+        controller.cancel(jobId);
+        JobResponse job = controller.status(jobId, 10).getBody();
+
+        assertEquals(JobStatus.CANCELLED, job.status());
+        assertInstanceOf(ErrorResponse.class, job.result(), "Result should be an ErrorResponse");
+    }
+
+    /**
+     * Tests that unknown jobs are answered with 404.
+     */
+    @Test
+    void testUnknownJob() throws InterruptedException {
+        assertEquals(HttpStatus.NOT_FOUND, controller.status("unknown", 0).getStatusCode());
+        assertEquals(HttpStatus.NOT_FOUND, controller.cancel("unknown").getStatusCode());
+    }
+}
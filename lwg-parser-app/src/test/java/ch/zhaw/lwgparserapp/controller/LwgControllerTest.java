@@ -9,6 +9,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.ResponseEntity;
 
+import java.math.BigInteger;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -87,6 +88,30 @@ class LwgControllerTest {
         assertEquals(6, successResponse.variables().get(0), "result x0 should be 6");
     }
 
+    /**
+     * Tests that a request with arbitrary precision returns values larger than an int.
+     * Program:
+     * x1 = x1 + 2147483647;
+     * x1 = x1 + 1
+     * Expected Result: x1 is 2147483648 instead of an overflow error.
+     */
+    @Test
+    void testProcessArbitraryPrecision() {
+        CodeRequest request = new CodeRequest();
+        request.setCode(
+        """
+        x1 = x1 + 2147483647;
+        x1 = x1 + 1
+        """);
+        request.setArbitraryPrecision(true);
+
+        ResponseEntity<ApiResponse> response = controller.processCode(request);
+
+        assertInstanceOf(SuccessResponse.class, response.getBody(), "Response should be a SuccessResponse");
+        SuccessResponse successResponse = (SuccessResponse) response.getBody();
+        assertEquals(BigInteger.valueOf(2147483648L), successResponse.variables().get(1));
+    }
+
     /**
      * Tests the processing of mixed LW and GOTO syntax
      * Program:
@@ -0,0 +1,201 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.GOTOInterpreter;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.optimizer.LWOptimizer;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the breakpoints of the interpreters
+ */
+class BreakpointsTest {
+    private final List<Integer> hitLines = new ArrayList<>();
+    private final List<Map<Integer, Integer>> hitVariables = new ArrayList<>();
+    private final BreakpointListener listener = (line, variables) -> {
+        hitLines.add(line);
+        hitVariables.add(new HashMap<>(variables));
+    };
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * Test a breakpoint in the body of a loop, which hits before every execution of the line
+     */
+    @Test
+    void testLineBreakpoint() {
+        runLoopProgram(List.of(Breakpoint.atLine(3)));
+
+        assertEquals(List.of(3, 3, 3), hitLines);
+        assertEquals(List.of(0, 1, 2), hitVariables.stream().map(variables -> variables.get(0)).toList());
+    }
+
+    /**
+     * Test a breakpoint on a loop, which hits before every iteration
+     */
+    @Test
+    void testLoopBreakpoint() {
+        runLoopProgram(List.of(Breakpoint.atLine(2)));
+
+        assertEquals(List.of(2, 2, 2), hitLines);
+    }
+
+    /**
+     * Test a conditional breakpoint
+     */
+    @Test
+    void testConditionalBreakpoint() {
+        runLoopProgram(List.of(Breakpoint.atLine(3).when(0, ">=", 1), Breakpoint.atLine(1).when(5, "==", 1)));
+
+        assertEquals(List.of(3, 3), hitLines);
+        assertEquals(List.of(1, 2), hitVariables.stream().map(variables -> variables.get(0)).toList());
+        assertFalse(hitVariables.getFirst().containsKey(5), "Conditions must not create variables");
+    }
+
+    /**
+     * Test a breakpoint on a marker of a GOTO program <br>
+     * <p>
+     * M1: x0 = x0 + 1; <br>
+     * M2: IF x0 = 3 GOTO M4; <br>
+     * M3: GOTO M1; <br>
+     * M4: HALT; <br>
+     */
+    @Test
+    void testMarkerBreakpoint() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(0, 0, Operator.ADDITION, 1, 1));
+        statementList.add(new If(0, 3, 4, 2, 2));
+        statementList.add(new Goto(1, 3, 3));
+        statementList.add(new Halt(4, 4));
+        GOTOInterpreter interpreter = new GOTOInterpreter(new Environment());
+        interpreter.setMarkerLineMap(Map.of(1, 1, 2, 2, 3, 3, 4, 4));
+        interpreter.setBreakpoints(List.of(Breakpoint.atMarker(3), Breakpoint.atLine(4)), listener);
+
+        interpreter.interpret(statementList);
+
+        assertFalse(ErrorHandler.hadError());
+        assertEquals(List.of(3, 3, 4), hitLines);
+        assertEquals(List.of(1, 2, 3), hitVariables.stream().map(variables -> variables.get(0)).toList());
+    }
+
+    /**
+     * Test that breakpoints on unknown markers are reported
+     */
+    @Test
+    void testUnknownMarker() {
+        Breakpoints breakpoints = Breakpoints.compile(List.of(Breakpoint.atMarker(7)), 1, Map.of(1, 1));
+
+        assertTrue(ErrorHandler.hadError());
+        assertEquals("Breakpoint at unknown marker M7", ErrorHandler.getErrors().getFirst().getMessage());
+        assertFalse(breakpoints.isFlagged(1));
+    }
+
+    /**
+     * Test that breakpoints after the last line are reported and ignored
+     */
+    @Test
+    void testLineAfterLastLine() {
+        Breakpoints breakpoints = Breakpoints.compile(
+                List.of(Breakpoint.atLine(Integer.MAX_VALUE), Breakpoint.atLine(2)), 2, Map.of());
+
+        assertEquals("Breakpoint at line 2147483647 after the last line 2",
+                ErrorHandler.getErrors().getFirst().getMessage());
+        assertTrue(breakpoints.isFlagged(2));
+        assertFalse(breakpoints.isFlagged(3));
+
+        ErrorHandler.clearErrors();
+        LWInterpreter interpreter = new LWInterpreter(new Environment());
+        interpreter.setBreakpoints(List.of(Breakpoint.atLine(5), Breakpoint.atLine(3)), listener);
+        interpreter.interpret(loopProgram());
+
+        assertEquals("Breakpoint at line 5 after the last line 3", ErrorHandler.getErrors().getFirst().getMessage());
+        assertEquals(List.of(3, 3, 3), hitLines);
+    }
+
+    /**
+     * Test that the recorded hits can be stepped through with a debug session
+     */
+    @Test
+    void testRecordedHits() {
+        DebugTrace trace = new DebugTrace(100);
+        LWInterpreter interpreter = new LWInterpreter(new Environment());
+        interpreter.setBreakpoints(List.of(Breakpoint.atLine(3).when(0, "!=", 1)), new BreakpointRecorder(trace));
+
+        interpreter.interpret(loopProgram());
+
+        assertEquals(2, trace.size());
+        DebugSession session = new DebugSession(trace);
+        assertEquals(Map.of(0, 0, 1, 3), session.next().changes());
+        DebugStep step = session.next();
+        assertEquals(Map.of(0, 2), step.changes());
+        assertTrue(step.last());
+    }
+
+    /**
+     * Test a breakpoint on an assignment the optimiser would remove, which hits because a program with
+     * breakpoints is not optimised <br>
+     * <p>
+     * x1 = x1 + 1; <br>
+     * x1 = x1 + 0; <br>
+     * x1 = x1 + 2; <br>
+     */
+    @Test
+    void testBreakpointOnRemovedAssignment() {
+        List<Statement> program = List.of(new Assignment(1, 1, Operator.ADDITION, 1, 1),
+                new Assignment(1, 1, Operator.ADDITION, 0, 2),
+                new Assignment(1, 1, Operator.ADDITION, 2, 3));
+        assertEquals(List.of(new Assignment(1, 1, Operator.ADDITION, 3, 1)), LWOptimizer.optimize(program));
+        assertTrue(LWOptimizer.appliesTo(new LWInterpreter(new Environment())));
+
+        LWInterpreter interpreter = new LWInterpreter(new Environment());
+        interpreter.setBreakpoints(List.of(Breakpoint.atLine(2), Breakpoint.atLine(3)), listener);
+        assertTrue(interpreter.isObserved());
+        assertFalse(LWOptimizer.appliesTo(interpreter));
+        interpreter.interpret(program);
+
+        assertEquals(List.of(2, 3), hitLines);
+        assertEquals(List.of(1, 1), hitVariables.stream().map(variables -> variables.get(1)).toList());
+        assertEquals(3, interpreter.getSteps());
+    }
+
+    private void runLoopProgram(List<Breakpoint> breakpoints) {
+        LWInterpreter interpreter = new LWInterpreter(new Environment());
+        interpreter.setBreakpoints(breakpoints, listener);
+        interpreter.interpret(loopProgram());
+        assertFalse(ErrorHandler.hadError());
+    }
+
+    /**
+     * x1 = x1 + 3; <br>
+     * LOOP x1 DO <br>
+     *   x0 = x0 + 1 <br>
+     * END <br>
+     */
+    private static List<Statement> loopProgram() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 3, 1));
+        List<Statement> loopStatements = new ArrayList<>();
+        loopStatements.add(new Assignment(0, 0, Operator.ADDITION, 1, 3));
+        statementList.add(new Loop(false, 1, loopStatements, 2));
+        return statementList;
+    }
+}
@@ -0,0 +1,142 @@
+package ch.zhaw.lwgparserapp.debugger;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the DebugTrace and DebugSession classes
+ */
+class DebugSessionTest {
+    DebugTrace trace;
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+        trace = new DebugTrace(1_000_000);
+    }
+
+    /**
+     * Test stepping through a program <br>
+     * <p>
+     * x1 = x1 + 2; <br>
+     * LOOP x1 DO <br>
+     *   x0 = x0 + 1 <br>
+     * END <br>
+     */
+    @Test
+    void testStepping() {
+        run(loopProgram(2), Map.of("x1", 0));
+        DebugSession session = new DebugSession(trace);
+
+        DebugStep step = session.next();
+        assertEquals(0, step.step());
+        assertTrue(step.first());
+        assertEquals(Map.of(0, 0, 1, 0), step.changes());
+
+        step = session.next();
+        assertEquals(1, step.line());
+        assertEquals(Map.of(1, 2), step.changes());
+
+        step = session.next();
+        assertEquals(2, step.line());
+        assertTrue(step.changes().isEmpty());
+
+        step = session.next();
+        assertEquals(3, step.line());
+        assertEquals(Map.of(0, 1), step.changes());
+
+        step = session.previous();
+        assertEquals(2, step.line());
+        assertEquals(Map.of(0, 0), step.changes());
+        assertFalse(step.last());
+    }
+
+    /**
+     * Test that the session stays at the first and last step
+     */
+    @Test
+    void testBorders() {
+        run(loopProgram(2), Map.of("x1", 0));
+        DebugSession session = new DebugSession(trace);
+
+        session.next();
+        DebugStep step = session.previous();
+        assertEquals(0, step.step());
+        assertTrue(step.first());
+
+        step = session.resume();
+        assertEquals(trace.size() - 1, step.step());
+        assertTrue(step.last());
+        step = session.next();
+        assertEquals(trace.size() - 1, step.step());
+        assertTrue(step.changes().isEmpty());
+    }
+
+    /**
+     * Test that seeking across checkpoints restores the same variables as stepping
+     */
+    @Test
+    void testSeekMatchesStepping() {
+        run(loopProgram(1000), null);
+        assertTrue(trace.size() > 3 * DebugTrace.CHECKPOINT_INTERVAL);
+
+        DebugSession stepping = new DebugSession(trace);
+        Map<Integer, Integer> variables = new HashMap<>();
+        List<Map<Integer, Integer>> expected = new ArrayList<>();
+        for (int i = 0; i < trace.size(); i++) {
+            DebugStep step = stepping.next();
+            variables.putAll(step.changes());
+            expected.add(new HashMap<>(variables));
+        }
+
+        for (int target : new int[]{700, 3, DebugTrace.CHECKPOINT_INTERVAL, trace.size() - 1, 0}) {
+            assertEquals(expected.get(target), trace.variablesAt(target));
+        }
+
+        DebugSession seeking = new DebugSession(trace);
+        Map<Integer, Integer> seen = new HashMap<>(seeking.seek(900).changes());
+        seen.putAll(seeking.seek(300).changes());
+        assertEquals(expected.get(300), seen);
+    }
+
+    /**
+     * Test that a trace stops recording after its maximum number of steps
+     */
+    @Test
+    void testTruncated() {
+        trace = new DebugTrace(10);
+        run(loopProgram(100), null);
+
+        assertEquals(10, trace.size());
+        assertTrue(trace.isTruncated());
+    }
+
+    private void run(List<Statement> statements, Map<String, Integer> variables) {
+        LWInterpreter interpreter = new LWInterpreter(new Environment(variables, trace));
+        interpreter.interpret(statements);
+        assertFalse(ErrorHandler.hadError());
+    }
+
+    private static List<Statement> loopProgram(int count) {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, count, 1));
+        List<Statement> loopStatements = new ArrayList<>();
+        loopStatements.add(new Assignment(0, 0, Operator.ADDITION, 1, 3));
+        statementList.add(new Loop(false, 1, loopStatements, 2));
+        return statementList;
+    }
+}
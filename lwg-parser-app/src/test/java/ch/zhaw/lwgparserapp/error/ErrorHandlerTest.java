@@ -0,0 +1,58 @@
+package ch.zhaw.lwgparserapp.error;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the ErrorHandler class
+ */
+class ErrorHandlerTest {
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * The errors reported on another thread are not errors of the current thread.
+     */
+    @Test
+    void testErrorsPerThread() throws InterruptedException {
+        Thread other = Thread.ofPlatform().start(() -> ErrorHandler.report(1, "other"));
+        other.join();
+        ErrorHandler.report(2, "current");
+
+        assertEquals(List.of("[line 2] current"), messages());
+    }
+
+    /**
+     * A bound task reports into the errors of the thread that bound it, and the thread running it gets
+     * its own errors back afterwards.
+     */
+    @Test
+    void testBindToCurrentErrors() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> ErrorHandler.report(1, "pool")).get();
+            executor.submit(ErrorHandler.bindToCurrentErrors(() -> ErrorHandler.report(2, "bound"))).get();
+
+            assertEquals(List.of("[line 2] bound"), messages());
+            assertTrue(ErrorHandler.hadError());
+            assertEquals(List.of("[line 1] pool"), executor.submit(ErrorHandlerTest::messages).get());
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static List<String> messages() {
+        return ErrorHandler.getErrors().stream().map(ParseError::toString).toList();
+    }
+}
@@ -0,0 +1,173 @@
+package ch.zhaw.lwgparserapp.execution;
+
+import ch.zhaw.lwgparserapp.analysis.StepBound;
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.Interpreter;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the ExecutionScheduler class
+ */
+class ExecutionSchedulerTest {
+    private final List<Interpreter> interpreters = new ArrayList<>();
+    private ExecutionScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        interpreters.forEach(Interpreter::halt);
+        if (scheduler != null) scheduler.shutdown();
+    }
+
+    /**
+     * A client may only have a limited number of executions in flight,
+     * other clients are not affected by that limit.
+     */
+    @Test
+    void testClientLimit() {
+        scheduler = new ExecutionScheduler(1, 4, 4, 1, Duration.ofMillis(50));
+
+        scheduler.submit("a", newInterpreter(), infiniteLoop());
+        ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class,
+                () -> scheduler.submit("a", newInterpreter(), infiniteLoop()));
+        assertEquals("client_limit", e.getReason());
+        assertDoesNotThrow(() -> scheduler.submit("b", newInterpreter(), infiniteLoop()));
+    }
+
+    /**
+     * The client limit is released once an execution finished.
+     */
+    @Test
+    void testClientLimitReleased() {
+        scheduler = new ExecutionScheduler(1, 4, 4, 1, Duration.ofMillis(50));
+
+        scheduler.submit("a", newInterpreter(), addition()).join();
+        assertDoesNotThrow(() -> scheduler.submit("a", newInterpreter(), addition()).join());
+    }
+
+    /**
+     * Executions are rejected once all threads are busy and the queue is full.
+     */
+    @Test
+    void testQueueFull() {
+        scheduler = new ExecutionScheduler(1, 1, 1, 10, Duration.ofMillis(50));
+
+        scheduler.submit("a", newInterpreter(), infiniteLoop());
+        scheduler.submit("a", newInterpreter(), infiniteLoop());
+        ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class,
+                () -> scheduler.submit("a", newInterpreter(), infiniteLoop()));
+        assertEquals("queue_full", e.getReason());
+    }
+
+    /**
+     * A short program finishes while a long running program occupies the only processor,
+     * because the long running program yields after its time slice.
+     */
+    @Test
+    void testTimeSlicing() throws Exception {
+        scheduler = new ExecutionScheduler(1, 2, 2, 10, Duration.ofMillis(20));
+        Interpreter longRunning = newInterpreter();
+        CompletableFuture<Void> infinite = scheduler.submit("a", longRunning, infiniteLoop());
+
+        Environment environment = new Environment();
+        Interpreter shortRunning = new LWInterpreter(environment);
+        interpreters.add(shortRunning);
+        scheduler.submit("b", shortRunning, addition()).get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, environment.getVariables().get(0));
+        assertFalse(infinite.isDone());
+        assertFalse(longRunning.isHalted());
+    }
+
+    /**
+     * A program whose exact step bound exceeds the maximum is rejected before it runs,
+     * an estimated bound is not enough to reject a program.
+     */
+    @Test
+    void testStepBoundRejected() {
+        scheduler = new ExecutionScheduler(1, 4, 4, 10, Duration.ofMillis(50), 1, 100, 1000);
+
+        ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class,
+                () -> scheduler.submit("a", newInterpreter(), addition(), new StepBound(5000, true)));
+        assertEquals("step_bound", e.getReason());
+        assertDoesNotThrow(() -> scheduler.submit("a", newInterpreter(), addition(), new StepBound(5000, false))
+                .get(5, TimeUnit.SECONDS));
+        assertDoesNotThrow(() -> scheduler.submit("a", newInterpreter(), addition(), new StepBound(1000, true))
+                .get(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Long-running programs wait for a long-running permit, short programs still run on the other processor.
+     */
+    @Test
+    void testLongRunningLane() throws Exception {
+        scheduler = new ExecutionScheduler(2, 4, 4, 10, Duration.ofMillis(50), 1, 100, 1000);
+        Interpreter first = newInterpreter();
+        CompletableFuture<Void> infinite = scheduler.submit("a", first, infiniteLoop(), new StepBound(500, false));
+        while (first.getSteps() == 0) {
+            Thread.sleep(1);
+        }
+
+        CompletableFuture<Void> secondLong = scheduler.submit("a", newInterpreter(), addition(),
+                new StepBound(500, true));
+        scheduler.submit("a", newInterpreter(), addition(), new StepBound(50, true)).get(5, TimeUnit.SECONDS);
+        Thread.sleep(100);
+        assertFalse(secondLong.isDone());
+
+        first.halt();
+        infinite.get(5, TimeUnit.SECONDS);
+        secondLong.get(5, TimeUnit.SECONDS);
+    }
+
+    private Interpreter newInterpreter() {
+        LWInterpreter interpreter = new LWInterpreter(new Environment());
+        interpreter.setHaltTimeout(30);
+        interpreter.setLoopDetection(false); // the infinite loops must run until they are halted
+        interpreters.add(interpreter);
+        return interpreter;
+    }
+
+    /**
+     * x0 = x0 + 3;
+     */
+    private static List<Statement> addition() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(0, 0, Operator.ADDITION, 3, 1));
+        return statementList;
+    }
+
+    /**
+     * x1 = x1 + 1; <br>
+     * WHILE x1 != 0 DO <br>
+     *   x0 = x0 + 1 <br>
+     * END <br>
+     */
+    private static List<Statement> infiniteLoop() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 1, 1));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(0, 0, Operator.ADDITION, 1, 3));
+        statementList.add(new While(1, 0, whileBody, 2));
+        return statementList;
+    }
+}
@@ -0,0 +1,112 @@
+package ch.zhaw.lwgparserapp.execution;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the JobRegistry class
+ */
+class JobRegistryTest {
+    private final CountDownLatch release = new CountDownLatch(1);
+    private JobRegistry<String> registry;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        registry.shutdown();
+    }
+
+    /**
+     * A job runs in the background and its result can be retrieved after it finished.
+     */
+    @Test
+    void testJobCompletes() throws InterruptedException {
+        registry = new JobRegistry<>(10, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        Job<String> job = registry.submit(current -> {
+            awaitRelease();
+            return "done";
+        });
+
+        assertEquals(JobStatus.RUNNING, job.getStatus());
+        assertFalse(job.await(Duration.ofMillis(50)));
+        assertTrue(job.getResult().isEmpty());
+
+        release.countDown();
+        assertTrue(job.await(Duration.ofSeconds(5)));
+        assertEquals(JobStatus.COMPLETED, job.getStatus());
+        assertEquals("done", job.getResult().orElseThrow());
+        assertSame(job, registry.find(job.getId()).orElseThrow());
+    }
+
+    /**
+     * A job whose work throws is reported as failed.
+     */
+    @Test
+    void testJobFails() throws InterruptedException {
+        registry = new JobRegistry<>(10, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        Job<String> job = registry.submit(current -> {
+            throw new ExecutionRejectedException("queue_full", "busy");
+        });
+
+        assertTrue(job.await(Duration.ofSeconds(5)));
+        assertEquals(JobStatus.FAILED, job.getStatus());
+        assertEquals("busy", job.getFailure().orElseThrow().getMessage());
+        assertTrue(job.getResult().isEmpty());
+    }
+
+    /**
+     * Finished jobs are evicted after the retention period, running jobs are kept.
+     */
+    @Test
+    void testEviction() throws InterruptedException {
+        registry = new JobRegistry<>(10, Duration.ZERO, Duration.ofSeconds(30));
+        Job<String> finished = registry.submit(current -> "done");
+        Job<String> running = registry.submit(current -> {
+            awaitRelease();
+            return "done";
+        });
+        assertTrue(finished.await(Duration.ofSeconds(5)));
+
+        registry.evictExpired();
+
+        assertTrue(registry.find(finished.getId()).isEmpty());
+        assertTrue(registry.find(running.getId()).isPresent());
+    }
+
+    /**
+     * A full registry evicts its oldest finished job and rejects new jobs once all jobs are running.
+     */
+    @Test
+    void testRegistryFull() throws InterruptedException {
+        registry = new JobRegistry<>(2, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        Job<String> finished = registry.submit(current -> "done");
+        assertTrue(finished.await(Duration.ofSeconds(5)));
+        registry.submit(current -> {
+            awaitRelease();
+            return "done";
+        });
+
+        registry.submit(current -> {
+            awaitRelease();
+            return "done";
+        });
+        assertTrue(registry.find(finished.getId()).isEmpty());
+
+        ExecutionRejectedException e = assertThrows(ExecutionRejectedException.class,
+                () -> registry.submit(current -> "done"));
+        assertEquals("job_limit", e.getReason());
+    }
+
+    private void awaitRelease() {
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
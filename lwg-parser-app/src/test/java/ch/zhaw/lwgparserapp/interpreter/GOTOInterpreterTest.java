@@ -10,10 +10,12 @@ import ch.zhaw.lwgparserapp.syntax.gotosyntax.If;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -83,6 +85,33 @@ class GOTOInterpreterTest {
 		assertEquals("There was an arithmetic overflow.", ErrorHandler.getErrors().getFirst().getMessage());
 	}
 
+	/**
+	 * Tests that a value larger than an int equals no constant with arbitrary precision.
+	 * Program logic:
+	 * M1: x1 = x1 + Integer.MAX_VALUE;
+	 * M2: x1 = x1 + 1;
+	 * M3: If x1 = Integer.MAX_VALUE Then Goto M5;
+	 * M4: x2 = x1 - 2;
+	 * M5: Halt;
+	 */
+	@Test
+	void testArbitraryPrecision() {
+		environment.setArbitraryPrecision(true);
+		List<Statement> statementList = new ArrayList<>();
+		statementList.add(new Assignment(1, 1, Operator.ADDITION, Integer.MAX_VALUE, 1));
+		statementList.add(new Assignment(1, 1, Operator.ADDITION, 1, 2));
+		statementList.add(new If(1, Integer.MAX_VALUE, 5, 3, 3));
+		statementList.add(new Assignment(2, 1, Operator.SUBTRACTION, 2, 4));
+		statementList.add(new Halt(5, 5));
+		interpreter.setMarkerLineMap(Map.of(1, 1, 2, 2, 3, 3, 4, 4, 5, 5));
+
+		interpreter.interpret(statementList);
+
+		assertFalse(ErrorHandler.hadError());
+		assertEquals(BigInteger.ONE.shiftLeft(31), environment.getValues().get(1));
+		assertEquals(Integer.MAX_VALUE - 1, environment.getVariable(2));
+	}
+
 
 	/**
 	 * Tests program termination with a Halt statement.
@@ -248,6 +277,7 @@ class GOTOInterpreterTest {
 	@Test
 	void testLoopingControlFlow() {
 		interpreter.setHaltTimeout(2);
+		interpreter.setLoopDetection(false); // the loop would be detected at its second iteration
 
 		List<Statement> statementList = new ArrayList<>();
 		statementList.add(new Assignment(0, 0, Operator.ADDITION, 1, 1));
@@ -265,6 +295,62 @@ class GOTOInterpreterTest {
 		assertTrue(ErrorHandler.hadError());
 		assertEquals("Execution got halted, possibly due to an infinite loop", ErrorHandler.getErrors().getFirst().getMessage());
 	}
+	/**
+	 * Tests that a program returning to the same state is reported instead of running until the timeout.
+	 * Program logic:
+	 * M1: x1 = x1 + 1;
+	 * M2: If x1 = 3 Then Goto M4;
+	 * M3: Goto M1;
+	 * M4: x1 = x1 - 3;
+	 * M5: Goto M1;
+	 * M6: Halt; (never reached)
+	 */
+	@Test
+	void testRepeatingStateDetected() {
+		List<Statement> statementList = new ArrayList<>();
+		statementList.add(new Assignment(1, 1, Operator.ADDITION, 1, 1));
+		statementList.add(new If(1, 3, 4, 2, 2));
+		statementList.add(new Goto(1, 3, 3));
+		statementList.add(new Assignment(1, 1, Operator.SUBTRACTION, 3, 4));
+		statementList.add(new Goto(1, 5, 5));
+		statementList.add(new Halt(6, 6));
+		interpreter.setMarkerLineMap(Map.of(1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6));
+
+		interpreter.interpretAsync(statementList).join();
+
+		assertTrue(interpreter.isHalted());
+		assertEquals(1, ErrorHandler.getErrors().size());
+		assertEquals("Infinite loop detected: the program repeats the same state",
+				ErrorHandler.getErrors().getFirst().getMessage());
+		assertTrue(interpreter.getSteps() < 100);
+	}
+
+	/**
+	 * Tests that a loop changing its counter on every iteration is not reported.
+	 * Program logic:
+	 * M1: x1 = x1 + 1;
+	 * M2: x2 = x2 + 2;
+	 * M3: If x1 = 1000 Then Goto M5;
+	 * M4: Goto M1;
+	 * M5: Halt;
+	 */
+	@Test
+	void testCountingLoopNotDetected() {
+		List<Statement> statementList = new ArrayList<>();
+		statementList.add(new Assignment(1, 1, Operator.ADDITION, 1, 1));
+		statementList.add(new Assignment(2, 2, Operator.ADDITION, 2, 2));
+		statementList.add(new If(1, 1000, 5, 3, 3));
+		statementList.add(new Goto(1, 4, 4));
+		statementList.add(new Halt(5, 5));
+		interpreter.setMarkerLineMap(Map.of(1, 1, 2, 2, 3, 3, 4, 4, 5, 5));
+
+		interpreter.interpret(statementList);
+
+		assertFalse(ErrorHandler.hadError());
+		assertFalse(interpreter.isHalted());
+		assertEquals(2000, environment.getVariable(2));
+	}
+
 	/**
 	 * Tests handling of multiple Goto statements in a program with complex control flow.
 	 * Program logic:
@@ -296,4 +382,65 @@ class GOTOInterpreterTest {
 		assertEquals(3, environment.getVariable(1)); // x1 = 5 (M1) - 2 (M4)
 		assertFalse(ErrorHandler.hadError()); // No errors should occur
 	}
-}
\ No newline at end of file
+
+	/**
+	 * Tests that the profile counts every executed line and marker.
+	 * Program logic:
+	 * M1: If x1 = 0 Then Goto M4;
+	 * M2: x1 = x1 - 1;
+	 * M3: Goto M1;
+	 * M4: Halt
+	 * Variables: x1 = 3
+	 */
+	@Test
+	void testProfile() {
+		List<Statement> statementList = new ArrayList<>();
+		statementList.add(new If(1, 0, 4, 1, 1));
+		statementList.add(new Assignment(1, 1, Operator.SUBTRACTION, 1, 2));
+		statementList.add(new Goto(1, 3, 3));
+		statementList.add(new Halt(4, 4));
+
+		Map<Integer, Integer> markerLineMap = Map.of(1, 1, 2, 2, 3, 3, 4, 4);
+		interpreter.setMarkerLineMap(markerLineMap);
+		environment.setVariable(0, 1, 3);
+		ExecutionProfile profile = ExecutionProfile.forStatements(statementList);
+		interpreter.setProfile(profile);
+
+		interpreter.interpret(statementList);
+
+		assertFalse(ErrorHandler.hadError());
+		assertEquals(Map.of(1, 4L, 2, 3L, 3, 3L, 4, 1L), profile.getLineCounts());
+		assertEquals(Map.of(1, 4L, 2, 3L, 3, 3L, 4, 1L), profile.getMarkerCounts(markerLineMap));
+		assertEquals(11, interpreter.getSteps());
+	}
+
+	/**
+	 * Tests that a progress sample is published while the interpreter runs.
+	 * Program logic:
+	 * M1: x0 = x0 + 1;
+	 * M2: Goto M1; (Infinite loop)
+	 */
+	@Test
+	void testProgressSampling() throws Exception {
+		List<Statement> statementList = new ArrayList<>();
+		statementList.add(new Assignment(0, 0, Operator.ADDITION, 1, 1));
+		statementList.add(new Goto(1, 2, 2));
+		interpreter.setMarkerLineMap(Map.of(1, 1, 2, 2));
+		CompletableFuture<Progress> sample = new CompletableFuture<>();
+		interpreter.setProgressListener(sample::complete);
+		interpreter.setLoopDetection(false);
+
+		CompletableFuture<Void> future = interpreter.interpretAsync(statementList);
+		while (interpreter.getSteps() == 0) {
+			Thread.sleep(10);
+		}
+		interpreter.requestProgress();
+		Progress progress = sample.get(5, TimeUnit.SECONDS);
+		interpreter.halt();
+		future.join();
+
+		assertTrue(progress.steps() > 0);
+		assertTrue(progress.line() == 1 || progress.line() == 2);
+		assertTrue(progress.variables().containsKey(0));
+	}
+}
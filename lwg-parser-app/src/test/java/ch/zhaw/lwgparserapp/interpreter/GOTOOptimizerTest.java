@@ -0,0 +1,188 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.parser.GOTOParser;
+import ch.zhaw.lwgparserapp.scanner.GOTOScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the GOTOOptimizer class
+ */
+class GOTOOptimizerTest {
+	private static final String COUNT_DOWN = """
+			M1: x2 = x1 + 0;
+			M2: x2 = x2 - 1;
+			M3: If x2 = 0 Then Goto M5;
+			M4: Goto M2;
+			M5: x0 = x0 + 1;
+			M6: Halt;
+			""";
+	private static final String DECREMENT_BRANCH = """
+			M1: x1 = x1 - 2;
+			M2: If x1 = 1 Then Goto M5;
+			M3: x0 = x0 + 1;
+			M4: If x1 = 0 Then Goto M6;
+			M5: Goto M1;
+			M6: Halt;
+			""";
+	private static final String JUMP_CHAIN = """
+			M1: Goto M4;
+			M2: x0 = x0 + 1;
+			M3: Goto M6;
+			M4: Goto M3;
+			M5: Halt;
+			M6: If x1 = 0 Then Goto M9;
+			M7: x1 = x1 - 1;
+			M8: Goto M2;
+			M9: Goto M5;
+			""";
+
+	private static final String COUNTED_LOOP = """
+			M1: If x1 = 0 Then Goto M6;
+			M2: x0 = x0 + 3;
+			M3: x1 = x1 - 1;
+			M4: x2 = x2 - 2;
+			M5: Goto M1;
+			M6: Halt;
+			""";
+
+	@BeforeEach
+	public void setUp() {
+		ErrorHandler.clearErrors();
+	}
+
+	/**
+	 * A loop that only decrements its counter is fused into a single superinstruction.
+	 */
+	@Test
+	void testFuseCountDown() {
+		List<Statement> optimized = optimize(COUNT_DOWN);
+
+		assertEquals(new GOTOOptimizer.CountDown(2, 4, 2), optimized.get(1));
+		assertInstanceOf(GOTOOptimizer.DecrementBranch.class, optimize(DECREMENT_BRANCH).get(0));
+	}
+
+	/**
+	 * A counted loop found in the control-flow graph runs all iterations at once.
+	 */
+	@Test
+	void testCloseCountedLoop() {
+		List<Statement> optimized = optimize(COUNTED_LOOP);
+
+		GOTOOptimizer.ClosedLoop closedLoop = assertInstanceOf(GOTOOptimizer.ClosedLoop.class, optimized.get(0));
+		assertEquals(1, closedLoop.loop().counter());
+		assertEquals(5, closedLoop.loop().exit());
+		assertEquals(3, closedLoop.loop().body().size());
+	}
+
+	/**
+	 * Jumps to Goto statements are threaded to the final target, the jumped-over statements are kept.
+	 */
+	@Test
+	void testThreadJumps() {
+		List<Statement> optimized = optimize(JUMP_CHAIN);
+
+		assertEquals(new GOTOOptimizer.ThreadedGoto(5, 2, 1), optimized.get(0));
+		assertEquals(new GOTOOptimizer.ThreadedIf(1, 0, 4, 1, 6), optimized.get(5));
+		assertEquals(new GOTOOptimizer.ThreadedGoto(5, 1, 4), optimized.get(3));
+		assertEquals(JUMP_CHAIN.lines().count(), optimized.size());
+	}
+
+	/**
+	 * Goto statements that jump in a cycle are left unchanged.
+	 */
+	@Test
+	void testKeepJumpCycle() {
+		String cycle = """
+				M1: Goto M2;
+				M2: Goto M1;
+				M3: Halt;
+				""";
+		GOTOParser parser = new GOTOParser();
+		List<Statement> statements = parser.parse(new GOTOScanner(cycle).scanProgram());
+
+		assertEquals(statements, GOTOOptimizer.optimize(statements, parser.getMarkerLineMap()));
+	}
+
+	/**
+	 * Optimised programs compute the same variables, steps and errors as unoptimised programs.
+	 */
+	@Test
+	void testSameAsUnoptimized() {
+		for (int x1 : new int[]{0, 1, 2, 7, 1000}) {
+			assertSameAsUnoptimized(COUNT_DOWN, Map.of("x1", x1));
+			assertSameAsUnoptimized(DECREMENT_BRANCH, Map.of("x1", x1));
+			assertSameAsUnoptimized(JUMP_CHAIN, Map.of("x1", x1));
+			assertSameAsUnoptimized(COUNTED_LOOP, Map.of("x1", x1, "x2", 5));
+		}
+		assertSameAsUnoptimized(COUNTED_LOOP, Map.of("x0", Integer.MAX_VALUE - 600, "x1", 1000));
+		assertSameAsUnoptimized("""
+				M1: x3 = x3 - 1;
+
+				M2: If x3 = 0 Then Goto M4;
+				M3: Goto M1;
+				M4: Halt;
+				""", Map.of("x3", 4));
+	}
+
+	/**
+	 * A jump into the middle of a fused sequence executes the original statements.
+	 */
+	@Test
+	void testJumpIntoFusedSequence() {
+		assertSameAsUnoptimized("""
+				M1: If x1 = 0 Then Goto M3;
+				M2: x2 = x2 - 1;
+				M3: If x2 = 0 Then Goto M5;
+				M4: Goto M2;
+				M5: Halt;
+				""", Map.of("x1", 0, "x2", 5));
+	}
+
+	private void assertSameAsUnoptimized(String source, Map<String, Integer> input) {
+		GOTOParser parser = new GOTOParser();
+		List<Statement> statements = parser.parse(new GOTOScanner(source).scanProgram());
+		assertFalse(ErrorHandler.hadError(), source);
+
+		Environment unoptimized = new Environment(input, false);
+		GOTOInterpreter interpreter = new GOTOInterpreter(unoptimized);
+		interpreter.setMarkerLineMap(parser.getMarkerLineMap());
+		interpreter.setTierUpThreshold(0);
+		interpreter.setPeepholeOptimization(false);
+		interpreter.setHaltTimeout(1);
+		interpreter.interpretAsync(statements).join();
+		List<String> unoptimizedErrors = errors();
+
+		ErrorHandler.clearErrors();
+		Environment optimized = new Environment(input, false);
+		GOTOInterpreter optimizing = new GOTOInterpreter(optimized);
+		optimizing.setMarkerLineMap(parser.getMarkerLineMap());
+		optimizing.setTierUpThreshold(0);
+		optimizing.setHaltTimeout(1);
+		optimizing.interpretAsync(statements).join();
+
+		assertEquals(new TreeMap<>(unoptimized.getVariables()), new TreeMap<>(optimized.getVariables()), source);
+		assertEquals(interpreter.getSteps(), optimizing.getSteps(), source);
+		assertEquals(unoptimizedErrors, errors(), source);
+		ErrorHandler.clearErrors();
+	}
+
+	private static List<String> errors() {
+		return ErrorHandler.getErrors().stream().map(ParseError::getMessage).toList();
+	}
+
+	private static List<Statement> optimize(String source) {
+		GOTOParser parser = new GOTOParser();
+		List<Statement> statements = parser.parse(new GOTOScanner(source).scanProgram());
+		return GOTOOptimizer.optimize(statements, parser.getMarkerLineMap());
+	}
+}
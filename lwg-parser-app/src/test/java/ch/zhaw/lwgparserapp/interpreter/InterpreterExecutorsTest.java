@@ -0,0 +1,143 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the asynchronous interpretation on the InterpreterExecutors
+ */
+class InterpreterExecutorsTest {
+    private static final String OVERFLOW = "There was an arithmetic overflow.";
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * The errors of two programs interpreted at the same time on the shared pool are reported to the thread
+     * that started each of them, and to no other thread.
+     */
+    @Test
+    void testConcurrentErrorsDoNotLeak() throws Exception {
+        // x1 = x1 + 1 overflows at line 1, the other program only at line 2
+        List<Statement> first = List.of(new Assignment(1, 1, Operator.ADDITION, 1, 1));
+        List<Statement> second = List.of(new Assignment(2, 2, Operator.ADDITION, 1, 1),
+                new Assignment(1, 1, Operator.ADDITION, 1, 2));
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 50; i++) {
+                Future<List<String>> firstErrors = callers.submit(() -> run(first, barrier));
+                Future<List<String>> secondErrors = callers.submit(() -> run(second, barrier));
+
+                assertEquals(List.of("[line 1] " + OVERFLOW), firstErrors.get(5, TimeUnit.SECONDS));
+                assertEquals(List.of("[line 2] " + OVERFLOW), secondErrors.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            callers.shutdown();
+        }
+        assertFalse(ErrorHandler.hadError());
+        assertEquals(List.of(), InterpreterExecutors.interpreterPool().submit(() -> messages()).get());
+    }
+
+    /**
+     * The errors reported on the pool thread are errors of the calling thread.
+     */
+    @Test
+    void testErrorsOfPoolThreadReachCaller() {
+        LWInterpreter interpreter = new LWInterpreter(new Environment(Map.of("x1", Integer.MAX_VALUE), false));
+        interpreter.interpretAsync(List.of(new Assignment(1, 1, Operator.ADDITION, 1, 1))).join();
+
+        assertEquals(List.of("[line 1] " + OVERFLOW), messages());
+    }
+
+    /**
+     * A program running longer than the halt timeout is halted.
+     */
+    @Test
+    void testHaltTimeout() {
+        LWInterpreter interpreter = new LWInterpreter(new Environment(Map.of("x1", 1), false));
+        interpreter.setLoopDetection(false);
+        interpreter.setHaltTimeout(1);
+
+        interpreter.interpretAsync(List.of(new While(1, 0, List.of(new Assignment(2, 2, Operator.ADDITION, 0, 2)),
+                1))).join();
+
+        assertTrue(interpreter.isHalted());
+        assertEquals(List.of("[line 0] Execution got halted, possibly due to an infinite loop"), messages());
+    }
+
+    /**
+     * The halt timeout is cancelled when the interpretation finishes, so it never halts the interpreter later.
+     */
+    @Test
+    void testHaltTimeoutCancelled() throws InterruptedException {
+        LWInterpreter interpreter = new LWInterpreter(new Environment());
+        interpreter.setHaltTimeout(1);
+
+        interpreter.interpretAsync(List.of(new Assignment(1, 1, Operator.ADDITION, 1, 1))).join();
+        Thread.sleep(1500);
+
+        assertFalse(interpreter.isHalted());
+        assertFalse(ErrorHandler.hadError());
+    }
+
+    /**
+     * The halt timeout starts when the interpretation starts, not while it waits for a thread of the executor.
+     */
+    @Test
+    void testHaltTimeoutStartsWithInterpretation() throws InterruptedException {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch busy = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    busy.await(1500, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            LWInterpreter interpreter = new LWInterpreter(new Environment());
+            interpreter.setHaltTimeout(1);
+
+            interpreter.interpretAsync(List.of(new Assignment(1, 1, Operator.ADDITION, 1, 1)), executor).join();
+
+            assertFalse(interpreter.isHalted());
+            assertFalse(ErrorHandler.hadError());
+            assertEquals(1, interpreter.getSteps());
+        } finally {
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    private static List<String> run(List<Statement> program, CyclicBarrier barrier) throws Exception {
+        ErrorHandler.clearErrors();
+        LWInterpreter interpreter = new LWInterpreter(new Environment(Map.of("x1", Integer.MAX_VALUE), false));
+        barrier.await(5, TimeUnit.SECONDS);
+        interpreter.interpretAsync(program).join();
+        return messages();
+    }
+
+    private static List<String> messages() {
+        return ErrorHandler.getErrors().stream().map(ParseError::toString).toList();
+    }
+}
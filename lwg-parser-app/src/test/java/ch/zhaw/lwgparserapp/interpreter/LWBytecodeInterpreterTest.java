@@ -0,0 +1,258 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.gotosyntax.Halt;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the LWBytecodeInterpreter class
+ */
+class LWBytecodeInterpreterTest {
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * A Loop becomes a counter initialisation, a poll at the start of every iteration and a decrement
+     * that jumps back while the counter is not 0.
+     */
+    @Test
+    void testCompileLoop() {
+        Bytecode bytecode = BytecodeCompiler.compile(parse("""
+                Loop x1 Do
+                  x0 = x0 + 2
+                End;
+                x1 = x1 - 1
+                """), false);
+
+        assertEquals("""
+                0: LOOP_INIT 2 1 14
+                4: POLL 1
+                6: ADD_CONST 0 0 2 2
+                11: LOOP_NEXT 2 4
+                14: SUB_SAT 1 1 1
+                18: END
+                """, bytecode.disassemble());
+        assertArrayEquals(new int[]{0, 1}, bytecode.variables());
+        assertEquals(3, bytecode.registers());
+    }
+
+    /**
+     * Nested loops use one counter per nesting depth, While loops jump back while their condition holds.
+     */
+    @Test
+    void testCompileNestedLoops() {
+        Bytecode bytecode = BytecodeCompiler.compile(parse("""
+                Loop x1 Do
+                  Loop 3 Do
+                    x0 = x0 + 1
+                  End
+                End;
+                While x2 > 1 Do
+                  x2 = x2 - 1
+                End
+                """), false);
+
+        assertEquals("""
+                0: LOOP_INIT 3 1 23
+                4: POLL 1
+                6: LOOP_CONST 4 3 20
+                10: POLL 2
+                12: ADD_CONST 0 0 1 3
+                17: LOOP_NEXT 4 10
+                20: LOOP_NEXT 3 4
+                23: WHILE_INIT 2 1 37
+                27: POLL 6
+                29: SUB_SAT 2 2 1
+                33: JGT 2 1 27
+                37: END
+                """, bytecode.disassemble());
+        assertEquals(5, bytecode.registers());
+    }
+
+    /**
+     * With loop detection, a While loop checks its detector when it is entered and at the start of every
+     * iteration.
+     */
+    @Test
+    void testCompileLoopDetection() {
+        Bytecode bytecode = BytecodeCompiler.compile(parse("""
+                While x2 > 1 Do
+                  x2 = x2 - 1
+                End
+                """), true);
+
+        assertEquals("""
+                0: WHILE_INIT 1 1 19
+                4: ENTER 0
+                6: POLL 1
+                8: CYCLE 0 1
+                11: SUB_SAT 1 1 1
+                15: JGT 1 1 6
+                19: END
+                """, bytecode.disassemble());
+        assertEquals(1, bytecode.loops().size());
+    }
+
+    /**
+     * The virtual machine reports the infinite loops the interpreter reports, after the same steps.
+     */
+    @Test
+    void testLoopDetection() {
+        assertSameAsInterpreter("""
+                x1 = x1 + 1;
+                While x1 > 0 Do
+                  x1 = x0 + 1;
+                  x3 = x3 + 1;
+                  x4 = x3 - 2000;
+                  While x4 > 0 Do
+                    x3 = x3 - 2000;
+                    x4 = x0 + 0
+                  End
+                End
+                """, Map.of());
+        assertSameAsInterpreter("""
+                Loop x2 Do
+                  x1 = x1 + 1;
+                  While x1 > 0 Do
+                    x4 = x4 + 1
+                  End
+                End
+                """, Map.of("x2", 5));
+
+        assertEquals(List.of("Infinite loop detected: x1 never changes in the loop"), errors());
+    }
+
+    /**
+     * The virtual machine computes the same variables, steps and errors as the interpreter.
+     */
+    @Test
+    void testSameAsInterpreter() {
+        assertSameAsInterpreter("""
+                Loop x1 Do
+                  Loop x2 Do
+                    x0 = x0 + 1
+                  End;
+                  x3 = x3 + 2
+                End;
+                While x3 > 0 Do
+                  x3 = x3 - 1
+                End
+                """, Map.of("x1", 40, "x2", 30));
+        assertSameAsInterpreter("""
+                Loop x1 Do
+                  Loop x5 Do
+                    x6 = x7 + 1
+                  End;
+                  x0 = x0 + 1
+                End
+                """, Map.of("x1", 50));
+        assertSameAsInterpreter("""
+                Loop x1 Do
+                  x0 = x0 + 1000000000
+                End
+                """, Map.of("x1", 5));
+        assertSameAsInterpreter("""
+                Loop 0 Do
+                  x4 = x4 + 1
+                End;
+                While x1 > 10 Do
+                  x2 = x2 + 3;
+                  x1 = x1 - 1
+                End
+                """, Map.of("x1", 100));
+        assertSameAsInterpreter("", Map.of());
+    }
+
+    /**
+     * An infinite loop is halted by the timeout.
+     */
+    @Test
+    void testHaltInfiniteLoop() {
+        LWBytecodeInterpreter interpreter = new LWBytecodeInterpreter(new Environment(Map.of("x1", 1), false));
+        interpreter.setHaltTimeout(1);
+        interpreter.setLoopDetection(false); // the loop would be detected when it is entered
+
+        interpreter.interpretAsync(parse("While x1 > 0 Do x2 = x2 + 1 End")).join();
+
+        assertTrue(interpreter.isHalted());
+        assertNotNull(interpreter.getBytecode());
+        assertEquals("Execution got halted, possibly due to an infinite loop",
+                ErrorHandler.getErrors().getFirst().getMessage());
+    }
+
+    /**
+     * Programs in debug mode and statements that are not LW statements are left to the interpreter.
+     */
+    @Test
+    void testFallbackToInterpreter() {
+        LWBytecodeInterpreter debugged = new LWBytecodeInterpreter(new Environment(true));
+        debugged.interpret(parse("Loop 3 Do x0 = x0 + 1 End"));
+        assertNull(debugged.getBytecode());
+        assertEquals(3, debugged.environment.getVariable(0));
+
+        LWBytecodeInterpreter unsupported = new LWBytecodeInterpreter(new Environment());
+        unsupported.interpret(List.of(new Loop(true, 1, List.of(new Halt(1, 2)), 1)));
+        assertNull(unsupported.getBytecode());
+        assertEquals("Error in Interpreter.interpretStatement: Unknown statement type",
+                ErrorHandler.getErrors().getFirst().getMessage());
+    }
+
+    /**
+     * The default engine decides which interpreter is created.
+     */
+    @Test
+    void testCreateDefaultEngine() {
+        try {
+            LWInterpreter.setDefaultEngine(LWInterpreter.Engine.BYTECODE);
+            assertInstanceOf(LWBytecodeInterpreter.class, LWInterpreter.create(new Environment()));
+        } finally {
+            LWInterpreter.setDefaultEngine(LWInterpreter.Engine.TIERED);
+        }
+        assertEquals(LWInterpreter.class, LWInterpreter.create(new Environment()).getClass());
+    }
+
+    private void assertSameAsInterpreter(String source, Map<String, Integer> input) {
+        ErrorHandler.clearErrors();
+        List<Statement> statements = parse(source);
+
+        ErrorHandler.clearErrors();
+        Environment interpreted = new Environment(input, false);
+        LWInterpreter interpreter = new LWInterpreter(interpreted);
+        interpreter.setTierUpThreshold(0);
+        interpreter.interpret(statements);
+        List<String> interpreterErrors = errors();
+
+        ErrorHandler.clearErrors();
+        Environment executed = new Environment(input, false);
+        LWBytecodeInterpreter virtualMachine = new LWBytecodeInterpreter(executed);
+        virtualMachine.interpret(statements);
+
+        assertNotNull(virtualMachine.getBytecode());
+        assertEquals(new TreeMap<>(interpreted.getVariables()), new TreeMap<>(executed.getVariables()), source);
+        assertEquals(interpreter.getSteps(), virtualMachine.getSteps(), source);
+        assertEquals(interpreterErrors, errors(), source);
+    }
+
+    private static List<String> errors() {
+        return ErrorHandler.getErrors().stream().map(ParseError::getMessage).toList();
+    }
+
+    private static List<Statement> parse(String source) {
+        return new LWParser().parse(new LWScanner(source).scanProgram());
+    }
+}
@@ -10,9 +10,12 @@ import ch.zhaw.lwgparserapp.syntax.gotosyntax.Goto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -237,6 +240,45 @@ class LWInterpreterTest {
         assertEquals("There was an arithmetic overflow.", ErrorHandler.getErrors().getFirst().getMessage());
     }
 
+    /**
+     * Tests that values are promoted instead of overflowing with arbitrary precision.
+     * Program:
+     * x1 = x1 + Integer.MAX_VALUE;
+     * x1 = x1 + 10;
+     * x2 = x1 - 11;
+     * WHILE x1 > Integer.MAX_VALUE - 1 DO
+     *   x1 = x1 - 1;
+     *   x3 = x3 + 1
+     * END
+     * Expected Result: x1 is larger than an int until the loop counts it down, x3 = 11.
+     */
+    @Test
+    void testArbitraryPrecision() {
+        environment.setArbitraryPrecision(true);
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, Integer.MAX_VALUE, 1));
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 10, 2));
+        statementList.add(new Assignment(2, 1, Operator.SUBTRACTION, 11, 3));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(1, 1, Operator.SUBTRACTION, 1, 5));
+        whileBody.add(new Assignment(3, 3, Operator.ADDITION, 1, 6));
+        statementList.add(new While(1, Integer.MAX_VALUE - 1, whileBody, 4));
+
+        lwInterpreter.interpret(List.of(statementList.get(0), statementList.get(1)));
+
+        assertFalse(ErrorHandler.hadError());
+        assertTrue(environment.isLarge(1));
+        assertEquals(BigInteger.valueOf(Integer.MAX_VALUE + 10L), environment.getValues().get(1));
+
+        lwInterpreter.interpret(statementList.subList(2, 4));
+
+        assertFalse(ErrorHandler.hadError());
+        assertEquals(Integer.MAX_VALUE - 1, environment.getVariable(2));
+        assertEquals(Integer.MAX_VALUE - 1, environment.getVariable(1));
+        assertFalse(environment.isLarge(1));
+        assertEquals(11, environment.getVariable(3));
+    }
+
     /**
      * Test for infinite loop handling in the interpreter. <br>
      * Program: <br>
@@ -250,6 +292,7 @@ class LWInterpreterTest {
     void testInfiniteWhileLoop() {
 
         lwInterpreter.setHaltTimeout(2); // Reduce timeout to 2 seconds for this test
+        lwInterpreter.setLoopDetection(false); // the loop would be detected before it runs
 
         List<Statement> statementList = new ArrayList<>();
         statementList.add(new Assignment(0, 0, Operator.ADDITION, 3, 1));
@@ -272,6 +315,86 @@ class LWInterpreterTest {
         assertEquals("Execution got halted, possibly due to an infinite loop", ErrorHandler.getErrors().getFirst().getMessage());
     }
 
+    /**
+     * A While loop whose body never changes the variable of its condition is reported when it is entered. <br>
+     * Program: <br>
+     * x1 = x1 + 2; <br>
+     * WHILE x1 > 0 DO <br>
+     *   x0 = x0 + 1 <br>
+     * END <br>
+     */
+    @Test
+    void testInvariantWhileLoopDetected() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 2, 1));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(0, 0, Operator.ADDITION, 1, 3));
+        statementList.add(new While(1, 0, whileBody, 2));
+
+        lwInterpreter.interpretAsync(statementList).join();
+
+        assertTrue(lwInterpreter.isHalted());
+        assertEquals(1, ErrorHandler.getErrors().size());
+        assertEquals(2, ErrorHandler.getErrors().getFirst().getLine());
+        assertEquals("Infinite loop detected: x1 never changes in the loop",
+                ErrorHandler.getErrors().getFirst().getMessage());
+        assertEquals(2, lwInterpreter.getSteps());
+    }
+
+    /**
+     * A While loop that returns to the same state is reported at its second iteration. <br>
+     * Program: <br>
+     * x1 = x1 + 1; <br>
+     * WHILE x1 > 0 DO <br>
+     *   x1 = x1 + 1; <br>
+     *   x2 = x2 + 1; <br>
+     *   x1 = x1 - 1 <br>
+     * END <br>
+     */
+    @Test
+    void testRepeatingWhileLoopDetected() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 1, 1));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(1, 1, Operator.ADDITION, 1, 3));
+        whileBody.add(new Assignment(2, 2, Operator.ADDITION, 1, 4));
+        whileBody.add(new Assignment(1, 1, Operator.SUBTRACTION, 1, 5));
+        statementList.add(new While(1, 0, whileBody, 2));
+
+        lwInterpreter.interpretAsync(statementList).join();
+
+        assertTrue(lwInterpreter.isHalted());
+        assertEquals(1, ErrorHandler.getErrors().size());
+        assertEquals("Infinite loop detected: the loop repeats the same state",
+                ErrorHandler.getErrors().getFirst().getMessage());
+        assertEquals(1, environment.getVariable(2));
+    }
+
+    /**
+     * A While loop that counts down is not reported. <br>
+     * Program: <br>
+     * x1 = x1 + 3; <br>
+     * WHILE x1 > 0 DO <br>
+     *   x1 = x1 - 1; <br>
+     *   x2 = x2 + 1 <br>
+     * END <br>
+     */
+    @Test
+    void testTerminatingWhileLoopNotDetected() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 3, 1));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(1, 1, Operator.SUBTRACTION, 1, 3));
+        whileBody.add(new Assignment(2, 2, Operator.ADDITION, 1, 4));
+        statementList.add(new While(1, 0, whileBody, 2));
+
+        lwInterpreter.interpret(statementList);
+
+        assertFalse(ErrorHandler.hadError());
+        assertFalse(lwInterpreter.isHalted());
+        assertEquals(3, environment.getVariable(2));
+    }
+
     /**
      * Tests that unsupported statements trigger an error in interpretStatement.
      */
@@ -293,12 +416,68 @@ class LWInterpreterTest {
                 ErrorHandler.getErrors().getFirst().getMessage());
     }
 
+    /**
+     * Tests that the profile counts every executed line. <br>
+     * Program: <br>
+     * x1 = x1 + 2; <br>
+     * LOOP x1 DO <br>
+     *   x2 = x2 + 3; <br>
+     *   WHILE x2 > 0 DO <br>
+     *       x2 = x2 - 1 <br>
+     *   END <br>
+     * END <br>
+     */
+    @Test
+    void testProfile() {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 2, 1));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(2, 2, Operator.SUBTRACTION, 1, 5));
+        List<Statement> loopBody = new ArrayList<>();
+        loopBody.add(new Assignment(2, 2, Operator.ADDITION, 3, 3));
+        loopBody.add(new While(2, 0, whileBody, 4));
+        statementList.add(new Loop(false, 1, loopBody, 2));
+        ExecutionProfile profile = ExecutionProfile.forStatements(statementList);
+        lwInterpreter.setProfile(profile);
 
+        lwInterpreter.interpret(statementList);
 
+        assertFalse(ErrorHandler.hadError());
+        assertEquals(Map.of(1, 1L, 2, 2L, 3, 2L, 4, 6L, 5, 6L), profile.getLineCounts());
+        assertEquals(0, profile.getCount(6));
+    }
 
+    /**
+     * Test that a progress sample is published while the interpreter runs <br>
+     * <p>
+     * x1 = x1 + 1; <br>
+     * WHILE x1 > 0 DO <br>
+     *   x0 = x0 + 1 <br>
+     * END <br>
+     */
+    @Test
+    void testProgressSampling() throws Exception {
+        List<Statement> statementList = new ArrayList<>();
+        statementList.add(new Assignment(1, 1, Operator.ADDITION, 1, 1));
+        List<Statement> whileBody = new ArrayList<>();
+        whileBody.add(new Assignment(0, 0, Operator.ADDITION, 1, 3));
+        statementList.add(new While(1, 0, whileBody, 2));
+        CompletableFuture<Progress> sample = new CompletableFuture<>();
+        lwInterpreter.setProgressListener(sample::complete);
+        lwInterpreter.setLoopDetection(false);
 
+        CompletableFuture<Void> future = lwInterpreter.interpretAsync(statementList);
+        while (lwInterpreter.getSteps() == 0) {
+            Thread.sleep(10);
+        }
+        lwInterpreter.requestProgress();
+        Progress progress = sample.get(5, TimeUnit.SECONDS);
+        lwInterpreter.halt();
+        future.join();
 
-
-
-
+        assertTrue(progress.steps() > 0);
+        assertTrue(progress.line() == 2 || progress.line() == 3);
+        assertEquals(1, progress.variables().get(1));
+        assertTrue(progress.variables().containsKey(0));
+    }
 }
@@ -0,0 +1,269 @@
+package ch.zhaw.lwgparserapp.interpreter;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.parser.GOTOParser;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.GOTOScanner;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test that programs continuing in compiled code behave exactly like interpreted programs
+ */
+class TieredExecutionTest {
+    private static final String NESTED_LOOPS = """
+            Loop x1 Do
+              Loop x2 Do
+                x0 = x0 + 1
+              End;
+              x3 = x3 + 2
+            End;
+            While x3 > 0 Do
+              x3 = x3 - 1
+            End
+            """;
+    private static final String UNUSED_VARIABLES = """
+            Loop x1 Do
+              Loop x5 Do
+                x6 = x7 + 1
+              End;
+              x0 = x0 + 1
+            End
+            """;
+    private static final String OVERFLOW = """
+            Loop x1 Do
+              x0 = x0 + 1000000000
+            End
+            """;
+    private static final String GOTO_LOOP = """
+            M1: If x1 = 0 Then Goto M5;
+            M2: x0 = x0 + 2;
+            M3: x1 = x1 - 1;
+            M4: Goto M1;
+            M5: Halt;
+            """;
+    private static final String GOTO_WITH_BLANK_LINE = """
+            M1: x1 = x1 - 1;
+
+            M2: If x1 = 0 Then Goto M4;
+            M3: Goto M1;
+            M4: Halt;
+            """;
+    // the state of the outer loop only repeats after 2000 iterations, when the loop runs compiled
+    private static final String LONG_CYCLE = """
+            x1 = x1 + 1;
+            While x1 > 0 Do
+              x1 = x0 + 1;
+              x3 = x3 + 1;
+              x4 = x3 - 2000;
+              While x4 > 0 Do
+                x3 = x3 - 2000;
+                x4 = x0 + 0
+              End
+            End
+            """;
+    // the While loops are first entered after 1500 iterations of the hot loop around them
+    private static final String REPEATING_INNER_LOOP = """
+            Loop x2 Do
+              x1 = x1 + 1;
+              x3 = x1 - 1500;
+              While x3 > 0 Do
+                x3 = x3 + 1;
+                x3 = x3 - 1
+              End
+            End
+            """;
+    private static final String INVARIANT_INNER_LOOP = """
+            Loop x2 Do
+              x1 = x1 + 1;
+              x3 = x1 - 1500;
+              While x3 > 0 Do
+                x4 = x4 + 1
+              End
+            End
+            """;
+    private static final String GOTO_LONG_CYCLE = """
+            M1: x1 = x1 + 1;
+            M2: If x1 = 2000 Then Goto M4;
+            M3: Goto M1;
+            M4: x1 = x1 - 2000;
+            M5: Goto M1;
+            M6: Halt;
+            """;
+
+    private record Result(Map<Integer, Integer> variables, long steps, List<String> errors, int compilations) {
+    }
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * Compiling right away, compiling when hot and never compiling give the same variables, steps and errors.
+     */
+    @Test
+    void testCompiledEqualsInterpreted() {
+        assertSameAsInterpreted(NESTED_LOOPS, Map.of("x1", 40, "x2", 30));
+        assertSameAsInterpreted(UNUSED_VARIABLES, Map.of("x1", 50));
+        assertSameAsInterpreted(OVERFLOW, Map.of("x1", 5));
+        assertSameAsInterpreted(GOTO_LOOP, Map.of("x1", 3000));
+        assertSameAsInterpreted(GOTO_WITH_BLANK_LINE, Map.of("x1", 2000));
+    }
+
+    /**
+     * Variables a compiled loop never touches are not created.
+     */
+    @Test
+    void testCompiledCodeCreatesVariablesLikeInterpreter() {
+        Result result = run(UNUSED_VARIABLES, Map.of("x1", 50), 1);
+
+        assertTrue(result.compilations() > 0);
+        assertEquals(Map.of(0, 50, 1, 50, 5, 0), result.variables());
+    }
+
+    /**
+     * Short programs stay interpreted, long ones are compiled once.
+     */
+    @Test
+    void testTierUpThreshold() {
+        assertEquals(0, run(GOTO_LOOP, Map.of("x1", 100), 1000).compilations());
+        assertEquals(1, run(GOTO_LOOP, Map.of("x1", 5000), 1000).compilations());
+        assertEquals(0, run(GOTO_LOOP, Map.of("x1", 5000), 0).compilations());
+    }
+
+    /**
+     * Programs in debug mode are always interpreted, so every step is recorded.
+     */
+    @Test
+    void testDebugModeStaysInterpreted() {
+        Environment environment = new Environment(Map.of("x1", 50), true);
+        LWInterpreter interpreter = new LWInterpreter(environment);
+        interpreter.setTierUpThreshold(1);
+
+        interpreter.interpret(new LWParser().parse(new LWScanner(OVERFLOW).scanProgram()));
+
+        assertEquals(0, interpreter.getCompilations());
+    }
+
+    /**
+     * Compiled code reports the infinite loops the interpreter reports, at the same back-edge.
+     */
+    @Test
+    void testLoopDetectionInCompiledCode() {
+        assertSameAsInterpreted(LONG_CYCLE, Map.of());
+        assertSameAsInterpreted(REPEATING_INNER_LOOP, Map.of("x2", 5000));
+        assertSameAsInterpreted(INVARIANT_INNER_LOOP, Map.of("x2", 5000));
+        assertSameAsInterpreted(GOTO_LONG_CYCLE, Map.of());
+
+        assertEquals(List.of("Infinite loop detected: the loop repeats the same state"),
+                run(LONG_CYCLE, Map.of(), 1000).errors());
+        assertEquals(List.of("Infinite loop detected: the loop repeats the same state"),
+                run(REPEATING_INNER_LOOP, Map.of("x2", 5000), 1000).errors());
+        assertEquals(List.of("Infinite loop detected: x3 never changes in the loop"),
+                run(INVARIANT_INNER_LOOP, Map.of("x2", 5000), 1000).errors());
+        assertEquals(List.of("Infinite loop detected: the program repeats the same state"),
+                run(GOTO_LONG_CYCLE, Map.of(), 1000).errors());
+    }
+
+    /**
+     * A compiled infinite loop is halted by the timeout.
+     */
+    @Test
+    void testHaltCompiledLoop() {
+        LWInterpreter interpreter = new LWInterpreter(new Environment(Map.of("x1", 1), false));
+        interpreter.setTierUpThreshold(1);
+        interpreter.setHaltTimeout(1);
+        interpreter.setLoopDetection(false);
+
+        interpreter.interpretAsync(new LWParser().parse(new LWScanner("While x1 > 0 Do x2 = x2 + 1 End")
+                .scanProgram())).join();
+
+        assertTrue(interpreter.isHalted());
+        assertEquals(1, interpreter.getCompilations());
+        assertEquals("Execution got halted, possibly due to an infinite loop",
+                ErrorHandler.getErrors().getFirst().getMessage());
+    }
+
+    /**
+     * A progress sample taken in compiled code sees the variables of the compiled code.
+     */
+    @Test
+    void testProgressInCompiledCode() throws Exception {
+        Environment environment = new Environment();
+        GOTOInterpreter interpreter = new GOTOInterpreter(environment);
+        interpreter.setTierUpThreshold(1);
+        interpreter.setLoopDetection(false); // the loop would be detected at its second iteration
+        GOTOParser parser = new GOTOParser();
+        List<Statement> statements = parser.parse(new GOTOScanner("M1: x1 = x1 + 1;\nM2: Goto M1;").scanProgram());
+        interpreter.setMarkerLineMap(parser.getMarkerLineMap());
+        CompletableFuture<Progress> sample = new CompletableFuture<>();
+        interpreter.setProgressListener(sample::complete);
+
+        CompletableFuture<Void> future = interpreter.interpretAsync(statements);
+        while (interpreter.getSteps() < 10_000) {
+            Thread.sleep(10);
+        }
+        interpreter.requestProgress();
+        Progress progress = sample.get(5, TimeUnit.SECONDS);
+        interpreter.halt();
+        future.join();
+
+        assertEquals(1, interpreter.getCompilations());
+        assertEquals(1, progress.line());
+        assertTrue(progress.variables().get(1) > 1000);
+        assertTrue(environment.getVariable(1) >= progress.variables().get(1));
+    }
+
+    private void assertSameAsInterpreted(String source, Map<String, Integer> input) {
+        Result interpreted = run(source, input, 0);
+        assertEquals(0, interpreted.compilations());
+        for (int threshold : new int[]{1, 10, 1000}) {
+            Result tiered = run(source, input, threshold);
+            assertEquals(interpreted.variables(), tiered.variables(), source);
+            assertEquals(interpreted.steps(), tiered.steps(), source);
+            assertEquals(interpreted.errors(), tiered.errors(), source);
+        }
+        assertTrue(run(source, input, 1).compilations() > 0, source);
+    }
+
+    private Result run(String source, Map<String, Integer> input, int threshold) {
+        ErrorHandler.clearErrors();
+        Environment environment = new Environment(input, false);
+        Interpreter interpreter;
+        List<Statement> statements;
+        if (SyntaxDetector.detectSyntax(source) == Syntax.GOTO) {
+            GOTOParser parser = new GOTOParser();
+            statements = parser.parse(new GOTOScanner(source).scanProgram());
+            GOTOInterpreter gotoInterpreter = new GOTOInterpreter(environment);
+            gotoInterpreter.setMarkerLineMap(parser.getMarkerLineMap());
+            // superinstructions run some loops without back-edges, these tests compare the tiers alone
+            gotoInterpreter.setPeepholeOptimization(false);
+            interpreter = gotoInterpreter;
+        } else {
+            statements = new LWParser().parse(new LWScanner(source).scanProgram());
+            interpreter = new LWInterpreter(environment);
+        }
+        assertFalse(ErrorHandler.hadError(), source);
+        interpreter.setTierUpThreshold(threshold);
+        // a loop that is not detected is halted by the timeout instead of hanging the test
+        interpreter.setHaltTimeout(10);
+        interpreter.interpretAsync(statements).join();
+        List<String> errors = ErrorHandler.getErrors().stream().map(ParseError::getMessage).toList();
+        return new Result(new TreeMap<>(environment.getVariables()), interpreter.getSteps(), errors,
+                interpreter.getCompilations());
+    }
+}
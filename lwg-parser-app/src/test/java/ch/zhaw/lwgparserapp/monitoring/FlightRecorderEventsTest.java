@@ -0,0 +1,157 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import ch.zhaw.lwgparserapp.api.LwgController;
+import ch.zhaw.lwgparserapp.api.LwgController.CodeRequest;
+import ch.zhaw.lwgparserapp.api.LwgController.ErrorResponse;
+import ch.zhaw.lwgparserapp.api.LwgController.SuccessResponse;
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the Java Flight Recorder events of the scan, parse and interpret phases
+ */
+class FlightRecorderEventsTest {
+    private static final String SCAN = "ch.zhaw.lwgparserapp.Scan";
+    private static final String PARSE = "ch.zhaw.lwgparserapp.Parse";
+    private static final String INTERPRET = "ch.zhaw.lwgparserapp.Interpret";
+
+    private interface Action {
+        void run() throws IOException;
+    }
+
+    private final LwgController controller = new LwgController();
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * A program that runs to the end emits one event per phase with the hash, the syntax and the sizes of
+     * the program <br>
+     * <p>
+     * Loop x2 Do <br>
+     *   x1 = x1 + 1 <br>
+     * End <br>
+     */
+    @Test
+    void testPhaseEvents() throws IOException {
+        String code = "Loop x2 Do\n  x1 = x1 + 1\nEnd";
+
+        List<RecordedEvent> events = record(() -> assertInstanceOf(SuccessResponse.class,
+                controller.processCode(request(code, Map.of("x2", 5))).getBody()), code.hashCode());
+
+        assertEquals(List.of(SCAN, PARSE, INTERPRET), events.stream().map(event -> event.getEventType().getName())
+                .toList());
+        RecordedEvent scan = events.get(0);
+        assertEquals("LW", scan.getString("syntax"));
+        assertEquals(code.length(), scan.getInt("sourceSize"));
+        assertEquals(9, scan.getInt("tokenCount"));
+        RecordedEvent parse = events.get(1);
+        assertEquals("LW", parse.getString("syntax"));
+        assertEquals(9, parse.getInt("tokenCount"));
+        assertEquals(1, parse.getInt("statementCount"));
+        RecordedEvent interpret = events.get(2);
+        assertEquals("LW", interpret.getString("syntax"));
+        assertEquals(6, interpret.getLong("steps"));
+        assertFalse(interpret.getBoolean("halted"));
+        assertFalse(interpret.getBoolean("timedOut"));
+    }
+
+    /**
+     * A program uploaded as plain text is scanned while it is parsed and emits the same events as the program
+     * sent as JSON <br>
+     * <p>
+     * Loop x2 Do <br>
+     *   x1 = x1 + 1 <br>
+     * End <br>
+     */
+    @Test
+    void testUploadEvents() throws IOException {
+        String code = "Loop x2 Do\n  x1 = x1 + 1\nEnd";
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/process");
+        request.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        request.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        request.setContent(code.getBytes(StandardCharsets.UTF_8));
+
+        List<RecordedEvent> events = record(() -> assertInstanceOf(SuccessResponse.class,
+                controller.processUpload(request, Map.of("x2", "5")).getBody()), code.hashCode());
+
+        assertEquals(List.of(SCAN, PARSE, INTERPRET), events.stream().map(event -> event.getEventType().getName())
+                .toList());
+        RecordedEvent scan = events.get(0);
+        assertEquals("LW", scan.getString("syntax"));
+        assertEquals(code.length(), scan.getInt("sourceSize"));
+        assertEquals(9, scan.getInt("tokenCount"));
+        assertEquals(9, events.get(1).getInt("tokenCount"));
+        assertEquals(6, events.get(2).getLong("steps"));
+    }
+
+    /**
+     * An infinite loop that is detected halts the program, which is not a timeout <br>
+     * <p>
+     * M1: x1 = x1 + 0; <br>
+     * M2: Goto M1; <br>
+     * M3: Halt; <br>
+     */
+    @Test
+    void testHaltedEvent() throws IOException {
+        String code = "M1: x1 = x1 + 0;\nM2: Goto M1;\nM3: Halt;";
+
+        List<RecordedEvent> events = record(() -> assertInstanceOf(ErrorResponse.class,
+                controller.processCode(request(code, Map.of())).getBody()), code.hashCode());
+
+        assertEquals(3, events.size());
+        assertEquals("GOTO", events.get(0).getString("syntax"));
+        assertEquals(3, events.get(1).getInt("statementCount"));
+        RecordedEvent interpret = events.get(2);
+        assertEquals(INTERPRET, interpret.getEventType().getName());
+        assertTrue(interpret.getBoolean("halted"));
+        assertFalse(interpret.getBoolean("timedOut"));
+    }
+
+    /**
+     * Records the events of the pipeline while the action runs and returns those of the program in the order
+     * they started.
+     */
+    private static List<RecordedEvent> record(Action action, int programHash) throws IOException {
+        Path file = Files.createTempFile("lwg-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (String event : List.of(SCAN, PARSE, INTERPRET)) {
+                recording.enable(event);
+            }
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+            return RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getInt("programHash") == programHash)
+                    .sorted((first, second) -> first.getStartTime().compareTo(second.getStartTime()))
+                    .toList();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static CodeRequest request(String code, Map<String, Integer> variables) {
+        CodeRequest request = new CodeRequest();
+        request.setCode(code);
+        request.setVariables(variables);
+        return request;
+    }
+}
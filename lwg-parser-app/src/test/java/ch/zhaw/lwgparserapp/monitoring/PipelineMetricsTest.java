@@ -0,0 +1,78 @@
+package ch.zhaw.lwgparserapp.monitoring;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.token.Token;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the PipelineMetrics class
+ */
+class PipelineMetricsTest {
+    SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        ErrorHandler.clearErrors();
+    }
+
+    @AfterEach
+    void tearDown() {
+        PipelineMetrics.unbind();
+    }
+
+    /**
+     * Test that nothing is measured while no recorder is bound
+     */
+    @Test
+    void testDisabledByDefault() {
+        assertFalse(PipelineMetrics.isEnabled());
+        assertEquals(0L, PipelineMetrics.start());
+    }
+
+    /**
+     * Test that all stages of a run are recorded <br>
+     * <p>
+     * Program: <br>
+     * Loop x1 Do <br>
+     *   x0 = x0 + 1 <br>
+     * End <br>
+     */
+    @Test
+    void testStagesAreRecorded() {
+        PipelineMetrics.bind(new MicrometerMetricsRecorder(registry));
+        String source = """
+                x1 = x1 + 3;
+                Loop x1 Do
+                  x0 = x0 + 1
+                End
+                """;
+
+        List<Token> tokens = new LWScanner(source).scanProgram();
+        List<Statement> statements = new LWParser().parse(tokens);
+        new LWInterpreter(new Environment()).interpretAsync(statements).join();
+
+        assertFalse(ErrorHandler.hadError());
+        assertEquals(1, registry.get("lwg.pipeline.stage").tag("stage", "scan").timer().count());
+        assertEquals(1, registry.get("lwg.pipeline.stage").tag("stage", "parse").timer().count());
+        assertEquals(1, registry.get("lwg.pipeline.stage").tag("stage", "interpret").timer().count());
+        assertEquals(source.length(), registry.get("lwg.source.size").summary().totalAmount());
+        assertEquals(15, registry.get("lwg.scan.tokens").summary().totalAmount());
+        assertEquals(3, registry.get("lwg.parse.statements").summary().totalAmount());
+        // one assignment, one loop and three iterations of the loop body
+        assertEquals(5, registry.get("lwg.interpret.steps").summary().totalAmount());
+        assertEquals(0, registry.get("lwg.interpret.timeouts").counter().count());
+    }
+}
@@ -0,0 +1,339 @@
+package ch.zhaw.lwgparserapp.optimizer;
+
+import ch.zhaw.lwgparserapp.analysis.StepBound;
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.interpreter.Environment;
+import ch.zhaw.lwgparserapp.interpreter.LWBytecodeInterpreter;
+import ch.zhaw.lwgparserapp.interpreter.LWInterpreter;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Assignment;
+import ch.zhaw.lwgparserapp.syntax.generalsyntax.Operator;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.While;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the LWOptimizer class
+ */
+class LWOptimizerTest {
+
+    @BeforeEach
+    public void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * Additions and subtractions of the same variable are folded into one assignment at the line of the first one.
+     */
+    @Test
+    void testFoldConstants() {
+        List<Statement> optimized = optimize("""
+                x1 = x2 + 3;
+                x1 = x1 + 4;
+                x3 = x3 - 1;
+                x3 = x3 - 2
+                """);
+
+        assertEquals(List.of(new Assignment(1, 2, Operator.ADDITION, 7, 1),
+                new Assignment(3, 3, Operator.SUBTRACTION, 3, 3)), optimized);
+    }
+
+    /**
+     * Assignments without effect and assignments that are overwritten before they are read are removed.
+     * An overwritten addition may overflow and is kept.
+     */
+    @Test
+    void testRemoveNoOpsAndDeadStores() {
+        List<Statement> optimized = optimize("""
+                x4 = x4 + 0;
+                x1 = x2 - 1;
+                x4 = x4 + 1;
+                x1 = x5 + 0;
+                x6 = x2 + 1;
+                x6 = x2 + 2
+                """);
+
+        assertEquals(List.of(new Assignment(4, 4, Operator.ADDITION, 1, 3),
+                new Assignment(1, 5, Operator.ADDITION, 0, 4),
+                new Assignment(6, 2, Operator.ADDITION, 1, 5),
+                new Assignment(6, 2, Operator.ADDITION, 2, 6)), optimized);
+    }
+
+    /**
+     * An assignment is kept if a loop between it and the next assignment reads the variable.
+     */
+    @Test
+    void testKeepStoreReadInLoop() {
+        List<Statement> optimized = optimize("""
+                x1 = x2 - 1;
+                Loop x3 Do
+                  x4 = x1 + 1
+                End;
+                x1 = x2 - 2
+                """);
+
+        assertEquals(3, optimized.size());
+    }
+
+    /**
+     * Loops that run zero times or have an empty body are removed, a loop running once is replaced by its body.
+     * While loops are kept, as they may never end. A loop whose body only initialises a variable initialises it
+     * once if it runs.
+     */
+    @Test
+    void testRemoveLoops() {
+        List<Statement> optimized = optimize("""
+                Loop 0 Do x1 = x1 + 1 End;
+                Loop x2 Do x3 = x3 + 0 End;
+                Loop 1 Do x4 = x4 + 2 End;
+                Loop x4 Do End;
+                While x5 > 0 Do x6 = x6 - 0 End
+                """);
+
+        assertEquals(List.of(new HoistedLoop(List.of(new Assignment(3, 3, Operator.ADDITION, 0, 2)),
+                        new Loop(false, 2, List.of(), 2)),
+                new Assignment(4, 4, Operator.ADDITION, 2, 3),
+                new HoistedLoop(List.of(new Assignment(6, 6, Operator.ADDITION, 0, 5)), new While(5, 0, List.of(), 5))),
+                optimized);
+    }
+
+    /**
+     * A variable that only occurs in removed statements is initialised by a no-op at the start of the block,
+     * unless another statement of the block initialises it.
+     */
+    @Test
+    void testKeepInitialisations() {
+        List<Statement> optimized = optimize("""
+                x1 = x2 + 1;
+                x3 = x3 + 0;
+                Loop x4 Do End;
+                x5 = x6 - 1;
+                x5 = x1 - 2;
+                x1 = x1 + 0
+                """);
+
+        assertEquals(List.of(new Assignment(3, 3, Operator.ADDITION, 0, 2),
+                new Assignment(4, 4, Operator.ADDITION, 0, 3),
+                new Assignment(6, 6, Operator.ADDITION, 0, 4),
+                new Assignment(1, 2, Operator.ADDITION, 1, 1),
+                new Assignment(5, 1, Operator.SUBTRACTION, 2, 5)), optimized);
+    }
+
+    /**
+     * The optimised program returns the same variables as the program, also the variables of removed statements
+     * and of loop bodies that do not run.
+     */
+    @Test
+    void testSameVariables() {
+        Random random = new Random(44);
+        for (int i = 0; i < 500; i++) {
+            String program = randomBlock(random, 2);
+            List<Statement> statements = new LWParser().parse(new LWScanner(program).scanProgram());
+            List<Statement> optimized = LWOptimizer.optimize(statements);
+
+            for (Map<String, Integer> input : List.of(Map.of("x1", 2, "x2", 3), Map.of("x1", 0, "x2", 1))) {
+                Environment expected = new Environment(input, false);
+                new LWInterpreter(expected).interpret(statements);
+                Environment environment = new Environment(input, false);
+                new LWInterpreter(environment).interpret(optimized);
+
+                assertEquals(expected.getVariables(), environment.getVariables(), program);
+            }
+        }
+        assertFalse(ErrorHandler.hadError());
+    }
+
+    /**
+     * The bodies of loops are optimised and the optimised program computes the same variables in fewer steps.
+     */
+    @Test
+    void testSameResult() {
+        String program = """
+                x9 = x9 + 0;
+                Loop x1 Do
+                  x3 = x2 - 0;
+                  Loop x3 Do
+                    x0 = x0 + 1;
+                    x0 = x0 + 1
+                  End;
+                  Loop 1 Do x5 = x5 + 1 End
+                End;
+                While x4 > 0 Do
+                  x4 = x4 - 1;
+                  x4 = x4 - 1
+                End
+                """;
+        List<Statement> statements = new LWParser().parse(new LWScanner(program).scanProgram());
+        List<Statement> optimized = LWOptimizer.optimize(statements);
+
+        assertEquals(new Assignment(9, 9, Operator.ADDITION, 0, 1), optimized.getFirst());
+        assertInstanceOf(HoistedLoop.class, optimized.get(1));
+        Map<String, Integer> input = Map.of("x1", 7, "x2", 5, "x4", 9);
+        Environment originalEnvironment = new Environment(input, false);
+        LWInterpreter original = new LWInterpreter(originalEnvironment);
+        original.interpret(statements);
+        Environment optimizedEnvironment = new Environment(input, false);
+        LWInterpreter faster = new LWInterpreter(optimizedEnvironment);
+        faster.interpret(optimized);
+
+        assertFalse(ErrorHandler.hadError());
+        assertTrue(faster.getSteps() < original.getSteps());
+        assertEquals(70, optimizedEnvironment.getVariable(0));
+        assertEquals(originalEnvironment.getVariables(), optimizedEnvironment.getVariables());
+    }
+
+    /**
+     * The reads of a copy read its source until either variable is assigned, the copy is then overwritten
+     * before it is read and removed.
+     */
+    @Test
+    void testPropagateCopies() {
+        List<Statement> optimized = optimize("""
+                x3 = x2 + 0;
+                x4 = x3 + 1;
+                Loop x3 Do
+                  x5 = x3 + 1
+                End;
+                x2 = x3 + 1;
+                x3 = x1 - 2
+                """);
+
+        assertEquals(List.of(new Assignment(4, 2, Operator.ADDITION, 1, 2),
+                new Loop(false, 2, List.of(new Assignment(5, 2, Operator.ADDITION, 1, 4)), 3),
+                new Assignment(2, 2, Operator.ADDITION, 1, 6),
+                new Assignment(3, 1, Operator.SUBTRACTION, 2, 7)), optimized);
+    }
+
+    /**
+     * An assignment whose source the body never assigns is hoisted out of the loop, from the innermost loop
+     * outwards. Assignments whose source is assigned, that are read before, that may overflow or that assign
+     * the condition stay in the body.
+     */
+    @Test
+    void testHoistInvariants() {
+        List<Statement> optimized = optimize("""
+                Loop x1 Do
+                  Loop x2 Do
+                    x3 = x1 - 1;
+                    x0 = x0 + 1
+                  End;
+                  x4 = x5 - 2;
+                  x6 = x4 - 0;
+                  x7 = x7 + 1;
+                  x8 = x5 + 1
+                End;
+                While x9 > 0 Do
+                  x9 = x11 - 0;
+                  x12 = x11 - 1;
+                  x14 = x13 - 3;
+                  x13 = x11 - 2
+                End
+                """);
+
+        Loop inner = new Loop(false, 2, List.of(new Assignment(0, 0, Operator.ADDITION, 1, 4)), 2);
+        Loop outer = new Loop(false, 1, List.of(
+                new HoistedLoop(List.of(new Assignment(3, 1, Operator.SUBTRACTION, 1, 3)), inner),
+                new Assignment(6, 4, Operator.SUBTRACTION, 0, 7),
+                new Assignment(7, 7, Operator.ADDITION, 1, 8),
+                new Assignment(8, 5, Operator.ADDITION, 1, 9)), 1);
+        While whileStatement = new While(9, 0, List.of(new Assignment(9, 11, Operator.SUBTRACTION, 0, 12),
+                new Assignment(14, 13, Operator.SUBTRACTION, 3, 14),
+                new Assignment(13, 11, Operator.SUBTRACTION, 2, 15)), 11);
+        assertEquals(List.of(new HoistedLoop(List.of(new Assignment(4, 5, Operator.SUBTRACTION, 2, 6)), outer),
+                new HoistedLoop(List.of(new Assignment(12, 11, Operator.SUBTRACTION, 1, 13)), whileStatement)),
+                optimized);
+    }
+
+    /**
+     * Hoisted loops compute the same variables on every engine, also if they do not run, in fewer steps.
+     * The step bound of a hoisted Loop statement is exact.
+     */
+    @Test
+    void testHoistedLoopsOnAllEngines() {
+        String program = """
+                Loop x1 Do
+                  x4 = x2 + 0;
+                  Loop x4 Do
+                    x5 = x2 - 1;
+                    x0 = x0 + 1
+                  End
+                End;
+                While x6 > 0 Do
+                  x7 = x1 - 0;
+                  x6 = x6 - 1
+                End
+                """;
+        List<Statement> statements = new LWParser().parse(new LWScanner(program).scanProgram());
+        List<Statement> optimized = LWOptimizer.optimize(statements);
+        assertInstanceOf(HoistedLoop.class, optimized.getFirst());
+        Map<String, Function<Environment, LWInterpreter>> engines = Map.of(
+                "interpreter", environment -> {
+                    LWInterpreter interpreter = new LWInterpreter(environment);
+                    interpreter.setTierUpThreshold(0);
+                    return interpreter;
+                },
+                "tiered", environment -> {
+                    LWInterpreter interpreter = new LWInterpreter(environment);
+                    interpreter.setTierUpThreshold(2);
+                    return interpreter;
+                },
+                "bytecode", LWBytecodeInterpreter::new);
+
+        for (Map<String, Integer> input : List.of(Map.of("x1", 6, "x2", 4, "x6", 3),
+                Map.of("x1", 0, "x2", 4, "x4", 9, "x5", 9, "x6", 0, "x7", 9))) {
+            Environment expected = new Environment(input, false);
+            LWInterpreter original = new LWInterpreter(expected);
+            original.interpret(statements);
+            for (String engine : engines.keySet()) {
+                Environment environment = new Environment(input, false);
+                LWInterpreter interpreter = engines.get(engine).apply(environment);
+                interpreter.interpret(optimized);
+
+                assertEquals(expected.getVariables(), environment.getVariables(), engine);
+                assertTrue(interpreter.getSteps() <= original.getSteps(), engine);
+            }
+        }
+        assertFalse(ErrorHandler.hadError());
+
+        List<Statement> loop = optimized.subList(0, 1);
+        LWInterpreter interpreter = new LWInterpreter(new Environment(Map.of("x1", 6, "x2", 4), false));
+        interpreter.interpret(loop);
+        StepBound bound = StepBound.analyze(loop, Map.of(1, 6, 2, 4));
+        assertEquals(new StepBound(interpreter.getSteps(), true), bound);
+    }
+
+    /**
+     * Generates a block of assignments and loops. The loops count to a constant or to x1 or x2,
+     * which are never assigned, so every program ends quickly.
+     */
+    private static String randomBlock(Random random, int depth) {
+        StringBuilder block = new StringBuilder();
+        int length = random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            if (i > 0) block.append(";\n");
+            if (depth > 0 && random.nextInt(3) == 0) {
+                String count = random.nextBoolean() ? String.valueOf(random.nextInt(3)) : "x" + (1 + random.nextInt(2));
+                block.append("Loop ").append(count).append(" Do\n").append(randomBlock(random, depth - 1))
+                        .append("\nEnd");
+            } else {
+                block.append('x').append(3 + random.nextInt(4)).append(" = x").append(1 + random.nextInt(6))
+                        .append(random.nextBoolean() ? " + " : " - ").append(random.nextInt(3));
+            }
+        }
+        return block.toString();
+    }
+
+    private static List<Statement> optimize(String program) {
+        return LWOptimizer.optimize(new LWParser().parse(new LWScanner(program).scanProgram()));
+    }
+}
@@ -0,0 +1,220 @@
+package ch.zhaw.lwgparserapp.parser;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.scanner.GOTOScanner;
+import ch.zhaw.lwgparserapp.scanner.LWScanner;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.lwsyntax.Loop;
+import ch.zhaw.lwgparserapp.token.Token;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the IncrementalParser class
+ */
+class IncrementalParserTest {
+    private static final String LW_PROGRAM = """
+            x1 = x1 + 1;
+            x2 = x2 + 2;
+            Loop x1 Do
+              x3 = x3 + 1;
+              x4 = x4 + 1;
+              While x5 > 0 Do
+                x5 = x5 - 1
+              End
+            End;
+            x6 = x6 + 6""";
+    private static final String GOTO_PROGRAM = """
+            M1: x1 = x1 + 1;
+            M2: If x2 = 0 Then Goto M4;
+
+            M3: x2 = x2 - 1;
+            M4: Goto M5;
+            M5: Halt;""";
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * Changing a constant rescans and reparses its line only, the other statements are reused.
+     */
+    @Test
+    void testEditLineReusesStatements() {
+        IncrementalParser parser = new IncrementalParser(Syntax.LW, LW_PROGRAM);
+        List<Statement> before = parser.getStatements();
+
+        List<Statement> after = parser.edit(new TextEdit(2, 11, 2, 12, "5"));
+
+        assertEquals(1, parser.getRescannedLines());
+        assertEquals(1, parser.getReparsedLines());
+        assertSame(before.get(0), after.get(0));
+        assertSame(before.get(2), after.get(2));
+        assertMatchesFullParse(parser);
+    }
+
+    /**
+     * A change inside the body of a loop only parses the affected statement of the body.
+     */
+    @Test
+    void testEditInLoopBody() {
+        IncrementalParser parser = new IncrementalParser(Syntax.LW, LW_PROGRAM);
+        List<Statement> before = parser.getStatements();
+
+        List<Statement> after = parser.edit(new TextEdit(7, 15, 7, 16, "3"));
+
+        assertEquals(1, parser.getReparsedLines());
+        Loop loop = (Loop) after.get(2);
+        assertSame(((Loop) before.get(2)).statements().get(0), loop.statements().get(0));
+        assertSame(before.get(3), after.get(3));
+        assertMatchesFullParse(parser);
+    }
+
+    /**
+     * Inserted lines move the following statements, which are not parsed again.
+     */
+    @Test
+    void testInsertLines() {
+        IncrementalParser parser = new IncrementalParser(Syntax.LW, LW_PROGRAM);
+
+        parser.edit(new TextEdit(1, 13, 1, 13, "\nx7 = x7 + 7;\n"));
+
+        assertEquals(3, parser.getRescannedLines());
+        assertTrue(parser.getReparsedLines() <= 3);
+        assertEquals(4, parser.getStatements().get(2).line());
+        assertEquals(12, parser.getStatements().getLast().line());
+        assertMatchesFullParse(parser);
+    }
+
+    /**
+     * Errors are reported like a full parse and the program is parsed incrementally again once they are fixed.
+     */
+    @Test
+    void testErrors() {
+        IncrementalParser parser = new IncrementalParser(Syntax.LW, LW_PROGRAM);
+
+        parser.edit(new TextEdit(9, 4, 9, 5, ""));
+        assertFalse(parser.getErrors().isEmpty());
+        assertMatchesFullParse(parser);
+
+        parser.edit(new TextEdit(9, 4, 9, 4, ";"));
+        assertTrue(parser.getErrors().isEmpty());
+        // the Loop statement ending on the fixed line is parsed again
+        assertEquals(7, parser.getReparsedLines());
+        assertMatchesFullParse(parser);
+
+        parser.edit(new TextEdit(1, 6, 1, 8, "y"));
+        assertEquals(1, parser.getErrors().size());
+        assertTrue(parser.getStatements().isEmpty());
+        assertMatchesFullParse(parser);
+
+        parser.edit(new TextEdit(1, 6, 1, 7, "x1"));
+        assertTrue(parser.getErrors().isEmpty());
+        assertEquals(1, parser.getReparsedLines());
+        assertMatchesFullParse(parser);
+    }
+
+    /**
+     * GOTO programs keep their empty lines and the markers are checked across the whole program.
+     */
+    @Test
+    void testGoto() {
+        IncrementalParser parser = new IncrementalParser(Syntax.GOTO, GOTO_PROGRAM);
+
+        parser.edit(new TextEdit(4, 15, 4, 16, "2"));
+        // the empty line before the statement is parsed with it
+        assertEquals(2, parser.getReparsedLines());
+        assertMatchesFullParse(parser);
+
+        parser.edit(new TextEdit(6, 2, 6, 3, "6"));
+        assertFalse(parser.getErrors().isEmpty());
+        assertMatchesFullParse(parser);
+
+        parser.edit(new TextEdit(3, 1, 3, 1, "\n"));
+        assertMatchesFullParse(parser);
+    }
+
+    /**
+     * Random edits give the same statements and errors as scanning and parsing the whole source.
+     */
+    @Test
+    void testRandomEdits() {
+        Random random = new Random(46);
+        List<String> lwSnippets = List.of("x1 = x1 + 1;", "x2 = x3 - 4", ";", "\n", "Loop x2 Do\n", "\nEnd",
+                "While x3 > 0 Do ", " End;", "7", "x", " ", "// note", "\n  x4 = x4 + 1;\n");
+        List<String> gotoSnippets = List.of("M7: x1 = x1 + 1;\n", "M8: Goto M1;\n", "M9: If x1 = 0 Then Goto M5;\n",
+                "\n", ";", "1", "M", " ", "Halt", "// note");
+        for (Syntax syntax : List.of(Syntax.LW, Syntax.GOTO)) {
+            String program = syntax == Syntax.LW ? LW_PROGRAM : GOTO_PROGRAM;
+            List<String> snippets = syntax == Syntax.LW ? lwSnippets : gotoSnippets;
+            for (int round = 0; round < 20; round++) {
+                IncrementalParser parser = new IncrementalParser(syntax, program);
+                for (int i = 0; i < 30; i++) {
+                    String source = parser.getSource();
+                    int start = random.nextInt(source.length() + 1);
+                    int end = random.nextInt(4) == 0 ? Math.min(source.length(), start + random.nextInt(12)) : start;
+                    String text = random.nextInt(3) == 0 ? "" : snippets.get(random.nextInt(snippets.size()));
+                    parser.edit(edit(source, start, end, text));
+
+                    assertEquals(source.substring(0, start) + text + source.substring(end), parser.getSource());
+                    assertMatchesFullParse(parser);
+                }
+            }
+        }
+    }
+
+    private static TextEdit edit(String source, int start, int end, String text) {
+        int[] from = position(source, start);
+        int[] to = position(source, end);
+        return new TextEdit(from[0], from[1], to[0], to[1], text);
+    }
+
+    private static int[] position(String source, int offset) {
+        int line = 1;
+        int lineStart = 0;
+        for (int i = 0; i < offset; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+                lineStart = i + 1;
+            }
+        }
+        return new int[]{line, offset - lineStart + 1};
+    }
+
+    private static void assertMatchesFullParse(IncrementalParser parser) {
+        List<String> errors = parser.getErrors().stream().map(ParseError::toString).toList();
+        String source = parser.getSource();
+        ErrorHandler.clearErrors();
+        List<Token> tokens = parser.getSyntax() == Syntax.LW
+                ? new LWScanner(source).scanProgram()
+                : new GOTOScanner(source).scanProgram();
+        List<Statement> statements = List.of();
+        Map<Integer, Integer> markerLineMap = Map.of();
+        if (!ErrorHandler.hadError()) {
+            if (parser.getSyntax() == Syntax.LW) {
+                statements = new LWParser().parse(tokens);
+            } else {
+                GOTOParser gotoParser = new GOTOParser();
+                statements = gotoParser.parse(tokens);
+                markerLineMap = gotoParser.getMarkerLineMap();
+            }
+        }
+
+        assertEquals(ErrorHandler.getErrors().stream().map(ParseError::toString).toList(), errors, source);
+        if (errors.isEmpty()) {
+            assertEquals(statements, parser.getStatements(), source);
+            assertEquals(markerLineMap, parser.getMarkerLineMap(), source);
+        } else {
+            assertTrue(parser.getStatements().isEmpty(), source);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.MalformedInputException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the CharSource class
+ */
+class CharSourceTest {
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * Every source reads the lines of splitting the code at "\n", also lines longer than a buffer
+     * and lines with characters that are not ASCII.
+     */
+    @Test
+    void testSameLinesAsSplit() {
+        Random random = new Random(50);
+        List<String> words = List.of("Loop", "x1", "=", "+", "1;", " ", "\t", "\r\n", "\n", "\n\n", "é", "€", "🙂",
+                "x".repeat(10_000));
+        for (int i = 0; i < 300; i++) {
+            StringBuilder code = new StringBuilder();
+            int length = random.nextInt(20);
+            for (int j = 0; j < length; j++) {
+                code.append(words.get(random.nextInt(words.size())));
+            }
+            String source = code.toString();
+            List<String> expected = List.of(source.split("\n", -1));
+
+            assertEquals(expected, lines(CharSource.of(source)), source);
+            assertEquals(expected, lines(CharSource.of(new StringReader(source))), source);
+            assertEquals(expected, lines(new MappedCharSource(
+                    ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)))), source);
+        }
+    }
+
+    /**
+     * A source has no line after the last one.
+     */
+    @Test
+    void testNoLineLeft() {
+        CharSource source = CharSource.of("");
+        assertTrue(source.hasNextLine());
+        assertEquals("", source.nextLine());
+        assertFalse(source.hasNextLine());
+        assertThrows(NoSuchElementException.class, source::nextLine);
+    }
+
+    /**
+     * A program is parsed from a mapped file like from the String of the file.
+     */
+    @Test
+    void testParseMappedFile() throws IOException {
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            code.append("Loop x1 Do\n  x2 = x2 + ").append(i).append("\nEnd;\n");
+        }
+        code.append("x3 = x2 + 1 // done");
+        Path file = Files.writeString(Files.createTempFile("lwg-mapped", ".lw"), code);
+
+        List<Statement> expected = new LWParser().parse(new SyntaxScanner(code.toString()).scanProgram());
+        try (FileChannel channel = FileChannel.open(file)) {
+            assertTrue(channel.size() >= CharSource.MAP_THRESHOLD);
+            TokenStream tokens = new TokenStream(CharSource.map(channel));
+            assertEquals(expected, new LWParser().parse(tokens));
+            assertEquals(code.toString().hashCode(), tokens.getSourceHash());
+            assertEquals(code.length(), tokens.getSourceSize());
+        }
+        assertFalse(ErrorHandler.hadError());
+    }
+
+    /**
+     * Malformed UTF-8 is reported by the reader of a small file and by a mapped file alike, also in a line that
+     * continues in the next chunk of the mapped file, and is never replaced.
+     */
+    @Test
+    void testMalformedFile() throws IOException {
+        for (long size : new long[]{100, CharSource.MAP_THRESHOLD, CharSource.MAP_THRESHOLD + 8190}) {
+            String lines = "x1 = x1 + 1;\n".repeat((int) (size / 13) + 1) + "x2 = x2 + 1 // ";
+            byte[] code = lines.getBytes(StandardCharsets.UTF_8);
+            code = Arrays.copyOf(code, code.length + 3);
+            code[code.length - 3] = (byte) 0xC3;
+            code[code.length - 2] = '(';
+            code[code.length - 1] = (byte) 0xFF;
+            Path file = Files.write(Files.createTempFile("lwg-malformed", ".lw"), code);
+            try (FileChannel channel = FileChannel.open(file)) {
+                CharSource source = CharSource.of(channel);
+                UncheckedIOException e = assertThrows(UncheckedIOException.class, () -> lines(source));
+                assertInstanceOf(MalformedInputException.class, e.getCause(), "size " + code.length);
+                assertEquals("Input length = 1", e.getCause().getMessage());
+            } finally {
+                Files.delete(file);
+            }
+        }
+    }
+
+    private static List<String> lines(CharSource source) {
+        List<String> lines = new ArrayList<>();
+        while (source.hasNextLine()) {
+            lines.add(source.nextLine());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,141 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.syntax.SyntaxDetector;
+import ch.zhaw.lwgparserapp.token.Token;
+import ch.zhaw.lwgparserapp.token.TokenType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the SyntaxScanner class
+ */
+class SyntaxScannerTest {
+    // the patterns the syntax was detected with before it was detected while scanning
+    private static final Pattern GOTO_PATTERN = Pattern.compile("\\bgoto\\b|\\bm\\d+\\b|\\bif\\b|\\bhalt\\b",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHILE_PATTERN = Pattern.compile("\\bloop\\b|\\bwhile\\b|\\bdo\\b|\\bend\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * Lines before the first keyword are scanned with the scanner of the syntax the keyword decides. <br>
+     * <p>
+     * Program: <br>
+     * x1 = x1 + 1; <br>
+     * M1: If x1 = 0 Then Goto M1; <br>
+     * M2: Halt; <br>
+     */
+    @Test
+    void testGotoProgram() {
+        String source = "x1 = x1 + 1;\nM1: If x1 = 0 Then Goto M1;\nM2: Halt;";
+        SyntaxScanner scanner = new SyntaxScanner(source);
+
+        List<Token> tokens = scanner.scanProgram();
+
+        assertEquals(Syntax.GOTO, scanner.getSyntax());
+        assertFalse(ErrorHandler.hadError());
+        assertTokens(new GOTOScanner(source).scanProgram(), tokens);
+        assertEquals(TokenType.VARIABLE, tokens.getFirst().type);
+        assertEquals(3, tokens.getLast().line);
+    }
+
+    /**
+     * Code without keywords is scanned as LW code, so "&gt;" is a token and "Then" is an error.
+     */
+    @Test
+    void testCodeWithoutKeywords() {
+        SyntaxScanner valid = new SyntaxScanner("x1 = x2 + 1;\nx2 = x1 - 1 >");
+        assertEquals(12, valid.scanProgram().size());
+        assertEquals(Syntax.LW, valid.getSyntax());
+        assertFalse(ErrorHandler.hadError());
+
+        SyntaxScanner invalid = new SyntaxScanner("x1 = x2 + 1;\nThen");
+        assertTrue(invalid.scanProgram().isEmpty());
+        assertEquals(Syntax.LW, invalid.getSyntax());
+        assertEquals(1, ErrorHandler.getErrors().size());
+        assertEquals(2, ErrorHandler.getErrors().getFirst().getLine());
+        assertEquals("Unexpected token 'Then'", ErrorHandler.getErrors().getFirst().getMessage());
+    }
+
+    /**
+     * Mixed code reports no scanning errors of the lines scanned before the other syntax showed up.
+     */
+    @Test
+    void testMixedCode() {
+        SyntaxScanner scanner = new SyntaxScanner("Loop x1 Do x2 = x2 + ?\nEnd;\nM1: Halt");
+
+        assertTrue(scanner.scanProgram().isEmpty());
+        assertEquals(Syntax.MIXED, scanner.getSyntax());
+        assertFalse(ErrorHandler.hadError());
+    }
+
+    /**
+     * The syntax, tokens and errors are the same as when the syntax is detected with the keyword patterns
+     * and the code is scanned with the scanner of that syntax afterwards.
+     */
+    @Test
+    void testSameAsDetectingBeforeScanning() {
+        Random random = new Random(48);
+        List<String> words = List.of("Loop", "loop", "While", "Do", "do_", "End", "END", "Goto", "If", "iF", "Then",
+                "Halt", "M1", "m12:", "M1a", "M", "x1", "x2;", "5", "=", "+", "-", ">", ";", "//", "?", "é", "Ende",
+                "x1=Loop", "_if", "١", " ", " ", "\t", "\n", "\n");
+        for (int i = 0; i < 2000; i++) {
+            StringBuilder code = new StringBuilder();
+            int length = random.nextInt(30);
+            for (int j = 0; j < length; j++) {
+                code.append(words.get(random.nextInt(words.size())));
+                if (random.nextBoolean()) code.append(' ');
+            }
+            String source = code.toString();
+
+            Syntax expected = detectWithPatterns(source);
+            assertEquals(expected, SyntaxDetector.detectSyntax(source), source);
+
+            ErrorHandler.clearErrors();
+            SyntaxScanner scanner = new SyntaxScanner(source);
+            List<Token> tokens = scanner.scanProgram();
+            List<String> errors = ErrorHandler.getErrors().stream().map(ParseError::toString).toList();
+            assertEquals(expected, scanner.getSyntax(), source);
+            if (expected == Syntax.MIXED) {
+                assertTrue(tokens.isEmpty());
+                assertTrue(errors.isEmpty());
+                continue;
+            }
+
+            ErrorHandler.clearErrors();
+            List<Token> expectedTokens = (expected == Syntax.GOTO ? new GOTOScanner(source) : new LWScanner(source))
+                    .scanProgram();
+            assertEquals(ErrorHandler.getErrors().stream().map(ParseError::toString).toList(), errors, source);
+            assertTokens(expectedTokens, tokens);
+        }
+    }
+
+    private static Syntax detectWithPatterns(String source) {
+        boolean gotoKeywords = GOTO_PATTERN.matcher(source).find();
+        boolean lwKeywords = WHILE_PATTERN.matcher(source).find();
+        if (!gotoKeywords) return Syntax.LW;
+        return lwKeywords ? Syntax.MIXED : Syntax.GOTO;
+    }
+
+    private static void assertTokens(List<Token> expected, List<Token> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).type, actual.get(i).type);
+            assertEquals(expected.get(i).line, actual.get(i).line);
+            assertEquals(expected.get(i).value, actual.get(i).value);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ch.zhaw.lwgparserapp.scanner;
+
+import ch.zhaw.lwgparserapp.error.ErrorHandler;
+import ch.zhaw.lwgparserapp.error.ParseError;
+import ch.zhaw.lwgparserapp.parser.GOTOParser;
+import ch.zhaw.lwgparserapp.parser.LWParser;
+import ch.zhaw.lwgparserapp.syntax.Statement;
+import ch.zhaw.lwgparserapp.syntax.Syntax;
+import ch.zhaw.lwgparserapp.token.Token;
+import ch.zhaw.lwgparserapp.token.TokenType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the TokenStream class
+ */
+class TokenStreamTest {
+
+    @BeforeEach
+    void setUp() {
+        ErrorHandler.clearErrors();
+    }
+
+    /**
+     * The parsers read the same statements from a stream as from the scanned program.
+     */
+    @Test
+    void testParseStream() {
+        String lw = "x1 = x1 + 1;\nLoop x1 Do\n  While x2 > 0 Do x2 = x2 - 1 End;\n  x3 = x3 + 2\nEnd";
+        List<Statement> expectedLW = new LWParser().parse(new SyntaxScanner(lw).scanProgram());
+        TokenStream lwTokens = new TokenStream(new StringReader(lw));
+        assertEquals(Syntax.LW, lwTokens.getSyntax());
+        assertEquals(expectedLW, new LWParser().parse(lwTokens));
+
+        String gotoCode = "M1: x1 = x1 + 1;\n\nM2: If x1 = 3 Then Goto M4;\nM3: Goto M1;\nM4: Halt;";
+        List<Statement> expectedGOTO = new GOTOParser().parse(new SyntaxScanner(gotoCode).scanProgram());
+        TokenStream gotoTokens = TokenStream.of(Channels.newChannel(
+                new ByteArrayInputStream(gotoCode.getBytes(StandardCharsets.UTF_8))));
+        assertEquals(Syntax.GOTO, gotoTokens.getSyntax());
+        assertEquals(expectedGOTO, new GOTOParser().parse(gotoTokens));
+
+        assertFalse(ErrorHandler.hadError());
+        assertEquals(gotoCode.hashCode(), gotoTokens.getSourceHash());
+        assertEquals(gotoCode.length(), gotoTokens.getSourceSize());
+    }
+
+    /**
+     * Only the lines up to the tokens the parser asks for are read.
+     */
+    @Test
+    void testReadOnlyWhatIsNeeded() {
+        CountingReader reader = new CountingReader(100_000);
+        TokenStream tokens = new TokenStream(reader);
+
+        assertEquals(Syntax.LW, tokens.getSyntax());
+        assertEquals(TokenType.LOOP, tokens.getFirst().type);
+        assertTrue(reader.read < 10_000, "read " + reader.read + " characters");
+
+        for (int i = 0; i < 50_000; i++) {
+            tokens.removeFirst();
+        }
+        assertTrue(reader.read < 100_000 * CountingReader.LINE.length() / 2, "read " + reader.read + " characters");
+    }
+
+    /**
+     * A keyword of the other syntax ends the stream with MIXED syntax.
+     */
+    @Test
+    void testMixedSyntax() {
+        TokenStream tokens = new TokenStream(new StringReader("Loop x1 Do\nx2 = x2 + 1\nEnd;\nM1: Halt;\nx1 = x1 + 1"));
+
+        assertEquals(Syntax.LW, tokens.getSyntax());
+        List<Token> read = drain(tokens);
+
+        assertEquals(Syntax.MIXED, tokens.getSyntax());
+        assertTrue(read.size() <= 12);
+        assertFalse(tokens.keepScanErrors());
+    }
+
+    /**
+     * The errors of a parser that read lines with scanning errors are replaced with the scanning errors.
+     */
+    @Test
+    void testKeepScanErrors() {
+        TokenStream tokens = new TokenStream(new StringReader("x1 = x1 + ?;\nLoop x1 Do\nx2 = x2 + 1"));
+
+        new LWParser().parse(tokens);
+        assertTrue(ErrorHandler.getErrors().size() > 1);
+
+        assertTrue(tokens.keepScanErrors());
+        assertEquals(List.of("[line 1] Unexpected token '?;'"),
+                ErrorHandler.getErrors().stream().map(ParseError::toString).toList());
+    }
+
+    /**
+     * The stream returns the tokens, errors and syntax of the SyntaxScanner.
+     */
+    @Test
+    void testSameAsSyntaxScanner() {
+        Random random = new Random(49);
+        List<String> words = List.of("Loop", "While", "Do", "End;", "Goto", "If", "Then", "Halt;", "M1:", "M2",
+                "x1", "x2;", "5", "=", "+", "-", ">", "//", "?", " ", "\n", "\n", "\r\n");
+        for (int i = 0; i < 1000; i++) {
+            StringBuilder code = new StringBuilder();
+            int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                code.append(words.get(random.nextInt(words.size()))).append(' ');
+            }
+            String source = code.toString();
+
+            ErrorHandler.clearErrors();
+            SyntaxScanner scanner = new SyntaxScanner(source);
+            List<Token> expected = new ArrayList<>(scanner.scanProgram());
+            List<String> expectedErrors = ErrorHandler.getErrors().stream().map(ParseError::toString).toList();
+
+            ErrorHandler.clearErrors();
+            TokenStream tokens = new TokenStream(new StringReader(source));
+            List<Token> read = drain(tokens);
+            assertEquals(scanner.getSyntax(), tokens.getSyntax(), source);
+            if (scanner.getSyntax() == Syntax.MIXED) continue;
+            tokens.keepScanErrors();
+            assertEquals(expectedErrors, ErrorHandler.getErrors().stream().map(ParseError::toString).toList(), source);
+            if (!expectedErrors.isEmpty()) continue;
+            assertEquals(expected.size(), read.size(), source);
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.get(j).type, read.get(j).type, source);
+                assertEquals(expected.get(j).line, read.get(j).line, source);
+                assertEquals(expected.get(j).value, read.get(j).value, source);
+            }
+            assertEquals(source.hashCode(), tokens.getSourceHash());
+        }
+    }
+
+    private static List<Token> drain(TokenStream tokens) {
+        List<Token> read = new ArrayList<>();
+        while (!tokens.isEmpty()) {
+            read.add(tokens.removeFirst());
+        }
+        return read;
+    }
+
+    /**
+     * Generates a long LW program and counts the characters that were read.
+     */
+    private static final class CountingReader extends Reader {
+        static final String LINE = "Loop x1 Do x2 = x2 + 1 End;\n";
+        private final long length;
+        private int read;
+
+        CountingReader(int lines) {
+            this.length = (long) lines * LINE.length();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int count) {
+            if (read >= length) return -1;
+            int n = (int) Math.min(count, length - read);
+            for (int i = 0; i < n; i++) {
+                buffer[offset + i] = LINE.charAt((read + i) % LINE.length());
+            }
+            read += n;
+            return n;
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package ch.zhaw.lwgparserapp.startup;
+
+import ch.zhaw.lwgparserapp.cli.ProgramRunner;
+import ch.zhaw.lwgparserapp.cli.RunResult;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test the startup warm-up
+ */
+class WarmupTest {
+
+    /**
+     * The programs of the warm-up run without errors and compute the expected results.
+     */
+    @Test
+    void testWorkloadPrograms() {
+        ProgramRunner runner = new ProgramRunner(10);
+
+        RunResult lw = runner.run("warmup.lw", Warmup.LW_PROGRAM, Warmup.LW_INPUT);
+        assertTrue(lw.success(), lw.errors().toString());
+        assertEquals(5000, lw.variables().get(0));
+        assertEquals(0, lw.variables().get(3));
+
+        RunResult gotoResult = runner.run("warmup.goto", Warmup.GOTO_PROGRAM, Warmup.GOTO_INPUT);
+        assertTrue(gotoResult.success(), gotoResult.errors().toString());
+        assertEquals(4000, gotoResult.variables().get(0));
+    }
+
+    /**
+     * Every round of the warm-up executes the same number of steps.
+     */
+    @Test
+    void testRunRounds() {
+        long steps = Warmup.run(1);
+
+        assertTrue(steps > 10_000);
+        assertEquals(2 * steps, Warmup.run(2));
+    }
+
+    /**
+     * Waiting for a warm-up that was never started returns at once.
+     */
+    @Test
+    void testAwaitWithoutStart() {
+        assertEquals(Duration.ZERO, Warmup.await());
+    }
+}